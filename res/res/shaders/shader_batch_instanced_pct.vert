@@ -0,0 +1,35 @@
+#version 150 core
+
+uniform mat4 projectionMatrix;
+uniform mat4 viewMatrix;
+uniform mat4 modelMatrix;
+
+// per vertex: the corner of the unit quad, (0,0) (0,1) (1,1) (1,0) for the vertices 0 to 3 of TextureBatchPCT.drawAroundCenter
+in vec2 inCorner;
+
+// per instance (see SpriteInstanceWriter)
+in vec3 inPosition;
+in vec2 inSize;
+in float inRotation;
+in vec2 inOrigin;
+in vec4 inColor;
+in vec4 inUvRect;
+in float inTexIndex;
+
+out vec4 passColor;
+out vec2 passTexCoord;
+out float passTextureIndex;
+
+void main() {
+	vec2 localPosition = vec2(inCorner.x - 0.5, 0.5 - inCorner.y) * inSize + inOrigin;
+
+	float s = sin(inRotation);
+	float c = cos(inRotation);
+	vec2 worldPosition = inPosition.xy + vec2(localPosition.x * c - localPosition.y * s, localPosition.x * s + localPosition.y * c);
+
+	gl_Position = projectionMatrix * viewMatrix * modelMatrix * vec4(worldPosition, inPosition.z, 1.0);
+
+	passColor = inColor;
+	passTexCoord = mix(inUvRect.xy, inUvRect.zw, inCorner);
+	passTextureIndex = inTexIndex;
+}
\ No newline at end of file
@@ -55,43 +55,15 @@ public class ParticleFrameworkController extends BaseController {
 		if (!isInitialized())
 			return;
 
-		final var lEmitterInstanceList = mParticleFrameworkData.particleEmitterManager().emitterInstances();
-		final var lSystemInstanceList = mParticleFrameworkData.particleSystemManager().particleSystems();
+		final var lParticleBudget = mParticleFrameworkData.particleBudget();
+		final var lParticleSystemManager = mParticleFrameworkData.particleSystemManager();
 
-		final int lNumParticleEmitters = lEmitterInstanceList.size();
-		for (int i = 0; i < lNumParticleEmitters; i++) {
-			final var lParticleEmitterInstance = lEmitterInstanceList.get(i);
-			if (!lParticleEmitterInstance.isAssigned())
-				continue;
+		final var lGameCamera = core.gameCamera();
+		lParticleBudget.beginFrame(lGameCamera != null ? lGameCamera.boundingRectangle() : null, lParticleSystemManager);
 
-			if (!lParticleEmitterInstance.isEnabled())
-				continue;
+		mParticleFrameworkData.particleEmitterManager().update(core);
+		lParticleSystemManager.update(core);
 
-			if (lParticleEmitterInstance.parentEmitterInst() != null) {
-				final var lParentInst = lParticleEmitterInstance.parentEmitterInst();
-
-				if (!lParentInst.isEnabled())
-					continue;
-
-				final var lEmitterDef = lParticleEmitterInstance.emitterDefinition();
-
-				lParticleEmitterInstance.aabb.x(lParentInst.aabb.x() + lEmitterDef.positionRelOffsetX);
-				lParticleEmitterInstance.aabb.y(lParentInst.aabb.y() + lEmitterDef.positionRelOffsetY);
-				lParticleEmitterInstance.zDepth = lParentInst.zDepth;
-				lParticleEmitterInstance.globalRotRads = lParentInst.globalRotRads + lEmitterDef.positionRelOffsetRot;
-
-			}
-
-			lParticleEmitterInstance.update(core);
-		}
-
-		final int lNumParticleSystems = lSystemInstanceList.size();
-		for (int i = 0; i < lNumParticleSystems; i++) {
-			final var lParticleSystemInstance = lSystemInstanceList.get(i);
-			if (!lParticleSystemInstance.isAssigned())
-				continue;
-
-			lParticleSystemInstance.update(core);
-		}
+		lParticleBudget.enforce(lParticleSystemManager);
 	}
 }
@@ -32,6 +32,7 @@ public class DebugPhysicsWorldWatcher extends BaseController {
 
 	private DebugStatTagCaption mDebugStatPhysicsCaption;
 	private DebugStatTagInt mDebugStatsNumBodies;
+	private DebugStatTagInt mDebugStatsNumAwakeBodies;
 	private DebugStatTagFloat mDebugStepTimeInMm;
 	private DebugStatTagInt mDebugNumIterations;
 	private DebugStatTagInt mNumSpatialCells;
@@ -85,6 +86,7 @@ public class DebugPhysicsWorldWatcher extends BaseController {
 				mDebugStatPhysicsCaption.setLabel("Physics: ");
 			}
 			mDebugStatsNumBodies = new DebugStatTagInt("Num Bodies", 0, false);
+			mDebugStatsNumAwakeBodies = new DebugStatTagInt("Awake Bodies", 0, false);
 			mDebugStepTimeInMm = new DebugStatTagFloat("step", 0.0f, false);
 			mDebugNumIterations = new DebugStatTagInt("Num Iterations", 0, false);
 			mNumSpatialCells = new DebugStatTagInt("Num Cells", 0, false);
@@ -92,6 +94,7 @@ public class DebugPhysicsWorldWatcher extends BaseController {
 
 			Debug.debugManager().stats().addCustomStatTag(mDebugStatPhysicsCaption);
 			Debug.debugManager().stats().addCustomStatTag(mDebugStatsNumBodies);
+			Debug.debugManager().stats().addCustomStatTag(mDebugStatsNumAwakeBodies);
 			Debug.debugManager().stats().addCustomStatTag(mDebugStepTimeInMm);
 			Debug.debugManager().stats().addCustomStatTag(mDebugNumIterations);
 			Debug.debugManager().stats().addCustomStatTag(mNumSpatialCells);
@@ -105,6 +108,7 @@ public class DebugPhysicsWorldWatcher extends BaseController {
 
 		Debug.debugManager().stats().removeCustomStatTag(mDebugStatPhysicsCaption);
 		Debug.debugManager().stats().removeCustomStatTag(mDebugStatsNumBodies);
+		Debug.debugManager().stats().removeCustomStatTag(mDebugStatsNumAwakeBodies);
 		Debug.debugManager().stats().removeCustomStatTag(mDebugStepTimeInMm);
 		Debug.debugManager().stats().removeCustomStatTag(mDebugNumIterations);
 		Debug.debugManager().stats().removeCustomStatTag(mNumSpatialCells);
@@ -112,6 +116,7 @@ public class DebugPhysicsWorldWatcher extends BaseController {
 
 		mDebugStatPhysicsCaption = null;
 		mDebugStatsNumBodies = null;
+		mDebugStatsNumAwakeBodies = null;
 		mDebugStepTimeInMm = null;
 		mDebugNumIterations = null;
 		mNumSpatialCells = null;
@@ -130,9 +135,12 @@ public class DebugPhysicsWorldWatcher extends BaseController {
 
 		mDebugNumIterations.setValue(mPhysicsWorld.numIterations());
 		mDebugStatsNumBodies.setValue(mPhysicsWorld.numBodies());
+		mDebugStatsNumAwakeBodies.setValue(mPhysicsWorld.numAwakeBodies());
 		final var lHashgrid = mPhysicsWorld.grid();
-		mNumSpatialCells.setValue(lHashgrid.getTotalCellCount());
-		mNumActiveCells.setValue(lHashgrid.getActiveCellKeys().size());
+		if (lHashgrid != null) {
+			mNumSpatialCells.setValue(lHashgrid.getTotalCellCount());
+			mNumActiveCells.setValue(lHashgrid.numActiveCells());
+		}
 		mDebugStepTimeInMm.setValue((float) mPhysicsWorld.stepTime());
 	}
 }
@@ -44,6 +44,14 @@ public class DebugStats extends Rectangle implements IScrollBarArea, IInputProce
 	public static final int TAG_ID_VBO = 9;
 	public static final int TAG_ID_VB_UPLOADS = 10;
 	public static final int TAG_ID_IB_UPLOADS = 11;
+	public static final int TAG_ID_PHYSICS_PAIRS_FOUND = 16;
+	public static final int TAG_ID_PHYSICS_PAIRS_DUPLICATES = 17;
+	public static final int TAG_ID_PHYSICS_PAIRS_AABB = 18;
+	public static final int TAG_ID_PARTICLES = 19;
+	public static final int TAG_ID_PARTICLES_UPDATE_MS = 20;
+	public static final int TAG_ID_PARTICLES_SLOWEST_SYSTEM = 21;
+	public static final int TAG_ID_PARTICLES_BUDGET = 22;
+	public static final int TAG_ID_PARTICLES_DROPPED = 23;
 
 	private static final float WINDOW_SIZE_WIDTH = 350.f;
 	private static final float WINDOW_SIZE_HEIGHT = 500.f;
@@ -121,11 +129,23 @@ public class DebugStats extends Rectangle implements IScrollBarArea, IInputProce
 
 		mTags.add(new DebugStatTagInt(TAG_ID_BATCH_OBJECTS, "Batch Objects", 0, false));
 		// mTags.add(new DebugStatTagInt(TAG_ID_VBO, "VBOs", 0, false));
-		// mTags.add(new DebugStatTagInt(TAG_ID_VB_UPLOADS, "VBs", 0));
+		mTags.add(new DebugStatTagInt(TAG_ID_VB_UPLOADS, "VB Upload Bytes", 0));
 		// mTags.add(new DebugStatTagInt(TAG_ID_IB_UPLOADS, "IBs", 0));
 		mTags.add(new DebugStatTagInt(TAG_ID_TEXTURES, "Textures ", 0, false));
 		mTags.add(new DebugStatTagInt(TAG_ID_RENDERTEXTURES, "Render Textures", 0, false));
 
+		mTags.add(new DebugStatTagCaption(-1, "Physics:"));
+		mTags.add(new DebugStatTagInt(TAG_ID_PHYSICS_PAIRS_FOUND, "Pairs Found", 0));
+		mTags.add(new DebugStatTagInt(TAG_ID_PHYSICS_PAIRS_DUPLICATES, "Pairs Duplicate", 0));
+		mTags.add(new DebugStatTagInt(TAG_ID_PHYSICS_PAIRS_AABB, "Pairs AABB Pass", 0));
+
+		mTags.add(new DebugStatTagCaption(-1, "Particles:"));
+		mTags.add(new DebugStatTagInt(TAG_ID_PARTICLES, "Particles", 0, false));
+		mTags.add(new DebugStatTagFloat(TAG_ID_PARTICLES_UPDATE_MS, "Update (ms)", 0, false));
+		mTags.add(new DebugStatTagString(TAG_ID_PARTICLES_SLOWEST_SYSTEM, "Slowest", ""));
+		mTags.add(new DebugStatTagString(TAG_ID_PARTICLES_BUDGET, "Budget", ""));
+		mTags.add(new DebugStatTagInt(TAG_ID_PARTICLES_DROPPED, "Dropped", 0, false));
+
 		mTags.add(new DebugStatTagCaption(-1, "Audio:"));
 		mTags.add(new DebugStatTagCaption(-1, "Custom:"));
 	}
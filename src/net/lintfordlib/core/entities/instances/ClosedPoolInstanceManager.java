@@ -5,6 +5,8 @@ import java.util.List;
 
 /**
  * Maintains a pool of pre-allocated, indexed {@link} instances until they are required. Instances 'in-use' are maintained within a separate list until they are returned to the pool. This is a closed system.
+ *
+ * Each instance created by the pool is given a permanent slot, and the uids of the instances are indexed by slot, so lookups by uid or handle, taking instances from the pool and returning them are all O(1). Returned instances are swap-removed from the instance list, so the order of {@link #instances()} changes as instances are returned.
  */
 public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData> extends InstanceManager<T> {
 
@@ -17,15 +19,23 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 	public static final int DEFAULT_ENLARGEN_POOL_AMOUNT = 8;
 	public static final int MAXIMUM_ENLARGEN_POOL_AMOUNT = 256;
 
+	public static final long INVALID_HANDLE = -1L;
+
+	private static final int IN_POOL = -1;
+
 	// --------------------------------------
 	// Variables
 	// --------------------------------------
 
-	private List<T> mPooledItems;
+	private List<T> mPooledItems; // used as a stack, the free instances are taken from the end
 	private int mEnlargePoolStepAmount;
 
 	private int mEntityInstanceCounter;
 
+	// slot -> instance, for every instance known to the pool
+	private transient List<T> mPoolSlots;
+	private transient UidIndexTable mUidIndex;
+
 	// --------------------------------------
 	// Properties
 	// --------------------------------------
@@ -45,13 +55,18 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 		mEnlargePoolStepAmount = enlargeByAmount;
 	}
 
+	/***
+	 * @return The instance in use with the given uid, or null if there isn't one.
+	 */
 	public T getInstanceByUid(int uid) {
-		final int lNumInstances = mInstances.size();
-		for (int i = 0; i < lNumInstances; i++) {
-			if (mInstances.get(i).uid == uid)
-				return mInstances.get(i);
-		}
-		return null;
+		ensureInstanceIndex();
+
+		final int lSlot = mUidIndex.get(uid);
+		if (lSlot == UidIndexTable.NO_INDEX)
+			return null;
+
+		final var lInst = mPoolSlots.get(lSlot);
+		return isInUse(lInst) ? lInst : null;
 	}
 
 	public T getInstanceByIndex(final int itemIndex) {
@@ -61,6 +76,39 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 		return instances().get(itemIndex);
 	}
 
+	/***
+	 * Returns a handle to the given instance. The handle stays valid until the instance is returned to the pool, after which {@link #getInstanceByHandle(long)} no longer resolves it, even once the instance has been taken from the pool again.
+	 *
+	 * @return The handle of the instance, or {@link #INVALID_HANDLE} if the instance doesn't belong to this pool.
+	 */
+	public long getHandle(T instance) {
+		if (instance == null)
+			return INVALID_HANDLE;
+
+		ensureInstanceIndex();
+		if (!isRegistered(instance))
+			return INVALID_HANDLE;
+
+		return ((long) instance.internalGeneration << 32) | instance.internalPoolSlot;
+	}
+
+	/***
+	 * @return The instance in use which the handle refers to, or null if the handle is stale or invalid.
+	 */
+	public T getInstanceByHandle(long handle) {
+		ensureInstanceIndex();
+
+		final int lSlot = (int) handle;
+		if (lSlot < 0 || lSlot >= mPoolSlots.size())
+			return null;
+
+		final var lInst = mPoolSlots.get(lSlot);
+		if (lInst.internalGeneration != (int) (handle >>> 32) || !isInUse(lInst))
+			return null;
+
+		return lInst;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -73,9 +121,11 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 		mEntityInstanceCounter = 0;
 		mEnlargePoolStepAmount = DEFAULT_ENLARGEN_POOL_AMOUNT;
 		mPooledItems = new ArrayList<>();
+		mPoolSlots = new ArrayList<>();
+		mUidIndex = new UidIndexTable();
 
 		for (int i = 0; i < initialCapacity; i++) {
-			mPooledItems.add(createPoolObjectInstance());
+			pushPooledItem(registerInstance(createPoolObjectInstance()));
 		}
 	}
 
@@ -83,7 +133,7 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 	// Methods
 	// --------------------------------------
 
-	/** Sets the mEntityInstanceCounter to the next available instance counter */
+	/** Sets the mEntityInstanceCounter to the next available instance counter, and rebuilds the uid index (e.g. after the instances were deserialized). */
 	protected void refreshInstanceUidCounter() {
 		final int lNumInstances = mInstances.size();
 		for (int i = 0; i < lNumInstances; i++) {
@@ -98,48 +148,94 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 		}
 
 		mEntityInstanceCounter++;
+
+		rebuildInstanceIndex();
 	}
 
-	public T getFreePooledItem() {
-		if (mPooledItems == null) {
+	/***
+	 * Rebuilds the slots and the uid index of the pool from the instance and free lists. This needs to be called if the lists were filled without going through the pool, e.g. when they were deserialized.
+	 */
+	protected void rebuildInstanceIndex() {
+		if (mPooledItems == null)
 			mPooledItems = new ArrayList<>();
+
+		if (mPoolSlots == null) {
+			mPoolSlots = new ArrayList<>();
+			mUidIndex = new UidIndexTable();
+		} else {
+			mPoolSlots.clear();
+			mUidIndex.clear();
+		}
+
+		final int lNumInstances = mInstances.size();
+		for (int i = 0; i < lNumInstances; i++) {
+			final var lInst = registerInstance(mInstances.get(i));
+			lInst.internalListIndex = i;
+		}
+
+		final int lNumPooledInstances = mPooledItems.size();
+		for (int i = 0; i < lNumPooledInstances; i++) {
+			final var lInst = registerInstance(mPooledItems.get(i));
+			lInst.internalListIndex = IN_POOL;
 		}
+	}
+
+	/***
+	 * Takes a free instance from the pool (enlarging the pool if it is empty) and adds it to the instances in use. The instance is marked as assigned with {@code initInstance()}, so {@link ClosedPooledBaseData#isAssigned()} returns true until it is returned.
+	 */
+	public T getFreePooledItem() {
+		ensureInstanceIndex();
 
-		final T lInst = mPooledItems.size() > 0 ? mPooledItems.remove(0) : enlargenInstancePool(mEnlargePoolStepAmount);
+		final T lInst = mPooledItems.size() > 0 ? mPooledItems.remove(mPooledItems.size() - 1) : enlargenInstancePool(mEnlargePoolStepAmount);
 
-		if (mInstances.contains(lInst) == false)
+		if (!isInUse(lInst)) {
+			lInst.internalListIndex = mInstances.size();
 			mInstances.add(lInst);
+		}
+
+		lInst.initInstance();
 
 		return lInst;
 	}
 
+	/***
+	 * Removes the instance from the instances in use and returns it to the pool. The instance is released with {@link ClosedPooledBaseData#setFree()}, which calls {@link ClosedPooledBaseData#reset()} and clears the assigned flag, so subclasses can hook into either. Returning an instance which is already in the pool does nothing.
+	 */
 	public void returnPooledItem(T returnItem) {
 		if (returnItem == null)
 			return;
 
-		if (mInstances.contains(returnItem)) {
-			mInstances.remove(returnItem);
-		}
+		ensureInstanceIndex();
 
-		if (mPooledItems == null) {
-			mPooledItems = new ArrayList<>();
-		}
+		if (!isRegistered(returnItem)) {
+			registerInstance(returnItem);
 
-		if (!mPooledItems.contains(returnItem)) {
-			returnItem.reset();
-			mPooledItems.add(returnItem);
+			// instances which didn't come from the pool could still have been added to the instance list directly
+			returnItem.internalListIndex = mInstances.indexOf(returnItem);
+		} else if (returnItem.internalListIndex == IN_POOL) {
+			return;
 		}
+
+		if (isInUse(returnItem))
+			swapRemoveInstance(returnItem);
+
+		returnItem.setFree();
+		returnItem.internalGeneration++;
+		pushPooledItem(returnItem);
 	}
 
 	private T enlargenInstancePool(int enlargeByAmount) {
 		if (enlargeByAmount > MAXIMUM_ENLARGEN_POOL_AMOUNT)
 			enlargeByAmount = MAXIMUM_ENLARGEN_POOL_AMOUNT;
 
+		if (enlargeByAmount < 1)
+			enlargeByAmount = 1;
+
 		for (int i = 0; i < enlargeByAmount; i++) {
-			mPooledItems.add(createPoolObjectInstance());
+			pushPooledItem(registerInstance(createPoolObjectInstance()));
 		}
 
-		T lInst = mPooledItems.remove(0);
+		T lInst = mPooledItems.remove(mPooledItems.size() - 1);
 
 		return lInst;
 	}
@@ -148,7 +244,57 @@ public abstract class ClosedPoolInstanceManager<T extends ClosedPooledBaseData>
 
 	@Override
 	public void clearInstances() {
-		mPooledItems.addAll(mInstances);
+		ensureInstanceIndex();
+
+		final int lNumInstances = mInstances.size();
+		for (int i = 0; i < lNumInstances; i++) {
+			final var lInst = mInstances.get(i);
+			if (!isRegistered(lInst))
+				registerInstance(lInst);
+
+			lInst.internalInUse = false;
+			lInst.internalGeneration++;
+			pushPooledItem(lInst);
+		}
+
 		mInstances.clear();
 	}
+
+	// ---
+
+	private void ensureInstanceIndex() {
+		if (mPoolSlots == null)
+			rebuildInstanceIndex();
+	}
+
+	private T registerInstance(T instance) {
+		instance.internalPoolSlot = mPoolSlots.size();
+		mPoolSlots.add(instance);
+		mUidIndex.put(instance.uid, instance.internalPoolSlot);
+		return instance;
+	}
+
+	private boolean isRegistered(T instance) {
+		final int lSlot = instance.internalPoolSlot;
+		return lSlot >= 0 && lSlot < mPoolSlots.size() && mPoolSlots.get(lSlot) == instance;
+	}
+
+	private boolean isInUse(T instance) {
+		final int lIndex = instance.internalListIndex;
+		return lIndex >= 0 && lIndex < mInstances.size() && mInstances.get(lIndex) == instance;
+	}
+
+	private void pushPooledItem(T instance) {
+		instance.internalListIndex = IN_POOL;
+		mPooledItems.add(instance);
+	}
+
+	private void swapRemoveInstance(T instance) {
+		final int lIndex = instance.internalListIndex;
+		final var lLast = mInstances.remove(mInstances.size() - 1);
+		if (lLast != instance) {
+			mInstances.set(lIndex, lLast);
+			lLast.internalListIndex = lIndex;
+		}
+	}
 }
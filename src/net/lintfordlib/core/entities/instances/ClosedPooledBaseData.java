@@ -16,6 +16,11 @@ public abstract class ClosedPooledBaseData extends Entity {
 
 	boolean internalInUse;
 
+	// the bookkeeping of the ClosedPoolInstanceManager: the permanent slot of this instance within the pool, its index in the instance or free list and the generation of its handles
+	transient int internalPoolSlot;
+	transient int internalListIndex;
+	transient int internalGeneration;
+
 	// --------------------------------------
 	// Properties
 	// --------------------------------------
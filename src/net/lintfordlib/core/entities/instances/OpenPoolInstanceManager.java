@@ -1,11 +1,16 @@
 package net.lintfordlib.core.entities.instances;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import net.lintfordlib.core.maths.MathHelper;
 
 /**
  * The {@link OpenPoolInstanceManager} creates Entities which are first created within a pool, but are released from the pool upon assignment. The {@link OpenPooledBaseData} instances can be returned for reuse.
- * 
+ *
  * The pool can be enlargened at any time (pre-allocation).
+ *
+ * The free instances are kept in {@link #instances()}, which is used as a stack. Each instance created by the pool is given a permanent slot, and the uids of the instances are indexed by slot, so lookups by uid or handle, taking instances from the pool and returning them are all O(1).
  */
 public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> extends InstanceManager<T> {
 
@@ -19,6 +24,10 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 	public static final int MINIMUM_ENLARGEN_POOL_AMOUNT = 8;
 	public static final int MAXIMUM_ENLARGEN_POOL_AMOUNT = 256;
 
+	public static final long INVALID_HANDLE = -1L;
+
+	private static final int RELEASED = -1;
+
 	// --------------------------------------
 	// Variables
 	// --------------------------------------
@@ -26,6 +35,10 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 	private int mEnlargePoolStepAmount;
 	private int mInstanceUidCounter;
 
+	// slot -> instance, for every instance known to the pool
+	private transient List<T> mPoolSlots;
+	private transient UidIndexTable mUidIndex;
+
 	// --------------------------------------
 	// Properties
 	// --------------------------------------
@@ -48,14 +61,51 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 		return instances().get(itemIndex);
 	}
 
+	/***
+	 * @return The free instance in the pool with the given uid, or null if there isn't one.
+	 */
 	public T getInstanceByUid(final int entityUid) {
-		final int lNumInstances = numInstances();
-		for (int i = 0; i < lNumInstances; i++) {
-			if (instances().get(i).uid == entityUid)
-				return instances().get(i);
-		}
+		ensureInstanceIndex();
+
+		final int lSlot = mUidIndex.get(entityUid);
+		if (lSlot == UidIndexTable.NO_INDEX)
+			return null;
+
+		final var lInst = mPoolSlots.get(lSlot);
+		return isInPool(lInst) ? lInst : null;
+	}
+
+	/***
+	 * Returns a handle to the given instance. The handle stays valid until the instance is returned to the pool, after which {@link #getInstanceByHandle(long)} no longer resolves it, even once the instance has been taken from the pool again.
+	 *
+	 * @return The handle of the instance, or {@link #INVALID_HANDLE} if the instance doesn't belong to this pool.
+	 */
+	public long getHandle(T instance) {
+		if (instance == null)
+			return INVALID_HANDLE;
 
-		return null;
+		ensureInstanceIndex();
+		if (!isRegistered(instance))
+			return INVALID_HANDLE;
+
+		return ((long) instance.internalGeneration << 32) | instance.internalPoolSlot;
+	}
+
+	/***
+	 * @return The released instance which the handle refers to, or null if the handle is stale or invalid.
+	 */
+	public T getInstanceByHandle(long handle) {
+		ensureInstanceIndex();
+
+		final int lSlot = (int) handle;
+		if (lSlot < 0 || lSlot >= mPoolSlots.size())
+			return null;
+
+		final var lInst = mPoolSlots.get(lSlot);
+		if (lInst.internalGeneration != (int) (handle >>> 32) || isInPool(lInst))
+			return null;
+
+		return lInst;
 	}
 
 	// --------------------------------------
@@ -68,9 +118,11 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 
 	public OpenPoolInstanceManager(int initialCapacity) {
 		mEnlargePoolStepAmount = DEFAULT_ENLARGEN_POOL_AMOUNT;
+		mPoolSlots = new ArrayList<>();
+		mUidIndex = new UidIndexTable();
 
 		for (int i = 0; i < initialCapacity; i++) {
-			mInstances.add(createPoolObjectInstance());
+			pushPooledItem(registerInstance(createPoolObjectInstance()));
 		}
 	}
 
@@ -78,17 +130,39 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 	// Methods
 	// --------------------------------------
 
+	/***
+	 * Rebuilds the slots and the uid index of the pool from the free list. This needs to be called if the free list was filled without going through the pool, e.g. when it was deserialized.
+	 */
+	protected void rebuildInstanceIndex() {
+		if (mPoolSlots == null) {
+			mPoolSlots = new ArrayList<>();
+			mUidIndex = new UidIndexTable();
+		} else {
+			mPoolSlots.clear();
+			mUidIndex.clear();
+		}
+
+		final int lNumInstances = mInstances.size();
+		for (int i = 0; i < lNumInstances; i++) {
+			final var lInst = registerInstance(mInstances.get(i));
+			lInst.internalListIndex = i;
+		}
+	}
+
 	public T getFreePooledItem() {
+		ensureInstanceIndex();
+
 		T lInst = null;
 
 		if (mInstances.size() > 0) {
-			return mInstances.remove(0);
+			lInst = mInstances.remove(mInstances.size() - 1);
 
 		} else {
 			lInst = enlargenInstancePool(mEnlargePoolStepAmount);
-			// mInstances.add(lInst);
 		}
 
+		lInst.internalListIndex = RELEASED;
+
 		return lInst;
 	}
 
@@ -96,21 +170,27 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 		if (returnedItem == null)
 			return;
 
+		ensureInstanceIndex();
+
 		returnedItem.reset();
 
-		if (mInstances.contains(returnedItem) == false) {
-			mInstances.add(returnedItem);
-		}
+		if (!isRegistered(returnedItem))
+			registerInstance(returnedItem);
+		else if (isInPool(returnedItem))
+			return;
+
+		returnedItem.internalGeneration++;
+		pushPooledItem(returnedItem);
 	}
 
 	private T enlargenInstancePool(int enlargeByAmount) {
 		enlargeByAmount = MathHelper.clampi(enlargeByAmount, MINIMUM_ENLARGEN_POOL_AMOUNT, MAXIMUM_ENLARGEN_POOL_AMOUNT);
 
 		for (int i = 0; i < enlargeByAmount - 1; i++) {
-			mInstances.add(createPoolObjectInstance());
+			pushPooledItem(registerInstance(createPoolObjectInstance()));
 		}
 
-		T lInst = createPoolObjectInstance();
+		T lInst = registerInstance(createPoolObjectInstance());
 
 		return lInst;
 	}
@@ -122,8 +202,10 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 		final int lNumInstances = mInstances.size();
 		for (int i = 0; i < lNumInstances; i++) {
 			final var t = mInstances.get(i);
-			if (t != null)
+			if (t != null) {
 				t.reset();
+				t.internalListIndex = RELEASED;
+			}
 
 		}
 
@@ -142,4 +224,32 @@ public abstract class OpenPoolInstanceManager<T extends OpenPooledBaseData> exte
 		mInstanceUidCounter = instanceCounter;
 	}
 
+	// ---
+
+	private void ensureInstanceIndex() {
+		if (mPoolSlots == null)
+			rebuildInstanceIndex();
+	}
+
+	private T registerInstance(T instance) {
+		instance.internalPoolSlot = mPoolSlots.size();
+		mPoolSlots.add(instance);
+		mUidIndex.put(instance.uid, instance.internalPoolSlot);
+		return instance;
+	}
+
+	private boolean isRegistered(T instance) {
+		final int lSlot = instance.internalPoolSlot;
+		return lSlot >= 0 && lSlot < mPoolSlots.size() && mPoolSlots.get(lSlot) == instance;
+	}
+
+	private boolean isInPool(T instance) {
+		final int lIndex = instance.internalListIndex;
+		return lIndex >= 0 && lIndex < mInstances.size() && mInstances.get(lIndex) == instance;
+	}
+
+	private void pushPooledItem(T instance) {
+		instance.internalListIndex = mInstances.size();
+		mInstances.add(instance);
+	}
 }
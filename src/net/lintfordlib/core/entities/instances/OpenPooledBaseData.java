@@ -4,6 +4,15 @@ import net.lintfordlib.core.entities.Entity;
 
 public abstract class OpenPooledBaseData extends Entity {
 
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	// the bookkeeping of the OpenPoolInstanceManager: the permanent slot of this instance within the pool, its index in the free list and the generation of its handles
+	transient int internalPoolSlot;
+	transient int internalListIndex;
+	transient int internalGeneration;
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
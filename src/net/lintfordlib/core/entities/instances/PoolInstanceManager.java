@@ -69,7 +69,7 @@ public abstract class PoolInstanceManager<T extends Object> {
 
 	public T getFreePooledItem() {
 		if (mInstancePool.size() > 0) {
-			final var lItem = mInstancePool.remove(0);
+			final var lItem = mInstancePool.remove(mInstancePool.size() - 1);
 			return lItem;
 		}
 
@@ -0,0 +1,182 @@
+package net.lintfordlib.core.entities.instances;
+
+import java.util.Arrays;
+
+/***
+ * An open addressing hash table (linear probing) which maps the uid of an instance to an int value, e.g. the index of the instance within the slots of a pool. Keys and values are stored in primitive arrays, so lookups don't box the uid.
+ *
+ * Removed entries are deleted by shifting the following entries of the probe sequence back, so no tombstones build up as instances come and go.
+ */
+public class UidIndexTable {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int NO_INDEX = -1;
+
+	private static final int MIN_CAPACITY = 16;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private int[] mKeys;
+	private int[] mValues; // NO_INDEX marks an empty slot
+	private int mSize;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/***
+	 * @return The number of uids in the table.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public UidIndexTable() {
+		allocate(MIN_CAPACITY);
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * @return The value stored for the uid, or {@link #NO_INDEX} if the uid isn't in the table.
+	 */
+	public int get(int uid) {
+		final int lMask = mKeys.length - 1;
+
+		int lIndex = hash(uid) & lMask;
+		while (mValues[lIndex] != NO_INDEX) {
+			if (mKeys[lIndex] == uid)
+				return mValues[lIndex];
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		return NO_INDEX;
+	}
+
+	/***
+	 * Stores the value (which must not be negative) for the uid, replacing any previous value.
+	 */
+	public void put(int uid, int value) {
+		if (value < 0)
+			throw new IllegalArgumentException("UidIndexTable values must not be negative");
+
+		if ((mSize + 1) * 2 > mKeys.length)
+			resize(mKeys.length * 2);
+
+		if (insert(uid, value))
+			mSize++;
+	}
+
+	/***
+	 * Removes the uid from the table.
+	 *
+	 * @return The value which was stored for the uid, or {@link #NO_INDEX} if the uid wasn't in the table.
+	 */
+	public int remove(int uid) {
+		final int lMask = mKeys.length - 1;
+
+		int lIndex = hash(uid) & lMask;
+		while (mValues[lIndex] != NO_INDEX) {
+			if (mKeys[lIndex] == uid)
+				break;
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		final int lValue = mValues[lIndex];
+		if (lValue == NO_INDEX)
+			return NO_INDEX;
+
+		// shift the entries of the probe sequence which follow back into the hole
+		int lHole = lIndex;
+		int lNext = lIndex;
+		while (true) {
+			lNext = (lNext + 1) & lMask;
+			if (mValues[lNext] == NO_INDEX)
+				break;
+
+			final int lHome = hash(mKeys[lNext]) & lMask;
+
+			// the entry can only move into the hole if its home slot isn't (cyclically) between the hole and its current slot
+			final boolean lStays = lHole <= lNext ? (lHole < lHome && lHome <= lNext) : (lHole < lHome || lHome <= lNext);
+			if (lStays)
+				continue;
+
+			mKeys[lHole] = mKeys[lNext];
+			mValues[lHole] = mValues[lNext];
+			lHole = lNext;
+		}
+
+		mValues[lHole] = NO_INDEX;
+		mSize--;
+
+		return lValue;
+	}
+
+	public void clear() {
+		if (mKeys.length > MIN_CAPACITY)
+			allocate(MIN_CAPACITY);
+		else
+			Arrays.fill(mValues, NO_INDEX);
+
+		mSize = 0;
+	}
+
+	// ---
+
+	/***
+	 * @return true if a new entry was added, false if an existing entry was replaced.
+	 */
+	private boolean insert(int uid, int value) {
+		final int lMask = mKeys.length - 1;
+
+		int lIndex = hash(uid) & lMask;
+		while (mValues[lIndex] != NO_INDEX) {
+			if (mKeys[lIndex] == uid) {
+				mValues[lIndex] = value;
+				return false;
+			}
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		mKeys[lIndex] = uid;
+		mValues[lIndex] = value;
+		return true;
+	}
+
+	private void resize(int capacity) {
+		final var lOldKeys = mKeys;
+		final var lOldValues = mValues;
+
+		allocate(capacity);
+
+		for (int i = 0; i < lOldKeys.length; i++) {
+			if (lOldValues[i] != NO_INDEX)
+				insert(lOldKeys[i], lOldValues[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		mKeys = new int[capacity];
+		mValues = new int[capacity];
+		Arrays.fill(mValues, NO_INDEX);
+	}
+
+	private static int hash(int uid) {
+		final int lHash = uid * 0x9E3779B9;
+		return lHash ^ (lHash >>> 16);
+	}
+}
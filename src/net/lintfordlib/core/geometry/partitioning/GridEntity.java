@@ -24,14 +24,27 @@ public abstract class GridEntity extends Entity {
 	public int maxX;
 	public int maxY;
 
+	/***
+	 * No longer used by the {@link SpatialHashGrid}, which reports an entity spanning several cells only from the first cell it shares with a query, so it doesn't need to mark the entities it has visited.
+	 * 
+	 * @deprecated Kept for subclasses which still read or write it; will be removed.
+	 */
+	@Deprecated(forRemoval = true)
 	public int queryId;
 
+	// the position of the entity (see gridCenterX and gridCenterY) as of the last time it was added to or updated on the grid, used for the distance queries of the SpatialHashGrid. Set by the grid.
+	public float gridPositionX;
+	public float gridPositionY;
+
+	// set by the SpatialHashGrid while the entity is stored in its cells (any cell coordinate is valid in a sparse grid, so minX etc. can't mark this)
+	public boolean _isOnGrid;
+
 	// ---------------------------------------------
 	// Properties
 	// ---------------------------------------------
 
 	public boolean isOnGrid() {
-		return minX != -1 && minY != -1 && maxX != -1 && maxY != -1;
+		return _isOnGrid;
 	}
 
 	// ---------------------------------------------
@@ -55,7 +68,7 @@ public abstract class GridEntity extends Entity {
 	// ---------------------------------------------
 
 	public void clearGridCache() {
-		queryId = -1;
+		_isOnGrid = false;
 		minX = -1;
 		maxX = -1;
 		minY = -1;
@@ -125,8 +138,28 @@ public abstract class GridEntity extends Entity {
 		return true;
 	}
 
+	/***
+	 * Sets the cell bounds (minX, minY, maxX, maxY) of the entity.
+	 */
 	public abstract void fillEntityBounds(SpatialHashGrid<?> grid);
 
+	/***
+	 * @return true if the cell bounds of the entity have changed.
+	 */
 	public abstract boolean isGridCacheOld(SpatialHashGrid<?> grid);
 
+	/***
+	 * @return The world x position the distance queries of the {@link SpatialHashGrid} measure from. The position must lie within the cell bounds of the entity. The default is the center of the cell bounds, so the distances are only accurate to within a cell; entities which know their position (usually the center of the bounds given to fillEntityBounds) should override this.
+	 */
+	public float gridCenterX(SpatialHashGrid<?> grid) {
+		return (grid.getCellWorldX(minX) + grid.getCellWorldX(maxX + 1)) * .5f;
+	}
+
+	/***
+	 * @return The world y position the distance queries of the {@link SpatialHashGrid} measure from. See {@link #gridCenterX(SpatialHashGrid)}.
+	 */
+	public float gridCenterY(SpatialHashGrid<?> grid) {
+		return (grid.getCellWorldY(minY) + grid.getCellWorldY(maxY + 1)) * .5f;
+	}
+
 }
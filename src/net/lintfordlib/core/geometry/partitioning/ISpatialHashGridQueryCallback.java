@@ -0,0 +1,12 @@
+package net.lintfordlib.core.geometry.partitioning;
+
+public interface ISpatialHashGridQueryCallback<T extends GridEntity> {
+
+	/***
+	 * Called for each entity found by a query of a {@link SpatialHashGrid}.
+	 * 
+	 * @return true to continue the query, false to terminate it.
+	 */
+	boolean reportEntity(T entity);
+
+}
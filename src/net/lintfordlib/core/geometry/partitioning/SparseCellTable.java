@@ -0,0 +1,213 @@
+package net.lintfordlib.core.geometry.partitioning;
+
+import java.util.Arrays;
+
+/***
+ * An open addressing hash table (linear probing) which maps the coordinates (cellX, cellY) of a grid cell to an int value, e.g. the index of the cell's storage. The coordinates are packed into a long key, so the grid has no boundary and negative coordinates are valid.
+ *
+ * Removed entries are deleted by shifting the following entries of the probe sequence back, so no tombstones build up as cells come and go. The table grows when it is half full and shrinks when it falls below an eighth, so its size follows the number of occupied cells.
+ */
+public class SparseCellTable {
+
+	// ---------------------------------------------
+	// Constants
+	// ---------------------------------------------
+
+	public static final int NO_CELL = -1;
+
+	private static final int MIN_CAPACITY = 16;
+
+	// ---------------------------------------------
+	// Variables
+	// ---------------------------------------------
+
+	private long[] mKeys;
+	private int[] mValues; // NO_CELL marks an empty slot
+	private int mSize;
+
+	// ---------------------------------------------
+	// Properties
+	// ---------------------------------------------
+
+	/***
+	 * @return The number of cells in the table.
+	 */
+	public int size() {
+		return mSize;
+	}
+
+	/***
+	 * @return The number of slots in the table.
+	 */
+	public int capacity() {
+		return mKeys.length;
+	}
+
+	// ---------------------------------------------
+	// Constructor
+	// ---------------------------------------------
+
+	public SparseCellTable() {
+		allocate(MIN_CAPACITY);
+	}
+
+	// ---------------------------------------------
+	// Methods
+	// ---------------------------------------------
+
+	public static long packKey(int cellX, int cellY) {
+		return ((long) cellY << 32) | (cellX & 0xFFFFFFFFL);
+	}
+
+	/***
+	 * @return The value stored for the cell, or {@link #NO_CELL} if the cell isn't in the table.
+	 */
+	public int get(int cellX, int cellY) {
+		final long lKey = packKey(cellX, cellY);
+		final int lMask = mKeys.length - 1;
+
+		int lIndex = hash(lKey) & lMask;
+		while (mValues[lIndex] != NO_CELL) {
+			if (mKeys[lIndex] == lKey)
+				return mValues[lIndex];
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		return NO_CELL;
+	}
+
+	/***
+	 * Stores the value (which must not be negative) for the cell, replacing any previous value.
+	 */
+	public void put(int cellX, int cellY, int value) {
+		if (value < 0)
+			throw new IllegalArgumentException("SparseCellTable values must not be negative");
+
+		if ((mSize + 1) * 2 > mKeys.length)
+			resize(mKeys.length * 2);
+
+		if (insert(packKey(cellX, cellY), value))
+			mSize++;
+	}
+
+	/***
+	 * Removes the cell from the table.
+	 *
+	 * @return The value which was stored for the cell, or {@link #NO_CELL} if the cell wasn't in the table.
+	 */
+	public int remove(int cellX, int cellY) {
+		final long lKey = packKey(cellX, cellY);
+		final int lMask = mKeys.length - 1;
+
+		int lIndex = hash(lKey) & lMask;
+		while (mValues[lIndex] != NO_CELL) {
+			if (mKeys[lIndex] == lKey)
+				break;
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		final int lValue = mValues[lIndex];
+		if (lValue == NO_CELL)
+			return NO_CELL;
+
+		// shift the entries of the probe sequence which follow back into the hole
+		int lHole = lIndex;
+		int lNext = lIndex;
+		while (true) {
+			lNext = (lNext + 1) & lMask;
+			if (mValues[lNext] == NO_CELL)
+				break;
+
+			final int lHome = hash(mKeys[lNext]) & lMask;
+
+			// the entry can only move into the hole if its home slot isn't (cyclically) between the hole and its current slot
+			final boolean lStays = lHole <= lNext ? (lHole < lHome && lHome <= lNext) : (lHole < lHome || lHome <= lNext);
+			if (lStays)
+				continue;
+
+			mKeys[lHole] = mKeys[lNext];
+			mValues[lHole] = mValues[lNext];
+			lHole = lNext;
+		}
+
+		mValues[lHole] = NO_CELL;
+		mSize--;
+
+		if (mKeys.length > MIN_CAPACITY && mSize * 8 < mKeys.length)
+			resize(mKeys.length / 2);
+
+		return lValue;
+	}
+
+	/***
+	 * @return The value stored in the given slot (in [0, {@link #capacity()})), or {@link #NO_CELL} if the slot is empty. Together with {@link #slotCellX(int)} and {@link #slotCellY(int)}, this iterates over all cells in the table.
+	 */
+	public int slotValue(int slot) {
+		return mValues[slot];
+	}
+
+	public int slotCellX(int slot) {
+		return (int) mKeys[slot];
+	}
+
+	public int slotCellY(int slot) {
+		return (int) (mKeys[slot] >> 32);
+	}
+
+	public void clear() {
+		if (mKeys.length > MIN_CAPACITY)
+			allocate(MIN_CAPACITY);
+		else
+			Arrays.fill(mValues, NO_CELL);
+
+		mSize = 0;
+	}
+
+	// ---
+
+	/***
+	 * @return true if a new entry was added, false if an existing entry was replaced.
+	 */
+	private boolean insert(long key, int value) {
+		final int lMask = mKeys.length - 1;
+
+		int lIndex = hash(key) & lMask;
+		while (mValues[lIndex] != NO_CELL) {
+			if (mKeys[lIndex] == key) {
+				mValues[lIndex] = value;
+				return false;
+			}
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		mKeys[lIndex] = key;
+		mValues[lIndex] = value;
+		return true;
+	}
+
+	private void resize(int capacity) {
+		final var lOldKeys = mKeys;
+		final var lOldValues = mValues;
+
+		allocate(capacity);
+
+		for (int i = 0; i < lOldKeys.length; i++) {
+			if (lOldValues[i] != NO_CELL)
+				insert(lOldKeys[i], lOldValues[i]);
+		}
+	}
+
+	private void allocate(int capacity) {
+		mKeys = new long[capacity];
+		mValues = new int[capacity];
+		Arrays.fill(mValues, NO_CELL);
+	}
+
+	private static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+}
@@ -1,10 +1,16 @@
 package net.lintfordlib.core.geometry.partitioning;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import net.lintfordlib.core.maths.MathHelper;
 
+/***
+ * Buckets {@link GridEntity}s into the cells of a grid. The grid either covers a fixed boundary around 0,0 with a dense array of cells (positions outside of the boundary are clamped to the border cells), or is sparse and unbounded. A sparse grid looks up its cells in a {@link SparseCellTable}, creates them when the first entity is added and reclaims them once they are empty, so its memory follows the number of occupied cells rather than the area of the world.
+ *
+ * In a sparse grid, the cell keys (see {@link #getKey(int, int)} and {@link #getCell(int)}) are the indices of the cells' storage, which are only valid while the cell contains entities.
+ */
 public class SpatialHashGrid<T extends GridEntity> {
 
 	// ---------------------------------------------
@@ -23,11 +29,17 @@ public class SpatialHashGrid<T extends GridEntity> {
 	private int mTilesWide;
 	private int mTilesHigh;
 
-	private int mQueryId;
-
 	private List<List<T>> mCells;
 	private int mGridUidCounter;
 
+	// sparse mode
+	private boolean mIsSparse;
+	private int mCellWidth;
+	private int mCellHeight;
+	private SparseCellTable mSparseCellTable;
+	private int[] mFreeCellKeys;
+	private int mNumFreeCellKeys;
+
 	// SHARED between all queries!
 	private final List<T> mReturnResultsList = new ArrayList<>(48);
 
@@ -39,6 +51,28 @@ public class SpatialHashGrid<T extends GridEntity> {
 		return mGridUidCounter++;
 	}
 
+	/***
+	 * @return true if the grid is unbounded, with cells allocated as they are needed.
+	 */
+	public boolean isSparse() {
+		return mIsSparse;
+	}
+
+	/***
+	 * @return The number of cells currently allocated. For a sparse grid, this is the number of cells which contain entities.
+	 */
+	public int numCells() {
+		return mIsSparse ? mSparseCellTable.size() : mCells.size();
+	}
+
+	public int cellWidth() {
+		return mCellWidth;
+	}
+
+	public int cellHeight() {
+		return mCellHeight;
+	}
+
 	public List<T> getCell(int cellKey) {
 		if (cellKey < 0 || cellKey >= mCells.size())
 			return null;
@@ -76,15 +110,28 @@ public class SpatialHashGrid<T extends GridEntity> {
 
 	}
 
+	/**
+	 * Creates a sparse, unbounded spatial hash grid with the specified cell size. Cells are only allocated while they contain entities.
+	 */
+	public SpatialHashGrid(int cellWidth, int cellHeight) {
+		mCells = new ArrayList<>();
+
+		mIsSparse = true;
+		mCellWidth = cellWidth;
+		mCellHeight = cellHeight;
+		mSparseCellTable = new SparseCellTable();
+		mFreeCellKeys = new int[16];
+	}
+
 	public void createNewHashGrid(int boundaryWidth, int boundaryHeight, int tilesWide, int tilesHigh) {
-		if (boundaryWidth() == boundaryWidth && boundaryHeight() == boundaryHeight && numTilesWide() == tilesWide && numTilesHigh() == tilesHigh)
+		if (!mIsSparse && boundaryWidth() == boundaryWidth && boundaryHeight() == boundaryHeight && numTilesWide() == tilesWide && numTilesHigh() == tilesHigh)
 			return;
 
 		// clear all entities and their caches, from all cells
-		final int lTotalNumCells = numTilesWide() * numTilesHigh();
+		final int lTotalNumCells = mCells.size();
 		for (int i = 0; i < lTotalNumCells; i++) {
-			final var lCell = getCell(i);
-			if (lCell == null || lCell.size() == 0)
+			final var lCell = mCells.get(i);
+			if (lCell.size() == 0)
 				continue;
 
 			final int lNumEntitiesInCell = lCell.size();
@@ -95,11 +142,19 @@ public class SpatialHashGrid<T extends GridEntity> {
 
 		mCells.clear();
 
+		mIsSparse = false;
+		mSparseCellTable = null;
+		mFreeCellKeys = null;
+		mNumFreeCellKeys = 0;
+
 		mBoundaryWidth = boundaryWidth;
 		mBoundaryHeight = boundaryHeight;
 
 		mTilesWide = tilesWide;
 		mTilesHigh = tilesHigh;
+
+		mCellWidth = boundaryWidth / tilesWide;
+		mCellHeight = boundaryHeight / tilesHigh;
 		final int totalCells = mTilesWide * mTilesHigh;
 
 		for (int i = 0; i < totalCells; i++) {
@@ -119,6 +174,9 @@ public class SpatialHashGrid<T extends GridEntity> {
 	}
 
 	public void addEntity(T entity) {
+		if (entity.isOnGrid())
+			removeEntity(entity);
+
 		insertEntity(entity);
 	}
 
@@ -129,8 +187,11 @@ public class SpatialHashGrid<T extends GridEntity> {
 		if (entity.isOnGrid() == false)
 			return;
 
-		if (entity.isGridCacheOld(this) == false)
+		if (entity.isGridCacheOld(this) == false) {
+			// the entity can still have moved within its cells
+			updateGridPosition(entity);
 			return;
+		}
 
 		removeEntity(entity);
 		insertEntity(entity);
@@ -143,23 +204,216 @@ public class SpatialHashGrid<T extends GridEntity> {
 		for (int xx = entity.minX; xx <= entity.maxX; xx++) {
 			for (int yy = entity.minY; yy <= entity.maxY; yy++) {
 				final var lCellKey = getKey(xx, yy);
+				if (lCellKey == SparseCellTable.NO_CELL)
+					continue;
+
 				final var lCell = mCells.get(lCellKey); // O(1)
 				lCell.remove(entity); // O(n)
+
+				if (mIsSparse && lCell.isEmpty())
+					reclaimSparseCell(xx, yy, lCellKey);
 			}
 		}
 
+		entity._isOnGrid = false;
 		entity.minX = -1;
 		entity.minY = -1;
 		entity.maxX = -1;
 		entity.maxY = -1;
 	}
 
-	public void findNearbyEntities(List<T> toFill, float centerX, float centerY, float radius) {
-		toFill.addAll(findNearbyEntities(centerX, centerY, radius, COLLISION_ENTITY_TYPE_NONE));
+	/***
+	 * Appends the entities in the cells overlapped by the square around the center to toFill (which isn't cleared). See {@link #visitNearbyEntities(float, float, float, int, ISpatialHashGridQueryCallback)}.
+	 *
+	 * @return The number of entities added to toFill.
+	 */
+	public int findNearbyEntities(List<T> toFill, float centerX, float centerY, float radius) {
+		return queryCells(centerX, centerY, radius, false, COLLISION_ENTITY_TYPE_NONE, toFill, null);
+	}
+
+	/***
+	 * Appends the entities in the cells overlapped by the square around the center, which pass the entity type filter, to toFill (which isn't cleared). See {@link #visitNearbyEntities(float, float, float, int, ISpatialHashGridQueryCallback)}.
+	 *
+	 * @return The number of entities added to toFill.
+	 */
+	public int findNearbyEntities(List<T> toFill, float centerX, float centerY, float radius, int entityTypeFlag) {
+		return queryCells(centerX, centerY, radius, false, entityTypeFlag, toFill, null);
+	}
+
+	/***
+	 * Reports the entities in the cells overlapped by the square around the center, which pass the entity type filter, to the callback. Each entity is reported once.
+	 *
+	 * Queries don't write to the grid or the entities, so they can be nested (e.g. run from within the callback) and run concurrently from several threads, as long as no entities are added, updated or removed at the same time.
+	 */
+	public void visitNearbyEntities(float centerX, float centerY, float radius, int entityTypeFlag, ISpatialHashGridQueryCallback<T> callback) {
+		queryCells(centerX, centerY, radius, false, entityTypeFlag, null, callback);
+	}
+
+	/***
+	 * Appends the entities whose grid position ({@link GridEntity#gridPositionX}, {@link GridEntity#gridPositionY}) lies within the circle, and which pass the entity type filter, to toFill (which isn't cleared). Like all queries, this can be nested and run concurrently.
+	 *
+	 * @return The number of entities added to toFill.
+	 */
+	public int findEntitiesInRadius(List<T> toFill, float centerX, float centerY, float radius, int entityTypeFlag) {
+		return queryCells(centerX, centerY, radius, true, entityTypeFlag, toFill, null);
+	}
+
+	/***
+	 * Reports the entities whose grid position lies within the circle, and which pass the entity type filter, to the callback.
+	 */
+	public void visitEntitiesInRadius(float centerX, float centerY, float radius, int entityTypeFlag, ISpatialHashGridQueryCallback<T> callback) {
+		queryCells(centerX, centerY, radius, true, entityTypeFlag, null, callback);
+	}
+
+	/***
+	 * Finds the entities nearest to the center (by their grid position), up to results.length of them, which are within maxRadius and pass the entity type filter. The cells are searched ring by ring outwards from the cell of the center, and the search stops as soon as no entity in the next ring can be closer than the furthest entity found so far. On a sparse grid, the rings are only probed while that is cheaper than searching the occupied cells, which the rest of the search falls back to.
+	 *
+	 * The results are kept in a bounded max-heap within the given arrays, which are sorted by distance before returning. Like all queries, this can be nested and run concurrently.
+	 *
+	 * @param maxRadius The radius to search within, or Float.MAX_VALUE for an unbounded search.
+	 * @param results Receives the entities found, nearest first.
+	 * @param distancesSq Receives the squared distance of each entity found (at least as long as results).
+	 * @return The number of entities found.
+	 */
+	public int findNearestEntities(float centerX, float centerY, float maxRadius, int entityTypeFlag, T[] results, float[] distancesSq) {
+		final int lMaxResults = Math.min(results.length, distancesSq.length);
+		if (lMaxResults == 0)
+			return 0;
+
+		final float lMaxRadiusSq = maxRadius * maxRadius;
+		final int lCenterX = getCellIndexX((int) centerX);
+		final int lCenterY = getCellIndexY((int) centerY);
+
+		final int lMaxRing = mIsSparse ? Integer.MAX_VALUE : Math.max(mTilesWide, mTilesHigh);
+		final int lNumOccupiedCells = mIsSparse ? mSparseCellTable.size() : Integer.MAX_VALUE;
+
+		int lNumFound = 0;
+		int lNumCellsVisited = 0;
+		long lNumCellsProbed = 0;
+
+		for (int lRing = 0; lRing <= lMaxRing; lRing++) {
+			if (lRing > 0) {
+				final float lRingDistanceSq = ringDistanceSq(lRing);
+				if (lRingDistanceSq > lMaxRadiusSq)
+					break;
+
+				if (lNumFound == lMaxResults && lRingDistanceSq > distancesSq[0])
+					break;
+
+				// a sparse grid has no boundary, so the search ends once all occupied cells have been visited
+				if (lNumCellsVisited == lNumOccupiedCells)
+					break;
+
+				// if probing the next ring would cost more than the occupied cells of a sparse grid, the remaining rings are searched from the occupied cells instead, so a few far away entities don't make the search probe every empty cell in between
+				if (mIsSparse && lNumCellsProbed + 8L * lRing > lNumOccupiedCells)
+					return sortNearest(results, distancesSq, searchOccupiedCells(centerX, centerY, lCenterX, lCenterY, lRing, lMaxRadiusSq, entityTypeFlag, results, distancesSq, lNumFound, lMaxResults));
+			}
+
+			final int lRingMinX = lCenterX - lRing;
+			final int lRingMaxX = lCenterX + lRing;
+			final int lRingMinY = lCenterY - lRing;
+			final int lRingMaxY = lCenterY + lRing;
+
+			for (int yy = lRingMinY; yy <= lRingMaxY; yy++) {
+				// the first and last row of the ring are visited completely, the rows in between only at the left and right column
+				final int lStepX = (yy == lRingMinY || yy == lRingMaxY || lRing == 0) ? 1 : lRingMaxX - lRingMinX;
+				for (int xx = lRingMinX; xx <= lRingMaxX; xx += lStepX) {
+					if (!mIsSparse && (xx < 0 || yy < 0 || xx >= mTilesWide || yy >= mTilesHigh))
+						continue;
+
+					lNumCellsProbed++;
+
+					final int lCellKey = getKey(xx, yy);
+					if (lCellKey == SparseCellTable.NO_CELL)
+						continue;
+
+					lNumCellsVisited++;
+					lNumFound = searchCell(mCells.get(lCellKey), xx, yy, centerX, centerY, lMaxRadiusSq, entityTypeFlag, results, distancesSq, lNumFound, lMaxResults);
+				}
+			}
+		}
+
+		return sortNearest(results, distancesSq, lNumFound);
+	}
+
+	/** Searches the occupied cells of a sparse grid which lie in the given ring around the center cell, or beyond it. */
+	private int searchOccupiedCells(float centerX, float centerY, int centerCellX, int centerCellY, int firstRing, float maxRadiusSq, int entityTypeFlag, T[] results, float[] distancesSq, int numFound, int maxResults) {
+		final var lTable = mSparseCellTable;
+		final int lNumSlots = lTable.capacity();
+		for (int i = 0; i < lNumSlots; i++) {
+			final int lCellKey = lTable.slotValue(i);
+			if (lCellKey == SparseCellTable.NO_CELL)
+				continue;
+
+			final int xx = lTable.slotCellX(i);
+			final int yy = lTable.slotCellY(i);
+			final int lRing = Math.max(Math.abs(xx - centerCellX), Math.abs(yy - centerCellY));
+			if (lRing < firstRing)
+				continue;
+
+			final float lRingDistanceSq = ringDistanceSq(lRing);
+			if (lRingDistanceSq > maxRadiusSq || (numFound == maxResults && lRingDistanceSq > distancesSq[0]))
+				continue;
+
+			numFound = searchCell(mCells.get(lCellKey), xx, yy, centerX, centerY, maxRadiusSq, entityTypeFlag, results, distancesSq, numFound, maxResults);
+		}
+
+		return numFound;
+	}
+
+	/** Adds the entities of the cell to the bounded max-heap of the nearest entities. */
+	private int searchCell(List<T> cell, int xx, int yy, float centerX, float centerY, float maxRadiusSq, int entityTypeFlag, T[] results, float[] distancesSq, int numFound, int maxResults) {
+		final var isFilterSet = entityTypeFlag != COLLISION_ENTITY_TYPE_NONE;
+
+		final int lNumEntitiesInCell = cell.size();
+		for (int j = 0; j < lNumEntitiesInCell; j++) {
+			final var lEntity = cell.get(j);
+
+			// each entity is only considered in the cell which contains its position, so it is found once, in the ring its distance belongs to
+			if (getCellIndexX((int) lEntity.gridPositionX) != xx || getCellIndexY((int) lEntity.gridPositionY) != yy)
+				continue;
+
+			if (isFilterSet && (entityTypeFlag & lEntity.gridEntityType) != lEntity.gridEntityType)
+				continue;
+
+			final float lDx = lEntity.gridPositionX - centerX;
+			final float lDy = lEntity.gridPositionY - centerY;
+			final float lDistSq = lDx * lDx + lDy * lDy;
+			if (lDistSq > maxRadiusSq)
+				continue;
+
+			if (numFound < maxResults) {
+				results[numFound] = lEntity;
+				distancesSq[numFound] = lDistSq;
+				siftUp(results, distancesSq, numFound++);
+			} else if (lDistSq < distancesSq[0]) {
+				results[0] = lEntity;
+				distancesSq[0] = lDistSq;
+				siftDown(results, distancesSq, 0, numFound);
+			}
+		}
+
+		return numFound;
+	}
+
+	/** Returns the squared minimum distance from the center to an entity whose position lies in the given ring of cells around the cell of the center. */
+	private float ringDistanceSq(int ring) {
+		if (ring == 0)
+			return 0.f;
+
+		// positions are truncated to whole units before they are mapped to cells, which can move an entity at most one unit closer than its ring suggests
+		final float lRingDistance = Math.max(0.f, (ring - 1) * (float) Math.min(mCellWidth, mCellHeight) - 2.f);
+		return lRingDistance * lRingDistance;
 	}
 
-	public void findNearbyEntities(List<T> toFill, float centerX, float centerY, float radius, int entityTypeFlag) {
-		toFill.addAll(findNearbyEntities(centerX, centerY, radius, entityTypeFlag));
+	private static <T> int sortNearest(T[] results, float[] distancesSq, int numFound) {
+		// heap sort, the max-heap becomes ascending
+		for (int lEnd = numFound - 1; lEnd > 0; lEnd--) {
+			swap(results, distancesSq, 0, lEnd);
+			siftDown(results, distancesSq, 0, lEnd);
+		}
+
+		return numFound;
 	}
 
 	// O(n)
@@ -167,27 +421,48 @@ public class SpatialHashGrid<T extends GridEntity> {
 		return findNearbyEntities(centerX, centerY, radius, COLLISION_ENTITY_TYPE_NONE);
 	}
 
+	/***
+	 * @return The entities in the cells overlapped by the square around the center. The returned list is SHARED between all calls of this method, so use {@link #findNearbyEntities(List, float, float, float, int)} or {@link #visitNearbyEntities(float, float, float, int, ISpatialHashGridQueryCallback)} for nested or concurrent queries.
+	 */
 	public List<T> findNearbyEntities(float centerX, float centerY, float radius, int entityTypeFlag) {
 		mReturnResultsList.clear();
+		queryCells(centerX, centerY, radius, false, entityTypeFlag, mReturnResultsList, null);
+		return mReturnResultsList;
+	}
 
+	// ---
+
+	/***
+	 * Adds the entities found within the square around the center (or within the circle, if isCircle is set) to toFill, or reports them to the callback if toFill is null.
+	 *
+	 * @return The number of entities found.
+	 */
+	private int queryCells(float centerX, float centerY, float radius, boolean isCircle, int entityTypeFlag, List<T> toFill, ISpatialHashGridQueryCallback<T> callback) {
 		final int minX = getCellIndexX((int) (centerX - radius));
 		final int minY = getCellIndexY((int) (centerY - radius));
 
 		final int maxX = getCellIndexX((int) (centerX + radius));
 		final int maxY = getCellIndexY((int) (centerY + radius));
 
-		mQueryId++;
+		final var isFilterSet = entityTypeFlag != COLLISION_ENTITY_TYPE_NONE;
+		int lNumFound = 0;
 
 		for (int xx = minX; xx <= maxX; xx++) {
 			for (int yy = minY; yy <= maxY; yy++) {
 				final int lCellKey = getKey(xx, yy);
+				if (lCellKey == SparseCellTable.NO_CELL)
+					continue;
+
 				final var lCell = mCells.get(lCellKey);
 
 				final int lNumEntitiesInCell = lCell.size();
 				for (int j = 0; j < lNumEntitiesInCell; j++) { // O(n)
 					final var lEntity = lCell.get(j);
 
-					final var isFilterSet = entityTypeFlag != COLLISION_ENTITY_TYPE_NONE;
+					// an entity spanning several cells is only reported from the first cell it shares with the query, so no visited flags are written
+					if (xx != Math.max(lEntity.minX, minX) || yy != Math.max(lEntity.minY, minY))
+						continue;
+
 					if (isFilterSet) {
 						final var doesEntityPass = (entityTypeFlag & lEntity.gridEntityType) == lEntity.gridEntityType;
 						if (!doesEntityPass)
@@ -195,44 +470,158 @@ public class SpatialHashGrid<T extends GridEntity> {
 
 					}
 
-					if (lEntity.queryId != mQueryId) {
-						mReturnResultsList.add(lEntity); // O(1) - (O(n) if new array has to be created)
-						lEntity.queryId = mQueryId;
+					if (isCircle) {
+						final float lDx = lEntity.gridPositionX - centerX;
+						final float lDy = lEntity.gridPositionY - centerY;
+						if (lDx * lDx + lDy * lDy > radius * radius)
+							continue;
+					}
+
+					lNumFound++;
+					if (toFill != null) {
+						toFill.add(lEntity); // O(1) - (O(n) if new array has to be created)
+					} else if (!callback.reportEntity(lEntity)) {
+						return lNumFound;
 					}
 				}
 			}
 		}
 
-		return mReturnResultsList;
+		return lNumFound;
 	}
 
-	// ---
-
 	// O(n)
 	private void insertEntity(T entity) {
 		entity.fillEntityBounds(this);
+		updateGridPosition(entity);
 
 		for (int xx = entity.minX; xx <= entity.maxX; xx++) {
 			for (int yy = entity.minY; yy <= entity.maxY; yy++) {
-				final var lCellKey = getKey(xx, yy);
+				final var lCellKey = mIsSparse ? getOrCreateSparseCell(xx, yy) : getKey(xx, yy);
 
 				final var lCell = mCells.get(lCellKey); // O(1)
 				if (!lCell.contains(entity)) // O(n)
 					lCell.add(entity); // O(1) - (O(n) if new array has to be created)
 			}
 		}
+
+		entity._isOnGrid = true;
 	}
 
+	/** Takes the position the distance queries measure from, so it stays in step with the cells the entity is stored in. */
+	private void updateGridPosition(GridEntity entity) {
+		entity.gridPositionX = entity.gridCenterX(this);
+		entity.gridPositionY = entity.gridCenterY(this);
+	}
+
+	// --- bounded max-heap on the squared distances, with the entities in the parallel array
+
+	private static <T> void siftUp(T[] entities, float[] distancesSq, int index) {
+		while (index > 0) {
+			final int lParent = (index - 1) >> 1;
+			if (distancesSq[lParent] >= distancesSq[index])
+				return;
+
+			swap(entities, distancesSq, lParent, index);
+			index = lParent;
+		}
+	}
+
+	private static <T> void siftDown(T[] entities, float[] distancesSq, int index, int size) {
+		while (true) {
+			final int lLeft = (index << 1) + 1;
+			if (lLeft >= size)
+				return;
+
+			final int lRight = lLeft + 1;
+			final int lLargest = (lRight < size && distancesSq[lRight] > distancesSq[lLeft]) ? lRight : lLeft;
+			if (distancesSq[index] >= distancesSq[lLargest])
+				return;
+
+			swap(entities, distancesSq, index, lLargest);
+			index = lLargest;
+		}
+	}
+
+	private static <T> void swap(T[] entities, float[] distancesSq, int a, int b) {
+		final var lEntity = entities[a];
+		entities[a] = entities[b];
+		entities[b] = lEntity;
+
+		final float lDistSq = distancesSq[a];
+		distancesSq[a] = distancesSq[b];
+		distancesSq[b] = lDistSq;
+	}
+
+	private int getOrCreateSparseCell(int xx, int yy) {
+		final int lCellKey = mSparseCellTable.get(xx, yy);
+		if (lCellKey != SparseCellTable.NO_CELL)
+			return lCellKey;
+
+		// re-use the storage of a reclaimed cell if there is one
+		final int lNewCellKey;
+		if (mNumFreeCellKeys > 0) {
+			lNewCellKey = mFreeCellKeys[--mNumFreeCellKeys];
+		} else {
+			lNewCellKey = mCells.size();
+			mCells.add(new ArrayList<>());
+		}
+
+		mSparseCellTable.put(xx, yy, lNewCellKey);
+		return lNewCellKey;
+	}
+
+	private void reclaimSparseCell(int xx, int yy, int cellKey) {
+		mSparseCellTable.remove(xx, yy);
+
+		if (mNumFreeCellKeys == mFreeCellKeys.length)
+			mFreeCellKeys = Arrays.copyOf(mFreeCellKeys, mFreeCellKeys.length * 2);
+
+		mFreeCellKeys[mNumFreeCellKeys++] = cellKey;
+	}
+
+	/***
+	 * @return The key of the cell at the given cell coordinates. For a sparse grid, this is {@link SparseCellTable#NO_CELL} if the cell contains no entities.
+	 */
 	public int getKey(int xx, int yy) {
+		if (mIsSparse)
+			return mSparseCellTable.get(xx, yy);
+
 		return yy * mTilesWide + xx;
 	}
 
 	public int getCellIndexX(int x) {
+		if (mIsSparse)
+			return Math.floorDiv(x, mCellWidth);
+
 		return MathHelper.clampi((x + mBoundaryWidth / 2) / (mBoundaryWidth / mTilesWide), 0, mTilesWide - 1);
 	}
 
 	public int getCellIndexY(int y) {
+		if (mIsSparse)
+			return Math.floorDiv(y, mCellHeight);
+
 		return MathHelper.clampi((y + mBoundaryHeight / 2) / (mBoundaryHeight / mTilesHigh), 0, mTilesHigh - 1);
 	}
 
+	/***
+	 * @return The world x position of the left edge of the cells with the given column index.
+	 */
+	public float getCellWorldX(int cellIndexX) {
+		if (mIsSparse)
+			return (float) cellIndexX * mCellWidth;
+
+		return (float) cellIndexX * mCellWidth - mBoundaryWidth / 2;
+	}
+
+	/***
+	 * @return The world y position of the top edge of the cells with the given row index.
+	 */
+	public float getCellWorldY(int cellIndexY) {
+		if (mIsSparse)
+			return (float) cellIndexY * mCellHeight;
+
+		return (float) cellIndexY * mCellHeight - mBoundaryHeight / 2;
+	}
+
 }
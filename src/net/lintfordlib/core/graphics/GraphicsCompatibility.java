@@ -1,5 +1,6 @@
 package net.lintfordlib.core.graphics;
 
+import org.lwjgl.opengl.GL;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL12;
 
@@ -18,6 +19,8 @@ public class GraphicsCompatibility {
 	private float mAliasedLineWidthMax;
 	private float mSmoothLineWidthMin;
 	private float mSmoothLineWidthMax;
+	private boolean mBufferStorageSupported;
+	private boolean mInstancedArraysSupported;
 
 	// --------------------------------------
 	// Properties
@@ -51,6 +54,20 @@ public class GraphicsCompatibility {
 		return mSmoothLineWidthMax;
 	}
 
+	/**
+	 * Returns true if immutable buffer storage can be mapped persistently, i.e. OpenGl 4.4 or GL_ARB_buffer_storage is available.
+	 */
+	public boolean bufferStorageSupported() {
+		return mBufferStorageSupported;
+	}
+
+	/**
+	 * Returns true if vertex attributes can advance per instance (glVertexAttribDivisor), i.e. OpenGl 3.3 or GL_ARB_instanced_arrays is available.
+	 */
+	public boolean instancedArraysSupported() {
+		return mInstancedArraysSupported;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -73,6 +90,10 @@ public class GraphicsCompatibility {
 		mAliasedLineWidthMax = aliasedLineWidthMin[1];
 		mSmoothLineWidthMin = smoothLineWidthMin[0];
 		mSmoothLineWidthMax = smoothLineWidthMin[1];
+
+		final var lCapabilities = GL.getCapabilities();
+		mBufferStorageSupported = lCapabilities.OpenGL44 || lCapabilities.GL_ARB_buffer_storage;
+		mInstancedArraysSupported = lCapabilities.OpenGL33 || lCapabilities.GL_ARB_instanced_arrays;
 	}
 
 }
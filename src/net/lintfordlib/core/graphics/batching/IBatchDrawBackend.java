@@ -0,0 +1,22 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
+
+/***
+ * Issues the draw calls of a {@link TextureBatchPCT}. The batch assembles the vertices and resolves the texture slots, and the backend sends them to the GPU (see {@link TextureBatchPCT}) or somewhere else, e.g. the {@link RecordingBatchDrawBackend} used to test and benchmark the batching without an OpenGl context.
+ */
+public interface IBatchDrawBackend {
+
+	/***
+	 * Draws the given quads in one draw call.
+	 *
+	 * @param vertices     The vertices of the quads (4 per quad, in the layout of the {@link TextureBatchPCT}), from the position to the limit of the buffer.
+	 * @param numQuads     The number of quads in the buffer.
+	 * @param textureSlots The textures referenced by the texture index of the vertices.
+	 * @param shader       The shader to draw the quads with.
+	 */
+	void drawQuads(FloatBuffer vertices, int numQuads, TextureSlotBatch textureSlots, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor);
+
+}
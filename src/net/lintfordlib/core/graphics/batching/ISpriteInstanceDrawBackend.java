@@ -0,0 +1,22 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.ByteBuffer;
+
+import net.lintfordlib.core.maths.Matrix4f;
+
+/***
+ * Issues the draw calls of a {@link SpriteInstanceBatch}. The batch packs the instances and resolves the texture slots, and the backend sends them to the GPU (see {@link SpriteInstanceBatch}) or somewhere else, e.g. a recording backend used to test the batch without an OpenGl context.
+ */
+public interface ISpriteInstanceDrawBackend {
+
+	/***
+	 * Draws the given instances in one draw call.
+	 *
+	 * @param instances    The instances (in the layout of the {@link SpriteInstanceWriter}), from the position to the limit of the buffer.
+	 * @param numInstances The number of instances in the buffer.
+	 * @param textureSlots The textures referenced by the texture index of the instances.
+	 * @param modelMatrix  The model matrix to draw the instances with.
+	 */
+	void drawInstances(ByteBuffer instances, int numInstances, TextureSlotBatch textureSlots, boolean blendEnabled, int blendSrcFactor, int blendDstFactor, Matrix4f modelMatrix);
+
+}
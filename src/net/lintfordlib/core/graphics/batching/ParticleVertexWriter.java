@@ -0,0 +1,208 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.particles.ParticleArrays;
+
+/***
+ * Writes the live particles of a {@link ParticleArrays} straight into a vertex buffer in the layout of the {@link TextureBatchPCT} (position xyzw, color rgba, uv, texture index), with one quad of 4 vertices per particle.
+ *
+ * All particles written in one call share a single sprite frame (given as uv coordinates and a size) and a single texture slot, so the culling, rotation and color of each particle is resolved inline, without the per sprite calls and lookups of {@link SpriteBatch#drawAroundCenter}. The quads are identical to those which drawAroundCenter would produce for the same particles.
+ *
+ * The writer doesn't touch OpenGl, so it can be used with any {@link FloatBuffer}.
+ */
+public class ParticleVertexWriter {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int NUM_FLOATS_PER_QUAD = TextureBatchPCT.NUM_VERTICES_PER_SPRITE * TextureBatchPCT.NUM_FLOATS_PER_VERTEX;
+
+	// the quads are assembled in a heap array and copied into the buffer in bulk
+	private static final int SCRATCH_QUADS = 256;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final float[] mScratch = new float[SCRATCH_QUADS * NUM_FLOATS_PER_QUAD];
+
+	private float mFrameWidth;
+	private float mFrameHeight;
+
+	private float mULeft;
+	private float mURight;
+	private float mVTop;
+	private float mVBottom;
+
+	private float mTextureSlotIndex;
+
+	private float mCullLeft;
+	private float mCullTop;
+	private float mCullRight;
+	private float mCullBottom;
+
+	private int mNumQuadsWritten;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/***
+	 * @return The number of quads written by the last call to {@link #write(FloatBuffer, ParticleArrays, int, int, int)}.
+	 */
+	public int numQuadsWritten() {
+		return mNumQuadsWritten;
+	}
+
+	/***
+	 * Sets the size of the sprite frame (before the scale of each particle is applied) and its texture coordinates. The left/top coordinates are used for vertices 0 and 1 (u) and 0 and 3 (v) respectively, as in {@link TextureBatchPCT#drawAroundCenter}.
+	 */
+	public void spriteFrame(float frameWidth, float frameHeight, float uLeft, float vTop, float uRight, float vBottom) {
+		mFrameWidth = frameWidth;
+		mFrameHeight = frameHeight;
+		mULeft = uLeft;
+		mVTop = vTop;
+		mURight = uRight;
+		mVBottom = vBottom;
+	}
+
+	public void textureSlotIndex(int textureSlotIndex) {
+		mTextureSlotIndex = textureSlotIndex;
+	}
+
+	/***
+	 * Sets the area outside of which particles are culled. As in the ParticleRenderer, a particle is culled if the rectangle at its world position with its width and height doesn't intersect the area.
+	 */
+	public void cullBounds(Rectangle cullBounds) {
+		mCullLeft = cullBounds.left();
+		mCullTop = cullBounds.top();
+		mCullRight = cullBounds.right();
+		mCullBottom = cullBounds.bottom();
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Writes a quad for each particle in [start, end) which isn't culled, at the position of the buffer, until either all particles have been processed or maxQuads quads have been written.
+	 *
+	 * @return The index of the first particle which wasn't processed (end if all were). The number of quads written is available from {@link #numQuadsWritten()}.
+	 */
+	public int write(FloatBuffer buffer, ParticleArrays particles, int start, int end, int maxQuads) {
+		final var lScratch = mScratch;
+
+		final var lPosX = particles.worldPositionX;
+		final var lPosY = particles.worldPositionY;
+		final var lWidth = particles.width;
+		final var lHeight = particles.height;
+		final var lScale = particles.scale;
+		final var lRotation = particles.rotationInRadians;
+		final var lRox = particles.rox;
+		final var lRoy = particles.roy;
+		final var lZDepth = particles.zDepth;
+		final var lColorR = particles.colorR;
+		final var lColorG = particles.colorG;
+		final var lColorB = particles.colorB;
+		final var lColorA = particles.colorA;
+
+		final float lUL = mULeft, lUR = mURight, lVT = mVTop, lVB = mVBottom;
+		final float lTex = mTextureSlotIndex;
+
+		int lNumQuads = 0;
+		int lScratchQuads = 0;
+		int i = start;
+
+		for (; i < end && lNumQuads < maxQuads; i++) {
+			final float lX = lPosX[i];
+			final float lY = lPosY[i];
+			if (!(lX < mCullRight && mCullLeft < lX + lWidth[i] && lY < mCullBottom && mCullTop < lY + lHeight[i]))
+				continue;
+
+			final float lRot = lRotation[i];
+			final float lSin = lRot == 0.f ? 0.f : (float) Math.sin(lRot);
+			final float lCos = lRot == 0.f ? 1.f : (float) Math.cos(lRot);
+
+			final float lHalfW = (mFrameWidth * lScale[i]) / 2f;
+			final float lHalfH = (mFrameHeight * lScale[i]) / 2f;
+
+			// the rotation origin (see TextureBatchPCT.drawAroundCenter) folded into the half extents
+			final float lLeft = lHalfW + lRox[i];
+			final float lRight = lHalfW - lRox[i];
+			final float lBottom = lHalfH - lRoy[i];
+			final float lTop = -lHalfH - lRoy[i];
+
+			final float lZ = lZDepth[i];
+			final float lR = lColorR[i], lG = lColorG[i], lB = lColorB[i], lA = lColorA[i];
+
+			int o = lScratchQuads * NUM_FLOATS_PER_QUAD;
+
+			// vertex 0 (bottom left)
+			lScratch[o++] = lX + (-lLeft * lCos - lBottom * lSin);
+			lScratch[o++] = lY + (-lLeft * lSin + lBottom * lCos);
+			lScratch[o++] = lZ;
+			lScratch[o++] = 1f;
+			lScratch[o++] = lR;
+			lScratch[o++] = lG;
+			lScratch[o++] = lB;
+			lScratch[o++] = lA;
+			lScratch[o++] = lUL;
+			lScratch[o++] = lVT;
+			lScratch[o++] = lTex;
+
+			// vertex 1 (top left)
+			lScratch[o++] = lX + (-lLeft * lCos - lTop * lSin);
+			lScratch[o++] = lY + (-lLeft * lSin + lTop * lCos);
+			lScratch[o++] = lZ;
+			lScratch[o++] = 1f;
+			lScratch[o++] = lR;
+			lScratch[o++] = lG;
+			lScratch[o++] = lB;
+			lScratch[o++] = lA;
+			lScratch[o++] = lUL;
+			lScratch[o++] = lVB;
+			lScratch[o++] = lTex;
+
+			// vertex 2 (top right)
+			lScratch[o++] = lX + (lRight * lCos - lTop * lSin);
+			lScratch[o++] = lY + (lRight * lSin + lTop * lCos);
+			lScratch[o++] = lZ;
+			lScratch[o++] = 1f;
+			lScratch[o++] = lR;
+			lScratch[o++] = lG;
+			lScratch[o++] = lB;
+			lScratch[o++] = lA;
+			lScratch[o++] = lUR;
+			lScratch[o++] = lVB;
+			lScratch[o++] = lTex;
+
+			// vertex 3 (bottom right)
+			lScratch[o++] = lX + (lRight * lCos - lBottom * lSin);
+			lScratch[o++] = lY + (lRight * lSin + lBottom * lCos);
+			lScratch[o++] = lZ;
+			lScratch[o++] = 1f;
+			lScratch[o++] = lR;
+			lScratch[o++] = lG;
+			lScratch[o++] = lB;
+			lScratch[o++] = lA;
+			lScratch[o++] = lUR;
+			lScratch[o++] = lVT;
+			lScratch[o] = lTex;
+
+			lNumQuads++;
+			if (++lScratchQuads == SCRATCH_QUADS) {
+				buffer.put(lScratch, 0, lScratchQuads * NUM_FLOATS_PER_QUAD);
+				lScratchQuads = 0;
+			}
+		}
+
+		if (lScratchQuads > 0)
+			buffer.put(lScratch, 0, lScratchQuads * NUM_FLOATS_PER_QUAD);
+
+		mNumQuadsWritten = lNumQuads;
+		return i;
+	}
+}
@@ -0,0 +1,113 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
+
+/***
+ * An {@link IBatchDrawBackend} which doesn't draw anything, but records the draw calls (and optionally the vertex stream) it receives, so the output of the batching can be tested and benchmarked without an OpenGl context.
+ */
+public class RecordingBatchDrawBackend implements IBatchDrawBackend {
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private boolean mRecordVertices;
+
+	private int mNumDrawCalls;
+	private int mNumQuads;
+
+	// per draw call
+	private int[] mDrawCallNumQuads = new int[16];
+	private int[] mDrawCallNumTextures = new int[16];
+	private int[] mDrawCallBlendSrcFactors = new int[16];
+	private int[] mDrawCallBlendDstFactors = new int[16];
+
+	private float[] mVertices = new float[0];
+	private int mNumVertexFloats;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/** If true, the vertices of all draw calls are copied into {@link #vertices()}. */
+	public void recordVertices(boolean recordVertices) {
+		mRecordVertices = recordVertices;
+	}
+
+	public int numDrawCalls() {
+		return mNumDrawCalls;
+	}
+
+	/** Returns the total number of quads drawn by all draw calls. */
+	public int numQuads() {
+		return mNumQuads;
+	}
+
+	public int numQuads(int drawCallIndex) {
+		return mDrawCallNumQuads[drawCallIndex];
+	}
+
+	/** Returns the number of texture slots which were in use by the given draw call. */
+	public int numTextures(int drawCallIndex) {
+		return mDrawCallNumTextures[drawCallIndex];
+	}
+
+	/** Returns the source blend factor of the given draw call, or -1 if blending was disabled. */
+	public int blendSrcFactor(int drawCallIndex) {
+		return mDrawCallBlendSrcFactors[drawCallIndex];
+	}
+
+	/** Returns the destination blend factor of the given draw call, or -1 if blending was disabled. */
+	public int blendDstFactor(int drawCallIndex) {
+		return mDrawCallBlendDstFactors[drawCallIndex];
+	}
+
+	/** Returns the recorded vertex stream. Only the first {@link #numVertexFloats()} floats are valid. */
+	public float[] vertices() {
+		return mVertices;
+	}
+
+	public int numVertexFloats() {
+		return mNumVertexFloats;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	public void clear() {
+		mNumDrawCalls = 0;
+		mNumQuads = 0;
+		mNumVertexFloats = 0;
+	}
+
+	@Override
+	public void drawQuads(FloatBuffer vertices, int numQuads, TextureSlotBatch textureSlots, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		if (mNumDrawCalls == mDrawCallNumQuads.length) {
+			final int lNewLength = mNumDrawCalls * 2;
+			mDrawCallNumQuads = Arrays.copyOf(mDrawCallNumQuads, lNewLength);
+			mDrawCallNumTextures = Arrays.copyOf(mDrawCallNumTextures, lNewLength);
+			mDrawCallBlendSrcFactors = Arrays.copyOf(mDrawCallBlendSrcFactors, lNewLength);
+			mDrawCallBlendDstFactors = Arrays.copyOf(mDrawCallBlendDstFactors, lNewLength);
+		}
+
+		mDrawCallNumQuads[mNumDrawCalls] = numQuads;
+		mDrawCallNumTextures[mNumDrawCalls] = textureSlots.numTextures();
+		mDrawCallBlendSrcFactors[mNumDrawCalls] = blendEnabled ? blendSrcFactor : -1;
+		mDrawCallBlendDstFactors[mNumDrawCalls] = blendEnabled ? blendDstFactor : -1;
+		mNumDrawCalls++;
+		mNumQuads += numQuads;
+
+		if (mRecordVertices) {
+			final int lNumFloats = vertices.remaining();
+			if (mNumVertexFloats + lNumFloats > mVertices.length)
+				mVertices = Arrays.copyOf(mVertices, Math.max(mVertices.length * 2, mNumVertexFloats + lNumFloats));
+
+			vertices.get(vertices.position(), mVertices, mNumVertexFloats, lNumFloats);
+			mNumVertexFloats += lNumFloats;
+		}
+	}
+}
@@ -0,0 +1,394 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
+
+/***
+ * Records the quads of a {@link TextureBatchPCT} in deferred mode, and emits them sorted by their render state, so that quads which share a state (and fit into the texture slots of one draw call) are drawn together no matter the order in which they were submitted.
+ *
+ * Each quad is stored as a 64-bit sort key and its vertices. The key orders the quads by (from the most significant bits):
+ * <ul>
+ * <li>layer (8 bits) - set with {@link TextureBatchPCT#sortLayer(int)}, lower layers are drawn first.</li>
+ * <li>zDepth (24 bits) - lower depths are drawn first.</li>
+ * <li>blend state (8 bits), shader (8 bits) and texture (16 bits) - the index of the state in the order it was first used in the pass.</li>
+ * </ul>
+ * The keys are radix sorted, which is stable, so quads with the same key keep their submission order. Quads on the same layer and depth may be reordered by state, so overlapping quads which must be drawn in order need to be given different depths or layers.
+ */
+public class RenderCommandQueue {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int NUM_FLOATS_PER_QUAD = TextureBatchPCT.NUM_VERTICES_PER_SPRITE * TextureBatchPCT.NUM_FLOATS_PER_VERTEX;
+
+	public static final int MAX_LAYER = 255;
+
+	private static final int MAX_STATES = 256;
+	private static final int MAX_TEXTURES = 1 << 16;
+
+	// the offsets of the fields of a vertex which the queue reads or patches
+	private static final int VERTEX_Z_OFFSET = 2;
+	private static final int VERTEX_TEXTURE_INDEX_OFFSET = TextureBatchPCT.NUM_FLOATS_PER_VERTEX - 1;
+
+	private static final int LAYER_SHIFT = 56;
+	private static final int DEPTH_SHIFT = 32;
+	private static final int BLEND_SHIFT = 24;
+	private static final int SHADER_SHIFT = 16;
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private boolean mSortCommands = true;
+
+	private int mNumCommands;
+	private long[] mKeys = new long[0];
+	private int[] mOrder = new int[0];
+	private int[] mCommandTextureIds = new int[0];
+	private float[] mVertices = new float[0];
+
+	// the vertices in sorted order, and the texture slot of each sorted command
+	private float[] mSortedVertices = new float[0];
+	private float[] mEmitVertices;
+	private int[] mSlots = new int[0];
+
+	// the scratch arrays of the radix sort
+	private long[] mSortKeys = new long[0];
+	private int[] mSortOrder = new int[0];
+	private final int[] mBucketCounts = new int[RADIX_BUCKETS];
+
+	// the states used in this pass, indexed by the state fields of the keys
+	private final ShaderMVP_PCT[] mShaders = new ShaderMVP_PCT[MAX_STATES];
+	private int mNumShaders;
+	private final int[] mBlendStates = new int[MAX_STATES];
+	private int mNumBlendStates;
+	private int[] mTextureIds = new int[16];
+	private int mNumTextures;
+
+	// the last state looked up, as the same state is usually used by many quads in a row
+	private int mLastTextureId = -1;
+	private int mLastTextureIndex;
+
+	private final TextureSlotBatch mTextureSlots = new TextureSlotBatch();
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public int numCommands() {
+		return mNumCommands;
+	}
+
+	public boolean isEmpty() {
+		return mNumCommands == 0;
+	}
+
+	public boolean sortCommands() {
+		return mSortCommands;
+	}
+
+	/** If false, the quads are emitted in submission order (with the same draw calls as a {@link TextureBatchPCT} in immediate mode), which is useful to compare the two. */
+	public void sortCommands(boolean sortCommands) {
+		mSortCommands = sortCommands;
+	}
+
+	/** Sets the number of texture units reserved ahead of the texture slots (see {@link TextureSlotBatch#textureSlotOffset(int)}). */
+	public void textureSlotOffset(int numProtectedTextureIndices) {
+		mTextureSlots.textureSlotOffset(numProtectedTextureIndices);
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/** Removes all recorded quads and states. */
+	public void clear() {
+		mNumCommands = 0;
+
+		Arrays.fill(mShaders, 0, mNumShaders, null);
+		mNumShaders = 0;
+		mNumBlendStates = 0;
+		mNumTextures = 0;
+		mLastTextureId = -1;
+	}
+
+	/***
+	 * Records numQuads quads, whose vertices (in the layout of the {@link TextureBatchPCT}) start at the given offset of the vertices array. The texture index of the vertices is resolved when the quads are emitted. The zDepth of each quad is taken from its first vertex.
+	 *
+	 * @param layer     The layer of the quads, [0, {@link #MAX_LAYER}].
+	 * @param textureId The OpenGl id of the texture of the quads.
+	 */
+	public void addQuads(float[] vertices, int offset, int numQuads, int layer, int textureId, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		if (numQuads <= 0)
+			return;
+
+		ensureCapacity(mNumCommands + numQuads);
+
+		final long lStateBits = ((long) Math.max(0, Math.min(layer, MAX_LAYER)) << LAYER_SHIFT) //
+				| ((long) blendStateIndex(blendEnabled, blendSrcFactor, blendDstFactor) << BLEND_SHIFT) //
+				| ((long) shaderIndex(shader) << SHADER_SHIFT) //
+				| textureIndex(textureId);
+
+		System.arraycopy(vertices, offset, mVertices, mNumCommands * NUM_FLOATS_PER_QUAD, numQuads * NUM_FLOATS_PER_QUAD);
+
+		for (int i = 0; i < numQuads; i++) {
+			final float lZDepth = vertices[offset + i * NUM_FLOATS_PER_QUAD + VERTEX_Z_OFFSET];
+			mKeys[mNumCommands] = lStateBits | ((long) depthBits(lZDepth) << DEPTH_SHIFT);
+			mCommandTextureIds[mNumCommands] = textureId;
+			mNumCommands++;
+		}
+	}
+
+	/***
+	 * Sorts the recorded quads (unless {@link #sortCommands(boolean)} is false) and emits them to the backend with as few draw calls as possible. A draw call is issued whenever the blend state or the shader changes, the texture slots are full, or maxQuads quads have been written to the buffer. The queue is cleared afterwards.
+	 *
+	 * @param buffer   The buffer into which the vertices of each draw call are assembled. It must hold at least maxQuads quads.
+	 * @param maxQuads The maximum number of quads per draw call.
+	 */
+	public void flush(FloatBuffer buffer, int maxQuads, IBatchDrawBackend backend) {
+		if (mNumCommands == 0) {
+			clear();
+			return;
+		}
+
+		final int lNumCommands = mNumCommands;
+		final var lOrder = mOrder;
+		for (int i = 0; i < lNumCommands; i++)
+			lOrder[i] = i;
+
+		mEmitVertices = mVertices;
+		if (mSortCommands && radixSort()) {
+			// the vertices are moved into sorted order with a sequential pass over the recorded vertices (the commands with equal keys are written as sequential streams), which is much faster than gathering them in sorted order
+			final var lVertices = mVertices;
+			final var lSortedVertices = mSortedVertices;
+			final var lRank = mSortOrder;
+			for (int i = 0; i < lNumCommands; i++)
+				lRank[lOrder[i]] = i;
+
+			for (int c = 0; c < lNumCommands; c++)
+				System.arraycopy(lVertices, c * NUM_FLOATS_PER_QUAD, lSortedVertices, lRank[c] * NUM_FLOATS_PER_QUAD, NUM_FLOATS_PER_QUAD);
+
+			mEmitVertices = lSortedVertices;
+		}
+
+		// the draw calls are found from the keys first, and the vertices of each are then copied in one tight loop
+		final var lKeys = mKeys;
+		final var lSlots = mSlots;
+		final var lTextureSlots = mTextureSlots;
+		lTextureSlots.clear();
+
+		int lRunStart = 0;
+		int lNumQuads = 0;
+		int lDrawState = (int) (lKeys[0] >>> SHADER_SHIFT) & 0xFFFF; // blend and shader
+
+		for (int i = 0; i < lNumCommands; i++) {
+			final int lState = (int) (lKeys[i] >>> SHADER_SHIFT) & 0xFFFF;
+			if (lNumQuads > 0 && (lState != lDrawState || lNumQuads == maxQuads)) {
+				emit(buffer, lRunStart, i, lNumQuads, lDrawState, backend);
+				lRunStart = i;
+				lNumQuads = 0;
+			}
+
+			lDrawState = lState;
+
+			final int lTextureId = mCommandTextureIds[lOrder[i]];
+			int lTextureSlotIndex = lTextureSlots.getTextureSlotIndex(lTextureId);
+			if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID) {
+				lSlots[i] = TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID;
+				continue;
+			}
+
+			if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
+				emit(buffer, lRunStart, i, lNumQuads, lDrawState, backend);
+				lRunStart = i;
+				lNumQuads = 0;
+				lTextureSlotIndex = lTextureSlots.getTextureSlotIndex(lTextureId);
+			}
+
+			lSlots[i] = lTextureSlotIndex;
+			lNumQuads++;
+		}
+
+		if (lNumQuads > 0)
+			emit(buffer, lRunStart, lNumCommands, lNumQuads, lDrawState, backend);
+
+		clear();
+	}
+
+	/** Copies the vertices of the sorted commands [start, end) into the buffer and draws them. */
+	private void emit(FloatBuffer buffer, int start, int end, int numQuads, int state, IBatchDrawBackend backend) {
+		final var lSlots = mSlots;
+		final var lVertices = mEmitVertices;
+
+		buffer.clear();
+		if (end - start == numQuads) {
+			buffer.put(lVertices, start * NUM_FLOATS_PER_QUAD, numQuads * NUM_FLOATS_PER_QUAD);
+		} else {
+			// some commands have an invalid texture
+			for (int i = start; i < end; i++) {
+				if (lSlots[i] >= 0)
+					buffer.put(lVertices, i * NUM_FLOATS_PER_QUAD, NUM_FLOATS_PER_QUAD);
+			}
+		}
+
+		// the texture indices are patched in the buffer, as the recorded vertices don't know their texture slot
+		int o = VERTEX_TEXTURE_INDEX_OFFSET;
+		for (int i = start; i < end; i++) {
+			final float lSlot = lSlots[i];
+			if (lSlot >= 0) {
+				for (int v = 0; v < TextureBatchPCT.NUM_VERTICES_PER_SPRITE; v++)
+					buffer.put(o + v * TextureBatchPCT.NUM_FLOATS_PER_VERTEX, lSlot);
+
+				o += NUM_FLOATS_PER_QUAD;
+			}
+		}
+
+		buffer.flip();
+
+		final int lBlendState = mBlendStates[(state >>> (BLEND_SHIFT - SHADER_SHIFT)) & 0xFF];
+		final var lShader = mShaders[state & 0xFF];
+		backend.drawQuads(buffer, numQuads, mTextureSlots, lShader, lBlendState < 0, (lBlendState >>> 16) & 0x7FFF, lBlendState & 0xFFFF);
+
+		buffer.clear();
+		mTextureSlots.clear();
+	}
+
+	/**
+	 * An LSD radix sort of the keys (as unsigned values), after which mKeys and mOrder hold the keys in ascending order and the commands they belong to. Passes over bytes which are the same in all keys are skipped.
+	 *
+	 * @return false if all passes were skipped, i.e. the commands are still in submission order.
+	 */
+	private boolean radixSort() {
+		final int lNumCommands = mNumCommands;
+		final var lCounts = mBucketCounts;
+
+		var lKeysIn = mKeys;
+		var lOrderIn = mOrder;
+		var lKeysOut = mSortKeys;
+		var lOrderOut = mSortOrder;
+		boolean lReordered = false;
+
+		for (int lShift = 0; lShift < Long.SIZE; lShift += RADIX_BITS) {
+			Arrays.fill(lCounts, 0);
+			for (int i = 0; i < lNumCommands; i++)
+				lCounts[(int) (lKeysIn[i] >>> lShift) & (RADIX_BUCKETS - 1)]++;
+
+			if (lCounts[(int) (lKeysIn[0] >>> lShift) & (RADIX_BUCKETS - 1)] == lNumCommands)
+				continue;
+
+			int lSum = 0;
+			for (int b = 0; b < RADIX_BUCKETS; b++) {
+				final int lCount = lCounts[b];
+				lCounts[b] = lSum;
+				lSum += lCount;
+			}
+
+			lReordered = true;
+			for (int i = 0; i < lNumCommands; i++) {
+				final int lIndex = lCounts[(int) (lKeysIn[i] >>> lShift) & (RADIX_BUCKETS - 1)]++;
+				lKeysOut[lIndex] = lKeysIn[i];
+				lOrderOut[lIndex] = lOrderIn[i];
+			}
+
+			final var lTempKeys = lKeysIn;
+			lKeysIn = lKeysOut;
+			lKeysOut = lTempKeys;
+
+			final var lTempOrder = lOrderIn;
+			lOrderIn = lOrderOut;
+			lOrderOut = lTempOrder;
+		}
+
+		if (lKeysIn != mKeys) {
+			System.arraycopy(lKeysIn, 0, mKeys, 0, lNumCommands);
+			System.arraycopy(lOrderIn, 0, mOrder, 0, lNumCommands);
+		}
+
+		return lReordered;
+	}
+
+	private void ensureCapacity(int numCommands) {
+		if (numCommands <= mKeys.length)
+			return;
+
+		final int lNewCapacity = Math.max(numCommands, Math.max(256, mKeys.length * 2));
+		mKeys = Arrays.copyOf(mKeys, lNewCapacity);
+		mOrder = Arrays.copyOf(mOrder, lNewCapacity);
+		mCommandTextureIds = Arrays.copyOf(mCommandTextureIds, lNewCapacity);
+		mSlots = new int[lNewCapacity];
+		mSortedVertices = new float[lNewCapacity * NUM_FLOATS_PER_QUAD];
+		mSortKeys = new long[lNewCapacity];
+		mSortOrder = new int[lNewCapacity];
+		mVertices = Arrays.copyOf(mVertices, lNewCapacity * NUM_FLOATS_PER_QUAD);
+	}
+
+	private int textureIndex(int textureId) {
+		if (textureId == mLastTextureId)
+			return mLastTextureIndex;
+
+		int lIndex = -1;
+		for (int i = 0; i < mNumTextures; i++) {
+			if (mTextureIds[i] == textureId) {
+				lIndex = i;
+				break;
+			}
+		}
+
+		if (lIndex == -1) {
+			// more textures than fit into the key share the last index, which only affects the grouping
+			if (mNumTextures == MAX_TEXTURES)
+				return MAX_TEXTURES - 1;
+
+			if (mNumTextures == mTextureIds.length)
+				mTextureIds = Arrays.copyOf(mTextureIds, mNumTextures * 2);
+
+			lIndex = mNumTextures++;
+			mTextureIds[lIndex] = textureId;
+		}
+
+		mLastTextureId = textureId;
+		mLastTextureIndex = lIndex;
+		return lIndex;
+	}
+
+	private int shaderIndex(ShaderMVP_PCT shader) {
+		for (int i = 0; i < mNumShaders; i++) {
+			if (mShaders[i] == shader)
+				return i;
+		}
+
+		if (mNumShaders == MAX_STATES)
+			throw new IllegalStateException("Too many shaders used in one pass of the RenderCommandQueue (max " + MAX_STATES + ")");
+
+		mShaders[mNumShaders] = shader;
+		return mNumShaders++;
+	}
+
+	private int blendStateIndex(boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		// the blend factors are GL enums, which fit into 15 and 16 bits
+		final int lBlendState = blendEnabled ? (1 << 31) | ((blendSrcFactor & 0x7FFF) << 16) | (blendDstFactor & 0xFFFF) : 0;
+		for (int i = 0; i < mNumBlendStates; i++) {
+			if (mBlendStates[i] == lBlendState)
+				return i;
+		}
+
+		if (mNumBlendStates == MAX_STATES)
+			throw new IllegalStateException("Too many blend states used in one pass of the RenderCommandQueue (max " + MAX_STATES + ")");
+
+		mBlendStates[mNumBlendStates] = lBlendState;
+		return mNumBlendStates++;
+	}
+
+	/** Maps the depth to the upper 24 bits of an unsigned integer which sorts in the same order as the float. */
+	private static int depthBits(float zDepth) {
+		final int lBits = Float.floatToIntBits(zDepth);
+		final int lSortable = lBits < 0 ? ~lBits : lBits | 0x80000000;
+		return lSortable >>> 8;
+	}
+}
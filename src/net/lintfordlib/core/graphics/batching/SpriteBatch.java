@@ -1,15 +1,74 @@
 package net.lintfordlib.core.graphics.batching;
 
+import java.nio.FloatBuffer;
 import java.util.List;
 
+import net.lintfordlib.assets.ResourceManager;
+import net.lintfordlib.core.camera.ICamera;
 import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
 import net.lintfordlib.core.graphics.sprites.SpriteFrame;
 import net.lintfordlib.core.graphics.sprites.SpriteInstance;
 import net.lintfordlib.core.graphics.sprites.spritesheet.SpriteSheetDefinition;
+import net.lintfordlib.core.graphics.textures.Texture;
+import net.lintfordlib.core.graphics.textures.TextureManager;
+import net.lintfordlib.core.maths.Matrix4f;
 import net.lintfordlib.core.maths.Vector2f;
+import net.lintfordlib.core.particles.ParticleArrays;
 
 public class SpriteBatch extends TextureBatchPCT {
 
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int PARTICLE_SCRATCH_QUADS = 256;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final ParticleVertexWriter mParticleVertexWriter = new ParticleVertexWriter();
+
+	// in deferred mode, the particle quads are assembled here before they are added to the render queue
+	private final float[] mParticleScratch = new float[PARTICLE_SCRATCH_QUADS * ParticleVertexWriter.NUM_FLOATS_PER_QUAD];
+	private final FloatBuffer mParticleScratchBuffer = FloatBuffer.wrap(mParticleScratch);
+
+	private boolean mUseInstancing;
+	private SpriteInstanceBatch mInstanceBatch;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public boolean useInstancing() {
+		return mUseInstancing;
+	}
+
+	/**
+	 * Draws the sprites through a {@link SpriteInstanceBatch}, which uploads 48 bytes per sprite and leaves the corners and the rotation to the vertex shader, instead of four vertices of 44 bytes. Takes effect the next time the resources are loaded, and only if instanced arrays are supported.
+	 *
+	 * Quads drawn in deferred mode, with a custom shader, and the particles still use the vertex path. Switching between the two paths flushes the batch, so the draw order is kept.
+	 */
+	public void useInstancing(boolean useInstancing) {
+		mUseInstancing = useInstancing;
+
+		if (mUseInstancing && mInstanceBatch == null) {
+			mInstanceBatch = new SpriteInstanceBatch();
+			syncInstanceState();
+		}
+	}
+
+	/** Returns the batch of the instanced path, or null if instancing was never enabled. */
+	public SpriteInstanceBatch instanceBatch() {
+		return mInstanceBatch;
+	}
+
+	/** Returns true if the sprites are currently drawn through the instanced path. */
+	public boolean isInstancing() {
+		return mInstanceBatch != null && mInstanceBatch.isDrawing() && !mIsDeferredPass && mCustomShader == mShader;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -19,10 +78,138 @@ public class SpriteBatch extends TextureBatchPCT {
 
 	}
 
+	// --------------------------------------
+	// Core-Methods
+	// --------------------------------------
+
+	@Override
+	public void loadResources(ResourceManager resourceManager) {
+		super.loadResources(resourceManager);
+
+		if (mUseInstancing && mInstanceBatch != null && resourceManager.graphicsCompatibility().instancedArraysSupported())
+			mInstanceBatch.loadResources(resourceManager);
+	}
+
+	@Override
+	public void unloadResources() {
+		super.unloadResources();
+
+		if (mInstanceBatch != null) {
+			mInstanceBatch.unloadResources();
+
+			if (!mUseInstancing)
+				mInstanceBatch = null;
+		}
+	}
+
 	// --------------------------------------
 	// Methods
 	// --------------------------------------
 
+	@Override
+	public void modelMatrix(Matrix4f newModelMatrix) {
+		super.modelMatrix(newModelMatrix);
+
+		if (mInstanceBatch != null)
+			mInstanceBatch.modelMatrix(mModelMatrix);
+	}
+
+	@Override
+	public void setGlBlendEnabled(boolean blendEnabled) {
+		super.setGlBlendEnabled(blendEnabled);
+
+		if (mInstanceBatch != null)
+			mInstanceBatch.setGlBlendEnabled(blendEnabled);
+	}
+
+	@Override
+	public void setGlBlendFactor(int sourceFactor, int destFactor) {
+		super.setGlBlendFactor(sourceFactor, destFactor);
+
+		if (mInstanceBatch != null)
+			mInstanceBatch.setGlBlendFactor(sourceFactor, destFactor);
+	}
+
+	@Override
+	public void begin(ICamera camera, ShaderMVP_PCT customShader) {
+		super.begin(camera, customShader);
+
+		if (mIsDrawing && mInstanceBatch != null)
+			mInstanceBatch.begin(camera);
+	}
+
+	@Override
+	public void end() {
+		super.end();
+
+		if (mInstanceBatch != null)
+			mInstanceBatch.end();
+	}
+
+	@Override
+	protected void flush() {
+		super.flush();
+
+		// only one of the two paths holds sprites at any time, see beginQuad and beginInstance
+		if (mInstanceBatch != null && mInstanceBatch.numInstances() > 0) {
+			syncInstanceState();
+			mInstanceBatch.flush();
+		}
+	}
+
+	@Override
+	protected int beginQuad(int textureId) {
+		flushInstances();
+
+		return super.beginQuad(textureId);
+	}
+
+	private void flushInstances() {
+		if (mInstanceBatch != null && mInstanceBatch.numInstances() > 0)
+			flush();
+	}
+
+	/** Prepares the instanced path for a sprite, flushing the quads of the vertex path first. */
+	private void beginInstance() {
+		if (mIndexCount > 0)
+			flush();
+
+		syncInstanceState();
+		mInstanceBatch.useHalfPixelCorrection(mUseHalfPixelCorrection);
+		mInstanceBatch.setColorRGBA(mR, mG, mB, mA);
+	}
+
+	/** Copies the blend state and the model matrix into the instance batch, which also flushes on its own when it runs out of instances or texture slots. */
+	private void syncInstanceState() {
+		mInstanceBatch.modelMatrix(mModelMatrix);
+		mInstanceBatch.setGlBlendEnabled(mBlendEnabled);
+		mInstanceBatch.setGlBlendFactor(mBlendFuncSrcFactor, mBlendFuncDstFactor);
+	}
+
+	@Override
+	public void draw(Texture tex, float sx, float sy, float sw, float sh, float dx, float dy, float dw, float dh, float zDepth) {
+		if (!isInstancing()) {
+			super.draw(tex, sx, sy, sw, sh, dx, dy, dw, dh, zDepth);
+			return;
+		}
+
+		beginInstance();
+		mInstanceBatch.draw(tex, sx, sy, sw, sh, dx, dy, dw, dh, zDepth);
+	}
+
+	@Override
+	public void drawAroundCenter(Texture tex, float sx, float sy, float sq, float sh, float dx, float dy, float dw, float dh, float zDepth, float rota, float rotx, float roty, float scale) {
+		if (!isInstancing()) {
+			super.drawAroundCenter(tex, sx, sy, sq, sh, dx, dy, dw, dh, zDepth, rota, rotx, roty, scale);
+			return;
+		}
+
+		beginInstance();
+		mInstanceBatch.drawAroundCenter(tex, sx, sy, sq, sh, dx, dy, dw, dh, zDepth, rota, rotx, roty, scale);
+	}
+
+	// ---
+
 	public void draw(SpriteSheetDefinition spriteSheetDefinition, SpriteInstance spriteInstance, float zDepth) {
 		if (!mIsDrawing)
 			return;
@@ -179,4 +366,82 @@ public class SpriteBatch extends TextureBatchPCT {
 
 		drawAroundCenter(spriteSheetDefinition.texture(), srcX, srcY, srcW, srcH, destX, destY, destWidth, destHeight, zDepth, rot, pivotX, pivotY, 1.f);
 	}
-}
\ No newline at end of file
+
+	// ---
+
+	/**
+	 * Draws the particles [0, numParticles) with the given sprite frame, each rotated around its center, scaled by its own scale and tinted with its own color. This produces the same quads as calling {@link #drawAroundCenter(SpriteSheetDefinition, SpriteFrame, float, float, float, float, float, float, float, float)} for each particle (with the sprite frame size times the particle scale), but the vertices are written straight into the vertex buffer by a {@link ParticleVertexWriter}.
+	 */
+	public void drawParticles(SpriteSheetDefinition spriteSheetDefinition, SpriteFrame spriteFrame, ParticleArrays particles) {
+		if (!isLoaded() || !mIsDrawing)
+			return;
+
+		if (spriteSheetDefinition == null || spriteFrame == null || particles == null)
+			return;
+
+		var lTexture = spriteSheetDefinition.texture();
+		if (lTexture == null) {
+			if (TextureManager.USE_DEBUG_MISSING_TEXTURES)
+				lTexture = mResourceManager.textureManager().textureNotFound();
+			else
+				return;
+		}
+
+		final float lTexWidth = lTexture.getTextureWidth();
+		final float lTexHeight = lTexture.getTextureHeight();
+
+		final float srcX = spriteFrame.flipHorizontal() ? spriteFrame.x() + spriteFrame.width() : spriteFrame.x();
+		final float srcY = spriteFrame.flipVertical() ? spriteFrame.y() + spriteFrame.height() : spriteFrame.y();
+		final float srcW = spriteFrame.flipHorizontal() ? -spriteFrame.width() : spriteFrame.width();
+		final float srcH = spriteFrame.flipVertical() ? -spriteFrame.height() : spriteFrame.height();
+
+		final var pcx = (mUseHalfPixelCorrection ? .5f : .0f) / lTexWidth;
+		final var pcy = (mUseHalfPixelCorrection ? .5f : .0f) / lTexHeight;
+
+		final var lWriter = mParticleVertexWriter;
+		lWriter.spriteFrame(spriteFrame.width(), spriteFrame.height(), (srcX + pcx) / lTexWidth, (srcY + pcy) / lTexHeight, (srcX + srcW - pcx) / lTexWidth, (srcY + srcH - pcy) / lTexHeight);
+		lWriter.cullBounds(mCamera.boundingRectangle());
+
+		final int lNumParticles = particles.numParticles();
+		int lParticleIndex = 0;
+
+		if (mIsDeferredPass) {
+			final int lTextureId = lTexture.getTextureID();
+			if (lTextureId == -1)
+				return;
+
+			// the texture slot is resolved when the render queue is flushed
+			lWriter.textureSlotIndex(0);
+			while (lParticleIndex < lNumParticles) {
+				mParticleScratchBuffer.clear();
+				lParticleIndex = lWriter.write(mParticleScratchBuffer, particles, lParticleIndex, lNumParticles, PARTICLE_SCRATCH_QUADS);
+				addQuadsToRenderQueue(mParticleScratch, 0, lWriter.numQuadsWritten(), lTextureId);
+			}
+
+			return;
+		}
+
+		flushInstances();
+
+		while (lParticleIndex < lNumParticles) {
+			if (mIndexCount >= MAX_INDEX_COUNT)
+				flush();
+
+			// the texture slot needs resolving again after each flush
+			var lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(lTexture);
+			if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID)
+				return;
+
+			if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
+				flush(); // flush and try again
+				lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(lTexture);
+			}
+
+			lWriter.textureSlotIndex(lTextureSlotIndex);
+
+			final int lFreeQuads = MAX_SPRITES - mIndexCount / NUM_INDICES_PER_SPRITE;
+			lParticleIndex = lWriter.write(mBuffer, particles, lParticleIndex, lNumParticles, lFreeQuads);
+			mIndexCount += lWriter.numQuadsWritten() * NUM_INDICES_PER_SPRITE;
+		}
+	}
+}
@@ -0,0 +1,482 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.opengl.ARBInstancedArrays;
+import org.lwjgl.opengl.GL;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL31;
+import org.lwjgl.opengl.GL33;
+
+import net.lintfordlib.assets.ResourceManager;
+import net.lintfordlib.core.camera.ICamera;
+import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.debug.stats.DebugStats;
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
+import net.lintfordlib.core.graphics.textures.Texture;
+import net.lintfordlib.core.graphics.textures.TextureManager;
+import net.lintfordlib.core.maths.Matrix4f;
+
+/**
+ * Draws sprites with hardware instancing: a static unit quad is drawn once per sprite, and each sprite only uploads one instance of 48 bytes (see {@link SpriteInstanceWriter}), from which the vertex shader computes the corners, rotation and texture coordinates. The quads are the same as those of {@link TextureBatchPCT#draw(Texture, float, float, float, float, float, float, float, float, float)} and {@link TextureBatchPCT#drawAroundCenter(Texture, float, float, float, float, float, float, float, float, float, float, float, float, float)}.
+ *
+ * Requires instanced arrays (see GraphicsCompatibility#instancedArraysSupported()). The {@link SpriteBatch} uses this batch when instancing is enabled.
+ *
+ * The OpenGl objects (including the shader) are created the first time the batch draws on the main thread, so the batch can assemble instances without an OpenGl context when it is given another {@link #drawBackend(ISpriteInstanceDrawBackend)}.
+ */
+public class SpriteInstanceBatch {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int MAX_INSTANCES = 10000;
+
+	protected static final String VERT_FILENAME = "/res/shaders/shader_batch_instanced_pct.vert";
+	protected static final String FRAG_FILENAME = "/res/shaders/shader_batch_pct.frag";
+
+	private static final int NUM_INDICES_PER_SPRITE = 6;
+
+	// the corners of the unit quad, in the order of the vertices of the TextureBatchPCT (bottom left, top left, top right, bottom right)
+	private static final float[] UNIT_QUAD_CORNERS = { 0.f, 0.f, 0.f, 1.f, 1.f, 1.f, 1.f, 0.f };
+	private static final int[] UNIT_QUAD_INDICES = { 1, 0, 2, 2, 0, 3 };
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	protected final TextureSlotBatch mTextureSlots = new TextureSlotBatch();
+
+	private final ISpriteInstanceDrawBackend mGlDrawBackend = this::drawInstancesGl;
+	private ISpriteInstanceDrawBackend mDrawBackend = mGlDrawBackend;
+
+	protected ICamera mCamera;
+	protected ShaderMVP_PCT mShader;
+	protected Matrix4f mModelMatrix;
+
+	protected ByteBuffer mBuffer;
+	protected int mNumInstances;
+
+	private boolean mBlendEnabled;
+	private int mBlendFuncSrcFactor;
+	private int mBlendFuncDstFactor;
+
+	private int mVaoId = -1;
+	private int mQuadVboId = -1;
+	private int mQuadVioId = -1;
+	private int mInstanceVboId = -1;
+
+	protected ResourceManager mResourceManager;
+	private boolean mResourcesLoaded;
+	private boolean mAreGlContainersInitialized = false;
+	protected boolean mIsDrawing;
+
+	protected boolean mUseHalfPixelCorrection;
+
+	protected float mR;
+	protected float mG;
+	protected float mB;
+	protected float mA;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public ISpriteInstanceDrawBackend drawBackend() {
+		return mDrawBackend;
+	}
+
+	/** Sets the backend which issues the draw calls, or resets it to the OpenGl backend if null. */
+	public void drawBackend(ISpriteInstanceDrawBackend drawBackend) {
+		mDrawBackend = drawBackend != null ? drawBackend : mGlDrawBackend;
+	}
+
+	public boolean blendEnabled() {
+		return mBlendEnabled;
+	}
+
+	public int blendSrcFactor() {
+		return mBlendFuncSrcFactor;
+	}
+
+	public int blendDstFactor() {
+		return mBlendFuncDstFactor;
+	}
+
+	/** The number of instances drawn since the last flush. */
+	public int numInstances() {
+		return mNumInstances;
+	}
+
+	public boolean useHalfPixelCorrection() {
+		return mUseHalfPixelCorrection;
+	}
+
+	public void useHalfPixelCorrection(boolean useHalfPixelCorrection) {
+		mUseHalfPixelCorrection = useHalfPixelCorrection;
+	}
+
+	public void setColorRGBA(float r, float g, float b, float a) {
+		mR = r;
+		mG = g;
+		mB = b;
+		mA = a;
+	}
+
+	public boolean isDrawing() {
+		return mIsDrawing;
+	}
+
+	public boolean isLoaded() {
+		return mResourcesLoaded;
+	}
+
+	public void modelMatrix(Matrix4f newModelMatrix) {
+		if (newModelMatrix == null) {
+			mModelMatrix = new Matrix4f();
+			mModelMatrix.setIdentity();
+		} else {
+			mModelMatrix = newModelMatrix;
+		}
+	}
+
+	public Matrix4f modelMatrix() {
+		return mModelMatrix;
+	}
+
+	public void setGlBlendEnabled(boolean blendEnabled) {
+		mBlendEnabled = blendEnabled;
+	}
+
+	public void setGlBlendFactor(int sourceFactor, int destFactor) {
+		mBlendFuncSrcFactor = sourceFactor;
+		mBlendFuncDstFactor = destFactor;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public SpriteInstanceBatch() {
+		mShader = new ShaderMVP_PCT("SpriteInstanceBatchShader", VERT_FILENAME, FRAG_FILENAME) {
+			@Override
+			protected void bindAtrributeLocations(int shaderID) {
+				GL20.glBindAttribLocation(shaderID, 0, "inCorner");
+				GL20.glBindAttribLocation(shaderID, 1, "inPosition");
+				GL20.glBindAttribLocation(shaderID, 2, "inSize");
+				GL20.glBindAttribLocation(shaderID, 3, "inRotation");
+				GL20.glBindAttribLocation(shaderID, 4, "inOrigin");
+				GL20.glBindAttribLocation(shaderID, 5, "inColor");
+				GL20.glBindAttribLocation(shaderID, 6, "inUvRect");
+				GL20.glBindAttribLocation(shaderID, 7, "inTexIndex");
+			}
+
+			@Override
+			protected void getUniformLocations() {
+				super.getUniformLocations();
+
+				final var maxTextureUnits = GL11.glGetInteger(GL20.GL_MAX_TEXTURE_IMAGE_UNITS);
+				final var textureUnits = BufferUtils.createIntBuffer(maxTextureUnits);
+				for (int i = 0; i < maxTextureUnits; i++) {
+					textureUnits.put(i);
+				}
+				textureUnits.flip();
+
+				int lTextureSamplerLocation = GL20.glGetUniformLocation(shaderID(), "textureSampler");
+				GL20.glUniform1iv(lTextureSamplerLocation, textureUnits);
+			}
+		};
+
+		mModelMatrix = new Matrix4f();
+
+		mBlendEnabled = true;
+		mBlendFuncSrcFactor = GL11.GL_SRC_ALPHA;
+		mBlendFuncDstFactor = GL11.GL_ONE_MINUS_SRC_ALPHA;
+
+		mUseHalfPixelCorrection = true;
+
+		mR = 1.f;
+		mG = 1.f;
+		mB = 1.f;
+		mA = 1.f;
+	}
+
+	// --------------------------------------
+	// Core-Methods
+	// --------------------------------------
+
+	public void loadResources(ResourceManager resourceManager) {
+		if (mResourcesLoaded)
+			return;
+
+		mResourceManager = resourceManager;
+
+		mBuffer = BufferUtils.createByteBuffer(MAX_INSTANCES * SpriteInstanceWriter.BYTES_PER_INSTANCE);
+
+		mResourcesLoaded = true;
+
+		Debug.debugManager().stats().incTag(DebugStats.TAG_ID_BATCH_OBJECTS);
+	}
+
+	/**
+	 * OpenGl container objects (Array objects/framebuffers/program pipeline/transform feedback) are not shared between OpenGl contexts and must be created on the main thread.
+	 */
+	private void initializeGlContainers() {
+		if (!mResourcesLoaded) {
+			Debug.debugManager().logger().i(getClass().getSimpleName(), "Cannot create Gl containers until resources have been loaded");
+			return;
+		}
+
+		if (mAreGlContainersInitialized)
+			return;
+
+		if (!mResourceManager.isMainOpenGlThread()) {
+			throw new IllegalStateException("initializeGlContainers() must be called on the main OpenGL thread.");
+		}
+
+		mShader.loadResources(mResourceManager);
+
+		if (mQuadVboId == -1) {
+			mQuadVboId = GL15.glGenBuffers();
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mQuadVboId);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, UNIT_QUAD_CORNERS, GL15.GL_STATIC_DRAW);
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: quad vbo " + mQuadVboId);
+		}
+
+		if (mQuadVioId == -1) {
+			mQuadVioId = GL15.glGenBuffers();
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: quad vio " + mQuadVioId);
+		}
+
+		if (mInstanceVboId == -1) {
+			mInstanceVboId = GL15.glGenBuffers();
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: instance vbo " + mInstanceVboId);
+		}
+
+		if (mVaoId == -1) {
+			mVaoId = GL30.glGenVertexArrays();
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenVertexArrays: " + mVaoId);
+		}
+
+		GL30.glBindVertexArray(mVaoId);
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mQuadVboId);
+		GL20.glEnableVertexAttribArray(0);
+		GL20.glVertexAttribPointer(0, 2, GL11.GL_FLOAT, false, 2 * Float.BYTES, 0);
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mInstanceVboId);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_INSTANCES * SpriteInstanceWriter.BYTES_PER_INSTANCE, GL15.GL_STREAM_DRAW);
+
+		final int lStride = SpriteInstanceWriter.BYTES_PER_INSTANCE;
+		instanceAttribute(1, 3, GL11.GL_FLOAT, false, lStride, SpriteInstanceWriter.POSITION_BYTE_OFFSET);
+		instanceAttribute(2, 2, GL11.GL_FLOAT, false, lStride, SpriteInstanceWriter.SIZE_BYTE_OFFSET);
+		instanceAttribute(3, 1, GL11.GL_FLOAT, false, lStride, SpriteInstanceWriter.ROTATION_BYTE_OFFSET);
+		instanceAttribute(4, 2, GL11.GL_FLOAT, false, lStride, SpriteInstanceWriter.ORIGIN_BYTE_OFFSET);
+		instanceAttribute(5, 4, GL11.GL_UNSIGNED_BYTE, true, lStride, SpriteInstanceWriter.COLOR_BYTE_OFFSET);
+		instanceAttribute(6, 4, GL11.GL_UNSIGNED_SHORT, true, lStride, SpriteInstanceWriter.UV_RECT_BYTE_OFFSET);
+		instanceAttribute(7, 1, GL11.GL_FLOAT, false, lStride, SpriteInstanceWriter.TEXTURE_INDEX_BYTE_OFFSET);
+
+		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, mQuadVioId);
+		GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, UNIT_QUAD_INDICES, GL15.GL_STATIC_DRAW);
+
+		GL30.glBindVertexArray(0);
+		mAreGlContainersInitialized = true;
+	}
+
+	private static void instanceAttribute(int index, int size, int type, boolean normalized, int stride, int byteOffset) {
+		GL20.glEnableVertexAttribArray(index);
+		GL20.glVertexAttribPointer(index, size, type, normalized, stride, byteOffset);
+
+		if (GL.getCapabilities().OpenGL33)
+			GL33.glVertexAttribDivisor(index, 1);
+		else
+			ARBInstancedArrays.glVertexAttribDivisorARB(index, 1);
+	}
+
+	public void unloadResources() {
+		if (!mResourcesLoaded)
+			return;
+
+		if (mAreGlContainersInitialized)
+			mShader.unloadResources();
+
+		if (mVaoId > -1) {
+			GL30.glDeleteVertexArrays(mVaoId);
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteVertexArrays: " + mVaoId);
+			mVaoId = -1;
+		}
+
+		if (mQuadVboId > -1) {
+			GL15.glDeleteBuffers(mQuadVboId);
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteBuffers quad VboId: " + mQuadVboId);
+			mQuadVboId = -1;
+		}
+
+		if (mQuadVioId > -1) {
+			GL15.glDeleteBuffers(mQuadVioId);
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteBuffers quad VioId: " + mQuadVioId);
+			mQuadVioId = -1;
+		}
+
+		if (mInstanceVboId > -1) {
+			GL15.glDeleteBuffers(mInstanceVboId);
+			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteBuffers instance VboId: " + mInstanceVboId);
+			mInstanceVboId = -1;
+		}
+
+		mBuffer = null;
+
+		mAreGlContainersInitialized = false;
+		mResourcesLoaded = false;
+
+		Debug.debugManager().stats().decTag(DebugStats.TAG_ID_BATCH_OBJECTS);
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	public void begin(ICamera camera) {
+		if (!mResourcesLoaded || camera == null)
+			return;
+
+		if (mIsDrawing) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Already drawing!");
+			return;
+		}
+
+		mCamera = camera;
+		mBuffer.clear();
+		mNumInstances = 0;
+		mIsDrawing = true;
+	}
+
+	public void end() {
+		if (!mIsDrawing)
+			return;
+
+		flush();
+
+		setGlBlendEnabled(true);
+		setGlBlendFactor(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+
+		mIsDrawing = false;
+	}
+
+	public void flush() {
+		if (!mResourcesLoaded || !mIsDrawing || mNumInstances == 0)
+			return;
+
+		mBuffer.flip();
+		mDrawBackend.drawInstances(mBuffer, mNumInstances, mTextureSlots, mBlendEnabled, mBlendFuncSrcFactor, mBlendFuncDstFactor, mModelMatrix);
+
+		mBuffer.clear();
+		mNumInstances = 0;
+
+		mTextureSlots.clear();
+	}
+
+	private void drawInstancesGl(ByteBuffer instances, int numInstances, TextureSlotBatch textureSlots, boolean blendEnabled, int blendSrcFactor, int blendDstFactor, Matrix4f modelMatrix) {
+		if (!mAreGlContainersInitialized)
+			initializeGlContainers();
+
+		GL30.glBindVertexArray(mVaoId);
+
+		// orphan the storage the previous draw call may still be reading, instead of waiting for it
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mInstanceVboId);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_INSTANCES * SpriteInstanceWriter.BYTES_PER_INSTANCE, GL15.GL_STREAM_DRAW);
+		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, instances);
+
+		if (blendEnabled) {
+			GL11.glEnable(GL11.GL_BLEND);
+			GL11.glBlendFunc(blendSrcFactor, blendDstFactor);
+		} else {
+			GL11.glDisable(GL11.GL_BLEND);
+			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+		}
+
+		textureSlots.bindTextures();
+
+		mShader.projectionMatrix(mCamera.projection());
+		mShader.viewMatrix(mCamera.view());
+		mShader.modelMatrix(modelMatrix);
+
+		mShader.bind();
+
+		if (Debug.debugManager().debugManagerEnabled()) {
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_DRAWCALLS);
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VERTS, numInstances * 4);
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_TRIS, numInstances * 2);
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, instances.remaining());
+		}
+
+		GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, NUM_INDICES_PER_SPRITE, GL11.GL_UNSIGNED_INT, 0, numInstances);
+
+		GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+		GL30.glBindVertexArray(0);
+
+		mShader.unbind();
+	}
+
+	// ---
+
+	public void draw(Texture tex, float sx, float sy, float sw, float sh, float dx, float dy, float dw, float dh, float zDepth) {
+		if (!mIsDrawing)
+			return;
+
+		if (!mCamera.boundingRectangle().intersectsAA(dx, dy, dw, dh))
+			return;
+
+		drawInstance(tex, sx, sy, sw, sh, dx + dw * .5f, dy + dh * .5f, dw, dh, zDepth, 0.f, 0.f, 0.f);
+	}
+
+	public void drawAroundCenter(Texture tex, float sx, float sy, float sw, float sh, float dx, float dy, float dw, float dh, float zDepth, float rota, float rotx, float roty, float scale) {
+		if (!mIsDrawing)
+			return;
+
+		// note: as in TextureBatchPCT, the rotation origin is not scaled with the sprite
+		drawInstance(tex, sx, sy, sw, sh, dx, dy, dw * scale, dh * scale, zDepth, rota, -rotx, -roty);
+	}
+
+	private void drawInstance(Texture tex, float sx, float sy, float sw, float sh, float centerX, float centerY, float width, float height, float zDepth, float rotation, float originX, float originY) {
+		if (tex == null) {
+			if (TextureManager.USE_DEBUG_MISSING_TEXTURES)
+				tex = mResourceManager.textureManager().textureNotFound();
+			else
+				return;
+		}
+
+		if (tex.getTextureID() == -1)
+			return;
+
+		if (mNumInstances >= MAX_INSTANCES)
+			flush();
+
+		int lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex.getTextureID());
+		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
+			flush(); // flush and try again
+			lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex.getTextureID());
+		}
+
+		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID)
+			return;
+
+		final float texWidth = tex.getTextureWidth();
+		final float texHeight = tex.getTextureHeight();
+
+		final var pcx = (mUseHalfPixelCorrection ? .5f : .0f) / texWidth;
+		final var pcy = (mUseHalfPixelCorrection ? .5f : .0f) / texHeight;
+
+		final var u0 = (sx + pcx) / texWidth;
+		final var v0 = (sy + pcy) / texHeight;
+		final var u1 = (sx + sw - pcx) / texWidth;
+		final var v1 = (sy + sh - pcy) / texHeight;
+
+		SpriteInstanceWriter.write(mBuffer, centerX, centerY, zDepth, width, height, rotation, originX, originY, mR, mG, mB, mA, u0, v0, u1, v1, lTextureSlotIndex);
+		mNumInstances++;
+	}
+}
@@ -0,0 +1,245 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
+
+/***
+ * The quads of one region of a {@link StaticGeometryChunks} grid. The quads are recorded into a {@link RenderCommandQueue} and, when the chunk is built, sorted by their render state into one vertex array which is split into {@link DrawRange}s (one draw call each).
+ *
+ * The chunk itself doesn't touch OpenGl. The {@link StaticSpriteBatch} uploads the built vertices into a vertex buffer per chunk, and again whenever the {@link #buildCount()} changes.
+ */
+public class StaticGeometryChunk {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** A run of the built quads which shares the textures, shader and blend state of one draw call. */
+	public static class DrawRange {
+
+		private int mFirstQuad;
+		private int mNumQuads;
+		private final TextureSlotBatch mTextureSlots = new TextureSlotBatch();
+		private ShaderMVP_PCT mShader;
+		private boolean mBlendEnabled;
+		private int mBlendSrcFactor;
+		private int mBlendDstFactor;
+
+		public int firstQuad() {
+			return mFirstQuad;
+		}
+
+		public int numQuads() {
+			return mNumQuads;
+		}
+
+		/** The textures referenced by the texture index of the vertices of this range. */
+		public TextureSlotBatch textureSlots() {
+			return mTextureSlots;
+		}
+
+		public ShaderMVP_PCT shader() {
+			return mShader;
+		}
+
+		public boolean blendEnabled() {
+			return mBlendEnabled;
+		}
+
+		public int blendSrcFactor() {
+			return mBlendSrcFactor;
+		}
+
+		public int blendDstFactor() {
+			return mBlendDstFactor;
+		}
+	}
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final int mCellX;
+	private final int mCellY;
+
+	private final RenderCommandQueue mQueue = new RenderCommandQueue();
+	private final IBatchDrawBackend mBuildBackend = this::appendRange;
+
+	// the bounds of the recorded quads, which can reach beyond the cell of the chunk
+	private float mMinX;
+	private float mMinY;
+	private float mMaxX;
+	private float mMaxY;
+
+	private float[] mVertices = new float[0];
+	private int mNumQuads;
+
+	private final List<DrawRange> mDrawRanges = new ArrayList<>();
+	private int mNumDrawRanges;
+
+	private boolean mIsRebuilding;
+	private int mBuildCount;
+
+	// managed by the StaticSpriteBatch
+	int mVaoId = -1;
+	int mVboId = -1;
+	int mUploadedBuildCount;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public int cellX() {
+		return mCellX;
+	}
+
+	public int cellY() {
+		return mCellY;
+	}
+
+	/** Returns the number of quads of the last build. */
+	public int numQuads() {
+		return mNumQuads;
+	}
+
+	/** Returns the vertices of the last build, in the layout of the {@link TextureBatchPCT}. Only the first {@link #numQuads()} quads are valid. */
+	public float[] vertices() {
+		return mVertices;
+	}
+
+	public int numDrawRanges() {
+		return mNumDrawRanges;
+	}
+
+	public DrawRange drawRange(int index) {
+		return mDrawRanges.get(index);
+	}
+
+	/** Returns true while the chunk accepts quads, i.e. between {@link StaticGeometryChunks#beginRebuild()} and {@link StaticGeometryChunks#endRebuild()} if the chunk lies in the dirty region. */
+	public boolean isRebuilding() {
+		return mIsRebuilding;
+	}
+
+	/** Returns the number of times the chunk has been built. */
+	public int buildCount() {
+		return mBuildCount;
+	}
+
+	public float boundsMinX() {
+		return mMinX;
+	}
+
+	public float boundsMinY() {
+		return mMinY;
+	}
+
+	public float boundsMaxX() {
+		return mMaxX;
+	}
+
+	public float boundsMaxY() {
+		return mMaxY;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public StaticGeometryChunk(int cellX, int cellY) {
+		mCellX = cellX;
+		mCellY = cellY;
+
+		resetBounds();
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/** Returns true if the chunk has quads and their bounds intersect the given rectangle. */
+	public boolean intersects(Rectangle rectangle) {
+		if (mNumQuads == 0)
+			return false;
+
+		return rectangle.intersectsAA(mMinX, mMinY, mMaxX - mMinX, mMaxY - mMinY);
+	}
+
+	/** Discards the recorded quads and starts to accept new ones. The quads of the last build are kept until the chunk is built again. */
+	void beginRebuild() {
+		mQueue.clear();
+		resetBounds();
+		mIsRebuilding = true;
+	}
+
+	/** Records one quad (4 vertices in the layout of the {@link TextureBatchPCT}) at the given offset of the vertices array. */
+	void addQuad(float[] vertices, int offset, int layer, int textureId, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		for (int v = 0; v < TextureBatchPCT.NUM_VERTICES_PER_SPRITE; v++) {
+			final int o = offset + v * TextureBatchPCT.NUM_FLOATS_PER_VERTEX;
+			final float x = vertices[o];
+			final float y = vertices[o + 1];
+
+			mMinX = Math.min(mMinX, x);
+			mMinY = Math.min(mMinY, y);
+			mMaxX = Math.max(mMaxX, x);
+			mMaxY = Math.max(mMaxY, y);
+		}
+
+		mQueue.addQuads(vertices, offset, 1, layer, textureId, shader, blendEnabled, blendSrcFactor, blendDstFactor);
+	}
+
+	/***
+	 * Sorts the recorded quads into the vertex array of the chunk and splits them into draw ranges, using the given buffer to assemble each range.
+	 *
+	 * @param maxQuadsPerRange The maximum number of quads per draw range (i.e. per draw call).
+	 */
+	void build(FloatBuffer buildBuffer, int maxQuadsPerRange) {
+		final int lNumFloats = mQueue.numCommands() * RenderCommandQueue.NUM_FLOATS_PER_QUAD;
+		if (mVertices.length < lNumFloats || mVertices.length > 2 * lNumFloats)
+			mVertices = new float[lNumFloats];
+
+		mNumQuads = 0;
+		mNumDrawRanges = 0;
+
+		// the queue sorts the quads and finds the draw calls, which are then captured instead of drawn
+		mQueue.flush(buildBuffer, maxQuadsPerRange, mBuildBackend);
+
+		if (mNumQuads == 0)
+			resetBounds();
+
+		mIsRebuilding = false;
+		mBuildCount++;
+	}
+
+	private void appendRange(FloatBuffer vertices, int numQuads, TextureSlotBatch textureSlots, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		if (mNumDrawRanges == mDrawRanges.size())
+			mDrawRanges.add(new DrawRange());
+
+		final var lRange = mDrawRanges.get(mNumDrawRanges++);
+		lRange.mFirstQuad = mNumQuads;
+		lRange.mNumQuads = numQuads;
+		lRange.mShader = shader;
+		lRange.mBlendEnabled = blendEnabled;
+		lRange.mBlendSrcFactor = blendSrcFactor;
+		lRange.mBlendDstFactor = blendDstFactor;
+
+		// the slots are assigned in the same order, so the texture indices of the vertices stay valid
+		lRange.mTextureSlots.clear();
+		final int lNumTextures = textureSlots.numTextures();
+		for (int i = 0; i < lNumTextures; i++)
+			lRange.mTextureSlots.getTextureSlotIndex(textureSlots.textureId(i));
+
+		vertices.get(mVertices, mNumQuads * RenderCommandQueue.NUM_FLOATS_PER_QUAD, numQuads * RenderCommandQueue.NUM_FLOATS_PER_QUAD);
+		mNumQuads += numQuads;
+	}
+
+	private void resetBounds() {
+		mMinX = Float.POSITIVE_INFINITY;
+		mMinY = Float.POSITIVE_INFINITY;
+		mMaxX = Float.NEGATIVE_INFINITY;
+		mMaxY = Float.NEGATIVE_INFINITY;
+	}
+}
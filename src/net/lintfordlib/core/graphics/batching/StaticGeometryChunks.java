@@ -0,0 +1,236 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
+
+/***
+ * Sorts static quads into a grid of {@link StaticGeometryChunk}s, keyed by the cell which contains the center of each quad, so whole regions can be culled at once, and only the regions which changed need to be rebuilt.
+ *
+ * The geometry is rebuilt between {@link #beginRebuild()} and {@link #endRebuild()}. Only the chunks in the dirty region (see {@link #markDirty(float, float, float, float)}) accept quads during a rebuild, all other chunks keep their geometry, so the owner can simply submit all of its quads again. The grid doesn't touch OpenGl.
+ */
+public class StaticGeometryChunks {
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final float mChunkSize;
+	private final int mMaxQuadsPerRange;
+
+	private final Map<Long, StaticGeometryChunk> mChunkMap = new HashMap<>();
+	private final List<StaticGeometryChunk> mChunks = new ArrayList<>();
+	private final FloatBuffer mBuildBuffer;
+
+	private boolean mIsRebuilding;
+	private boolean mRebuildAll = true;
+
+	// the region which needs to be rebuilt, unless everything does
+	private boolean mHasDirtyRegion;
+	private float mDirtyMinX;
+	private float mDirtyMinY;
+	private float mDirtyMaxX;
+	private float mDirtyMaxY;
+
+	// the last chunk a quad was added to, as neighboring quads are usually submitted in a row
+	private StaticGeometryChunk mLastChunk;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/** The width and height of the cell of each chunk, in world units. */
+	public float chunkSize() {
+		return mChunkSize;
+	}
+
+	public int numChunks() {
+		return mChunks.size();
+	}
+
+	/** Returns all chunks, including the ones which are currently empty. */
+	public List<StaticGeometryChunk> chunks() {
+		return mChunks;
+	}
+
+	/** Returns the chunk of the given cell, or null if no quads have ever been added to it. */
+	public StaticGeometryChunk chunk(int cellX, int cellY) {
+		return mChunkMap.get(chunkKey(cellX, cellY));
+	}
+
+	public boolean isRebuilding() {
+		return mIsRebuilding;
+	}
+
+	/** Returns true if any part of the geometry needs to be rebuilt. */
+	public boolean isDirty() {
+		return mRebuildAll || mHasDirtyRegion;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	/***
+	 * @param chunkSize        The width and height of the cell of each chunk, in world units.
+	 * @param maxQuadsPerRange The maximum number of quads per draw call.
+	 */
+	public StaticGeometryChunks(float chunkSize, int maxQuadsPerRange) {
+		if (chunkSize <= 0.f)
+			throw new IllegalArgumentException("The chunk size must be positive.");
+
+		mChunkSize = chunkSize;
+		mMaxQuadsPerRange = maxQuadsPerRange;
+		mBuildBuffer = FloatBuffer.allocate(maxQuadsPerRange * RenderCommandQueue.NUM_FLOATS_PER_QUAD);
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/** Marks all of the geometry to be rebuilt with the next {@link #beginRebuild()}. */
+	public void markDirty() {
+		mRebuildAll = true;
+	}
+
+	/** Marks the chunks whose cells intersect the given region to be rebuilt with the next {@link #beginRebuild()}. */
+	public void markDirty(float x, float y, float w, float h) {
+		if (!mHasDirtyRegion) {
+			mDirtyMinX = x;
+			mDirtyMinY = y;
+			mDirtyMaxX = x + w;
+			mDirtyMaxY = y + h;
+			mHasDirtyRegion = true;
+			return;
+		}
+
+		mDirtyMinX = Math.min(mDirtyMinX, x);
+		mDirtyMinY = Math.min(mDirtyMinY, y);
+		mDirtyMaxX = Math.max(mDirtyMaxX, x + w);
+		mDirtyMaxY = Math.max(mDirtyMaxY, y + h);
+	}
+
+	/** Starts to rebuild the dirty chunks. Quads which fall into a chunk outside of the dirty region are ignored until {@link #endRebuild()}. */
+	public void beginRebuild() {
+		if (mIsRebuilding)
+			return;
+
+		final int lNumChunks = mChunks.size();
+		for (int i = 0; i < lNumChunks; i++) {
+			final var lChunk = mChunks.get(i);
+			if (isCellDirty(lChunk.cellX(), lChunk.cellY()))
+				lChunk.beginRebuild();
+		}
+
+		mLastChunk = null;
+		mIsRebuilding = true;
+	}
+
+	/***
+	 * Adds numQuads quads, whose vertices (in the layout of the {@link TextureBatchPCT}) start at the given offset of the vertices array, to the chunks which contain their centers. The texture index of the vertices is resolved when the chunks are built.
+	 */
+	public void addQuads(float[] vertices, int offset, int numQuads, int layer, int textureId, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		if (!mIsRebuilding)
+			return;
+
+		for (int i = 0; i < numQuads; i++) {
+			final int lQuadOffset = offset + i * RenderCommandQueue.NUM_FLOATS_PER_QUAD;
+
+			// the center of the quad is halfway along the diagonal from vertex 0 to vertex 2
+			final int lOppositeOffset = lQuadOffset + 2 * TextureBatchPCT.NUM_FLOATS_PER_VERTEX;
+			final float lCenterX = (vertices[lQuadOffset] + vertices[lOppositeOffset]) * .5f;
+			final float lCenterY = (vertices[lQuadOffset + 1] + vertices[lOppositeOffset + 1]) * .5f;
+
+			final var lChunk = chunkForRebuild(cell(lCenterX), cell(lCenterY));
+			if (lChunk == null)
+				continue;
+
+			lChunk.addQuad(vertices, lQuadOffset, layer, textureId, shader, blendEnabled, blendSrcFactor, blendDstFactor);
+		}
+	}
+
+	/** Builds the chunks which were rebuilt and clears the dirty region. */
+	public void endRebuild() {
+		if (!mIsRebuilding)
+			return;
+
+		final int lNumChunks = mChunks.size();
+		for (int i = 0; i < lNumChunks; i++) {
+			final var lChunk = mChunks.get(i);
+			if (lChunk.isRebuilding())
+				lChunk.build(mBuildBuffer, mMaxQuadsPerRange);
+		}
+
+		mRebuildAll = false;
+		mHasDirtyRegion = false;
+		mLastChunk = null;
+		mIsRebuilding = false;
+	}
+
+	/***
+	 * Collects the chunks which have quads inside of the given bounds (e.g. the {@link net.lintfordlib.core.camera.ICamera#boundingRectangle()}).
+	 *
+	 * @return The number of visible chunks.
+	 */
+	public int cull(Rectangle bounds, List<StaticGeometryChunk> visibleChunks) {
+		visibleChunks.clear();
+
+		final int lNumChunks = mChunks.size();
+		for (int i = 0; i < lNumChunks; i++) {
+			final var lChunk = mChunks.get(i);
+			if (lChunk.intersects(bounds))
+				visibleChunks.add(lChunk);
+		}
+
+		return visibleChunks.size();
+	}
+
+	/** Returns the chunk of the given cell if it accepts quads in this rebuild, creating it if needed. */
+	private StaticGeometryChunk chunkForRebuild(int cellX, int cellY) {
+		final var lLastChunk = mLastChunk;
+		if (lLastChunk != null && lLastChunk.cellX() == cellX && lLastChunk.cellY() == cellY)
+			return lLastChunk;
+
+		var lChunk = mChunkMap.get(chunkKey(cellX, cellY));
+		if (lChunk == null) {
+			if (!isCellDirty(cellX, cellY))
+				return null;
+
+			lChunk = new StaticGeometryChunk(cellX, cellY);
+			lChunk.beginRebuild();
+			mChunkMap.put(chunkKey(cellX, cellY), lChunk);
+			mChunks.add(lChunk);
+		}
+
+		if (!lChunk.isRebuilding())
+			return null;
+
+		mLastChunk = lChunk;
+		return lChunk;
+	}
+
+	private boolean isCellDirty(int cellX, int cellY) {
+		if (mRebuildAll)
+			return true;
+
+		if (!mHasDirtyRegion)
+			return false;
+
+		final float lCellMinX = cellX * mChunkSize;
+		final float lCellMinY = cellY * mChunkSize;
+		return mDirtyMinX < lCellMinX + mChunkSize && lCellMinX <= mDirtyMaxX && mDirtyMinY < lCellMinY + mChunkSize && lCellMinY <= mDirtyMaxY;
+	}
+
+	private int cell(float worldPosition) {
+		return (int) Math.floor(worldPosition / mChunkSize);
+	}
+
+	private static long chunkKey(int cellX, int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,302 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.system.MemoryUtil;
+
+import net.lintfordlib.core.camera.ICamera;
+import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.debug.stats.DebugStats;
+import net.lintfordlib.core.graphics.sprites.SpriteFrame;
+import net.lintfordlib.core.graphics.sprites.spritesheet.SpriteSheetDefinition;
+import net.lintfordlib.core.particles.ParticleArrays;
+
+/***
+ * A retained mode {@link SpriteBatch} for geometry which rarely changes, e.g. the tiles of a tilemap or level art. The quads are recorded once through the usual draw methods, between {@link #beginRecording()} and {@link #endRecording()}, into {@link StaticGeometryChunks} which are kept in a vertex buffer per chunk. Drawing the batch with {@link #drawChunks(ICamera)} then only culls whole chunks against the camera and issues their draw calls.
+ *
+ * <pre>
+ * if (staticBatch.isDirty()) {
+ * 	staticBatch.beginRecording();
+ * 	// staticBatch.draw(...) for each tile
+ * 	staticBatch.endRecording();
+ * }
+ *
+ * staticBatch.drawChunks(camera);
+ * </pre>
+ *
+ * When a part of the geometry changes, mark its region with {@link #markDirty(float, float, float, float)}. Only the chunks of that region are rebuilt with the next recording, and quads submitted for the other chunks are ignored.
+ *
+ * The quads of each chunk are sorted by their layer, depth and render state, but the chunks are drawn one after another, so quads which must be drawn in a specific order across chunks belong in separate batches. Outside of a recording, the batch can be used like any other {@link SpriteBatch}.
+ */
+public class StaticSpriteBatch extends SpriteBatch {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final float DEFAULT_CHUNK_SIZE = 512.f;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final StaticGeometryChunks mChunks;
+	private final List<StaticGeometryChunk> mVisibleChunks = new ArrayList<>();
+
+	private boolean mIsRecording;
+
+	private int mChunkVioId = -1;
+	private FloatBuffer mUploadBuffer;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public StaticGeometryChunks chunks() {
+		return mChunks;
+	}
+
+	public boolean isRecording() {
+		return mIsRecording;
+	}
+
+	/** Returns true if any part of the geometry needs to be recorded again. */
+	public boolean isDirty() {
+		return mChunks.isDirty();
+	}
+
+	/** Returns the number of chunks drawn by the last call to {@link #drawChunks(ICamera)}. */
+	public int numVisibleChunks() {
+		return mVisibleChunks.size();
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public StaticSpriteBatch() {
+		this(DEFAULT_CHUNK_SIZE);
+	}
+
+	public StaticSpriteBatch(float chunkSize) {
+		super();
+
+		mChunks = new StaticGeometryChunks(chunkSize, MAX_SPRITES);
+	}
+
+	// --------------------------------------
+	// Core-Methods
+	// --------------------------------------
+
+	@Override
+	public void unloadResources() {
+		if (isLoaded()) {
+			final var lChunks = mChunks.chunks();
+			final int lNumChunks = lChunks.size();
+			for (int i = 0; i < lNumChunks; i++)
+				deleteChunkBuffers(lChunks.get(i));
+
+			if (mChunkVioId > -1) {
+				GL15.glDeleteBuffers(mChunkVioId);
+				Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteBuffers VioId: " + mChunkVioId);
+				mChunkVioId = -1;
+			}
+
+			if (mUploadBuffer != null) {
+				MemoryUtil.memFree(mUploadBuffer);
+				mUploadBuffer = null;
+			}
+
+			// the geometry is kept, and uploaded again when the resources are reloaded
+		}
+
+		super.unloadResources();
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/** Marks all of the geometry to be recorded again. */
+	public void markDirty() {
+		mChunks.markDirty();
+	}
+
+	/** Marks the chunks whose cells intersect the given region to be recorded again. */
+	public void markDirty(float x, float y, float w, float h) {
+		mChunks.markDirty(x, y, w, h);
+	}
+
+	/** Starts to record the dirty chunks. The draw methods add their quads to the chunks (without culling them) until {@link #endRecording()}. */
+	public void beginRecording() {
+		if (!isLoaded())
+			return;
+
+		if (mIsDrawing) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Cannot begin recording, already drawing!");
+			return;
+		}
+
+		// the recording reuses the deferred path, so the quads are handed to addQuadsToRenderQueue
+		mCustomShader = mShader;
+		mIsDeferredPass = true;
+		mIsDrawing = true;
+		mIsRecording = true;
+
+		mChunks.beginRebuild();
+	}
+
+	/** Builds the recorded chunks. Their vertex buffers are updated the next time they are drawn. */
+	public void endRecording() {
+		if (!mIsRecording)
+			return;
+
+		mChunks.endRebuild();
+
+		mIsRecording = false;
+		mIsDrawing = false;
+		mIsDeferredPass = false;
+	}
+
+	/** Draws the chunks which intersect the bounds of the camera. */
+	public void drawChunks(ICamera camera) {
+		if (!isLoaded() || camera == null)
+			return;
+
+		if (mIsRecording) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Cannot draw the chunks while recording!");
+			return;
+		}
+
+		final int lNumVisibleChunks = mChunks.cull(camera.boundingRectangle(), mVisibleChunks);
+		for (int i = 0; i < lNumVisibleChunks; i++)
+			drawChunk(mVisibleChunks.get(i), camera);
+	}
+
+	private void drawChunk(StaticGeometryChunk chunk, ICamera camera) {
+		if (chunk.mVaoId == -1 || chunk.mUploadedBuildCount != chunk.buildCount())
+			uploadChunk(chunk);
+
+		GL30.glBindVertexArray(chunk.mVaoId);
+
+		final int lNumDrawRanges = chunk.numDrawRanges();
+		for (int i = 0; i < lNumDrawRanges; i++) {
+			final var lRange = chunk.drawRange(i);
+
+			if (lRange.blendEnabled()) {
+				GL11.glEnable(GL11.GL_BLEND);
+				GL11.glBlendFunc(lRange.blendSrcFactor(), lRange.blendDstFactor());
+			} else {
+				GL11.glDisable(GL11.GL_BLEND);
+				GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+			}
+
+			lRange.textureSlots().bindTextures();
+
+			final var lShader = lRange.shader();
+			lShader.projectionMatrix(camera.projection());
+			lShader.viewMatrix(camera.view());
+			lShader.modelMatrix(mModelMatrix);
+			lShader.bind();
+
+			if (Debug.debugManager().debugManagerEnabled()) {
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_DRAWCALLS);
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VERTS, lRange.numQuads() * NUM_VERTICES_PER_SPRITE);
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_TRIS, lRange.numQuads() * 2);
+			}
+
+			// the shared index buffer covers MAX_SPRITES quads, so each range is drawn from its first vertex
+			GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, lRange.numQuads() * NUM_INDICES_PER_SPRITE, GL11.GL_UNSIGNED_INT, 0, lRange.firstQuad() * NUM_VERTICES_PER_SPRITE);
+
+			lShader.unbind();
+		}
+
+		GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+		GL30.glBindVertexArray(0);
+	}
+
+	private void uploadChunk(StaticGeometryChunk chunk) {
+		if (chunk.mVaoId == -1) {
+			if (mChunkVioId == -1) {
+				mChunkVioId = GL15.glGenBuffers();
+				GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, mChunkVioId);
+				GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, getIndexBuffer(), GL15.GL_STATIC_DRAW);
+				Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: vio " + mChunkVioId);
+			}
+
+			chunk.mVaoId = GL30.glGenVertexArrays();
+			chunk.mVboId = GL15.glGenBuffers();
+
+			GL30.glBindVertexArray(chunk.mVaoId);
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, chunk.mVboId);
+			VertexLayoutPCT.FLOAT.enableVertexAttributes();
+			GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, mChunkVioId);
+			GL30.glBindVertexArray(0);
+		}
+
+		final int lNumFloats = chunk.numQuads() * RenderCommandQueue.NUM_FLOATS_PER_QUAD;
+		if (mUploadBuffer == null)
+			mUploadBuffer = MemoryUtil.memAllocFloat(Math.max(lNumFloats, RenderCommandQueue.NUM_FLOATS_PER_QUAD));
+		else if (mUploadBuffer.capacity() < lNumFloats)
+			mUploadBuffer = MemoryUtil.memRealloc(mUploadBuffer, lNumFloats);
+
+		mUploadBuffer.clear();
+		mUploadBuffer.put(chunk.vertices(), 0, lNumFloats).flip();
+
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, chunk.mVboId);
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, mUploadBuffer, GL15.GL_STATIC_DRAW);
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, 0);
+
+		if (Debug.debugManager().debugManagerEnabled())
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, lNumFloats * Float.BYTES);
+
+		chunk.mUploadedBuildCount = chunk.buildCount();
+	}
+
+	private void deleteChunkBuffers(StaticGeometryChunk chunk) {
+		if (chunk.mVaoId > -1) {
+			GL30.glDeleteVertexArrays(chunk.mVaoId);
+			chunk.mVaoId = -1;
+		}
+
+		if (chunk.mVboId > -1) {
+			GL15.glDeleteBuffers(chunk.mVboId);
+			chunk.mVboId = -1;
+		}
+	}
+
+	@Override
+	protected boolean cullQuad(float x, float y, float w, float h) {
+		// the recorded quads are culled per chunk when they are drawn
+		if (mIsRecording)
+			return false;
+
+		return super.cullQuad(x, y, w, h);
+	}
+
+	@Override
+	protected void addQuadsToRenderQueue(float[] vertices, int offset, int numQuads, int textureId) {
+		if (!mIsRecording) {
+			super.addQuadsToRenderQueue(vertices, offset, numQuads, textureId);
+			return;
+		}
+
+		mChunks.addQuads(vertices, offset, numQuads, sortLayer(), textureId, mCustomShader, mBlendEnabled, mBlendFuncSrcFactor, mBlendFuncDstFactor);
+	}
+
+	@Override
+	public void drawParticles(SpriteSheetDefinition spriteSheetDefinition, SpriteFrame spriteFrame, ParticleArrays particles) {
+		if (mIsRecording) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Particles cannot be recorded into static geometry.");
+			return;
+		}
+
+		super.drawParticles(spriteSheetDefinition, spriteFrame, particles);
+	}
+}
@@ -1,5 +1,6 @@
 package net.lintfordlib.core.graphics.batching;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.List;
@@ -9,6 +10,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
 import org.lwjgl.system.MemoryUtil;
 
 import net.lintfordlib.assets.ResourceManager;
@@ -17,6 +19,8 @@ import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.debug.stats.DebugStats;
 import net.lintfordlib.core.geometry.Rectangle;
 import net.lintfordlib.core.graphics.Color;
+import net.lintfordlib.core.graphics.buffers.VertexStreamBuffer;
+import net.lintfordlib.core.graphics.buffers.VertexStreamGl;
 import net.lintfordlib.core.graphics.rendertarget.RenderTarget;
 import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
 import net.lintfordlib.core.graphics.textures.Texture;
@@ -27,6 +31,13 @@ import net.lintfordlib.core.maths.Vector2f;
 // Note - we use half pixel correction to attempt to sample the correct texels when applying the Uvs.
 // https://learn.microsoft.com/en-us/windows/win32/direct3d9/directly-mapping-texels-to-pixels?redirectedfrom=MSDN
 
+/**
+ * Batches textured, colored quads into as few draw calls as possible.
+ *
+ * In immediate mode (the default), the quads are drawn in submission order, and a draw call is issued whenever the vertex buffer or the texture slots are full. In deferred mode (see {@link #deferredSorting(boolean)}), the quads are recorded into a {@link RenderCommandQueue} and only drawn at {@link #end()}, sorted by layer, depth and render state, so that interleaved draws from different textures are grouped.
+ *
+ * The draw calls are issued through an {@link IBatchDrawBackend}, which by default draws with OpenGl. The OpenGl backend either uploads each draw call into the start of a single vertex buffer, or streams it through a {@link VertexStreamBuffer} (see {@link #useVertexStreaming(boolean)}).
+ */
 public class TextureBatchPCT {
 
 	private static class VertexDefinition {
@@ -60,6 +71,7 @@ public class TextureBatchPCT {
 	protected static final int MAX_SPRITES = 10000;
 	protected static final int NUM_VERTICES_PER_SPRITE = 4;
 	protected static final int NUM_INDICES_PER_SPRITE = 6;
+	protected static final int NUM_FLOATS_PER_VERTEX = VertexDefinition.elementCount;
 
 	protected static final int MAX_VERTEX_COUNT = MAX_SPRITES * NUM_VERTICES_PER_SPRITE;
 	protected static final int MAX_INDEX_COUNT = MAX_SPRITES * NUM_INDICES_PER_SPRITE;
@@ -76,7 +88,7 @@ public class TextureBatchPCT {
 	//  0------3
 	// @formatter:on
 
-	private static IntBuffer getIndexBuffer() {
+	protected static IntBuffer getIndexBuffer() {
 		if (mIndexBuffer == null) {
 			mIndexBuffer = MemoryUtil.memAllocInt(MAX_SPRITES * NUM_INDICES_PER_SPRITE);
 
@@ -102,6 +114,10 @@ public class TextureBatchPCT {
 	// --------------------------------------
 
 	protected final TextureSlotBatch mTextureSlots = new TextureSlotBatch();
+	protected final RenderCommandQueue mRenderQueue = new RenderCommandQueue();
+
+	private final IBatchDrawBackend mGlDrawBackend = this::drawQuadsGl;
+	private IBatchDrawBackend mDrawBackend = mGlDrawBackend;
 
 	protected ICamera mCamera;
 	protected ShaderMVP_PCT mShader;
@@ -109,15 +125,22 @@ public class TextureBatchPCT {
 
 	protected FloatBuffer mBuffer;
 
-	private boolean mBlendEnabled;
-	private int mBlendFuncSrcFactor;
-	private int mBlendFuncDstFactor;
+	protected boolean mBlendEnabled;
+	protected int mBlendFuncSrcFactor;
+	protected int mBlendFuncDstFactor;
 
 	protected Matrix4f mModelMatrix;
 	private int mVaoId = -1;
 	private int mVboId = -1;
 	private int mVioId = -1;
 
+	private boolean mUseVertexStreaming;
+	private VertexStreamBuffer mVertexStream;
+
+	private VertexLayoutPCT mVertexLayout = VertexLayoutPCT.FLOAT;
+	private ByteBuffer mEncodedBuffer;
+	private FloatBuffer mEncodedFloats;
+
 	protected ResourceManager mResourceManager;
 	private boolean mResourcesLoaded;
 	private boolean mAreGlContainersInitialized = false;
@@ -126,6 +149,15 @@ public class TextureBatchPCT {
 	protected int mIndexCount;
 	protected boolean mUseHalfPixelCorrection;
 
+	private boolean mDeferredSorting;
+	protected boolean mIsDeferredPass;
+	private int mSortLayer;
+
+	// the quad being drawn in deferred mode, which is added to the render queue once complete
+	private final float[] mQuadVertices = new float[RenderCommandQueue.NUM_FLOATS_PER_QUAD];
+	private int mQuadVertexOffset;
+	private int mQuadTextureId;
+
 	protected float mR;
 	protected float mG;
 	protected float mB;
@@ -141,6 +173,69 @@ public class TextureBatchPCT {
 
 	public void textureIdOffset(int numProtectedTextureIndices) {
 		mTextureSlots.textureSlotOffset(numProtectedTextureIndices);
+		mRenderQueue.textureSlotOffset(numProtectedTextureIndices);
+	}
+
+	/** Changes the shader of the quads drawn from now on (null selects the default shader). In immediate mode, the quads drawn so far are flushed first. */
+	public void customShader(ShaderMVP_PCT customShader) {
+		final var lShader = customShader != null ? customShader : mShader;
+		if (lShader == mCustomShader)
+			return;
+
+		if (mIsDrawing && !mIsDeferredPass)
+			flush();
+
+		mCustomShader = lShader;
+	}
+
+	public boolean deferredSorting() {
+		return mDeferredSorting;
+	}
+
+	/** Enables the deferred mode, in which the quads are sorted by layer, depth and render state and drawn at {@link #end()}. Takes effect with the next call to begin(). */
+	public void deferredSorting(boolean deferredSorting) {
+		mDeferredSorting = deferredSorting;
+	}
+
+	public int sortLayer() {
+		return mSortLayer;
+	}
+
+	/** Sets the layer of the quads drawn from now on in deferred mode, [0, {@link RenderCommandQueue#MAX_LAYER}]. Lower layers are drawn first, no matter their depth. */
+	public void sortLayer(int sortLayer) {
+		mSortLayer = Math.max(0, Math.min(sortLayer, RenderCommandQueue.MAX_LAYER));
+	}
+
+	public IBatchDrawBackend drawBackend() {
+		return mDrawBackend;
+	}
+
+	/** Sets the backend which issues the draw calls, e.g. a {@link RecordingBatchDrawBackend}. Null restores the OpenGl backend. */
+	public void drawBackend(IBatchDrawBackend drawBackend) {
+		mDrawBackend = drawBackend != null ? drawBackend : mGlDrawBackend;
+	}
+
+	public boolean useVertexStreaming() {
+		return mUseVertexStreaming;
+	}
+
+	/** Streams the vertices through a {@link VertexStreamBuffer}, instead of overwriting a single vertex buffer with every draw call. Takes effect the next time the resources are loaded. */
+	public void useVertexStreaming(boolean useVertexStreaming) {
+		mUseVertexStreaming = useVertexStreaming;
+	}
+
+	public VertexLayoutPCT vertexLayout() {
+		return mVertexLayout;
+	}
+
+	/** Sets the layout the vertices are uploaded in, e.g. one of the compact layouts to cut the vertex bandwidth by almost half. Can only be changed while the resources aren't loaded. */
+	public void vertexLayout(VertexLayoutPCT vertexLayout) {
+		if (mResourcesLoaded) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Cannot change the vertex layout while the resources are loaded.");
+			return;
+		}
+
+		mVertexLayout = vertexLayout != null ? vertexLayout : VertexLayoutPCT.FLOAT;
 	}
 
 	public boolean useHalfPixelCorrection() {
@@ -280,7 +375,15 @@ public class TextureBatchPCT {
 		mBuffer = MemoryUtil.memAllocFloat(MAX_SPRITES * NUM_VERTICES_PER_SPRITE * VertexDefinition.elementCount);
 		getIndexBuffer();
 
-		if (mVboId == -1) {
+		if (mUseVertexStreaming)
+			mVertexStream = new VertexStreamBuffer(VertexStreamGl.INSTANCE, mVertexLayout.stride(), MAX_VERTEX_COUNT, resourceManager.graphicsCompatibility().bufferStorageSupported());
+
+		if (mVertexLayout != VertexLayoutPCT.FLOAT) {
+			mEncodedBuffer = MemoryUtil.memAlloc(MAX_VERTEX_COUNT * mVertexLayout.stride());
+			mEncodedFloats = mEncodedBuffer.asFloatBuffer();
+		}
+
+		if (mVertexStream == null && mVboId == -1) {
 			mVboId = GL15.glGenBuffers();
 			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: vbo " + mVboId);
 		}
@@ -322,20 +425,15 @@ public class TextureBatchPCT {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_SPRITES * NUM_VERTICES_PER_SPRITE * VertexDefinition.stride, GL15.GL_DYNAMIC_DRAW);
-
-		GL20.glEnableVertexAttribArray(0);
-		GL20.glVertexAttribPointer(0, VertexDefinition.positionElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.positionByteOffset);
-
-		GL20.glEnableVertexAttribArray(1);
-		GL20.glVertexAttribPointer(1, VertexDefinition.colorElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.colorByteOffset);
-
-		GL20.glEnableVertexAttribArray(2);
-		GL20.glVertexAttribPointer(2, VertexDefinition.textureElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.textureByteOffset);
+		if (mVertexStream != null) {
+			// the persistent mapping is created on the main thread, together with the vertex array object which references the buffer
+			mVertexStream.loadResources();
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_SPRITES * NUM_VERTICES_PER_SPRITE * mVertexLayout.stride(), GL15.GL_DYNAMIC_DRAW);
+		}
 
-		GL20.glEnableVertexAttribArray(3);
-		GL20.glVertexAttribPointer(3, VertexDefinition.textureIndexElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.textureIndexByteOffset);
+		mVertexLayout.enableVertexAttributes();
 
 		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, mVioId);
 		GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, getIndexBuffer(), GL15.GL_STATIC_DRAW);
@@ -362,6 +460,17 @@ public class TextureBatchPCT {
 			mVboId = -1;
 		}
 
+		if (mVertexStream != null) {
+			mVertexStream.unloadResources();
+			mVertexStream = null;
+		}
+
+		if (mEncodedBuffer != null) {
+			MemoryUtil.memFree(mEncodedBuffer);
+			mEncodedBuffer = null;
+			mEncodedFloats = null;
+		}
+
 		if (mVioId > -1) {
 			GL15.glDeleteBuffers(mVioId);
 			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteBuffers VioId: " + mVioId);
@@ -408,6 +517,8 @@ public class TextureBatchPCT {
 			mBuffer.clear();
 
 		mIndexCount = 0;
+		mIsDeferredPass = mDeferredSorting;
+		mRenderQueue.clear();
 		mIsDrawing = true;
 	}
 
@@ -416,6 +527,7 @@ public class TextureBatchPCT {
 			return;
 
 		flush();
+		mIsDeferredPass = false;
 		textureIdOffset(0);
 
 		setGlBlendEnabled(true);
@@ -428,54 +540,83 @@ public class TextureBatchPCT {
 		if (!mResourcesLoaded || !mIsDrawing)
 			return;
 
+		if (mIsDeferredPass) {
+			mRenderQueue.flush(mBuffer, MAX_SPRITES, mDrawBackend);
+			return;
+		}
+
 		if (mIndexCount == 0)
 			return;
 
+		mBuffer.flip();
+		mDrawBackend.drawQuads(mBuffer, mIndexCount / NUM_INDICES_PER_SPRITE, mTextureSlots, mCustomShader, mBlendEnabled, mBlendFuncSrcFactor, mBlendFuncDstFactor);
+
+		mBuffer.clear();
+		mIndexCount = 0;
+
+		mTextureSlots.clear();
+	}
+
+	private void drawQuadsGl(FloatBuffer vertices, int numQuads, TextureSlotBatch textureSlots, ShaderMVP_PCT shader, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
 		if (!mAreGlContainersInitialized)
 			initializeGlContainers();
 
 		GL30.glBindVertexArray(mVaoId);
 
-		mBuffer.flip();
+		final var lVertices = encodeVertices(vertices);
+
+		final int lBaseVertex;
+		if (mVertexStream != null) {
+			lBaseVertex = mVertexStream.upload(lVertices);
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, lVertices);
+			lBaseVertex = 0;
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+			if (Debug.debugManager().debugManagerEnabled())
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, lVertices.remaining() * Float.BYTES);
+		}
 
-		if (mBlendEnabled) {
+		if (blendEnabled) {
 			GL11.glEnable(GL11.GL_BLEND);
-			GL11.glBlendFunc(mBlendFuncSrcFactor, mBlendFuncDstFactor);
+			GL11.glBlendFunc(blendSrcFactor, blendDstFactor);
 		} else {
 			GL11.glDisable(GL11.GL_BLEND);
 			GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 		}
 
-		mTextureSlots.bindTextures();
+		textureSlots.bindTextures();
 
-		mCustomShader.projectionMatrix(mCamera.projection());
-		mCustomShader.viewMatrix(mCamera.view());
-		mCustomShader.modelMatrix(mModelMatrix);
+		shader.projectionMatrix(mCamera.projection());
+		shader.viewMatrix(mCamera.view());
+		shader.modelMatrix(mModelMatrix);
 
-		mCustomShader.bind();
+		shader.bind();
 
 		if (Debug.debugManager().debugManagerEnabled()) {
 			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_DRAWCALLS);
-
-			final int lNumQuads = mIndexCount / NUM_INDICES_PER_SPRITE;
-			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VERTS, lNumQuads * 4);
-			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_TRIS, lNumQuads * 2);
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VERTS, numQuads * 4);
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_TRIS, numQuads * 2);
 		}
 
-		GL11.glDrawElements(GL11.GL_TRIANGLES, mIndexCount, GL11.GL_UNSIGNED_INT, 0);
+		GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, numQuads * NUM_INDICES_PER_SPRITE, GL11.GL_UNSIGNED_INT, 0, lBaseVertex);
 
 		GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
 		GL30.glBindVertexArray(0);
 
-		mCustomShader.unbind();
+		shader.unbind();
+	}
 
-		mBuffer.clear();
-		mIndexCount = 0;
+	/** Encodes the vertices into the vertex layout of the batch, if it isn't the float layout they were assembled in. */
+	private FloatBuffer encodeVertices(FloatBuffer vertices) {
+		if (mEncodedBuffer == null)
+			return vertices;
 
-		mTextureSlots.clear();
+		mEncodedBuffer.clear();
+		mVertexLayout.encode(vertices, mEncodedBuffer);
+
+		// the compact strides are multiples of 4 bytes, so the encoded vertices can be uploaded through a float view
+		return mEncodedFloats.clear().limit(mEncodedBuffer.position() / Float.BYTES);
 	}
 
 	// ---
@@ -505,7 +646,7 @@ public class TextureBatchPCT {
 		if (!mIsDrawing)
 			return;
 
-		if (!mCamera.boundingRectangle().intersectsAA(dx, dy, dw, dh))
+		if (cullQuad(dx, dy, dw, dh))
 			return;
 
 		if (tex == null) {
@@ -515,20 +656,12 @@ public class TextureBatchPCT {
 				return;
 		}
 
-		if (mIndexCount >= MAX_SPRITES * NUM_INDICES_PER_SPRITE - NUM_INDICES_PER_SPRITE)
-			flush();
-
-		int lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex);
+		final int lTextureSlotIndex = beginQuad(tex.getTextureID());
 		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID) {
 			Debug.debugManager().logger().e(getClass().getSimpleName(), "Cannot resolve texture / texture slot for rendering. Have you accidently unloaded a texture?");
 			return;
 		}
 
-		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
-			flush(); // flush and try again
-			lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex);
-		}
-
 		final float texWidth = tex.getTextureWidth();
 		final float texHeight = tex.getTextureHeight();
 
@@ -560,7 +693,7 @@ public class TextureBatchPCT {
 		addVertToBuffer(x2, y2, zDepth, 1f, u2, v2, lTextureSlotIndex);
 		addVertToBuffer(x3, y3, zDepth, 1f, u3, v3, lTextureSlotIndex);
 
-		mIndexCount += NUM_INDICES_PER_SPRITE;
+		endQuad();
 	}
 
 	// ---
@@ -579,21 +712,13 @@ public class TextureBatchPCT {
 		if (renderTarget == null)
 			return;
 
-		if (!mCamera.boundingRectangle().intersectsAA(dx, dy, dw, dh))
+		if (cullQuad(dx, dy, dw, dh))
 			return;
 
-		if (mIndexCount >= MAX_SPRITES * NUM_INDICES_PER_SPRITE - NUM_INDICES_PER_SPRITE)
-			flush();
-
-		int lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(renderTarget.colorTextureID());
+		final int lTextureSlotIndex = beginQuad(renderTarget.colorTextureID());
 		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID)
 			return;
 
-		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
-			flush(); // flush and try again
-			lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(renderTarget.colorTextureID());
-		}
-
 		final var rtWidth = renderTarget.width();
 		final var rtHeight = renderTarget.height();
 
@@ -625,7 +750,7 @@ public class TextureBatchPCT {
 		addVertToBuffer(x2, y2, zDepth, 1f, u2, v2, lTextureSlotIndex);
 		addVertToBuffer(x3, y3, zDepth, 1f, u3, v3, lTextureSlotIndex);
 
-		mIndexCount += NUM_INDICES_PER_SPRITE;
+		endQuad();
 	}
 
 	// ---
@@ -648,18 +773,10 @@ public class TextureBatchPCT {
 				return;
 		}
 
-		if (mIndexCount >= MAX_SPRITES * NUM_INDICES_PER_SPRITE - NUM_INDICES_PER_SPRITE)
-			flush();
-
-		int lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex);
+		final int lTextureSlotIndex = beginQuad(tex.getTextureID());
 		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID)
 			return;
 
-		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
-			flush(); // flush and try again
-			lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex);
-		}
-
 		final var texWidth = tex.getTextureWidth();
 		final var texHeight = tex.getTextureHeight();
 
@@ -691,7 +808,7 @@ public class TextureBatchPCT {
 		addVertToBuffer(x2, y2, zDepth, 1f, u2, v2, lTextureSlotIndex);
 		addVertToBuffer(x3, y3, zDepth, 1f, u3, v3, lTextureSlotIndex);
 
-		mIndexCount += NUM_INDICES_PER_SPRITE;
+		endQuad();
 	}
 
 	// ---
@@ -717,15 +834,10 @@ public class TextureBatchPCT {
 				return;
 		}
 
-		var lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex);
+		final int lTextureSlotIndex = beginQuad(tex.getTextureID());
 		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID)
 			return;
 
-		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
-			flush(); // flush and try again
-			lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(tex);
-		}
-
 		final var texWidth = tex.getTextureWidth();
 		final var texHeight = tex.getTextureHeight();
 
@@ -772,12 +884,82 @@ public class TextureBatchPCT {
 		addVertToBuffer(dx + x2, dy + y2, zDepth, 1f, u2, v2, lTextureSlotIndex);
 		addVertToBuffer(dx + x3, dy + y3, zDepth, 1f, u3, v3, lTextureSlotIndex);
 
-		mIndexCount += NUM_INDICES_PER_SPRITE;
+		endQuad();
 	}
 
 	// ---
 
+	/** Returns true if the axis aligned quad lies outside of the bounds of the camera, and doesn't need to be drawn. */
+	protected boolean cullQuad(float x, float y, float w, float h) {
+		return !mCamera.boundingRectangle().intersectsAA(x, y, w, h);
+	}
+
+	/**
+	 * Starts a quad with the given texture, which is followed by four calls to {@link #addVertToBuffer(float, float, float, float, float, float, int)} and one to {@link #endQuad()}. In immediate mode, this flushes the batch if the vertex buffer or the texture slots are full.
+	 *
+	 * @return The texture slot index to put into the vertices of the quad, or {@link TextureSlotBatch#TEXTURE_SLOTS_TEXTURE_INVALID} if the quad can't be drawn.
+	 */
+	protected int beginQuad(int textureId) {
+		if (textureId == -1)
+			return TextureSlotBatch.TEXTURE_SLOTS_TEXTURE_INVALID;
+
+		if (mIsDeferredPass) {
+			// the texture slot is resolved when the render queue is flushed
+			mQuadTextureId = textureId;
+			mQuadVertexOffset = 0;
+			return 0;
+		}
+
+		if (mIndexCount >= MAX_SPRITES * NUM_INDICES_PER_SPRITE - NUM_INDICES_PER_SPRITE)
+			flush();
+
+		int lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(textureId);
+		if (lTextureSlotIndex == TextureSlotBatch.TEXTURE_SLOTS_FULL) {
+			flush(); // flush and try again
+			lTextureSlotIndex = mTextureSlots.getTextureSlotIndex(textureId);
+		}
+
+		return lTextureSlotIndex;
+	}
+
+	protected void endQuad() {
+		if (mIsDeferredPass) {
+			addQuadsToRenderQueue(mQuadVertices, 0, 1, mQuadTextureId);
+			return;
+		}
+
+		mIndexCount += NUM_INDICES_PER_SPRITE;
+	}
+
+	/** Adds complete quads to the render queue in deferred mode, with the current layer, shader and blend state. */
+	protected void addQuadsToRenderQueue(float[] vertices, int offset, int numQuads, int textureId) {
+		mRenderQueue.addQuads(vertices, offset, numQuads, mSortLayer, textureId, mCustomShader, mBlendEnabled, mBlendFuncSrcFactor, mBlendFuncDstFactor);
+	}
+
 	protected void addVertToBuffer(float x, float y, float z, float w, float u, float v, int texIndex) {
+		if (mIsDeferredPass) {
+			final var lVertices = mQuadVertices;
+			int o = mQuadVertexOffset;
+
+			lVertices[o++] = x;
+			lVertices[o++] = y;
+			lVertices[o++] = z;
+			lVertices[o++] = w;
+
+			lVertices[o++] = mR;
+			lVertices[o++] = mG;
+			lVertices[o++] = mB;
+			lVertices[o++] = mA;
+
+			lVertices[o++] = u;
+			lVertices[o++] = v;
+
+			lVertices[o++] = texIndex;
+
+			mQuadVertexOffset = o;
+			return;
+		}
+
 		mBuffer.put(x);
 		mBuffer.put(y);
 		mBuffer.put(z);
@@ -793,4 +975,4 @@ public class TextureBatchPCT {
 
 		mBuffer.put(texIndex);
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -8,6 +8,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
 import org.lwjgl.system.MemoryUtil;
 
 import net.lintfordlib.assets.ResourceManager;
@@ -15,6 +16,8 @@ import net.lintfordlib.core.camera.ICamera;
 import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.debug.stats.DebugStats;
 import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.buffers.VertexStreamBuffer;
+import net.lintfordlib.core.graphics.buffers.VertexStreamGl;
 import net.lintfordlib.core.graphics.shaders.ShaderMVP_PT;
 import net.lintfordlib.core.graphics.textures.Texture;
 import net.lintfordlib.core.graphics.textures.TextureManager;
@@ -101,6 +104,9 @@ public class TextureBatchPT {
 	private int mVboId = -1;
 	private int mVioId = -1;
 
+	private boolean mUseVertexStreaming;
+	private VertexStreamBuffer mVertexStream;
+
 	protected ResourceManager mResourceManager;
 	private boolean mResourcesLoaded;
 	private boolean mAreGlContainersInitialized = false;
@@ -113,6 +119,15 @@ public class TextureBatchPT {
 	// Properties
 	// --------------------------------------
 
+	public boolean useVertexStreaming() {
+		return mUseVertexStreaming;
+	}
+
+	/** Streams the vertices through a {@link VertexStreamBuffer}, instead of overwriting a single vertex buffer with every flush. Takes effect the next time the resources are loaded. */
+	public void useVertexStreaming(boolean useVertexStreaming) {
+		mUseVertexStreaming = useVertexStreaming;
+	}
+
 	public boolean useHalfPixelCorrection() {
 		return mUseHalfPixelCorrection;
 	}
@@ -201,7 +216,10 @@ public class TextureBatchPT {
 
 		mBuffer = MemoryUtil.memAllocFloat(MAX_SPRITES * NUM_VERTICES_PER_SPRITE * VertexDefinition.elementCount);
 
-		if (mVboId == -1) {
+		if (mUseVertexStreaming)
+			mVertexStream = new VertexStreamBuffer(VertexStreamGl.INSTANCE, VertexDefinition.stride, MAX_VERTEX_COUNT, pResourceManager.graphicsCompatibility().bufferStorageSupported());
+
+		if (mVertexStream == null && mVboId == -1) {
 			mVboId = GL15.glGenBuffers();
 			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: vbo " + mVboId);
 		}
@@ -240,8 +258,12 @@ public class TextureBatchPT {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_SPRITES * NUM_VERTICES_PER_SPRITE * VertexDefinition.stride, GL15.GL_DYNAMIC_DRAW);
+		if (mVertexStream != null) {
+			mVertexStream.loadResources();
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_SPRITES * NUM_VERTICES_PER_SPRITE * VertexDefinition.stride, GL15.GL_DYNAMIC_DRAW);
+		}
 
 		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, mVioId);
 		GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, getIndexBuffer(), GL15.GL_STATIC_DRAW);
@@ -271,6 +293,11 @@ public class TextureBatchPT {
 			mVboId = -1;
 		}
 
+		if (mVertexStream != null) {
+			mVertexStream.unloadResources();
+			mVertexStream = null;
+		}
+
 		if (mVioId > -1) {
 			GL15.glDeleteBuffers(mVioId);
 			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glDeleteBuffers VioId: " + mVioId);
@@ -345,8 +372,18 @@ public class TextureBatchPT {
 			initializeGlContainers();
 
 		GL30.glBindVertexArray(mVaoId);
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+
+		final int lBaseVertex;
+		if (mVertexStream != null) {
+			lBaseVertex = mVertexStream.upload(mBuffer);
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+			lBaseVertex = 0;
+
+			if (Debug.debugManager().debugManagerEnabled())
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, mBuffer.remaining() * Float.BYTES);
+		}
 
 		mTextureSlots.bindTextures();
 
@@ -371,7 +408,7 @@ public class TextureBatchPT {
 			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_TRIS, lNumQuads * 2);
 		}
 
-		GL11.glDrawElements(GL11.GL_TRIANGLES, mIndexCount, GL11.GL_UNSIGNED_INT, 0);
+		GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, mIndexCount, GL11.GL_UNSIGNED_INT, 0, lBaseVertex);
 
 		GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
 		GL30.glBindVertexArray(0);
@@ -37,10 +37,20 @@ public class TextureSlotBatch {
 		mNumProtectedTextureIds = numProtectedTextureIndices;
 	}
 
+	/** Returns the number of texture slots in use. */
+	public int numTextures() {
+		return mTextureSlotIndex;
+	}
+
 	public boolean hasFreeSlot() {
 		return mTextureSlotIndex < MAX_TEXTURE_SLOTS;
 	}
 
+	/** Returns the OpenGl id of the texture in the given slot, [0, {@link #numTextures()}). */
+	public int textureId(int slotIndex) {
+		return mTextureSlots.get(slotIndex);
+	}
+
 	// --------------------------------------
 	// Methods
 	// --------------------------------------
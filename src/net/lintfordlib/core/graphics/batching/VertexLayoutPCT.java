@@ -0,0 +1,145 @@
+package net.lintfordlib.core.graphics.batching;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
+
+/***
+ * The layouts in which the {@link TextureBatchPCT} and the PolyBatchPCT can upload their vertices. The batches always assemble their vertices as 11 floats (position xyzw, color rgba, uv, texture index), and the layout encodes them when they are uploaded, so the sorting and the vertex writers are the same for all layouts.
+ *
+ * The compact layouts drop the w of the position (which is always 1) and pack the rest, which cuts the bytes per vertex from 44 to 24:
+ *
+ * <pre>
+ *  0  position       3 floats
+ * 12  color          4 bytes   RGBA8, normalized
+ * 16  uv             2 shorts  unsigned normalized, or half floats
+ * 20  texture index  1 byte    followed by 3 bytes of padding
+ * </pre>
+ *
+ * All layouts work with the same {@link net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT} shaders, as OpenGl converts the attributes to the vec4 position (with w = 1), vec4 color, vec2 uv and float texture index the shaders declare.
+ */
+public enum VertexLayoutPCT {
+
+	/** All attributes as floats, 44 bytes per vertex. */
+	FLOAT(44),
+
+	/** 24 bytes per vertex, with the uv as unsigned normalized shorts. Precise for texture coordinates in [0, 1] (e.g. sprite sheets), but coordinates outside of that range are clamped. */
+	COMPACT_UNORM16_UV(24),
+
+	/** 24 bytes per vertex, with the uv as half floats. Supports texture coordinates outside of [0, 1] (repeating textures), but with 11 significant bits, i.e. to about a texel in a 2048 texture. */
+	COMPACT_HALF_FLOAT_UV(24);
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	/** The number of floats per vertex the batches assemble, and the encoder reads. */
+	public static final int NUM_SOURCE_FLOATS_PER_VERTEX = 11;
+
+	public static final int COMPACT_POSITION_BYTE_OFFSET = 0;
+	public static final int COMPACT_COLOR_BYTE_OFFSET = 12;
+	public static final int COMPACT_UV_BYTE_OFFSET = 16;
+	public static final int COMPACT_TEXTURE_INDEX_BYTE_OFFSET = 20;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final int mStride;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/** The number of bytes per vertex. */
+	public int stride() {
+		return mStride;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	private VertexLayoutPCT(int stride) {
+		mStride = stride;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Encodes the vertices from the position to the limit of the source (11 floats per vertex) into the destination, at its position and in its byte order. The position of the destination is advanced past the vertices, the position of the source is left unchanged.
+	 */
+	public void encode(FloatBuffer source, ByteBuffer destination) {
+		final int lStart = source.position();
+		final int lNumVertices = source.remaining() / NUM_SOURCE_FLOATS_PER_VERTEX;
+		int o = destination.position();
+
+		if (this == FLOAT) {
+			final int lNumFloats = lNumVertices * NUM_SOURCE_FLOATS_PER_VERTEX;
+			destination.asFloatBuffer().put(0, source, lStart, lNumFloats);
+			destination.position(o + lNumFloats * Float.BYTES);
+			return;
+		}
+
+		final boolean lHalfFloatUv = this == COMPACT_HALF_FLOAT_UV;
+		for (int v = 0; v < lNumVertices; v++) {
+			final int i = lStart + v * NUM_SOURCE_FLOATS_PER_VERTEX;
+
+			destination.putFloat(o + COMPACT_POSITION_BYTE_OFFSET, source.get(i));
+			destination.putFloat(o + COMPACT_POSITION_BYTE_OFFSET + 4, source.get(i + 1));
+			destination.putFloat(o + COMPACT_POSITION_BYTE_OFFSET + 8, source.get(i + 2));
+
+			destination.put(o + COMPACT_COLOR_BYTE_OFFSET, SpriteInstanceWriter.packUnorm8(source.get(i + 4)));
+			destination.put(o + COMPACT_COLOR_BYTE_OFFSET + 1, SpriteInstanceWriter.packUnorm8(source.get(i + 5)));
+			destination.put(o + COMPACT_COLOR_BYTE_OFFSET + 2, SpriteInstanceWriter.packUnorm8(source.get(i + 6)));
+			destination.put(o + COMPACT_COLOR_BYTE_OFFSET + 3, SpriteInstanceWriter.packUnorm8(source.get(i + 7)));
+
+			if (lHalfFloatUv) {
+				destination.putShort(o + COMPACT_UV_BYTE_OFFSET, Float.floatToFloat16(source.get(i + 8)));
+				destination.putShort(o + COMPACT_UV_BYTE_OFFSET + 2, Float.floatToFloat16(source.get(i + 9)));
+			} else {
+				destination.putShort(o + COMPACT_UV_BYTE_OFFSET, SpriteInstanceWriter.packUnorm16(source.get(i + 8)));
+				destination.putShort(o + COMPACT_UV_BYTE_OFFSET + 2, SpriteInstanceWriter.packUnorm16(source.get(i + 9)));
+			}
+
+			// the texture index and the padding
+			destination.putInt(o + COMPACT_TEXTURE_INDEX_BYTE_OFFSET, 0);
+			destination.put(o + COMPACT_TEXTURE_INDEX_BYTE_OFFSET, (byte) source.get(i + 10));
+
+			o += mStride;
+		}
+
+		destination.position(o);
+	}
+
+	/***
+	 * Sets up the vertex attributes 0 (position), 1 (color), 2 (uv) and 3 (texture index) of the bound vertex array object for the buffer bound to GL_ARRAY_BUFFER.
+	 */
+	public void enableVertexAttributes() {
+		for (int i = 0; i < 4; i++)
+			GL20.glEnableVertexAttribArray(i);
+
+		if (this == FLOAT) {
+			GL20.glVertexAttribPointer(0, 4, GL11.GL_FLOAT, false, mStride, 0);
+			GL20.glVertexAttribPointer(1, 4, GL11.GL_FLOAT, false, mStride, 16);
+			GL20.glVertexAttribPointer(2, 2, GL11.GL_FLOAT, false, mStride, 32);
+			GL20.glVertexAttribPointer(3, 1, GL11.GL_FLOAT, false, mStride, 40);
+			return;
+		}
+
+		GL20.glVertexAttribPointer(0, 3, GL11.GL_FLOAT, false, mStride, COMPACT_POSITION_BYTE_OFFSET);
+		GL20.glVertexAttribPointer(1, 4, GL11.GL_UNSIGNED_BYTE, true, mStride, COMPACT_COLOR_BYTE_OFFSET);
+
+		if (this == COMPACT_HALF_FLOAT_UV)
+			GL20.glVertexAttribPointer(2, 2, GL30.GL_HALF_FLOAT, false, mStride, COMPACT_UV_BYTE_OFFSET);
+		else
+			GL20.glVertexAttribPointer(2, 2, GL11.GL_UNSIGNED_SHORT, true, mStride, COMPACT_UV_BYTE_OFFSET);
+
+		GL20.glVertexAttribPointer(3, 1, GL11.GL_UNSIGNED_BYTE, false, mStride, COMPACT_TEXTURE_INDEX_BYTE_OFFSET);
+	}
+}
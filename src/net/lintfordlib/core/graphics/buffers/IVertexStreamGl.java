@@ -0,0 +1,35 @@
+package net.lintfordlib.core.graphics.buffers;
+
+import java.nio.ByteBuffer;
+
+/***
+ * The OpenGl calls a {@link VertexStreamBuffer} needs to manage its ring buffer. All calls operate on the buffer bound to GL_ARRAY_BUFFER. {@link VertexStreamGl} forwards them to OpenGl, and the tests replace it with a fake, so the buffer management can be verified without an OpenGl context.
+ */
+public interface IVertexStreamGl {
+
+	int genBuffer();
+
+	void deleteBuffer(int bufferId);
+
+	void bindArrayBuffer(int bufferId);
+
+	/** Allocates new mutable storage for the bound buffer, which orphans the previous storage if the GPU is still reading it. */
+	void bufferData(long sizeInBytes);
+
+	/** Maps a range of the bound buffer for writing, without synchronizing with pending draw calls. The range must be unmapped before drawing. */
+	ByteBuffer mapBufferRangeUnsynchronized(long offsetInBytes, long lengthInBytes);
+
+	/** Allocates immutable storage (GL_ARB_buffer_storage) for the bound buffer and maps all of it persistently and coherently. */
+	ByteBuffer bufferStorageMapPersistent(long sizeInBytes);
+
+	void unmapBuffer();
+
+	/** Inserts a fence into the command stream, which is signaled once the GPU has executed all previous commands. */
+	long fenceSync();
+
+	/** Blocks until the fence is signaled. Returns false if the wait failed or timed out. */
+	boolean clientWaitSync(long fence, long timeoutInNanos);
+
+	void deleteSync(long fence);
+
+}
@@ -0,0 +1,246 @@
+package net.lintfordlib.core.graphics.buffers;
+
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.debug.stats.DebugStats;
+
+/***
+ * Streams the vertices of a batch to the GPU through a ring buffer, so that an upload never has to wait for the GPU to finish the draw calls which read the previous uploads.
+ *
+ * The ring is divided into {@link #NUM_SEGMENTS} segments, each large enough for the biggest upload of the batch. The uploads are appended to the current segment, and each upload returns the index of its first vertex in the buffer, which the batch passes to the draw call (as the base vertex, or the first vertex of glDrawArrays). When an upload doesn't fit into the rest of the current segment, the ring moves on to the next segment. There are two modes:
+ *
+ * - With GL_ARB_buffer_storage, the buffer is mapped persistently and the vertices are copied straight into it. A fence is inserted whenever the ring leaves a segment, and the ring waits for that fence before it writes into the segment again. With three segments, the CPU can run two segments ahead of the GPU before it has to wait.
+ *
+ * - Otherwise, each upload maps its range unsynchronized, and the buffer is orphaned whenever the ring wraps around, so the driver hands out fresh storage while the GPU is still reading the old one.
+ *
+ * The batch has to use {@link #bufferId()} as the GL_ARRAY_BUFFER of its vertex array object.
+ */
+public class VertexStreamBuffer {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int NUM_SEGMENTS = 3;
+
+	/** The longest time to wait for the GPU to release a segment, before the ring writes into it anyway. */
+	public static final long FENCE_TIMEOUT_NANOS = 1_000_000_000L;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final IVertexStreamGl mGl;
+	private final boolean mPersistentMapping;
+
+	private final int mVertexStrideInBytes;
+	private final int mNumVerticesPerSegment;
+
+	private int mBufferId = -1;
+	private FloatBuffer mMappedVertices;
+
+	private final long[] mSegmentFences = new long[NUM_SEGMENTS];
+	private int mSegmentIndex;
+	private int mHeadVertex;
+
+	private long mNumBytesUploaded;
+	private int mNumWrapArounds;
+	private int mNumFenceWaits;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public boolean isLoaded() {
+		return mBufferId != -1;
+	}
+
+	public int bufferId() {
+		return mBufferId;
+	}
+
+	/** Returns true if the buffer is mapped persistently (GL_ARB_buffer_storage), false if it is orphaned when the ring wraps around. */
+	public boolean persistentMapping() {
+		return mPersistentMapping;
+	}
+
+	public int vertexStrideInBytes() {
+		return mVertexStrideInBytes;
+	}
+
+	public int numVerticesPerSegment() {
+		return mNumVerticesPerSegment;
+	}
+
+	public long capacityInBytes() {
+		return (long) NUM_SEGMENTS * mNumVerticesPerSegment * mVertexStrideInBytes;
+	}
+
+	/** The segment the next upload is written into. */
+	public int segmentIndex() {
+		return mSegmentIndex;
+	}
+
+	/** The index of the vertex the next upload starts at, if it fits into the current segment. */
+	public int headVertex() {
+		return mHeadVertex;
+	}
+
+	/** The total number of bytes uploaded since the buffer was loaded. */
+	public long numBytesUploaded() {
+		return mNumBytesUploaded;
+	}
+
+	public int numWrapArounds() {
+		return mNumWrapArounds;
+	}
+
+	/** The number of times the ring had to wait for the GPU to release a segment (persistent mapping only). */
+	public int numFenceWaits() {
+		return mNumFenceWaits;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	/***
+	 * @param gl                   The OpenGl layer, usually {@link VertexStreamGl#INSTANCE}.
+	 * @param vertexStrideInBytes  The size of one vertex of the batch, a multiple of 4 bytes.
+	 * @param maxVerticesPerUpload The number of vertices of the biggest upload (the vertex buffer of the batch), which is the size of each segment.
+	 * @param persistentMapping    Maps the buffer persistently. Must only be true if GL_ARB_buffer_storage is supported (see GraphicsCompatibility).
+	 */
+	public VertexStreamBuffer(IVertexStreamGl gl, int vertexStrideInBytes, int maxVerticesPerUpload, boolean persistentMapping) {
+		if (vertexStrideInBytes <= 0 || vertexStrideInBytes % Float.BYTES != 0)
+			throw new IllegalArgumentException("The vertex stride must be a positive multiple of " + Float.BYTES + " bytes.");
+
+		if (maxVerticesPerUpload <= 0)
+			throw new IllegalArgumentException("The segments must hold at least one vertex.");
+
+		mGl = gl;
+		mVertexStrideInBytes = vertexStrideInBytes;
+		mNumVerticesPerSegment = maxVerticesPerUpload;
+		mPersistentMapping = persistentMapping;
+	}
+
+	// --------------------------------------
+	// Core-Methods
+	// --------------------------------------
+
+	/** Creates the buffer and leaves it bound to GL_ARRAY_BUFFER, so the vertex attributes of the batch can be set up straight away. */
+	public void loadResources() {
+		if (isLoaded())
+			return;
+
+		mBufferId = mGl.genBuffer();
+		mGl.bindArrayBuffer(mBufferId);
+
+		if (mPersistentMapping) {
+			mMappedVertices = mGl.bufferStorageMapPersistent(capacityInBytes()).order(ByteOrder.nativeOrder()).asFloatBuffer();
+		} else {
+			mGl.bufferData(capacityInBytes());
+		}
+
+		Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] vertex stream " + mBufferId + ": " + capacityInBytes() + " bytes" + (mPersistentMapping ? ", persistently mapped" : ""));
+
+		mSegmentIndex = 0;
+		mHeadVertex = 0;
+		mNumBytesUploaded = 0;
+		mNumWrapArounds = 0;
+		mNumFenceWaits = 0;
+	}
+
+	public void unloadResources() {
+		if (!isLoaded())
+			return;
+
+		for (int i = 0; i < NUM_SEGMENTS; i++) {
+			if (mSegmentFences[i] != 0) {
+				mGl.deleteSync(mSegmentFences[i]);
+				mSegmentFences[i] = 0;
+			}
+		}
+
+		if (mMappedVertices != null) {
+			mGl.bindArrayBuffer(mBufferId);
+			mGl.unmapBuffer();
+			mMappedVertices = null;
+		}
+
+		mGl.deleteBuffer(mBufferId);
+		mBufferId = -1;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Writes the vertices from the position to the limit of the given buffer into the ring, leaving the position of the buffer unchanged.
+	 *
+	 * @return The index of the first uploaded vertex in the buffer.
+	 */
+	public int upload(FloatBuffer vertices) {
+		if (!isLoaded())
+			throw new IllegalStateException("The vertex stream hasn't been loaded.");
+
+		final int lNumFloats = vertices.remaining();
+		final int lNumBytes = lNumFloats * Float.BYTES;
+		final int lNumVertices = (lNumBytes + mVertexStrideInBytes - 1) / mVertexStrideInBytes;
+		if (lNumVertices > mNumVerticesPerSegment)
+			throw new IllegalArgumentException("Cannot upload " + lNumVertices + " vertices into segments of " + mNumVerticesPerSegment + " vertices.");
+
+		if (mHeadVertex + lNumVertices > (mSegmentIndex + 1) * mNumVerticesPerSegment)
+			beginNextSegment();
+
+		final int lFirstVertex = mHeadVertex;
+		final long lByteOffset = (long) lFirstVertex * mVertexStrideInBytes;
+
+		if (mPersistentMapping) {
+			mMappedVertices.put((int) (lByteOffset / Float.BYTES), vertices, vertices.position(), lNumFloats);
+		} else {
+			mGl.bindArrayBuffer(mBufferId);
+			final var lMappedRange = mGl.mapBufferRangeUnsynchronized(lByteOffset, lNumBytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+			lMappedRange.put(0, vertices, vertices.position(), lNumFloats);
+			mGl.unmapBuffer();
+		}
+
+		mHeadVertex += lNumVertices;
+		mNumBytesUploaded += lNumBytes;
+
+		if (Debug.debugManager().debugManagerEnabled())
+			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, lNumBytes);
+
+		return lFirstVertex;
+	}
+
+	private void beginNextSegment() {
+		// all draw calls which read the current segment have been issued by now
+		if (mPersistentMapping)
+			mSegmentFences[mSegmentIndex] = mGl.fenceSync();
+
+		mSegmentIndex = (mSegmentIndex + 1) % NUM_SEGMENTS;
+		mHeadVertex = mSegmentIndex * mNumVerticesPerSegment;
+
+		if (mSegmentIndex == 0) {
+			mNumWrapArounds++;
+
+			if (!mPersistentMapping) {
+				mGl.bindArrayBuffer(mBufferId);
+				mGl.bufferData(capacityInBytes());
+			}
+		}
+
+		final long lFence = mSegmentFences[mSegmentIndex];
+		if (lFence != 0) {
+			if (!mGl.clientWaitSync(lFence, FENCE_TIMEOUT_NANOS))
+				Debug.debugManager().logger().w(getClass().getSimpleName(), "Timed out waiting for the GPU to release segment " + mSegmentIndex + " of vertex stream " + mBufferId);
+
+			mGl.deleteSync(lFence);
+			mSegmentFences[mSegmentIndex] = 0;
+			mNumFenceWaits++;
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package net.lintfordlib.core.graphics.buffers;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.opengl.GL15;
+import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
+import org.lwjgl.opengl.GL44;
+
+/***
+ * Forwards the calls of a {@link VertexStreamBuffer} to OpenGl.
+ */
+public class VertexStreamGl implements IVertexStreamGl {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final VertexStreamGl INSTANCE = new VertexStreamGl();
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	private VertexStreamGl() {
+
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	@Override
+	public int genBuffer() {
+		return GL15.glGenBuffers();
+	}
+
+	@Override
+	public void deleteBuffer(int bufferId) {
+		GL15.glDeleteBuffers(bufferId);
+	}
+
+	@Override
+	public void bindArrayBuffer(int bufferId) {
+		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, bufferId);
+	}
+
+	@Override
+	public void bufferData(long sizeInBytes) {
+		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, sizeInBytes, GL15.GL_STREAM_DRAW);
+	}
+
+	@Override
+	public ByteBuffer mapBufferRangeUnsynchronized(long offsetInBytes, long lengthInBytes) {
+		final int lAccess = GL30.GL_MAP_WRITE_BIT | GL30.GL_MAP_INVALIDATE_RANGE_BIT | GL30.GL_MAP_UNSYNCHRONIZED_BIT;
+		return GL30.glMapBufferRange(GL15.GL_ARRAY_BUFFER, offsetInBytes, lengthInBytes, lAccess);
+	}
+
+	@Override
+	public ByteBuffer bufferStorageMapPersistent(long sizeInBytes) {
+		final int lFlags = GL30.GL_MAP_WRITE_BIT | GL44.GL_MAP_PERSISTENT_BIT | GL44.GL_MAP_COHERENT_BIT;
+		GL44.glBufferStorage(GL15.GL_ARRAY_BUFFER, sizeInBytes, lFlags);
+		return GL30.glMapBufferRange(GL15.GL_ARRAY_BUFFER, 0, sizeInBytes, lFlags);
+	}
+
+	@Override
+	public void unmapBuffer() {
+		GL15.glUnmapBuffer(GL15.GL_ARRAY_BUFFER);
+	}
+
+	@Override
+	public long fenceSync() {
+		return GL32.glFenceSync(GL32.GL_SYNC_GPU_COMMANDS_COMPLETE, 0);
+	}
+
+	@Override
+	public boolean clientWaitSync(long fence, long timeoutInNanos) {
+		final int lResult = GL32.glClientWaitSync(fence, GL32.GL_SYNC_FLUSH_COMMANDS_BIT, timeoutInNanos);
+		return lResult == GL32.GL_ALREADY_SIGNALED || lResult == GL32.GL_CONDITION_SATISFIED;
+	}
+
+	@Override
+	public void deleteSync(long fence) {
+		GL32.glDeleteSync(fence);
+	}
+}
@@ -14,6 +14,8 @@ import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.debug.stats.DebugStats;
 import net.lintfordlib.core.geometry.Rectangle;
 import net.lintfordlib.core.graphics.GraphicsCompatibility;
+import net.lintfordlib.core.graphics.buffers.VertexStreamBuffer;
+import net.lintfordlib.core.graphics.buffers.VertexStreamGl;
 import net.lintfordlib.core.graphics.common.VertexDataStructurePC;
 import net.lintfordlib.core.graphics.shaders.ShaderMVP_PT;
 import net.lintfordlib.core.maths.Matrix4f;
@@ -51,6 +53,8 @@ public class LineBatch {
 	private int mGLLineType;
 	private float mGLLineWidth;
 	private boolean mAntiAliasing;
+	private boolean mUseVertexStreaming;
+	private VertexStreamBuffer mVertexStream;
 
 	// --------------------------------------
 	// Properties
@@ -78,6 +82,15 @@ public class LineBatch {
 		lineWidth(lineWidth());
 	}
 
+	public boolean useVertexStreaming() {
+		return mUseVertexStreaming;
+	}
+
+	/** Streams the vertices through a {@link VertexStreamBuffer}, instead of overwriting a single vertex buffer with every flush. Takes effect the next time the resources are loaded. */
+	public void useVertexStreaming(boolean useVertexStreaming) {
+		mUseVertexStreaming = useVertexStreaming;
+	}
+
 	public boolean lineAntialiasing() {
 		return mAntiAliasing;
 	}
@@ -154,7 +167,10 @@ public class LineBatch {
 
 		mShader.loadResources(resourceManager);
 
-		if (mVboId == -1) {
+		if (mUseVertexStreaming)
+			mVertexStream = new VertexStreamBuffer(VertexStreamGl.INSTANCE, VertexDataStructurePC.stride, MAX_LINES * NUM_VERTS_PER_LINE, compatibility.bufferStorageSupported());
+
+		if (mVertexStream == null && mVboId == -1) {
 			mVboId = GL15.glGenBuffers();
 			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: vbo " + mVboId);
 		}
@@ -181,8 +197,12 @@ public class LineBatch {
 		}
 
 		GL30.glBindVertexArray(mVaoId);
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_LINES * NUM_VERTS_PER_LINE * VertexDataStructurePC.stride, GL15.GL_DYNAMIC_DRAW);
+		if (mVertexStream != null) {
+			mVertexStream.loadResources();
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_LINES * NUM_VERTS_PER_LINE * VertexDataStructurePC.stride, GL15.GL_DYNAMIC_DRAW);
+		}
 
 		GL20.glEnableVertexAttribArray(0);
 		GL20.glEnableVertexAttribArray(1);
@@ -213,6 +233,11 @@ public class LineBatch {
 			mVboId = -1;
 		}
 
+		if (mVertexStream != null) {
+			mVertexStream.unloadResources();
+			mVertexStream = null;
+		}
+
 		if (mBuffer != null) {
 			mBuffer.clear();
 			MemoryUtil.memFree(mBuffer);
@@ -428,8 +453,17 @@ public class LineBatch {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+		final int lFirstVertex;
+		if (mVertexStream != null) {
+			lFirstVertex = mVertexStream.upload(mBuffer);
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+			lFirstVertex = 0;
+
+			if (Debug.debugManager().debugManagerEnabled())
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, mBuffer.remaining() * Float.BYTES);
+		}
 
 		mShader.projectionMatrix(mCamera.projection());
 		mShader.viewMatrix(mCamera.view());
@@ -449,7 +483,7 @@ public class LineBatch {
 		}
 
 		GL11.glLineWidth(mGLLineWidth);
-		GL11.glDrawArrays(mGLLineType, 0, mVertexCount);
+		GL11.glDrawArrays(mGLLineType, lFirstVertex, mVertexCount);
 
 		GL30.glBindVertexArray(0);
 
@@ -466,4 +500,4 @@ public class LineBatch {
 		mB = blue;
 		mA = alpha;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -12,6 +12,8 @@ import net.lintfordlib.assets.ResourceManager;
 import net.lintfordlib.core.camera.ICamera;
 import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.debug.stats.DebugStats;
+import net.lintfordlib.core.graphics.buffers.VertexStreamBuffer;
+import net.lintfordlib.core.graphics.buffers.VertexStreamGl;
 import net.lintfordlib.core.graphics.shaders.ShaderMVP_PT;
 import net.lintfordlib.core.maths.Matrix4f;
 
@@ -60,6 +62,8 @@ public class PointBatch {
 	private boolean mIsDrawing;
 	private boolean mAreResourcesLoaded;
 	private boolean mAreGlContainersInitialized = false;
+	private boolean mUseVertexStreaming;
+	private VertexStreamBuffer mVertexStream;
 
 	// --------------------------------------
 	// Properties
@@ -69,6 +73,15 @@ public class PointBatch {
 		return mIsDrawing;
 	}
 
+	public boolean useVertexStreaming() {
+		return mUseVertexStreaming;
+	}
+
+	/** Streams the vertices through a {@link VertexStreamBuffer}, instead of overwriting a single vertex buffer with every flush. Takes effect the next time the resources are loaded. */
+	public void useVertexStreaming(boolean useVertexStreaming) {
+		mUseVertexStreaming = useVertexStreaming;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -98,7 +111,10 @@ public class PointBatch {
 
 		mBuffer = MemoryUtil.memAllocFloat(MAX_POINTS * NUM_VERTS_PER_POINT * VertexDataStructure.elementCount);
 
-		if (mVboId == -1) {
+		if (mUseVertexStreaming)
+			mVertexStream = new VertexStreamBuffer(VertexStreamGl.INSTANCE, VertexDataStructure.stride, MAX_POINTS * NUM_VERTS_PER_POINT, resourceManager.graphicsCompatibility().bufferStorageSupported());
+
+		if (mVertexStream == null && mVboId == -1) {
 			mVboId = GL15.glGenBuffers();
 			Debug.debugManager().logger().v(getClass().getSimpleName(), "[OpenGl] glGenBuffers: vbo " + mVboId);
 		}
@@ -120,8 +136,12 @@ public class PointBatch {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_POINTS * VertexDataStructure.stride, GL15.GL_DYNAMIC_DRAW);
+		if (mVertexStream != null) {
+			mVertexStream.loadResources();
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_POINTS * VertexDataStructure.stride, GL15.GL_DYNAMIC_DRAW);
+		}
 
 		GL20.glEnableVertexAttribArray(0);
 		GL20.glEnableVertexAttribArray(1);
@@ -150,6 +170,11 @@ public class PointBatch {
 			mVboId = -1;
 		}
 
+		if (mVertexStream != null) {
+			mVertexStream.unloadResources();
+			mVertexStream = null;
+		}
+
 		if (mBuffer != null) {
 			mBuffer.clear();
 			MemoryUtil.memFree(mBuffer);
@@ -224,8 +249,17 @@ public class PointBatch {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+		final int lFirstVertex;
+		if (mVertexStream != null) {
+			lFirstVertex = mVertexStream.upload(mBuffer);
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+			lFirstVertex = 0;
+
+			if (Debug.debugManager().debugManagerEnabled())
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, mBuffer.remaining() * Float.BYTES);
+		}
 
 		mShader.projectionMatrix(mCamera.projection());
 		mShader.viewMatrix(mCamera.view());
@@ -238,7 +272,7 @@ public class PointBatch {
 			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VERTS, mVertexCount);
 		}
 
-		GL11.glDrawArrays(GL11.GL_POINTS, 0, mVertexCount);
+		GL11.glDrawArrays(GL11.GL_POINTS, lFirstVertex, mVertexCount);
 
 		GL30.glBindVertexArray(0);
 
@@ -248,4 +282,4 @@ public class PointBatch {
 
 		mVertexCount = 0;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package net.lintfordlib.core.graphics.polybatch;
 
+import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.List;
@@ -8,6 +9,7 @@ import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL15;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30;
+import org.lwjgl.opengl.GL32;
 import org.lwjgl.system.MemoryUtil;
 
 import net.lintfordlib.assets.ResourceManager;
@@ -16,6 +18,9 @@ import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.debug.stats.DebugStats;
 import net.lintfordlib.core.graphics.Color;
 import net.lintfordlib.core.graphics.batching.TextureSlotBatch;
+import net.lintfordlib.core.graphics.batching.VertexLayoutPCT;
+import net.lintfordlib.core.graphics.buffers.VertexStreamBuffer;
+import net.lintfordlib.core.graphics.buffers.VertexStreamGl;
 import net.lintfordlib.core.graphics.shaders.ShaderMVP_PCT;
 import net.lintfordlib.core.graphics.textures.Texture;
 import net.lintfordlib.core.graphics.textures.TextureManager;
@@ -113,6 +118,13 @@ public class PolyBatchPCT {
 	protected int mVboId = -1;
 	protected int mVioId = -1;
 
+	private boolean mUseVertexStreaming;
+	private VertexStreamBuffer mVertexStream;
+
+	private VertexLayoutPCT mVertexLayout = VertexLayoutPCT.FLOAT;
+	private ByteBuffer mEncodedBuffer;
+	private FloatBuffer mEncodedFloats;
+
 	protected ResourceManager mResourceManager;
 	protected boolean mResourcesLoaded;
 	protected boolean mAreGlContainersInitialized = false;
@@ -129,6 +141,29 @@ public class PolyBatchPCT {
 	// Properties
 	// ------------------------------------
 
+	public boolean useVertexStreaming() {
+		return mUseVertexStreaming;
+	}
+
+	/** Streams the vertices through a {@link VertexStreamBuffer}, instead of overwriting a single vertex buffer with every flush. Takes effect the next time the resources are loaded. */
+	public void useVertexStreaming(boolean useVertexStreaming) {
+		mUseVertexStreaming = useVertexStreaming;
+	}
+
+	public VertexLayoutPCT vertexLayout() {
+		return mVertexLayout;
+	}
+
+	/** Sets the layout the vertices are uploaded in, e.g. one of the compact layouts to cut the vertex bandwidth by almost half. Can only be changed while the resources aren't loaded. */
+	public void vertexLayout(VertexLayoutPCT vertexLayout) {
+		if (mResourcesLoaded) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Cannot change the vertex layout while the resources are loaded.");
+			return;
+		}
+
+		mVertexLayout = vertexLayout != null ? vertexLayout : VertexLayoutPCT.FLOAT;
+	}
+
 	public void setColorA(float a) {
 		mA = a;
 	}
@@ -212,7 +247,15 @@ public class PolyBatchPCT {
 		if (mVioId == -1)
 			mVioId = GL15.glGenBuffers();
 
-		if (mVboId == -1)
+		if (mUseVertexStreaming)
+			mVertexStream = new VertexStreamBuffer(VertexStreamGl.INSTANCE, mVertexLayout.stride(), MAX_VERTEX_COUNT, resourceManager.graphicsCompatibility().bufferStorageSupported());
+
+		if (mVertexLayout != VertexLayoutPCT.FLOAT) {
+			mEncodedBuffer = MemoryUtil.memAlloc(MAX_VERTEX_COUNT * mVertexLayout.stride());
+			mEncodedFloats = mEncodedBuffer.asFloatBuffer();
+		}
+
+		if (mVertexStream == null && mVboId == -1)
 			mVboId = GL15.glGenBuffers();
 
 		mResourcesLoaded = true;
@@ -238,20 +281,14 @@ public class PolyBatchPCT {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
-		GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_SPRITES * NUM_VERTICES_PER_SPRITE * VertexDefinition.stride, GL15.GL_DYNAMIC_DRAW);
-
-		GL20.glEnableVertexAttribArray(0);
-		GL20.glVertexAttribPointer(0, VertexDefinition.positionElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.positionByteOffset);
-
-		GL20.glEnableVertexAttribArray(1);
-		GL20.glVertexAttribPointer(1, VertexDefinition.colorElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.colorByteOffset);
-
-		GL20.glEnableVertexAttribArray(2);
-		GL20.glVertexAttribPointer(2, VertexDefinition.textureElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.textureByteOffset);
+		if (mVertexStream != null) {
+			mVertexStream.loadResources();
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId);
+			GL15.glBufferData(GL15.GL_ARRAY_BUFFER, MAX_SPRITES * NUM_VERTICES_PER_SPRITE * mVertexLayout.stride(), GL15.GL_DYNAMIC_DRAW);
+		}
 
-		GL20.glEnableVertexAttribArray(3);
-		GL20.glVertexAttribPointer(3, VertexDefinition.textureIndexElementCount, GL11.GL_FLOAT, false, VertexDefinition.stride, VertexDefinition.textureIndexByteOffset);
+		mVertexLayout.enableVertexAttributes();
 
 		GL15.glBindBuffer(GL15.GL_ELEMENT_ARRAY_BUFFER, mVioId);
 		GL15.glBufferData(GL15.GL_ELEMENT_ARRAY_BUFFER, getIndexBuffer(), GL15.GL_STATIC_DRAW);
@@ -280,6 +317,17 @@ public class PolyBatchPCT {
 			mVboId = -1;
 		}
 
+		if (mVertexStream != null) {
+			mVertexStream.unloadResources();
+			mVertexStream = null;
+		}
+
+		if (mEncodedBuffer != null) {
+			MemoryUtil.memFree(mEncodedBuffer);
+			mEncodedBuffer = null;
+			mEncodedFloats = null;
+		}
+
 		if (mVioId > -1) {
 			GL15.glDeleteBuffers(mVioId);
 			Debug.debugManager().logger().v("OpenGL", "IndexedPolyBatchPCT: Unloading mVioId = " + mVioId);
@@ -396,6 +444,18 @@ public class PolyBatchPCT {
 		mIsDrawing = false;
 	}
 
+	/** Encodes the vertices into the vertex layout of the batch, if it isn't the float layout they were assembled in. */
+	private FloatBuffer encodeVertices(FloatBuffer vertices) {
+		if (mEncodedBuffer == null)
+			return vertices;
+
+		mEncodedBuffer.clear();
+		mVertexLayout.encode(vertices, mEncodedBuffer);
+
+		// the compact strides are multiples of 4 bytes, so the encoded vertices can be uploaded through a float view
+		return mEncodedFloats.clear().limit(mEncodedBuffer.position() / Float.BYTES);
+	}
+
 	protected void flush() {
 		if (!mResourcesLoaded || !mIsDrawing)
 			return;
@@ -410,8 +470,19 @@ public class PolyBatchPCT {
 
 		GL30.glBindVertexArray(mVaoId);
 
-		GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId); // TODO: Check if this is needed (we bound the ao after all?
-		GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, mBuffer);
+		final var lVertices = encodeVertices(mBuffer);
+
+		final int lBaseVertex;
+		if (mVertexStream != null) {
+			lBaseVertex = mVertexStream.upload(lVertices);
+		} else {
+			GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, mVboId); // TODO: Check if this is needed (we bound the ao after all?
+			GL15.glBufferSubData(GL15.GL_ARRAY_BUFFER, 0, lVertices);
+			lBaseVertex = 0;
+
+			if (Debug.debugManager().debugManagerEnabled())
+				Debug.debugManager().stats().incTag(DebugStats.TAG_ID_VB_UPLOADS, lVertices.remaining() * Float.BYTES);
+		}
 
 		// mBlendEnabled = mBlendFuncSrcFactor != GL11.GL_SRC_ALPHA || mBlendFuncDstFactor != GL11.GL_ONE_MINUS_SRC_ALPHA;
 		if (mBlendEnabled) {
@@ -437,7 +508,7 @@ public class PolyBatchPCT {
 			Debug.debugManager().stats().incTag(DebugStats.TAG_ID_TRIS, lNumQuads * 2);
 		}
 
-		GL11.glDrawElements(GL11.GL_TRIANGLES, mIndexCount, GL11.GL_UNSIGNED_INT, 0);
+		GL32.glDrawElementsBaseVertex(GL11.GL_TRIANGLES, mIndexCount, GL11.GL_UNSIGNED_INT, 0, lBaseVertex);
 		GL30.glBindVertexArray(0);
 
 		mCustomShader.unbind();
@@ -19,8 +19,20 @@ public class Rotation {
 	}
 
 	public void set(float angleInRads) {
-		c = (float) Math.cos(angleInRads);
-		s = (float) Math.sin(angleInRads);
+		set(angleInRads, false);
+	}
+
+	/***
+	 * Sets the rotation to the given angle. With strict set, the rotation is computed with {@link StrictMath}, so the result is identical on every platform.
+	 */
+	public void set(float angleInRads, boolean strict) {
+		if (strict) {
+			c = (float) StrictMath.cos(angleInRads);
+			s = (float) StrictMath.sin(angleInRads);
+		} else {
+			c = (float) Math.cos(angleInRads);
+			s = (float) Math.sin(angleInRads);
+		}
 	}
 
 	public void setIdentity() {
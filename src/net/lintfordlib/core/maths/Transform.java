@@ -21,9 +21,16 @@ public class Transform {
 	// --------------------------------------
 
 	public void setAngle(float a) {
+		setAngle(a, false);
+	}
+
+	/***
+	 * Sets the angle of this transform. With strict set, the rotation is computed with {@link StrictMath}, so the result is identical on every platform.
+	 */
+	public void setAngle(float a, boolean strict) {
 		angle = MathHelper.wrapAngle(a);
 
-		q.set(angle);
+		q.set(angle, strict);
 	}
 
 	public void applyAngle(float a) {
@@ -90,6 +90,12 @@ public class Particle {
 		vy = velocityY;
 	}
 
+	/** Marks the particle as assigned with the given lifetime, without touching its other state (used when loading a particle from {@link ParticleArrays}). */
+	void assign(float lifetimeInMs) {
+		mIsFree = false;
+		mLifeTimeInMs = lifetimeInMs;
+	}
+
 	public void reset() {
 		mIsFree = true;
 		mLifeTimeInMs = 0;
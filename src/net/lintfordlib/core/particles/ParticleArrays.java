@@ -0,0 +1,297 @@
+package net.lintfordlib.core.particles;
+
+import java.util.Arrays;
+
+/***
+ * Stores the particles of a {@link net.lintfordlib.core.particles.particlesystems.ParticleSystemInstance} as a structure of arrays: one primitive array per attribute, indexed by particle. The live particles are always packed into the range [0, {@link #numParticles()}), so updates only ever touch live particles and walk each array sequentially.
+ *
+ * Particles are added at the end of the range and removed by moving the last live particle into their index, so both are O(1). Because of this, the index of a particle is only stable until the next particle is removed.
+ *
+ * The particles are drawn in the order of their indices, so removing a particle also changes the draw order: the last particle jumps to the front. Alpha blended particles which overlap can then be seen to swap places, which is why systems that depend on their draw order (e.g. smoke with a normal alpha blend) should be drawn with an order independent blend mode such as additive blending, or sorted by the owner.
+ *
+ * The arrays are replaced when the capacity changes, so they should be read from the fields each time, rather than being held on to.
+ */
+public class ParticleArrays {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int NO_PARTICLE = -1;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	public float[] timeSinceStart;
+	public float[] lifeTime;
+
+	public float[] width;
+	public float[] height;
+	public float[] sx, sy, sw, sh;
+
+	public float[] rox;
+	public float[] roy;
+
+	public float[] vx, vy;
+	public float[] angVel;
+	public float[] colorR, colorG, colorB, colorA;
+	public float[] scale;
+
+	public float[] worldPositionX;
+	public float[] worldPositionY;
+	public float[] zDepth;
+	public float[] rotationInRadians;
+
+	private int mNumParticles;
+	private int mCapacity;
+
+	// the ages of the live particles, sorted to find the oldest ones in removeOldest
+	private float[] mAgeScratch = new float[0];
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/***
+	 * @return The number of live particles, which occupy the indices [0, numParticles).
+	 */
+	public int numParticles() {
+		return mNumParticles;
+	}
+
+	public int capacity() {
+		return mCapacity;
+	}
+
+	public boolean isFull() {
+		return mNumParticles >= mCapacity;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public ParticleArrays(int capacity) {
+		allocate(Math.max(0, capacity));
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Copies the state of the given particle to the end of the live range.
+	 *
+	 * @return The index of the new particle, or {@link #NO_PARTICLE} if the store is full.
+	 */
+	public int add(Particle particle) {
+		if (mNumParticles >= mCapacity)
+			return NO_PARTICLE;
+
+		final int lIndex = mNumParticles++;
+		store(lIndex, particle);
+		return lIndex;
+	}
+
+	/***
+	 * Removes the particle at the given index by moving the last live particle into its place.
+	 */
+	public void remove(int index) {
+		final int lLast = --mNumParticles;
+		if (index != lLast)
+			copy(lLast, index);
+	}
+
+	/***
+	 * Drops the live particles from the given number onwards, i.e. those at the end of the live range.
+	 */
+	public void truncate(int numParticles) {
+		mNumParticles = Math.max(0, Math.min(numParticles, mNumParticles));
+	}
+
+	/***
+	 * Removes up to the given number of the oldest live particles, i.e. those with the greatest {@link #timeSinceStart}.
+	 *
+	 * @return The number of particles which were removed.
+	 */
+	public int removeOldest(int count) {
+		final int lNumParticles = mNumParticles;
+		final int lNumToRemove = Math.max(0, Math.min(count, lNumParticles));
+		if (lNumToRemove == 0)
+			return 0;
+
+		if (lNumToRemove == lNumParticles) {
+			mNumParticles = 0;
+			return lNumToRemove;
+		}
+
+		if (mAgeScratch.length < lNumParticles)
+			mAgeScratch = new float[mCapacity];
+
+		System.arraycopy(timeSinceStart, 0, mAgeScratch, 0, lNumParticles);
+		Arrays.sort(mAgeScratch, 0, lNumParticles);
+		final float lMinAge = mAgeScratch[lNumParticles - lNumToRemove];
+
+		// walking backwards, the particle moved into a removed index has already been kept
+		int lNumRemoved = 0;
+		for (int i = lNumParticles - 1; i >= 0 && lNumRemoved < lNumToRemove; i--) {
+			if (timeSinceStart[i] >= lMinAge) {
+				remove(i);
+				lNumRemoved++;
+			}
+		}
+
+		return lNumRemoved;
+	}
+
+	public void clear() {
+		mNumParticles = 0;
+	}
+
+	/***
+	 * Changes the number of particles which can be stored. Live particles beyond the new capacity are dropped.
+	 */
+	public void resize(int capacity) {
+		capacity = Math.max(0, capacity);
+		if (capacity == mCapacity)
+			return;
+
+		timeSinceStart = Arrays.copyOf(timeSinceStart, capacity);
+		lifeTime = Arrays.copyOf(lifeTime, capacity);
+		width = Arrays.copyOf(width, capacity);
+		height = Arrays.copyOf(height, capacity);
+		sx = Arrays.copyOf(sx, capacity);
+		sy = Arrays.copyOf(sy, capacity);
+		sw = Arrays.copyOf(sw, capacity);
+		sh = Arrays.copyOf(sh, capacity);
+		rox = Arrays.copyOf(rox, capacity);
+		roy = Arrays.copyOf(roy, capacity);
+		vx = Arrays.copyOf(vx, capacity);
+		vy = Arrays.copyOf(vy, capacity);
+		angVel = Arrays.copyOf(angVel, capacity);
+		colorR = Arrays.copyOf(colorR, capacity);
+		colorG = Arrays.copyOf(colorG, capacity);
+		colorB = Arrays.copyOf(colorB, capacity);
+		colorA = Arrays.copyOf(colorA, capacity);
+		scale = Arrays.copyOf(scale, capacity);
+		worldPositionX = Arrays.copyOf(worldPositionX, capacity);
+		worldPositionY = Arrays.copyOf(worldPositionY, capacity);
+		zDepth = Arrays.copyOf(zDepth, capacity);
+		rotationInRadians = Arrays.copyOf(rotationInRadians, capacity);
+
+		mCapacity = capacity;
+		mNumParticles = Math.min(mNumParticles, capacity);
+	}
+
+	/***
+	 * Copies the state of the particle at the given index into the given {@link Particle}.
+	 */
+	public void load(int index, Particle particle) {
+		particle.timeSinceStart = timeSinceStart[index];
+		particle.assign(lifeTime[index]);
+		particle.width = width[index];
+		particle.height = height[index];
+		particle.sx = sx[index];
+		particle.sy = sy[index];
+		particle.sw = sw[index];
+		particle.sh = sh[index];
+		particle.rox = rox[index];
+		particle.roy = roy[index];
+		particle.vx = vx[index];
+		particle.vy = vy[index];
+		particle.angVel = angVel[index];
+		particle.color.r = colorR[index];
+		particle.color.g = colorG[index];
+		particle.color.b = colorB[index];
+		particle.color.a = colorA[index];
+		particle.scale = scale[index];
+		particle.worldPositionX = worldPositionX[index];
+		particle.worldPositionY = worldPositionY[index];
+		particle.zDepth = zDepth[index];
+		particle.rotationInRadians = rotationInRadians[index];
+	}
+
+	/***
+	 * Copies the state of the given {@link Particle} into the particle at the given index.
+	 */
+	public void store(int index, Particle particle) {
+		timeSinceStart[index] = particle.timeSinceStart;
+		lifeTime[index] = particle.lifeTime();
+		width[index] = particle.width;
+		height[index] = particle.height;
+		sx[index] = particle.sx;
+		sy[index] = particle.sy;
+		sw[index] = particle.sw;
+		sh[index] = particle.sh;
+		rox[index] = particle.rox;
+		roy[index] = particle.roy;
+		vx[index] = particle.vx;
+		vy[index] = particle.vy;
+		angVel[index] = particle.angVel;
+		colorR[index] = particle.color.r;
+		colorG[index] = particle.color.g;
+		colorB[index] = particle.color.b;
+		colorA[index] = particle.color.a;
+		scale[index] = particle.scale;
+		worldPositionX[index] = particle.worldPositionX;
+		worldPositionY[index] = particle.worldPositionY;
+		zDepth[index] = particle.zDepth;
+		rotationInRadians[index] = particle.rotationInRadians;
+	}
+
+	// ---
+
+	private void copy(int from, int to) {
+		timeSinceStart[to] = timeSinceStart[from];
+		lifeTime[to] = lifeTime[from];
+		width[to] = width[from];
+		height[to] = height[from];
+		sx[to] = sx[from];
+		sy[to] = sy[from];
+		sw[to] = sw[from];
+		sh[to] = sh[from];
+		rox[to] = rox[from];
+		roy[to] = roy[from];
+		vx[to] = vx[from];
+		vy[to] = vy[from];
+		angVel[to] = angVel[from];
+		colorR[to] = colorR[from];
+		colorG[to] = colorG[from];
+		colorB[to] = colorB[from];
+		colorA[to] = colorA[from];
+		scale[to] = scale[from];
+		worldPositionX[to] = worldPositionX[from];
+		worldPositionY[to] = worldPositionY[from];
+		zDepth[to] = zDepth[from];
+		rotationInRadians[to] = rotationInRadians[from];
+	}
+
+	private void allocate(int capacity) {
+		timeSinceStart = new float[capacity];
+		lifeTime = new float[capacity];
+		width = new float[capacity];
+		height = new float[capacity];
+		sx = new float[capacity];
+		sy = new float[capacity];
+		sw = new float[capacity];
+		sh = new float[capacity];
+		rox = new float[capacity];
+		roy = new float[capacity];
+		vx = new float[capacity];
+		vy = new float[capacity];
+		angVel = new float[capacity];
+		colorR = new float[capacity];
+		colorG = new float[capacity];
+		colorB = new float[capacity];
+		colorA = new float[capacity];
+		scale = new float[capacity];
+		worldPositionX = new float[capacity];
+		worldPositionY = new float[capacity];
+		zDepth = new float[capacity];
+		rotationInRadians = new float[capacity];
+
+		mCapacity = capacity;
+		mNumParticles = 0;
+	}
+}
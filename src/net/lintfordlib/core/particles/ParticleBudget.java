@@ -0,0 +1,234 @@
+package net.lintfordlib.core.particles;
+
+import java.util.Locale;
+
+import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.debug.stats.DebugStats;
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.maths.MathHelper;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemConstants;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemManager;
+
+/***
+ * A global budget for the number of live particles, shared by the {@link net.lintfordlib.core.particles.particleemitters.ParticleEmitterManager} and the {@link ParticleSystemManager} of a {@link ParticleFrameworkData}. It bounds the cost of the particle framework in two ways:
+ *
+ * Emission is scaled down for emitters outside of the view (falling off to nothing at {@link #emissionCutoffDistance()}), and for lower priority systems as the budget fills up (see {@link ParticleSystemConstants#PARTICLE_SYSTEM_PRIORITY_LOW}).
+ *
+ * If the live particles still exceed the budget after the update, the oldest particles of the lowest priority systems are dropped until the budget is met. Critical systems are never throttled or dropped.
+ *
+ * The budget is disabled by default, so the emitters and systems behave as they always have. Enable it with {@link #setEnabled(boolean)}, and tune the limits for the game.
+ */
+public class ParticleBudget {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	public static final int DEFAULT_MAX_PARTICLES = 50000;
+	public static final float DEFAULT_OFFSCREEN_EMISSION_SCALE = .5f;
+	public static final float DEFAULT_EMISSION_CUTOFF_DISTANCE = 1024.f;
+
+	// the budget use (indexed by priority) above which the emission of systems of that priority is throttled, reaching zero when the budget is used up
+	private static final float[] PRESSURE_THRESHOLDS = { .5f, .75f, .9f };
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private boolean mEnabled;
+	private int mMaxParticles;
+	private float mOffscreenEmissionScale;
+	private float mEmissionCutoffDistance;
+
+	private boolean mHasViewBounds;
+	private float mViewLeft;
+	private float mViewTop;
+	private float mViewRight;
+	private float mViewBottom;
+
+	private int mNumParticles;
+	private int mNumDroppedParticles;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public boolean isEnabled() {
+		return mEnabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		mEnabled = enabled;
+	}
+
+	public int maxParticles() {
+		return mMaxParticles;
+	}
+
+	public void maxParticles(int maxParticles) {
+		mMaxParticles = Math.max(1, maxParticles);
+	}
+
+	/** The emission scale of an emitter just outside of the view. It falls off linearly to zero at {@link #emissionCutoffDistance()}. */
+	public float offscreenEmissionScale() {
+		return mOffscreenEmissionScale;
+	}
+
+	public void offscreenEmissionScale(float offscreenEmissionScale) {
+		mOffscreenEmissionScale = MathHelper.clamp(offscreenEmissionScale, 0.f, 1.f);
+	}
+
+	/** The distance from the view (in world units) beyond which emitters no longer emit. */
+	public float emissionCutoffDistance() {
+		return mEmissionCutoffDistance;
+	}
+
+	public void emissionCutoffDistance(float emissionCutoffDistance) {
+		mEmissionCutoffDistance = Math.max(0.f, emissionCutoffDistance);
+	}
+
+	/** Returns the number of live particles counted at the start of this frame. */
+	public int numParticles() {
+		return mNumParticles;
+	}
+
+	/** Returns the number of particles dropped by the last call to {@link #enforce(ParticleSystemManager)}. */
+	public int numDroppedParticles() {
+		return mNumDroppedParticles;
+	}
+
+	/** Returns the fraction of the budget which was used at the start of this frame. */
+	public float pressure() {
+		return (float) mNumParticles / mMaxParticles;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public ParticleBudget() {
+		mEnabled = false;
+		mMaxParticles = DEFAULT_MAX_PARTICLES;
+		mOffscreenEmissionScale = DEFAULT_OFFSCREEN_EMISSION_SCALE;
+		mEmissionCutoffDistance = DEFAULT_EMISSION_CUTOFF_DISTANCE;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Counts the live particles and takes the view against which the emitters are tested this frame. Call this before the emitters are updated.
+	 *
+	 * @param viewBounds The world-space bounds of the view, or null if there is no view (in which case emission isn't scaled by distance).
+	 */
+	public void beginFrame(Rectangle viewBounds, ParticleSystemManager particleSystemManager) {
+		mHasViewBounds = viewBounds != null;
+		if (mHasViewBounds) {
+			mViewLeft = viewBounds.left();
+			mViewTop = viewBounds.top();
+			mViewRight = viewBounds.right();
+			mViewBottom = viewBounds.bottom();
+		}
+
+		mNumParticles = countParticles(particleSystemManager);
+	}
+
+	/***
+	 * Returns the factor [0,1] by which an emitter at the given position, emitting into a system of the given priority, should scale its emission this frame.
+	 */
+	public float emissionScale(float worldX, float worldY, int priority) {
+		if (!mEnabled || priority >= ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_CRITICAL)
+			return 1.f;
+
+		float lScale = 1.f;
+
+		if (mHasViewBounds) {
+			final float lDistX = Math.max(0.f, Math.max(mViewLeft - worldX, worldX - mViewRight));
+			final float lDistY = Math.max(0.f, Math.max(mViewTop - worldY, worldY - mViewBottom));
+			if (lDistX > 0.f || lDistY > 0.f) {
+				if (mEmissionCutoffDistance <= 0.f)
+					return 0.f;
+
+				final float lDist = (float) Math.sqrt(lDistX * lDistX + lDistY * lDistY);
+				lScale = mOffscreenEmissionScale * Math.max(0.f, 1.f - lDist / mEmissionCutoffDistance);
+			}
+		}
+
+		final float lThreshold = PRESSURE_THRESHOLDS[priorityOf(priority)];
+		final float lPressure = pressure();
+		if (lPressure > lThreshold)
+			lScale *= Math.max(0.f, (1.f - lPressure) / (1.f - lThreshold));
+
+		return lScale;
+	}
+
+	/***
+	 * Drops particles until the live particles fit into the budget. The lowest priority class is dropped from first, with each system of the class giving up its oldest particles in proportion to its size. Does nothing while the budget is disabled. Call this after the particle systems have been updated.
+	 *
+	 * @return The number of particles which were dropped.
+	 */
+	public int enforce(ParticleSystemManager particleSystemManager) {
+		mNumDroppedParticles = 0;
+
+		final var lSystems = particleSystemManager.particleSystems();
+		final int lNumSystems = lSystems.size();
+
+		int lExcess = mEnabled ? countParticles(particleSystemManager) - mMaxParticles : 0;
+		for (int lPriority = ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW; lPriority < ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_CRITICAL && lExcess > 0; lPriority++) {
+			int lNumInClass = 0;
+			for (int i = 0; i < lNumSystems; i++) {
+				final var lSystem = lSystems.get(i);
+				if (lSystem.isAssigned() && priorityOf(lSystem.definition().priority) == lPriority)
+					lNumInClass += lSystem.numParticles();
+			}
+
+			if (lNumInClass == 0)
+				continue;
+
+			final float lDropFraction = Math.min(1.f, (float) lExcess / lNumInClass);
+			for (int i = 0; i < lNumSystems && lExcess > 0; i++) {
+				final var lSystem = lSystems.get(i);
+				if (!lSystem.isAssigned() || priorityOf(lSystem.definition().priority) != lPriority)
+					continue;
+
+				final int lNumToDrop = Math.min(lExcess, (int) Math.ceil(lSystem.numParticles() * lDropFraction));
+				final int lNumDropped = lSystem.dropParticles(lNumToDrop);
+				lExcess -= lNumDropped;
+				mNumDroppedParticles += lNumDropped;
+			}
+		}
+
+		updateDebugStats();
+
+		return mNumDroppedParticles;
+	}
+
+	private void updateDebugStats() {
+		final var lDebugStats = Debug.debugManager().stats();
+		if (lDebugStats == null)
+			return;
+
+		lDebugStats.setTagValue(DebugStats.TAG_ID_PARTICLES_DROPPED, mNumDroppedParticles);
+		if (lDebugStats.isOpen())
+			lDebugStats.setTagValue(DebugStats.TAG_ID_PARTICLES_BUDGET, String.format(Locale.US, "%d / %d (%.0f%%)", mNumParticles, mMaxParticles, pressure() * 100.f));
+	}
+
+	private static int countParticles(ParticleSystemManager particleSystemManager) {
+		final var lSystems = particleSystemManager.particleSystems();
+		final int lNumSystems = lSystems.size();
+
+		int lNumParticles = 0;
+		for (int i = 0; i < lNumSystems; i++) {
+			final var lSystem = lSystems.get(i);
+			if (lSystem.isAssigned())
+				lNumParticles += lSystem.numParticles();
+		}
+
+		return lNumParticles;
+	}
+
+	private static int priorityOf(int priority) {
+		return MathHelper.clampi(priority, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_CRITICAL);
+	}
+}
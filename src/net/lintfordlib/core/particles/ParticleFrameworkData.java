@@ -25,6 +25,7 @@ public class ParticleFrameworkData extends BaseDataManager {
 
 	private ParticleSystemManager mParticleSystemManager;
 	private ParticleEmitterManager mParticleEmitterManager;
+	private final ParticleBudget mParticleBudget = new ParticleBudget();
 
 	// --------------------------------------
 	// Properties
@@ -38,6 +39,11 @@ public class ParticleFrameworkData extends BaseDataManager {
 		return mParticleEmitterManager;
 	}
 
+	/** Returns the {@link ParticleBudget} shared by the emitters and particle systems of this framework. */
+	public ParticleBudget particleBudget() {
+		return mParticleBudget;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
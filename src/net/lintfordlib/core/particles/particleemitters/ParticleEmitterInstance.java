@@ -11,6 +11,7 @@ import net.lintfordlib.core.geometry.partitioning.SpatialHashGrid;
 import net.lintfordlib.core.maths.MathHelper;
 import net.lintfordlib.core.maths.RandomNumbers;
 import net.lintfordlib.core.particles.ParticleFrameworkData;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemConstants;
 import net.lintfordlib.core.particles.particlesystems.ParticleSystemInstance;
 
 public class ParticleEmitterInstance extends GridEntity {
@@ -46,6 +47,7 @@ public class ParticleEmitterInstance extends GridEntity {
 
 	public transient ParticleSystemInstance particleSystemInstance;
 	private float mEmitterEmitTimerModifier; // [0,1]
+	private float mBudgetEmissionScale; // [0,1], set each frame from the ParticleBudget
 
 	// Global state settings
 	public final Rectangle aabb = new Rectangle(0, 0, 1, 1);
@@ -155,6 +157,24 @@ public class ParticleEmitterInstance extends GridEntity {
 		}
 	}
 
+	/** The factor [0,1] by which the {@link net.lintfordlib.core.particles.ParticleBudget} scales the emission of this emitter (and its children) this frame. */
+	public float budgetEmissionScale() {
+		return mBudgetEmissionScale;
+	}
+
+	public void budgetEmissionScale(float budgetEmissionScale) {
+		mBudgetEmissionScale = MathHelper.clamp(budgetEmissionScale, 0.f, 1.f);
+	}
+
+	/** Returns the priority of the particle system this emitter spawns into (see {@link ParticleSystemConstants}). */
+	public int particleSystemPriority() {
+		final var lParticleSystem = mEmitterDefinition != null && mEmitterDefinition.useSharedParticleSystem ? mEmitterDefinition.sharedParticleSystemInstance : particleSystemInstance;
+		if (lParticleSystem == null || !lParticleSystem.isAssigned())
+			return ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL;
+
+		return lParticleSystem.definition().priority;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -170,6 +190,7 @@ public class ParticleEmitterInstance extends GridEntity {
 		enabled = true;
 		mEmitterInstanceId = entityUid;
 		mEmitterEmitTimerModifier = 1.f;
+		mBudgetEmissionScale = 1.f;
 	}
 
 	// --------------------------------------
@@ -193,7 +214,7 @@ public class ParticleEmitterInstance extends GridEntity {
 		switch (mEmitterDefinition.triggerType) {
 		case ParticleEmitterTrigger.PARTICLE_EMITTER_TRIGGER_TYPE_TIMER:
 			if (mEmitTimer > 0)
-				mEmitTimer -= core.gameTime().elapsedTimeMilli() * mEmitterEmitTimerModifier;
+				mEmitTimer -= core.gameTime().elapsedTimeMilli() * mEmitterEmitTimerModifier * mBudgetEmissionScale;
 
 			updateTimedEmitter(core);
 
@@ -233,6 +254,7 @@ public class ParticleEmitterInstance extends GridEntity {
 			lChildParticleEmitterInstanceInst.globalForceX = globalForceX;
 			lChildParticleEmitterInstanceInst.globalForceY = globalForceY;
 			lChildParticleEmitterInstanceInst.globalRotRads = globalRotRads;
+			lChildParticleEmitterInstanceInst.mBudgetEmissionScale = mBudgetEmissionScale;
 
 			// All emitters, regardless of their place in the hierarchy, are updated from the ParticleFrameworkController
 			lChildParticleEmitterInstanceInst.update(core);
@@ -310,7 +332,7 @@ public class ParticleEmitterInstance extends GridEntity {
 		final var emitAmtMin = mEmitterDefinition.emitAmountMin;
 		final var emitAmtMax = Math.max(emitAmtMin + 1, mEmitterDefinition.emitAmountMax);
 
-		final int lAmtToSpawn = RandomNumbers.random(emitAmtMin, emitAmtMax);
+		final int lAmtToSpawn = scaleEmitAmount(RandomNumbers.random(emitAmtMin, emitAmtMax));
 		for (int i = 0; i < lAmtToSpawn; i++) {
 
 			final float lHeadingRads = globalRotRads; // + objRotRads
@@ -348,6 +370,16 @@ public class ParticleEmitterInstance extends GridEntity {
 
 	}
 
+	/** Scales the number of particles of a triggered burst by the budget emission scale, rounding up or down at random so the expected number is kept. */
+	private int scaleEmitAmount(int amount) {
+		if (mBudgetEmissionScale >= 1.f)
+			return amount;
+
+		final float lScaledAmount = amount * mBudgetEmissionScale;
+		final int lWholeAmount = (int) lScaledAmount;
+		return RandomNumbers.nextFloat() < lScaledAmount - lWholeAmount ? lWholeAmount + 1 : lWholeAmount;
+	}
+
 	public void triggerSpawn(LintfordCore core) {
 		if (mTriggerCooldownTimer > 0)
 			return; // on cooldown
@@ -459,6 +491,16 @@ public class ParticleEmitterInstance extends GridEntity {
 		maxY = grid.getCellIndexY((int) aabb.bottom());
 	}
 
+	@Override
+	public float gridCenterX(SpatialHashGrid<?> grid) {
+		return aabb.centerX();
+	}
+
+	@Override
+	public float gridCenterY(SpatialHashGrid<?> grid) {
+		return aabb.centerY();
+	}
+
 	@Override
 	public boolean isGridCacheOld(SpatialHashGrid<?> grid) {
 		final float newMinX = grid.getCellIndexX((int) aabb.left());
@@ -5,6 +5,7 @@ import java.util.List;
 
 import com.google.gson.GsonBuilder;
 
+import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.entities.EntityLocationProvider;
 import net.lintfordlib.core.entities.definitions.DefinitionManager;
@@ -118,6 +119,41 @@ public class ParticleEmitterManager extends PoolInstanceManager<ParticleEmitterI
 		}
 	}
 
+	/** Updates all assigned and enabled emitters, with their emission scaled by the {@link net.lintfordlib.core.particles.ParticleBudget} of the framework (if there is one). */
+	public void update(LintfordCore core) {
+		final var lParticleBudget = mParticleFrameworkData != null ? mParticleFrameworkData.particleBudget() : null;
+
+		final int lNumParticleEmitters = mInstances.size();
+		for (int i = 0; i < lNumParticleEmitters; i++) {
+			final var lParticleEmitterInstance = mInstances.get(i);
+			if (!lParticleEmitterInstance.isAssigned())
+				continue;
+
+			if (!lParticleEmitterInstance.isEnabled())
+				continue;
+
+			if (lParticleEmitterInstance.parentEmitterInst() != null) {
+				final var lParentInst = lParticleEmitterInstance.parentEmitterInst();
+
+				if (!lParentInst.isEnabled())
+					continue;
+
+				final var lEmitterDef = lParticleEmitterInstance.emitterDefinition();
+
+				lParticleEmitterInstance.aabb.x(lParentInst.aabb.x() + lEmitterDef.positionRelOffsetX);
+				lParticleEmitterInstance.aabb.y(lParentInst.aabb.y() + lEmitterDef.positionRelOffsetY);
+				lParticleEmitterInstance.zDepth = lParentInst.zDepth;
+				lParticleEmitterInstance.globalRotRads = lParentInst.globalRotRads + lEmitterDef.positionRelOffsetRot;
+
+			}
+
+			if (lParticleBudget != null)
+				lParticleEmitterInstance.budgetEmissionScale(lParticleBudget.emissionScale(lParticleEmitterInstance.aabb.x(), lParticleEmitterInstance.aabb.y(), lParticleEmitterInstance.particleSystemPriority()));
+
+			lParticleEmitterInstance.update(core);
+		}
+	}
+
 	// --------------------------------------
 	// Methods
 	// --------------------------------------
@@ -206,4 +242,4 @@ public class ParticleEmitterManager extends PoolInstanceManager<ParticleEmitterI
 		return new ParticleEmitterInstance();
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -4,4 +4,10 @@ public class ParticleSystemConstants {
 
 	public static final String PARTICLE_SYSTEM_META_FILENAME = "res//def//particles//systems//_meta.json";
 
+	// the priority classes of particle systems, see ParticleBudget. Particles of lower priority systems are throttled and dropped first.
+	public static final int PARTICLE_SYSTEM_PRIORITY_LOW = 0;
+	public static final int PARTICLE_SYSTEM_PRIORITY_NORMAL = 1;
+	public static final int PARTICLE_SYSTEM_PRIORITY_HIGH = 2;
+	public static final int PARTICLE_SYSTEM_PRIORITY_CRITICAL = 3; // never throttled or dropped
+
 }
@@ -39,6 +39,8 @@ public class ParticleSystemDefinition extends BaseDefinition {
 
 	public int renderPassId;
 
+	public int priority;
+
 	// --------------------------------------
 	// Properties
 	// --------------------------------------
@@ -58,5 +60,7 @@ public class ParticleSystemDefinition extends BaseDefinition {
 	public ParticleSystemDefinition() {
 		initializers = new ArrayList<>();
 		modifiers = new ArrayList<>();
+
+		priority = ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL;
 	}
 }
@@ -1,17 +1,22 @@
 package net.lintfordlib.core.particles.particlesystems;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.debug.Debug;
 import net.lintfordlib.core.maths.RandomNumbers;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.ParticleFrameworkData;
 import net.lintfordlib.core.particles.particleemitters.ParticleEmitterInstance;
 import net.lintfordlib.core.particles.particlesystems.initializers.ParticleInitializerBase;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
+import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierPipeline;
 
+/**
+ * A {@link ParticleSystemInstance} stores its particles in {@link ParticleArrays}, with the live particles packed at the start of the arrays. Spawning a particle appends it, and a particle which dies is replaced by the last live particle, so both are O(1) and updates only walk the live particles. The modifiers update all live particles in one batch each frame, with consecutive built-in modifiers fused into a single pass (see {@link ParticleModifierPipeline}).
+ */
 public class ParticleSystemInstance {
 
 	// --------------------------------------
@@ -19,6 +24,7 @@ public class ParticleSystemInstance {
 	// --------------------------------------
 
 	public static final int NO_RENDERER_ASSIGNED = -1;
+	public static final int NO_PARTICLE = ParticleArrays.NO_PARTICLE;
 
 	// --------------------------------------
 	// Variables
@@ -28,11 +34,23 @@ public class ParticleSystemInstance {
 	protected int mParticleSystemUid;
 	protected transient ParticleSystemDefinition mParticleSystemDefinition;
 	protected transient ParticleEmitterInstance mOnDeathEmitter;
-	private List<Particle> mParticles;
+	private ParticleArrays mParticles;
 	private int mCapacity;
 
+	// the particle which is being spawned, so initializers can work on a Particle before it is copied into the arrays
+	private final transient Particle mSpawnParticle = new Particle();
+
 	private transient int mRendererId;
 
+	// the modifiers of the definition, compiled into fused passes over the particles
+	private transient ParticleModifierPipeline mModifierPipeline;
+
+	// the positions (x, y, z) of particles which died while the death spawns were deferred, see removeExpiredParticles
+	private transient float[] mDeferredDeathSpawns = new float[0];
+	private transient int mNumDeferredDeathSpawns;
+
+	private final transient AtomicLong mUpdateNanos = new AtomicLong();
+
 	// --------------------------------------
 	// Properties
 	// --------------------------------------
@@ -41,15 +59,29 @@ public class ParticleSystemInstance {
 		return mParticleSystemDefinition != null;
 	}
 
-	/** Returns the collection of {@link Particle}s in this {@link ParticleSystemInstance}. */
-	public List<Particle> particles() {
+	/** Returns the {@link ParticleArrays} which store the particles of this {@link ParticleSystemInstance}. Only the particles [0, numParticles()) are alive. */
+	public ParticleArrays particles() {
 		return mParticles;
 	}
 
+	/** Returns the number of live particles in this {@link ParticleSystemInstance}. */
+	public int numParticles() {
+		return mParticles != null ? mParticles.numParticles() : 0;
+	}
+
 	public ParticleSystemDefinition definition() {
 		return mParticleSystemDefinition;
 	}
 
+	/** Returns the modifiers of the definition compiled into a {@link ParticleModifierPipeline}, recompiling it if the modifiers have changed since. */
+	public ParticleModifierPipeline modifierPipeline() {
+		final var lModifiers = mParticleSystemDefinition.modifiers();
+		if (mModifierPipeline == null || !mModifierPipeline.isCompiledFrom(lModifiers))
+			mModifierPipeline = ParticleModifierPipeline.compile(lModifiers);
+
+		return mModifierPipeline;
+	}
+
 	public int rendererId() {
 		return mRendererId;
 	}
@@ -62,6 +94,28 @@ public class ParticleSystemInstance {
 		return mParticleSystemUid;
 	}
 
+	/** Returns the time spent updating this system in the last frame, summed over all threads which worked on it. */
+	public float lastUpdateTimeMilli() {
+		return mUpdateNanos.get() / 1_000_000.f;
+	}
+
+	/**
+	 * Returns true if the particles of this system can be updated from several threads at once, i.e. all of its modifiers are {@link ParticleModifierBase#isThreadSafe()}.
+	 */
+	public boolean isThreadSafe() {
+		if (!isInitialized())
+			return false;
+
+		final var lModifiers = mParticleSystemDefinition.modifiers();
+		final int lNumModifiers = lModifiers.size();
+		for (int i = 0; i < lNumModifiers; i++) {
+			if (!lModifiers.get(i).isThreadSafe())
+				return false;
+		}
+
+		return true;
+	}
+
 	// --------------------------------------
 	// Core-Methods
 	// --------------------------------------
@@ -74,10 +128,8 @@ public class ParticleSystemInstance {
 
 		mRendererId = NO_RENDERER_ASSIGNED;
 
-		mParticles = new ArrayList<>();
-		for (int i = 0; i < mCapacity; i++) {
-			mParticles.add(new Particle());
-		}
+		mParticles = new ParticleArrays(mCapacity);
+		mModifierPipeline = ParticleModifierPipeline.compile(mParticleSystemDefinition.modifiers());
 
 		resolveOnDeathEmitter(frameworkData);
 	}
@@ -100,22 +152,10 @@ public class ParticleSystemInstance {
 
 		final var lDesiredNumParticles = mParticleSystemDefinition.maxParticleCount;
 		if (mParticles == null) {
-			for (int i = 0; i < lDesiredNumParticles; i++) {
-				mParticles.add(new Particle());
-			}
-		} else if (mParticles.size() < lDesiredNumParticles) {
-			// increase particle count
-			final var lCurCount = mParticles.size();
-			for (int i = lCurCount; i < lDesiredNumParticles; i++) {
-				mParticles.add(new Particle());
-			}
+			mParticles = new ParticleArrays(lDesiredNumParticles);
 		} else {
-			// reduce particle count
-			final var lCurCount = mParticles.size();
-			final var lAmtToRemove = lCurCount - lDesiredNumParticles;
-			for (int i = 0; i < lAmtToRemove; i++) {
-				mParticles.removeFirst();
-			}
+			// live particles beyond the new capacity are dropped
+			mParticles.resize(lDesiredNumParticles);
 		}
 
 		// TODO: resync onDeathEmitter name
@@ -132,58 +172,147 @@ public class ParticleSystemInstance {
 		}
 
 		mCapacity = lDesiredNumParticles;
+
+		// the modifiers may have been added, removed or replaced
+		mModifierPipeline = ParticleModifierPipeline.compile(mParticleSystemDefinition.modifiers());
 	}
 
 	public void unload() {
 		mIsAssigned = false;
 		mParticleSystemDefinition = null;
+		mModifierPipeline = null;
 		mRendererId = NO_RENDERER_ASSIGNED;
-		mParticles.clear();
+		if (mParticles != null)
+			mParticles.clear();
 	}
 
 	public void update(LintfordCore core) {
+		update(core, (float) core.appTime().elapsedTimeMilli());
+	}
+
+	/** Ages the particles by the given time, removes those which exceeded their lifetime, and then applies the modifiers to the remaining particles. */
+	public void update(LintfordCore core, float elapsedTimeMilli) {
+		update(core, elapsedTimeMilli, false);
+	}
+
+	/** Same as {@link #update(LintfordCore, float)}. If deferDeathSpawns is true, the on-death emitter is only triggered by {@link #applyDeferredDeathSpawns(LintfordCore)}, see {@link #removeExpiredParticles(LintfordCore, float, boolean)}. */
+	public void update(LintfordCore core, float elapsedTimeMilli, boolean deferDeathSpawns) {
 		if (!isInitialized())
 			return;
 
-		final var lParticleModifers = mParticleSystemDefinition.modifiers();
-		final int lNumModifiers = lParticleModifers.size();
-		for (int j = 0; j < lNumModifiers; j++) {
-			lParticleModifers.get(j).update(core);
-		}
+		final long lStartTime = System.nanoTime();
+
+		updateModifiers(core);
+		removeExpiredParticles(core, elapsedTimeMilli, deferDeathSpawns);
+
+		final int lNumParticles = mParticles.numParticles();
+		if (lNumParticles > 0)
+			updateParticles(core, 0, lNumParticles, elapsedTimeMilli);
+
+		mUpdateNanos.set(System.nanoTime() - lStartTime);
+	}
 
-		for (int i = 0; i < mCapacity; i++) {
-			final var particle = mParticles.get(i);
+	/**
+	 * Updates the state of the modifiers themselves (see {@link ParticleModifierBase#update(LintfordCore)}). This is the first step of {@link #update(LintfordCore, float)}, and is always called on the main thread.
+	 *
+	 * The modifier pipeline is recompiled here if the modifiers of the definition were changed directly (e.g. by an editor).
+	 */
+	public void updateModifiers(LintfordCore core) {
+		modifierPipeline().update(core);
+	}
 
-			if (!particle.isAssigned())
-				continue;
+	/**
+	 * Ages the particles by the given time and removes those which exceeded their lifetime. This is the second step of {@link #update(LintfordCore, float)}.
+	 *
+	 * If deferDeathSpawns is true, the on-death emitter isn't triggered here. Instead, the positions of the dying particles are queued until {@link #applyDeferredDeathSpawns(LintfordCore)} is called, so this can run on a worker thread.
+	 */
+	public void removeExpiredParticles(LintfordCore core, float elapsedTimeMilli, boolean deferDeathSpawns) {
+		final var lParticles = mParticles;
+		final var lTimeSinceStart = lParticles.timeSinceStart;
+		final var lLifeTime = lParticles.lifeTime;
 
+		int i = 0;
+		while (i < lParticles.numParticles()) {
 			// Kill the particle if it exceeds its lifetime (unless lifeTime is NO_DO_DESPAWN
-			if (particle.lifeTime() != Particle.DO_NOT_DESPAWN_LIFETIME) {
-				particle.timeSinceStart += core.appTime().elapsedTimeMilli();
-				if (particle.timeSinceStart >= particle.lifeTime()) {
+			if (lLifeTime[i] != Particle.DO_NOT_DESPAWN_LIFETIME) {
+				lTimeSinceStart[i] += elapsedTimeMilli;
+				if (lTimeSinceStart[i] >= lLifeTime[i]) {
 
 					if (mOnDeathEmitter != null) {
-						mOnDeathEmitter.aabb.x(particle.worldPositionX);
-						mOnDeathEmitter.aabb.y(particle.worldPositionY);
-						mOnDeathEmitter.zDepth = particle.zDepth;
-
-						mOnDeathEmitter.triggerSpawn(core);
+						if (deferDeathSpawns)
+							deferDeathSpawn(lParticles.worldPositionX[i], lParticles.worldPositionY[i], lParticles.zDepth[i]);
+						else
+							triggerDeathSpawn(core, lParticles.worldPositionX[i], lParticles.worldPositionY[i], lParticles.zDepth[i]);
 					}
 
-					particle.reset();
+					// the last live particle is moved into this index, so it is checked next
+					lParticles.remove(i);
 					continue;
 				}
 			}
 
-			if (!particle.isAssigned())
-				continue;
-
-			for (int j = 0; j < lNumModifiers; j++) {
-				lParticleModifers.get(j).updateParticle(core, mParticles.get(i));
-			}
+			i++;
 		}
 	}
 
+	/**
+	 * Applies all modifiers to the particles [start, start + count). This is the last step of {@link #update(LintfordCore, float)}. If the system {@link #isThreadSafe()}, this can be called from several threads at once for disjoint ranges.
+	 */
+	public void updateParticles(LintfordCore core, int start, int count, float elapsedTimeMilli) {
+		var lModifierPipeline = mModifierPipeline;
+		if (lModifierPipeline == null)
+			lModifierPipeline = modifierPipeline();
+
+		lModifierPipeline.updateParticles(core, mParticles, start, count, elapsedTimeMilli);
+	}
+
+	/**
+	 * Removes up to the given number of particles without triggering the on-death emitter, e.g. to keep within a {@link net.lintfordlib.core.particles.ParticleBudget}. The oldest particles are dropped, as they are the closest to fading out anyway.
+	 *
+	 * @return The number of particles which were dropped.
+	 */
+	public int dropParticles(int count) {
+		return mParticles.removeOldest(count);
+	}
+
+	/** Triggers the on-death emitter for the particles which died while the death spawns were deferred, in the order in which they died. */
+	public void applyDeferredDeathSpawns(LintfordCore core) {
+		final var lDeathSpawns = mDeferredDeathSpawns;
+		for (int i = 0; i < mNumDeferredDeathSpawns; i++)
+			triggerDeathSpawn(core, lDeathSpawns[i * 3], lDeathSpawns[i * 3 + 1], lDeathSpawns[i * 3 + 2]);
+
+		mNumDeferredDeathSpawns = 0;
+	}
+
+	/** Resets {@link #lastUpdateTimeMilli()} at the start of a frame in which the system is updated in steps (e.g. by worker threads). */
+	public void resetUpdateTime() {
+		mUpdateNanos.set(0);
+	}
+
+	/** Adds time spent on updating this system (e.g. by a worker thread) to {@link #lastUpdateTimeMilli()}. Thread-safe. */
+	public void addUpdateTime(long nanos) {
+		mUpdateNanos.addAndGet(nanos);
+	}
+
+	private void deferDeathSpawn(float worldX, float worldY, float zDepth) {
+		final int lOffset = mNumDeferredDeathSpawns * 3;
+		if (lOffset + 3 > mDeferredDeathSpawns.length)
+			mDeferredDeathSpawns = Arrays.copyOf(mDeferredDeathSpawns, Math.max(48, mDeferredDeathSpawns.length * 2));
+
+		mDeferredDeathSpawns[lOffset] = worldX;
+		mDeferredDeathSpawns[lOffset + 1] = worldY;
+		mDeferredDeathSpawns[lOffset + 2] = zDepth;
+		mNumDeferredDeathSpawns++;
+	}
+
+	private void triggerDeathSpawn(LintfordCore core, float worldX, float worldY, float zDepth) {
+		mOnDeathEmitter.aabb.x(worldX);
+		mOnDeathEmitter.aabb.y(worldY);
+		mOnDeathEmitter.zDepth = zDepth;
+
+		mOnDeathEmitter.triggerSpawn(core);
+	}
+
 	// --------------------------------------
 	// Methods
 	// --------------------------------------
@@ -194,44 +323,45 @@ public class ParticleSystemInstance {
 
 	/**
 	 * Spawns a new {@link Particle} instance, foregoing the {@link IParticleinitializer}s attached to this {@link ParticleSystemInstance}. Insteadm you can specifiy the individual components of the particles.
+	 * 
+	 * @return The index of the new particle in {@link #particles()}, or {@link #NO_PARTICLE} if the system is full. The index is only valid until the next update.
 	 */
-	public Particle spawnParticle(float worldX, float worldY, float zDepth, float velocityX, float velocityY, float sourceX, float sourceY, float sourceW, float sourceH, float destWidth, float destHeight) {
-		if (!mIsAssigned)
-			return null;
+	public int spawnParticle(float worldX, float worldY, float zDepth, float velocityX, float velocityY, float sourceX, float sourceY, float sourceW, float sourceH, float destWidth, float destHeight) {
+		if (!prepareSpawnParticle(worldX, worldY, zDepth, velocityX, velocityY))
+			return NO_PARTICLE;
 
-		final var lNewParticle = spawnParticle(worldX, worldY, zDepth, velocityX, velocityY);
-		if (lNewParticle != null) {
-			lNewParticle.setupSourceTexture(sourceX, sourceY, sourceW, sourceH);
-			lNewParticle.setupDestTexture(destWidth, destHeight);
+		mSpawnParticle.setupSourceTexture(sourceX, sourceY, sourceW, sourceH);
+		mSpawnParticle.setupDestTexture(destWidth, destHeight);
 
-			return lNewParticle;
-		}
-
-		return null;
+		return mParticles.add(mSpawnParticle);
 	}
 
-	/** Spawns a new {@link Particle} and applys the {@link IParticleinitializer} attached to this {@link ParticleSystemInstance}. */
-	public Particle spawnParticle(float worldX, float worldY, float zDepth, float velocityX, float velocityY) {
-		if (!mIsAssigned)
-			return null;
+	/**
+	 * Spawns a new {@link Particle} and applys the {@link IParticleinitializer} attached to this {@link ParticleSystemInstance}.
+	 * 
+	 * @return The index of the new particle in {@link #particles()}, or {@link #NO_PARTICLE} if the system is full. The index is only valid until the next update.
+	 */
+	public int spawnParticle(float worldX, float worldY, float zDepth, float velocityX, float velocityY) {
+		if (!prepareSpawnParticle(worldX, worldY, zDepth, velocityX, velocityY))
+			return NO_PARTICLE;
 
-		for (int i = 0; i < mCapacity; i++) {
-			final var lSpawnedParticle = mParticles.get(i);
-			if (lSpawnedParticle.isAssigned())
-				continue;
+		return mParticles.add(mSpawnParticle);
+	}
 
-			float particleLifeTime = mParticleSystemDefinition.particleLifeMin;
-			if (mParticleSystemDefinition.particleLifeMax != 0 && mParticleSystemDefinition.particleLifeMax > mParticleSystemDefinition.particleLifeMin)
-				particleLifeTime = RandomNumbers.random(mParticleSystemDefinition.particleLifeMin, mParticleSystemDefinition.particleLifeMax);
+	private boolean prepareSpawnParticle(float worldX, float worldY, float zDepth, float velocityX, float velocityY) {
+		if (!mIsAssigned || mParticles == null || mParticles.isFull())
+			return false;
 
-			lSpawnedParticle.spawnParticle(worldX, worldY, zDepth, velocityX, velocityY, particleLifeTime);
+		float particleLifeTime = mParticleSystemDefinition.particleLifeMin;
+		if (mParticleSystemDefinition.particleLifeMax != 0 && mParticleSystemDefinition.particleLifeMax > mParticleSystemDefinition.particleLifeMin)
+			particleLifeTime = RandomNumbers.random(mParticleSystemDefinition.particleLifeMin, mParticleSystemDefinition.particleLifeMax);
 
-			applyInitializers(lSpawnedParticle);
+		mSpawnParticle.reset();
+		mSpawnParticle.spawnParticle(worldX, worldY, zDepth, velocityX, velocityY, particleLifeTime);
 
-			return lSpawnedParticle;
-		}
+		applyInitializers(mSpawnParticle);
 
-		return null;
+		return true;
 	}
 
 	/** Applies all the {@link IParticleinitializer}s attached to this system to the given {@link Particle} instance. */
@@ -275,9 +405,9 @@ public class ParticleSystemInstance {
 		mRendererId = -1;
 		mOnDeathEmitter = null;
 		mParticleSystemDefinition = null;
+		mModifierPipeline = null;
 
-		for (int i = 0; i < mCapacity; i++) {
-			mParticles.get(i).reset();
-		}
+		if (mParticles != null)
+			mParticles.clear();
 	}
 }
@@ -1,11 +1,18 @@
 package net.lintfordlib.core.particles.particlesystems;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import com.google.gson.GsonBuilder;
 
+import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.debug.stats.DebugStats;
 import net.lintfordlib.core.entities.EntityLocationProvider;
 import net.lintfordlib.core.entities.definitions.DefinitionManager;
 import net.lintfordlib.core.entities.instances.PoolInstanceManager;
@@ -14,10 +21,97 @@ import net.lintfordlib.core.particles.particlesystems.deserializer.ParticleSyste
 
 public class ParticleSystemManager extends PoolInstanceManager<ParticleSystemInstance> {
 
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** Runs the update tasks of all systems. */
+	private static class UpdateSystemsTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -6158937418062342237L;
+
+		private final transient List<ForkJoinTask<?>> mTasks;
+
+		UpdateSystemsTask(List<ForkJoinTask<?>> tasks) {
+			mTasks = tasks;
+		}
+
+		@Override
+		protected void compute() {
+			invokeAll(mTasks);
+		}
+	}
+
+	/** Removes the expired particles of a system (queuing its death spawns) and then updates its particles in chunks. */
+	private static class UpdateSystemTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 3085286441180416447L;
+
+		private final transient ParticleSystemInstance mSystem;
+		private final transient LintfordCore mCore;
+		private final float mElapsedTimeMilli;
+
+		UpdateSystemTask(ParticleSystemInstance system, LintfordCore core, float elapsedTimeMilli) {
+			mSystem = system;
+			mCore = core;
+			mElapsedTimeMilli = elapsedTimeMilli;
+		}
+
+		@Override
+		protected void compute() {
+			final long lStartTime = System.nanoTime();
+			mSystem.removeExpiredParticles(mCore, mElapsedTimeMilli, true);
+			mSystem.addUpdateTime(System.nanoTime() - lStartTime);
+
+			final int lNumParticles = mSystem.numParticles();
+			if (lNumParticles > 0)
+				new UpdateParticlesTask(mSystem, mCore, mElapsedTimeMilli, 0, lNumParticles).compute();
+		}
+	}
+
+	/** Applies the modifiers of a system to the particles [start, end), splitting the range until the chunks are small enough. */
+	private static class UpdateParticlesTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -1787406380329066305L;
+
+		private final transient ParticleSystemInstance mSystem;
+		private final transient LintfordCore mCore;
+		private final float mElapsedTimeMilli;
+		private final int mStartIndex;
+		private final int mEndIndex;
+
+		UpdateParticlesTask(ParticleSystemInstance system, LintfordCore core, float elapsedTimeMilli, int startIndex, int endIndex) {
+			mSystem = system;
+			mCore = core;
+			mElapsedTimeMilli = elapsedTimeMilli;
+			mStartIndex = startIndex;
+			mEndIndex = endIndex;
+		}
+
+		@Override
+		protected void compute() {
+			if (mEndIndex - mStartIndex <= PARALLEL_UPDATE_CHUNK_SIZE) {
+				final long lStartTime = System.nanoTime();
+				mSystem.updateParticles(mCore, mStartIndex, mEndIndex - mStartIndex, mElapsedTimeMilli);
+				mSystem.addUpdateTime(System.nanoTime() - lStartTime);
+				return;
+			}
+
+			final int lMidIndex = (mStartIndex + mEndIndex) >>> 1;
+			invokeAll(new UpdateParticlesTask(mSystem, mCore, mElapsedTimeMilli, mStartIndex, lMidIndex), new UpdateParticlesTask(mSystem, mCore, mElapsedTimeMilli, lMidIndex, mEndIndex));
+		}
+	}
+
 	// --------------------------------------
 	// Constants
 	// --------------------------------------
 
+	/** Below this number of particles (in systems which can be updated in parallel), the parallel update falls back to the serial update. */
+	public static final int PARALLEL_UPDATE_MIN_PARTICLES = 4096;
+
+	/** The largest number of particles of one system which are updated by a single task. */
+	public static final int PARALLEL_UPDATE_CHUNK_SIZE = 8192;
+
 	public class ParticleSystemDefinitionManager extends DefinitionManager<ParticleSystemDefinition> {
 
 		// --------------------------------------
@@ -75,6 +169,10 @@ public class ParticleSystemManager extends PoolInstanceManager<ParticleSystemIns
 	protected final ParticleSystemDefinitionManager mParticleSystemDefinitionManager = new ParticleSystemDefinitionManager();
 	private int ParticleSystemUidCounter;
 
+	private boolean mParallelUpdate;
+	private final transient List<ForkJoinTask<?>> mUpdateTasks = new ArrayList<>();
+	private float mLastUpdateTimeMilli;
+
 	// --------------------------------------
 	// Properties
 	// --------------------------------------
@@ -96,6 +194,26 @@ public class ParticleSystemManager extends PoolInstanceManager<ParticleSystemIns
 		return mParticleFrameworkData;
 	}
 
+	public boolean parallelUpdate() {
+		return mParallelUpdate;
+	}
+
+	/**
+	 * Enables or disables the parallel update. When enabled, the particle systems are updated on the common {@link ForkJoinPool}, with the particles of large systems split into chunks.
+	 *
+	 * In both the serial and the parallel update, the on-death emitters are only triggered once all systems were updated, on the calling thread and in system order. So both updates produce the same particles, and particles spawned by an on-death emitter are first aged in the next frame, whatever the update order of their system.
+	 *
+	 * Systems with modifiers which aren't {@link net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase#isThreadSafe()} are always updated on the calling thread.
+	 */
+	public void parallelUpdate(boolean parallelUpdate) {
+		mParallelUpdate = parallelUpdate;
+	}
+
+	/** Returns the time it took to update all particle systems in the last frame. */
+	public float lastUpdateTimeMilli() {
+		return mLastUpdateTimeMilli;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -111,6 +229,104 @@ public class ParticleSystemManager extends PoolInstanceManager<ParticleSystemIns
 	// Methods
 	// --------------------------------------
 
+	public void update(LintfordCore core) {
+		update(core, (float) core.appTime().elapsedTimeMilli());
+	}
+
+	/** Updates all assigned particle systems, see {@link #parallelUpdate(boolean)}. */
+	public void update(LintfordCore core, float elapsedTimeMilli) {
+		final long lStartTime = System.nanoTime();
+
+		if (!mParallelUpdate || !updateParallel(core, elapsedTimeMilli)) {
+			final int lNumParticleSystems = mInstances.size();
+			for (int i = 0; i < lNumParticleSystems; i++) {
+				final var lParticleSystemInstance = mInstances.get(i);
+				if (!lParticleSystemInstance.isAssigned())
+					continue;
+
+				lParticleSystemInstance.update(core, elapsedTimeMilli, true);
+			}
+		}
+
+		applyDeferredDeathSpawns(core);
+
+		mLastUpdateTimeMilli = (System.nanoTime() - lStartTime) / 1_000_000.f;
+
+		updateDebugStats();
+	}
+
+	/** Returns false (without updating anything) if there aren't enough particles to make a parallel update worthwhile. */
+	private boolean updateParallel(LintfordCore core, float elapsedTimeMilli) {
+		int lNumParallelParticles = 0;
+		final int lNumParticleSystems = mInstances.size();
+		for (int i = 0; i < lNumParticleSystems; i++) {
+			final var lParticleSystemInstance = mInstances.get(i);
+			if (lParticleSystemInstance.isAssigned() && lParticleSystemInstance.isThreadSafe())
+				lNumParallelParticles += lParticleSystemInstance.numParticles();
+		}
+
+		if (lNumParallelParticles < PARALLEL_UPDATE_MIN_PARTICLES)
+			return false;
+
+		mUpdateTasks.clear();
+		for (int i = 0; i < lNumParticleSystems; i++) {
+			final var lParticleSystemInstance = mInstances.get(i);
+			if (!lParticleSystemInstance.isAssigned() || !lParticleSystemInstance.isThreadSafe())
+				continue;
+
+			lParticleSystemInstance.resetUpdateTime();
+			lParticleSystemInstance.updateModifiers(core);
+			mUpdateTasks.add(new UpdateSystemTask(lParticleSystemInstance, core, elapsedTimeMilli));
+		}
+
+		ForkJoinPool.commonPool().invoke(new UpdateSystemsTask(mUpdateTasks));
+
+		mUpdateTasks.clear();
+
+		for (int i = 0; i < lNumParticleSystems; i++) {
+			final var lParticleSystemInstance = mInstances.get(i);
+			if (lParticleSystemInstance.isAssigned() && !lParticleSystemInstance.isThreadSafe())
+				lParticleSystemInstance.update(core, elapsedTimeMilli, true);
+		}
+
+		return true;
+	}
+
+	/** Triggers the death spawns queued by all systems during the update, in system order, so the on-death emitters see the same sequence in the serial and parallel update. */
+	private void applyDeferredDeathSpawns(LintfordCore core) {
+		final int lNumParticleSystems = mInstances.size();
+		for (int i = 0; i < lNumParticleSystems; i++) {
+			final var lParticleSystemInstance = mInstances.get(i);
+			if (lParticleSystemInstance.isAssigned())
+				lParticleSystemInstance.applyDeferredDeathSpawns(core);
+		}
+	}
+
+	private void updateDebugStats() {
+		final var lDebugStats = Debug.debugManager().stats();
+		if (lDebugStats == null)
+			return;
+
+		int lNumParticles = 0;
+		ParticleSystemInstance lSlowestSystem = null;
+
+		final int lNumParticleSystems = mInstances.size();
+		for (int i = 0; i < lNumParticleSystems; i++) {
+			final var lParticleSystemInstance = mInstances.get(i);
+			if (!lParticleSystemInstance.isAssigned())
+				continue;
+
+			lNumParticles += lParticleSystemInstance.numParticles();
+			if (lSlowestSystem == null || lParticleSystemInstance.lastUpdateTimeMilli() > lSlowestSystem.lastUpdateTimeMilli())
+				lSlowestSystem = lParticleSystemInstance;
+		}
+
+		lDebugStats.setTagValue(DebugStats.TAG_ID_PARTICLES, lNumParticles);
+		lDebugStats.setTagValue(DebugStats.TAG_ID_PARTICLES_UPDATE_MS, mLastUpdateTimeMilli);
+		if (lSlowestSystem != null && lDebugStats.isOpen())
+			lDebugStats.setTagValue(DebugStats.TAG_ID_PARTICLES_SLOWEST_SYSTEM, String.format(Locale.US, "%s %.2f", lSlowestSystem.definition().name, lSlowestSystem.lastUpdateTimeMilli()));
+	}
+
 	public ParticleSystemInstance getParticleSystemByDefiniton(ParticleSystemDefinition particleSystemDef) {
 		return getParticleSystemByDefiniton(particleSystemDef, true);
 	}
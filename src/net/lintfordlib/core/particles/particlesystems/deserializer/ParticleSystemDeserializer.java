@@ -37,6 +37,7 @@ public class ParticleSystemDeserializer implements JsonDeserializer<ParticleSyst
 	public static final String PARTICLE_SYSTEM_PARTICLE_DEST_BLEND = "glDestBlendFactor";
 	public static final String PARTICLE_SYSTEM_PARTICLE_ONDEATH_EMITTER_NAME = "onDeathEmitterName";
 	public static final String PARTICLE_SYSTEM_RENDER_PASS_ID = "renderPassId";
+	public static final String PARTICLE_SYSTEM_PRIORITY = "priority";
 
 	public static final String PARTICLE_SYSTEM_INITIALIZER_LIST = "initializers";
 	public static final String PARTICLE_SYSTEM_MODIFIER_LIST = "modifiers";
@@ -120,6 +121,11 @@ public class ParticleSystemDeserializer implements JsonDeserializer<ParticleSyst
 			lNewParticleSystemDefinition.renderPassId = lTempPrimitive.getAsInt();
 		}
 
+		lTempPrimitive = jsonElement.getAsJsonObject().getAsJsonPrimitive(PARTICLE_SYSTEM_PRIORITY);
+		if (lTempPrimitive != null && !lTempPrimitive.isJsonNull()) {
+			lNewParticleSystemDefinition.priority = lTempPrimitive.getAsInt();
+		}
+
 		// Initializers
 		final var lInitializerArray = jsonElement.getAsJsonObject().getAsJsonArray(PARTICLE_SYSTEM_INITIALIZER_LIST);
 		if (lInitializerArray != null) {
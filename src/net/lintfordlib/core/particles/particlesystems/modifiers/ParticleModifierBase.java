@@ -6,6 +6,7 @@ import com.google.gson.annotations.SerializedName;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 
 public abstract class ParticleModifierBase implements Serializable {
 
@@ -15,6 +16,9 @@ public abstract class ParticleModifierBase implements Serializable {
 
 	private static final long serialVersionUID = -2200502470690632635L;
 
+	/** The scratch particle of the default {@link #updateParticles(LintfordCore, ParticleArrays, int, int, float)}, one per updating thread. */
+	private static final ThreadLocal<Particle> ADAPTER_PARTICLE = ThreadLocal.withInitial(Particle::new);
+
 	// --------------------------------------
 	// Variables
 	// --------------------------------------
@@ -30,6 +34,13 @@ public abstract class ParticleModifierBase implements Serializable {
 		return mModifierName;
 	}
 
+	/**
+	 * Returns true if {@link #updateParticles(LintfordCore, ParticleArrays, int, int, float)} can be called from several threads at once for disjoint ranges of particles, i.e. the modifier only reads its own settings and writes to the given particles. Modifiers which use shared state (e.g. {@link net.lintfordlib.core.maths.RandomNumbers}) must return false, and systems using them are updated on a single thread.
+	 */
+	public boolean isThreadSafe() {
+		return false;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -51,4 +62,24 @@ public abstract class ParticleModifierBase implements Serializable {
 	/** A method to update the state of a {@link Particle} instance. */
 	public abstract void updateParticle(LintfordCore core, Particle particle);
 
+	/** Updates the state of a {@link Particle} instance by the given frame time. The default implementation calls {@link #updateParticle(LintfordCore, Particle)}, which reads the frame time from the core. */
+	public void updateParticle(LintfordCore core, Particle particle, float elapsedTimeMilli) {
+		updateParticle(core, particle);
+	}
+
+	/**
+	 * Updates the particles [start, start + count) of the given {@link ParticleArrays} in one batch. elapsedTimeMilli is the frame time, as returned by core.appTime().elapsedTimeMilli().
+	 *
+	 * The default implementation copies each particle into a scratch {@link Particle} and calls {@link #updateParticle(LintfordCore, Particle, float)}, so existing modifiers keep working. Modifiers should override this with a loop over the arrays, which avoids the copies and the virtual call per particle.
+	 */
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lParticle = ADAPTER_PARTICLE.get();
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			particles.load(i, lParticle);
+			updateParticle(core, lParticle, elapsedTimeMilli);
+			particles.store(i, lParticle);
+		}
+	}
+
 }
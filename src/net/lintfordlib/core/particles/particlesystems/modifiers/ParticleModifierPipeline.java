@@ -0,0 +1,351 @@
+package net.lintfordlib.core.particles.particlesystems.modifiers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.lintfordlib.core.LintfordCore;
+import net.lintfordlib.core.particles.ParticleArrays;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleAlphaInOutModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleAlphaModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleDragModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleGravityModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticlePhysicsModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleScaleInOutModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleScaleModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleTurnToFaceModifier;
+
+/***
+ * The modifiers of a particle system definition, compiled into as few passes over the particles as possible.
+ *
+ * Consecutive built-in modifiers (gravity, drag, physics, turn-to-face, alpha and scale) are fused into a single loop, which applies all of them to one particle before moving on to the next. The loop reads the settings of the modifiers once per call and has no virtual calls, so the JIT can inline the whole kernel no matter how many modifier types are in use. Any other modifier (including subclasses of the built-in ones) is run on its own with {@link ParticleModifierBase#updateParticles}.
+ *
+ * Within a fused loop the modifiers are applied in a fixed order (velocity, position, rotation, alpha, scale). A modifier is only moved ahead of a modifier which precedes it in the definition if the two don't touch the same particle data, so the results are the same as running the modifiers one after another.
+ */
+public class ParticleModifierPipeline {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	// the slots of a fused kernel, in the order in which they are applied to each particle
+	private static final int SLOT_GRAVITY = 0;
+	private static final int SLOT_DRAG = 1;
+	private static final int SLOT_PHYSICS = 2;
+	private static final int SLOT_TURN_TO_FACE = 3;
+	private static final int SLOT_ALPHA = 4;
+	private static final int SLOT_SCALE = 5;
+	private static final int NUM_SLOTS = 6;
+
+	// the particle data read and written by the slots
+	private static final int DATA_VELOCITY = 1;
+	private static final int DATA_POSITION = 1 << 1;
+	private static final int DATA_ROTATION = 1 << 2;
+	private static final int DATA_ANGULAR_VELOCITY = 1 << 3;
+	private static final int DATA_LIFETIME = 1 << 4;
+	private static final int DATA_ALPHA = 1 << 5;
+	private static final int DATA_SCALE = 1 << 6;
+
+	private static final int[] SLOT_READS = { //
+			DATA_VELOCITY, // gravity
+			DATA_VELOCITY, // drag
+			DATA_VELOCITY | DATA_POSITION | DATA_ROTATION | DATA_ANGULAR_VELOCITY, // physics
+			DATA_VELOCITY, // turn to face
+			DATA_LIFETIME, // alpha
+			DATA_LIFETIME, // scale
+	};
+
+	private static final int[] SLOT_WRITES = { //
+			DATA_VELOCITY, // gravity
+			DATA_VELOCITY, // drag
+			DATA_POSITION | DATA_ROTATION, // physics
+			DATA_ROTATION, // turn to face
+			DATA_ALPHA, // alpha
+			DATA_SCALE, // scale
+	};
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** One pass over the particles: either a fused kernel of built-in modifiers, or a single modifier which couldn't be fused. */
+	private static final class Stage {
+
+		final ParticleModifierBase modifier;
+
+		// the fused modifiers, null if the slot isn't used
+		ParticleGravityModifier gravity;
+		ParticleDragModifier drag;
+		ParticlePhysicsModifier physics;
+		ParticleTurnToFaceModifier turnToFace;
+		ParticleAlphaModifier alpha;
+		ParticleAlphaInOutModifier alphaInOut;
+		ParticleScaleModifier scale;
+		ParticleScaleInOutModifier scaleInOut;
+
+		int numFusedModifiers;
+		int highestSlot = -1;
+		final boolean[] usedSlots = new boolean[NUM_SLOTS];
+
+		Stage(ParticleModifierBase modifier) {
+			this.modifier = modifier;
+		}
+
+		boolean isFused() {
+			return modifier == null;
+		}
+
+		/** Returns true if a modifier in the given slot can join this kernel without changing the result. */
+		boolean canFuse(int slot) {
+			if (usedSlots[slot])
+				return false;
+
+			// the modifiers in later slots were listed before this one, but would run after it
+			for (int i = slot + 1; i <= highestSlot; i++) {
+				if (usedSlots[i] && conflicts(slot, i))
+					return false;
+			}
+
+			return true;
+		}
+
+		void fuse(int slot, ParticleModifierBase modifier) {
+			usedSlots[slot] = true;
+			highestSlot = Math.max(highestSlot, slot);
+			numFusedModifiers++;
+
+			switch (slot) {
+			case SLOT_GRAVITY:
+				gravity = (ParticleGravityModifier) modifier;
+				break;
+			case SLOT_DRAG:
+				drag = (ParticleDragModifier) modifier;
+				break;
+			case SLOT_PHYSICS:
+				physics = (ParticlePhysicsModifier) modifier;
+				break;
+			case SLOT_TURN_TO_FACE:
+				turnToFace = (ParticleTurnToFaceModifier) modifier;
+				break;
+			case SLOT_ALPHA:
+				if (modifier instanceof ParticleAlphaInOutModifier lAlphaInOut)
+					alphaInOut = lAlphaInOut;
+				else
+					alpha = (ParticleAlphaModifier) modifier;
+				break;
+			case SLOT_SCALE:
+				if (modifier instanceof ParticleScaleInOutModifier lScaleInOut)
+					scaleInOut = lScaleInOut;
+				else
+					scale = (ParticleScaleModifier) modifier;
+				break;
+			}
+		}
+
+		void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+			if (modifier != null) {
+				modifier.updateParticles(core, particles, start, count, elapsedTimeMilli);
+				return;
+			}
+
+			final var lPosX = particles.worldPositionX;
+			final var lPosY = particles.worldPositionY;
+			final var lVx = particles.vx;
+			final var lVy = particles.vy;
+			final var lRotation = particles.rotationInRadians;
+			final var lAngVel = particles.angVel;
+			final var lTime = particles.timeSinceStart;
+			final var lLife = particles.lifeTime;
+			final var lAlpha = particles.colorA;
+			final var lScale = particles.scale;
+
+			// the settings are read once per call, so changes to the modifiers (e.g. from an editor) still apply
+			final boolean lApplyGravity = gravity != null;
+			final float lGravityX = lApplyGravity ? gravity.gravityX * elapsedTimeMilli : 0.f;
+			final float lGravityY = lApplyGravity ? gravity.gravityY * elapsedTimeMilli : 0.f;
+
+			final boolean lApplyDrag = drag != null;
+			final float lDrag = lApplyDrag ? drag.dragCoefficient : 0.f;
+
+			final boolean lApplyMovement = physics != null && physics.enableMovement;
+			final boolean lApplySpin = physics != null && physics.enableRotation;
+			final float lDt = elapsedTimeMilli / 1000f;
+
+			final boolean lApplyTurnToFace = turnToFace != null;
+			final float lQuarterTurn = (float) Math.toRadians(90.f);
+
+			final boolean lApplyAlpha = alpha != null;
+			final boolean lApplyAlphaInOut = alphaInOut != null;
+			final float lMinAlpha = lApplyAlpha ? alpha.minAlphaAmount : lApplyAlphaInOut ? alphaInOut.minAlpha : 0.f;
+			final float lAlphaRange = lApplyAlpha ? alpha.maxAlphaAmount - alpha.minAlphaAmount : lApplyAlphaInOut ? alphaInOut.maxAlpha - alphaInOut.minAlpha : 0.f;
+
+			final boolean lApplyScale = scale != null;
+			final boolean lApplyScaleInOut = scaleInOut != null;
+			final float lMinScale = lApplyScale ? scale.minScaleAmount : lApplyScaleInOut ? scaleInOut.minScaleAmount : 0.f;
+			final float lScaleRange = lApplyScale ? scale.maxScaleAmount - scale.minScaleAmount : lApplyScaleInOut ? scaleInOut.maxScaleAmount - scaleInOut.minScaleAmount : 0.f;
+
+			final boolean lNeedsLifetime = lApplyAlpha || lApplyAlphaInOut || lApplyScale || lApplyScaleInOut;
+
+			final int lEnd = start + count;
+			for (int i = start; i < lEnd; i++) {
+				if (lApplyGravity) {
+					lVx[i] += lGravityX;
+					lVy[i] += lGravityY;
+				}
+
+				if (lApplyDrag) {
+					final var lNewVx = lVx[i] * lDrag;
+					final var lNewVy = lVy[i] * lDrag;
+
+					lVx[i] = Math.abs(lNewVx) < ParticleDragModifier.EPSILON ? 0 : lNewVx;
+					lVy[i] = Math.abs(lNewVy) < ParticleDragModifier.EPSILON ? 0 : lNewVy;
+				}
+
+				if (lApplyMovement) {
+					lPosX[i] += lVx[i] * lDt;
+					lPosY[i] += lVy[i] * lDt;
+				}
+
+				if (lApplySpin)
+					lRotation[i] += (float) Math.toRadians(lAngVel[i]);
+
+				if (lApplyTurnToFace)
+					lRotation[i] = (float) Math.atan2(lVx[i], -lVy[i]) + lQuarterTurn;
+
+				if (lNeedsLifetime) {
+					final var lNormalizedLifetime = lTime[i] / lLife[i];
+
+					if (lApplyAlpha)
+						lAlpha[i] = lMinAlpha + lAlphaRange * lNormalizedLifetime;
+					else if (lApplyAlphaInOut)
+						lAlpha[i] = lMinAlpha + 4.f * lNormalizedLifetime * (1 - lNormalizedLifetime) * lAlphaRange;
+
+					if (lApplyScale)
+						lScale[i] = lMinScale + lScaleRange * lNormalizedLifetime;
+					else if (lApplyScaleInOut)
+						lScale[i] = lMinScale + 4.f * lNormalizedLifetime * (1 - lNormalizedLifetime) * lScaleRange;
+				}
+			}
+		}
+	}
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final ParticleModifierBase[] mModifiers;
+	private final Stage[] mStages;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/** Returns the number of passes over the particles which this pipeline makes per update. */
+	public int numStages() {
+		return mStages.length;
+	}
+
+	/** Returns the number of modifiers which were fused into kernels. */
+	public int numFusedModifiers() {
+		int lNumFusedModifiers = 0;
+		for (int i = 0; i < mStages.length; i++)
+			lNumFusedModifiers += mStages[i].numFusedModifiers;
+
+		return lNumFusedModifiers;
+	}
+
+	/** Returns true if this pipeline was compiled from the given modifiers (the same instances in the same order), i.e. it doesn't need recompiling. */
+	public boolean isCompiledFrom(List<ParticleModifierBase> modifiers) {
+		final int lNumModifiers = modifiers.size();
+		if (lNumModifiers != mModifiers.length)
+			return false;
+
+		for (int i = 0; i < lNumModifiers; i++) {
+			if (modifiers.get(i) != mModifiers[i])
+				return false;
+		}
+
+		return true;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	private ParticleModifierPipeline(ParticleModifierBase[] modifiers, Stage[] stages) {
+		mModifiers = modifiers;
+		mStages = stages;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/** Compiles the given modifiers (in the order they are applied) into a pipeline. */
+	public static ParticleModifierPipeline compile(List<ParticleModifierBase> modifiers) {
+		final var lModifiers = modifiers.toArray(new ParticleModifierBase[modifiers.size()]);
+		final var lStages = new ArrayList<Stage>();
+
+		Stage lCurrentKernel = null;
+		for (int i = 0; i < lModifiers.length; i++) {
+			final var lModifier = lModifiers[i];
+			final int lSlot = fusedSlotOf(lModifier);
+			if (lSlot < 0) {
+				lCurrentKernel = null;
+				lStages.add(new Stage(lModifier));
+				continue;
+			}
+
+			if (lCurrentKernel == null || !lCurrentKernel.canFuse(lSlot)) {
+				lCurrentKernel = new Stage(null);
+				lStages.add(lCurrentKernel);
+			}
+
+			lCurrentKernel.fuse(lSlot, lModifier);
+		}
+
+		return new ParticleModifierPipeline(lModifiers, lStages.toArray(new Stage[lStages.size()]));
+	}
+
+	/** Updates the state of the modifiers which weren't fused (the built-in modifiers have no state of their own). */
+	public void update(LintfordCore core) {
+		final int lNumStages = mStages.length;
+		for (int i = 0; i < lNumStages; i++) {
+			final var lStage = mStages[i];
+			if (!lStage.isFused())
+				lStage.modifier.update(core);
+		}
+	}
+
+	/** Applies the modifiers to the particles [start, start + count), with the same result as calling {@link ParticleModifierBase#updateParticles} on each modifier in turn. */
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final int lNumStages = mStages.length;
+		for (int i = 0; i < lNumStages; i++)
+			mStages[i].updateParticles(core, particles, start, count, elapsedTimeMilli);
+	}
+
+	/** Returns the kernel slot of the given modifier, or -1 if it can't be fused. Only the exact built-in classes are fused, as subclasses may override their behavior. */
+	private static int fusedSlotOf(ParticleModifierBase modifier) {
+		if (modifier == null)
+			return -1;
+
+		final var lClass = modifier.getClass();
+		if (lClass == ParticleGravityModifier.class)
+			return SLOT_GRAVITY;
+		if (lClass == ParticleDragModifier.class)
+			return SLOT_DRAG;
+		if (lClass == ParticlePhysicsModifier.class)
+			return SLOT_PHYSICS;
+		if (lClass == ParticleTurnToFaceModifier.class)
+			return SLOT_TURN_TO_FACE;
+		if (lClass == ParticleAlphaModifier.class || lClass == ParticleAlphaInOutModifier.class)
+			return SLOT_ALPHA;
+		if (lClass == ParticleScaleModifier.class || lClass == ParticleScaleInOutModifier.class)
+			return SLOT_SCALE;
+
+		return -1;
+	}
+
+	private static boolean conflicts(int slotA, int slotB) {
+		return (SLOT_WRITES[slotA] & (SLOT_READS[slotB] | SLOT_WRITES[slotB])) != 0 || (SLOT_WRITES[slotB] & SLOT_READS[slotA]) != 0;
+	}
+}
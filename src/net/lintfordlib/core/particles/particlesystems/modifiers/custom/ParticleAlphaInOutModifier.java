@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleAlphaInOutModifier extends ParticleModifierBase {
@@ -19,6 +20,15 @@ public class ParticleAlphaInOutModifier extends ParticleModifierBase {
 	public float minAlpha = 0.f;
 	public float maxAlpha = 1.f;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -59,4 +69,18 @@ public class ParticleAlphaInOutModifier extends ParticleModifierBase {
 		final var lScaleFactor = 4.f * lNormalizedLifetime * (1 - lNormalizedLifetime);
 		particle.color.a = minAlpha + lScaleFactor * (maxAlpha - minAlpha);
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lTime = particles.timeSinceStart;
+		final var lLife = particles.lifeTime;
+		final var lAlpha = particles.colorA;
+		final var lRange = maxAlpha - minAlpha;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			final var lNormalizedLifetime = lTime[i] / lLife[i];
+			lAlpha[i] = minAlpha + 4.f * lNormalizedLifetime * (1 - lNormalizedLifetime) * lRange;
+		}
+	}
 }
@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleAlphaModifier extends ParticleModifierBase {
@@ -19,6 +20,15 @@ public class ParticleAlphaModifier extends ParticleModifierBase {
 	public float minAlphaAmount;
 	public float maxAlphaAmount;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -47,4 +57,16 @@ public class ParticleAlphaModifier extends ParticleModifierBase {
 		final var lNormalizedLifetime = particle.timeSinceStart / particle.lifeTime();
 		particle.color.a = minAlphaAmount + (maxAlphaAmount - minAlphaAmount) * lNormalizedLifetime;
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lTime = particles.timeSinceStart;
+		final var lLife = particles.lifeTime;
+		final var lAlpha = particles.colorA;
+		final var lRange = maxAlphaAmount - minAlphaAmount;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++)
+			lAlpha[i] = minAlphaAmount + lRange * (lTime[i] / lLife[i]);
+	}
 }
@@ -3,6 +3,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.maths.RandomNumbers;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 // slightly modifies the RGB of a particles color by a random amount.
@@ -67,6 +68,24 @@ public class ParticleColorVariationModifier extends ParticleModifierBase {
 		particle.color.b = getRandomValue(minBlue, maxBlue) * lNormalizedLifetime * (lNormalizedLifetime - particle.color.b);
 	}
 
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lTime = particles.timeSinceStart;
+		final var lLife = particles.lifeTime;
+		final var lRed = particles.colorR;
+		final var lGreen = particles.colorG;
+		final var lBlue = particles.colorB;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			final var lNormalizedLifetime = lTime[i] / lLife[i];
+
+			lRed[i] = getRandomValue(minRed, maxRed) * lNormalizedLifetime * (lNormalizedLifetime - lRed[i]);
+			lGreen[i] = getRandomValue(minGreen, maxGreen) * lNormalizedLifetime * (lNormalizedLifetime - lGreen[i]);
+			lBlue[i] = getRandomValue(minBlue, maxBlue) * lNormalizedLifetime * (lNormalizedLifetime - lBlue[i]);
+		}
+	}
+
 	protected float getRandomValue(final float minValue, final float maxValue) {
 		if (minValue == maxValue) {
 			return maxValue;
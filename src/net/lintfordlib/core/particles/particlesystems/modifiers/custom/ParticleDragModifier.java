@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleDragModifier extends ParticleModifierBase {
@@ -20,6 +21,15 @@ public class ParticleDragModifier extends ParticleModifierBase {
 
 	public float dragCoefficient;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -58,4 +68,19 @@ public class ParticleDragModifier extends ParticleModifierBase {
 		if (Math.abs(particle.vy) < EPSILON)
 			particle.vy = 0;
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lVx = particles.vx;
+		final var lVy = particles.vy;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			final var lNewVx = lVx[i] * dragCoefficient;
+			final var lNewVy = lVy[i] * dragCoefficient;
+
+			lVx[i] = Math.abs(lNewVx) < EPSILON ? 0 : lNewVx;
+			lVy[i] = Math.abs(lNewVy) < EPSILON ? 0 : lNewVy;
+		}
+	}
 }
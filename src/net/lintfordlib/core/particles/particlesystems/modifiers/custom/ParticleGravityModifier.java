@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleGravityModifier extends ParticleModifierBase {
@@ -19,6 +20,15 @@ public class ParticleGravityModifier extends ParticleModifierBase {
 	public float gravityX;
 	public float gravityY;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -55,4 +65,18 @@ public class ParticleGravityModifier extends ParticleModifierBase {
 		particle.vx += gravityX * lDeltaTime;
 		particle.vy += gravityY * lDeltaTime;
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lVx = particles.vx;
+		final var lVy = particles.vy;
+		final var lGravityX = gravityX * elapsedTimeMilli;
+		final var lGravityY = gravityY * elapsedTimeMilli;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			lVx[i] += lGravityX;
+			lVy[i] += lGravityY;
+		}
+	}
 }
@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticlePhysicsModifier extends ParticleModifierBase {
@@ -22,6 +23,15 @@ public class ParticlePhysicsModifier extends ParticleModifierBase {
 	public boolean enableMovement;
 	public boolean enableRotation;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -64,4 +74,30 @@ public class ParticlePhysicsModifier extends ParticleModifierBase {
 			particle.rotationInRadians += Math.toRadians(particle.angVel);
 		}
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final int lEnd = start + count;
+
+		if (enableMovement) {
+			final var dt = elapsedTimeMilli / 1000f;
+			final var lPosX = particles.worldPositionX;
+			final var lPosY = particles.worldPositionY;
+			final var lVx = particles.vx;
+			final var lVy = particles.vy;
+
+			for (int i = start; i < lEnd; i++) {
+				lPosX[i] += lVx[i] * dt;
+				lPosY[i] += lVy[i] * dt;
+			}
+		}
+
+		if (enableRotation) {
+			final var lRotation = particles.rotationInRadians;
+			final var lAngVel = particles.angVel;
+
+			for (int i = start; i < lEnd; i++)
+				lRotation[i] += (float) Math.toRadians(lAngVel[i]);
+		}
+	}
 }
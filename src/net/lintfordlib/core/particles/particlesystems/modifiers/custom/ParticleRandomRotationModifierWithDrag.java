@@ -3,6 +3,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.maths.RandomNumbers;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleRandomRotationModifierWithDrag extends ParticleModifierBase {
@@ -56,4 +57,17 @@ public class ParticleRandomRotationModifierWithDrag extends ParticleModifierBase
 		particle.rotationInRadians += particle.angVel * lDelta;
 		particle.angVel *= 0.98f;
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lRotation = particles.rotationInRadians;
+		final var lAngVel = particles.angVel;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			final var lNewAngVel = lAngVel[i] + RandomNumbers.random(minRandAmount, maxRandAmount);
+			lRotation[i] += lNewAngVel * elapsedTimeMilli;
+			lAngVel[i] = lNewAngVel * 0.98f;
+		}
+	}
 }
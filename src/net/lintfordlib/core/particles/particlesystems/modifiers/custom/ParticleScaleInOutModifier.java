@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleScaleInOutModifier extends ParticleModifierBase {
@@ -19,6 +20,15 @@ public class ParticleScaleInOutModifier extends ParticleModifierBase {
 	public float minScaleAmount;
 	public float maxScaleAmount;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constants
 	// --------------------------------------
@@ -59,4 +69,18 @@ public class ParticleScaleInOutModifier extends ParticleModifierBase {
 		final var lScaleFactor = 4.f * lNormalizedLifetime * (1 - lNormalizedLifetime);
 		particle.scale = minScaleAmount + lScaleFactor * (maxScaleAmount - minScaleAmount);
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lTime = particles.timeSinceStart;
+		final var lLife = particles.lifeTime;
+		final var lScale = particles.scale;
+		final var lRange = maxScaleAmount - minScaleAmount;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			final var lNormalizedLifetime = lTime[i] / lLife[i];
+			lScale[i] = minScaleAmount + 4.f * lNormalizedLifetime * (1 - lNormalizedLifetime) * lRange;
+		}
+	}
 }
@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleScaleModifier extends ParticleModifierBase {
@@ -22,6 +23,15 @@ public class ParticleScaleModifier extends ParticleModifierBase {
 	public float minScaleAmount;
 	public float maxScaleAmount;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -54,4 +64,16 @@ public class ParticleScaleModifier extends ParticleModifierBase {
 		final var lNormalizedLifetime = particle.timeSinceStart / particle.lifeTime();
 		particle.scale = minScaleAmount + (maxScaleAmount - minScaleAmount) * lNormalizedLifetime;
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lTime = particles.timeSinceStart;
+		final var lLife = particles.lifeTime;
+		final var lScale = particles.scale;
+		final var lRange = maxScaleAmount - minScaleAmount;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++)
+			lScale[i] = minScaleAmount + lRange * (lTime[i] / lLife[i]);
+	}
 }
@@ -2,6 +2,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleTurnToFaceModifier extends ParticleModifierBase {
@@ -12,6 +13,15 @@ public class ParticleTurnToFaceModifier extends ParticleModifierBase {
 
 	private static final long serialVersionUID = -1511765721627415767L;
 
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	// --------------------------------------
 	// Constructor
 	// --------------------------------------
@@ -39,4 +49,16 @@ public class ParticleTurnToFaceModifier extends ParticleModifierBase {
 	public void updateParticle(LintfordCore core, Particle particle) {
 		particle.rotationInRadians = (float) Math.atan2(particle.vx, -particle.vy) + (float) Math.toRadians(90.f);
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lRotation = particles.rotationInRadians;
+		final var lVx = particles.vx;
+		final var lVy = particles.vy;
+		final var lQuarterTurn = (float) Math.toRadians(90.f);
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++)
+			lRotation[i] = (float) Math.atan2(lVx[i], -lVy[i]) + lQuarterTurn;
+	}
 }
@@ -3,6 +3,7 @@ package net.lintfordlib.core.particles.particlesystems.modifiers.custom;
 import net.lintfordlib.core.LintfordCore;
 import net.lintfordlib.core.maths.RandomNumbers;
 import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
 import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
 
 public class ParticleWanderMovementModifier extends ParticleModifierBase {
@@ -64,4 +65,20 @@ public class ParticleWanderMovementModifier extends ParticleModifierBase {
 		particle.vx += (float) Math.cos(particle.angVel) * speed;
 		particle.vy += (float) Math.sin(particle.angVel) * speed;
 	}
+
+	@Override
+	public void updateParticles(LintfordCore core, ParticleArrays particles, int start, int count, float elapsedTimeMilli) {
+		final var lVx = particles.vx;
+		final var lVy = particles.vy;
+		final var lAngVel = particles.angVel;
+
+		final int lEnd = start + count;
+		for (int i = start; i < lEnd; i++) {
+			final var lHeading = lAngVel[i] + RandomNumbers.random(-wanderAmtRad, wanderAmtRad);
+			lAngVel[i] = lHeading;
+
+			lVx[i] += (float) Math.cos(lHeading) * speed;
+			lVy[i] += (float) Math.sin(lHeading) * speed;
+		}
+	}
 }
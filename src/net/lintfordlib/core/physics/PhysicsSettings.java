@@ -14,6 +14,16 @@ public final class PhysicsSettings {
 
 	public boolean enable_collision_resolver;
 	public boolean enable_mtv_separation;
+	public boolean enable_parallel_narrow_phase;
+	public boolean enable_deterministic_mode;
+
+	public boolean enable_sequential_impulse_solver;
+	public int solver_velocity_iterations;
+
+	public boolean enable_sleeping;
+	public float sleep_linear_tolerance; // units/s
+	public float sleep_angular_tolerance; // rad/s
+	public float time_to_sleep; // s
 
 	public float hashGridWidthInUnits;
 	public float hashGridHeightInUnits;
@@ -31,6 +41,13 @@ public final class PhysicsSettings {
 		enable_collision_resolver = true;
 		enable_mtv_separation = true;
 
+		solver_velocity_iterations = 8;
+
+		// the resolver leaves a small residual velocity (roughly one sub-step of gravity) on resting bodies
+		sleep_linear_tolerance = .05f;
+		sleep_angular_tolerance = (float) Math.toRadians(2.f);
+		time_to_sleep = .5f;
+
 		hashGridWidthInUnits = 20;
 		hashGridHeightInUnits = 20;
 		hashGridCellsWide = 5;
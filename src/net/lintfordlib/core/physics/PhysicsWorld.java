@@ -1,15 +1,30 @@
 package net.lintfordlib.core.physics;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import net.lintfordlib.ConstantsPhysics;
 import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.debug.stats.DebugStats;
 import net.lintfordlib.core.maths.MathHelper;
+import net.lintfordlib.core.physics.broadphase.CollisionPairBuffer;
+import net.lintfordlib.core.physics.broadphase.DynamicTreeBroadPhase;
+import net.lintfordlib.core.physics.broadphase.HashGridBroadPhase;
+import net.lintfordlib.core.physics.broadphase.IBroadPhase;
+import net.lintfordlib.core.physics.broadphase.IBroadPhasePairCallback;
+import net.lintfordlib.core.physics.broadphase.IBroadPhaseQueryCallback;
+import net.lintfordlib.core.physics.broadphase.IBroadPhaseRaycastCallback;
+import net.lintfordlib.core.physics.broadphase.SweepAndPruneBroadPhase;
 import net.lintfordlib.core.physics.collisions.ContactManifold;
+import net.lintfordlib.core.physics.collisions.NarrowPhaseScratch;
+import net.lintfordlib.core.physics.collisions.RaycastResult;
 import net.lintfordlib.core.physics.collisions.SATContacts;
 import net.lintfordlib.core.physics.collisions.IntersectionTests;
+import net.lintfordlib.core.physics.collisions.TimeOfImpact;
+import net.lintfordlib.core.physics.collisions.TimeOfImpact.TOIResult;
 import net.lintfordlib.core.physics.dynamics.RigidBody;
 import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
 import net.lintfordlib.core.physics.interfaces.ICollisionCallback;
@@ -17,6 +32,7 @@ import net.lintfordlib.core.physics.resolvers.CollisionResolverRotationAndFricti
 import net.lintfordlib.core.physics.resolvers.CollisionResolverRotations;
 import net.lintfordlib.core.physics.resolvers.CollisionResolverSimple;
 import net.lintfordlib.core.physics.resolvers.ICollisionResolver;
+import net.lintfordlib.core.physics.resolvers.SequentialImpulseSolver;
 import net.lintfordlib.core.physics.spatial.PhysicsHashGrid;
 import net.lintfordlib.core.time.TimeConstants;
 
@@ -26,9 +42,82 @@ public class PhysicsWorld {
 	// Inner-Classes
 	// --------------------------------------
 
-	private class CollisionPair {
-		public RigidBody bodyA;
-		public RigidBody bodyB;
+	/** Splits the collision pair list and runs the collision detection and contact generation of each half on the fork-join pool. */
+	private class NarrowPhaseTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -4412530957213530153L;
+
+		private final int mStartIndex;
+		private final int mEndIndex;
+
+		int mNumAabbPairs;
+
+		NarrowPhaseTask(int startIndex, int endIndex) {
+			mStartIndex = startIndex;
+			mEndIndex = endIndex;
+		}
+
+		@Override
+		protected void compute() {
+			if (mEndIndex - mStartIndex <= PARALLEL_NARROW_PHASE_BATCH_SIZE) {
+				mNumAabbPairs = detectContacts(mStartIndex, mEndIndex);
+				return;
+			}
+
+			final int lMidIndex = (mStartIndex + mEndIndex) >>> 1;
+			final var lLowerTask = new NarrowPhaseTask(mStartIndex, lMidIndex);
+			final var lUpperTask = new NarrowPhaseTask(lMidIndex, mEndIndex);
+			invokeAll(lLowerTask, lUpperTask);
+
+			mNumAabbPairs = lLowerTask.mNumAabbPairs + lUpperTask.mNumAabbPairs;
+		}
+	}
+
+	/** The state of a raycast or AABB query. Each querying thread has its own instance, so the queries don't share any scratch state. */
+	private static class QueryContext implements IBroadPhaseRaycastCallback, IBroadPhaseQueryCallback {
+
+		final TOIResult toiResult = new TOIResult();
+
+		int maskBits;
+		float radius;
+		RaycastResult raycastResult;
+
+		RigidBody[] aabbResults;
+		int numAabbResults;
+
+		@Override
+		public float reportBody(RigidBody body, float p1x, float p1y, float p2x, float p2y, float maxFraction) {
+			if ((body.categoryBits() & maskBits) == 0 || body.isSensor())
+				return -1.f;
+
+			// only hits closer than the current closest hit are accepted
+			toiResult.reset();
+			toiResult.t = maxFraction;
+
+			final float dx = p2x - p1x;
+			final float dy = p2y - p1y;
+			if (!TimeOfImpact.sweepCircle(p1x, p1y, dx, dy, radius, body, toiResult))
+				return -1.f;
+
+			final var lResult = raycastResult;
+			lResult.body = body;
+			lResult.fraction = toiResult.t;
+			lResult.normalX = toiResult.normalX;
+			lResult.normalY = toiResult.normalY;
+			lResult.pointX = p1x + dx * toiResult.t - toiResult.normalX * radius;
+			lResult.pointY = p1y + dy * toiResult.t - toiResult.normalY * radius;
+
+			return toiResult.t;
+		}
+
+		@Override
+		public boolean reportBody(RigidBody body) {
+			if ((body.categoryBits() & maskBits) == 0)
+				return true;
+
+			aabbResults[numAabbResults++] = body;
+			return numAabbResults < aabbResults.length;
+		}
 	}
 
 	// --------------------------------------
@@ -37,6 +126,16 @@ public class PhysicsWorld {
 
 	private static final int DEFAULT_NUM_UPDATE_ITERATIONS = 7;
 
+	/** The minimum number of collision pairs before the narrow phase is split across threads. */
+	private static final int PARALLEL_NARROW_PHASE_MIN_PAIRS = 256;
+	private static final int PARALLEL_NARROW_PHASE_BATCH_SIZE = 64;
+
+	/** The maximum number of impacts a bullet body is sub-stepped through in a single integration. */
+	private static final int MAX_BULLET_SUB_STEPS = 4;
+
+	/** The distance (in units) a bullet body is kept away from the surface it hits, so the discrete narrow phase doesn't start from an overlap. */
+	private static final float BULLET_TOI_SLOP = .005f;
+
 	private final ContactManifold mContactManifold = new ContactManifold();
 
 	// --------------------------------------
@@ -46,22 +145,63 @@ public class PhysicsWorld {
 	private float mGravityX; // mps/s
 	private float mGravityY; // mps/s
 
-	private PhysicsHashGrid<RigidBody> mPhysicsHashGrid;
+	private IBroadPhase mBroadPhase;
+	private final IBroadPhasePairCallback mBroadPhasePairCallback = this::addCollisionPair;
+	private final CollisionPairBuffer mCollisionPairs = new CollisionPairBuffer();
 	private final List<RigidBody> mBodies = new ArrayList<>();
 
-	private final LinkedList<CollisionPair> mCollisionPairPool = new LinkedList<>();
-	private final List<CollisionPair> mCollisionPair = new ArrayList<>(16);
 	private final List<ICollisionCallback> mCollisionCallbackList = new ArrayList<>();
 
 	private ICollisionResolver mCollisionResolver;
 
 	private boolean mAreBodiesLocked;
 	private boolean mInitialized = false;
-	private int updateCounter = 0;
 
 	private final boolean enableMtvSeparation;
 	private final boolean enableCollisionResponse;
 
+	private boolean mParallelNarrowPhase;
+
+	private boolean mDeterministic;
+	private long mStateHash;
+
+	private final SequentialImpulseSolver mSequentialImpulseSolver = new SequentialImpulseSolver();
+	private boolean mUseSequentialImpulseSolver;
+	private int mVelocityIterations;
+
+	private boolean mSleepingEnabled;
+	private final float mSleepLinearTolerance;
+	private final float mSleepAngularTolerance;
+	private final float mTimeToSleep;
+	private int mNumAwakeBodies;
+
+	// bodies in contact during the current step, used to build the islands for sleeping
+	private final List<RigidBody> mContactEdgeBodiesA = new ArrayList<>();
+	private final List<RigidBody> mContactEdgeBodiesB = new ArrayList<>();
+	private int[] mIslandParents = new int[0];
+	private float[] mIslandMinSleepTimes = new float[0];
+
+	// bullet bodies of the current integration, and their positions before the integration
+	private RigidBody[] mBulletBodies = new RigidBody[0];
+	private float[] mBulletStartPositions = new float[0];
+	private int mNumBulletBodies;
+	private final TOIResult mBulletTOIResult = new TOIResult();
+	private final IBroadPhaseRaycastCallback mBulletSweepCallback = this::reportBulletSweepBody;
+	private RigidBody mBulletSweepBody;
+	private float mBulletSweepRadius;
+	private RigidBody mBulletHitBody;
+
+	private final ThreadLocal<QueryContext> mQueryContexts = ThreadLocal.withInitial(QueryContext::new);
+
+	private ContactManifold[] mPairContactManifolds = new ContactManifold[0];
+	private boolean[] mPairIsColliding = new boolean[0];
+
+	// broad phase counters, summed over the iterations of the last step
+	private int mNumPairsReported;
+	private int mNumDuplicatePairsRemoved;
+	private int mNumNarrowPhasePairs;
+	private int mNumAabbPairs;
+
 	private int mCurrentIterationNr;
 	private int mNumIterations;
 	private double mStepTime;
@@ -93,6 +233,133 @@ public class PhysicsWorld {
 		mNumIterations = MathHelper.clampi(numIterations, ConstantsPhysics.MIN_ITERATIONS, ConstantsPhysics.MAX_ITERATIONS);
 	}
 
+	/***
+	 * @return true if the collision detection and contact generation of the narrow phase is split across multiple threads.
+	 */
+	public boolean parallelNarrowPhase() {
+		return mParallelNarrowPhase;
+	}
+
+	/***
+	 * Enables or disables the parallel narrow phase. When enabled, collision detection and contact generation for each collision pair are performed on the common {@link ForkJoinPool}, each pair with its own {@link ContactManifold}. The collision callbacks, MTV separation and collision resolution are still performed on the calling thread, in collision pair order, so the results are deterministic.
+	 * 
+	 * n.b. in the parallel narrow phase, the contact points of all pairs are generated before any bodies are separated by their MTV.
+	 */
+	public void parallelNarrowPhase(boolean parallelNarrowPhase) {
+		mParallelNarrowPhase = parallelNarrowPhase;
+	}
+
+	/***
+	 * @return true if the world is stepped in deterministic mode.
+	 */
+	public boolean deterministic() {
+		return mDeterministic;
+	}
+
+	/***
+	 * Enables or disables the deterministic mode (for replays and lockstep). In deterministic mode, the collision pairs and solver contacts are processed in the order of the bodies in the world, rather than the order in which the broad phase found them. The integration uses {@link StrictMath}, and a hash of the state of all bodies is computed after each step (see {@link #stateHash()}).
+	 * 
+	 * The mode only applies to this world. The rotations set outside of the step (when creating bodies and shapes, or setting the angle of a body) are always computed with {@link StrictMath}, so bodies can be created before or after the mode is enabled.
+	 * 
+	 * Two worlds which had the same bodies added in the same order, and which are stepped with the same inputs, then produce bit-identical states on every platform. (Since Java 17 all floating-point expressions are evaluated strictly, so no strictfp is needed.)
+	 */
+	public void deterministic(boolean deterministic) {
+		mDeterministic = deterministic;
+		mStateHash = 0;
+	}
+
+	/***
+	 * @return The 64-bit hash of the state of all bodies after the last step in deterministic mode (0 otherwise). Compare the hashes of two peers each frame to find a desync in the frame it happens.
+	 */
+	public long stateHash() {
+		return mStateHash;
+	}
+
+	/***
+	 * @return true if contacts are resolved by the {@link SequentialImpulseSolver} instead of the {@link ICollisionResolver}.
+	 */
+	public boolean useSequentialImpulseSolver() {
+		return mUseSequentialImpulseSolver;
+	}
+
+	/***
+	 * Switches between the {@link SequentialImpulseSolver} and the {@link ICollisionResolver}. With the solver, the broad and narrow phase run once per step, and the persistent contacts are solved with {@link #velocityIterations()} iterations (the {@link #numIterations()} of the world step are not used). MTV separation is replaced by the position correction of the solver.
+	 */
+	public void useSequentialImpulseSolver(boolean useSequentialImpulseSolver) {
+		mUseSequentialImpulseSolver = useSequentialImpulseSolver;
+		mSequentialImpulseSolver.clear();
+	}
+
+	public SequentialImpulseSolver sequentialImpulseSolver() {
+		return mSequentialImpulseSolver;
+	}
+
+	/***
+	 * @return The number of velocity iterations performed by the {@link SequentialImpulseSolver} each step.
+	 */
+	public int velocityIterations() {
+		return mVelocityIterations;
+	}
+
+	public void velocityIterations(int velocityIterations) {
+		mVelocityIterations = Math.max(1, velocityIterations);
+	}
+
+	/***
+	 * @return true if resting islands of bodies are put to sleep.
+	 */
+	public boolean sleepingEnabled() {
+		return mSleepingEnabled;
+	}
+
+	/***
+	 * Enables or disables sleeping. When enabled, islands of touching bodies which have all been at rest for {@link PhysicsSettings#time_to_sleep} are put to sleep. Sleeping bodies are not integrated, not updated in the broad phase and skipped in the narrow phase until they are woken by a contact, an impulse/force or a change to their transform. Disabling sleeping wakes all bodies.
+	 */
+	public void sleepingEnabled(boolean sleepingEnabled) {
+		mSleepingEnabled = sleepingEnabled;
+
+		if (!sleepingEnabled) {
+			final var lNumBodies = mBodies.size();
+			for (int i = 0; i < lNumBodies; i++)
+				mBodies.get(i).setAwake(true);
+		}
+	}
+
+	/***
+	 * @return The number of non-static bodies which were awake during the last step.
+	 */
+	public int numAwakeBodies() {
+		return mNumAwakeBodies;
+	}
+
+	/***
+	 * @return The number of pairs reported by the broad phase during the last step (summed over all iterations), including duplicates.
+	 */
+	public int numPairsReported() {
+		return mNumPairsReported;
+	}
+
+	/***
+	 * @return The number of duplicate pairs (e.g. from bodies spanning several hash grid cells) removed during the last step.
+	 */
+	public int numDuplicatePairsRemoved() {
+		return mNumDuplicatePairsRemoved;
+	}
+
+	/***
+	 * @return The number of unique pairs which were passed to the narrow phase during the last step.
+	 */
+	public int numNarrowPhasePairs() {
+		return mNumNarrowPhasePairs;
+	}
+
+	/***
+	 * @return The number of unique pairs whose AABBs still overlapped when the narrow phase tested them during the last step. The pairs rejected by this test (e.g. after a body was moved by the MTV separation of an earlier pair) skip the SAT tests.
+	 */
+	public int numAabbPairs() {
+		return mNumAabbPairs;
+	}
+
 	/***
 	 * @return The last step time (over all iterations) in ms.
 	 */
@@ -121,12 +388,49 @@ public class PhysicsWorld {
 	}
 
 	/***
-	 * All {@link RigidBody} managed by the {@link PhysicsWorld} are held within the {@link PhysicsHashGrid}.
+	 * When the {@link PhysicsWorld} uses a {@link HashGridBroadPhase}, all {@link RigidBody} managed by the {@link PhysicsWorld} are held within its {@link PhysicsHashGrid}.
 	 * 
-	 * @return The current instance of {@link PhysicsHashGrid} managing the {@link PhysicsWorld}'s {@link RigidBody}s.
+	 * @return The current instance of {@link PhysicsHashGrid} managing the {@link PhysicsWorld}'s {@link RigidBody}s, or null if a different {@link IBroadPhase} is in use.
 	 */
 	public PhysicsHashGrid<RigidBody> grid() {
-		return mPhysicsHashGrid;
+		if (mBroadPhase instanceof HashGridBroadPhase lHashGridBroadPhase)
+			return lHashGridBroadPhase.grid();
+
+		return null;
+	}
+
+	/***
+	 * @return The {@link IBroadPhase} currently used to find potential collision pairs.
+	 */
+	public IBroadPhase broadPhase() {
+		return mBroadPhase;
+	}
+
+	/***
+	 * Sets the {@link IBroadPhase} used to find potential collision pairs. All bodies currently managed by the world are moved over into the new broad phase. Cannot be changed while the bodies are locked.
+	 * 
+	 * @param broadPhase An instance of {@link IBroadPhase}.
+	 * @see {@link HashGridBroadPhase}, {@link SweepAndPruneBroadPhase} and {@link DynamicTreeBroadPhase}.
+	 */
+	public void setBroadPhase(IBroadPhase broadPhase) {
+		if (broadPhase == null || broadPhase == mBroadPhase)
+			return;
+
+		if (mAreBodiesLocked) {
+			Debug.debugManager().logger().w(getClass().getSimpleName(), "Cannot change the broad phase while the _LockedBodies flag is set");
+			return;
+		}
+
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
+			if (mBroadPhase != null)
+				mBroadPhase.removeBody(lBody);
+
+			broadPhase.addBody(lBody);
+		}
+
+		mBroadPhase = broadPhase;
 	}
 
 	/***
@@ -186,10 +490,19 @@ public class PhysicsWorld {
 		if (settings == null)
 			settings = PhysicsSettings.DefaultSettings;
 
-		mPhysicsHashGrid = new PhysicsHashGrid<>(settings.hashGridWidthInUnits, settings.hashGridHeightInUnits, settings.hashGridCellsWide, settings.hashGridCellsHigh);
+		mBroadPhase = new HashGridBroadPhase(settings.hashGridWidthInUnits, settings.hashGridHeightInUnits, settings.hashGridCellsWide, settings.hashGridCellsHigh);
 
 		enableMtvSeparation = settings.enable_mtv_separation;
 		enableCollisionResponse = settings.enable_collision_resolver;
+		mParallelNarrowPhase = settings.enable_parallel_narrow_phase;
+		deterministic(settings.enable_deterministic_mode);
+		mUseSequentialImpulseSolver = settings.enable_sequential_impulse_solver;
+		mVelocityIterations = settings.solver_velocity_iterations;
+
+		mSleepingEnabled = settings.enable_sleeping;
+		mSleepLinearTolerance = settings.sleep_linear_tolerance;
+		mSleepAngularTolerance = settings.sleep_angular_tolerance;
+		mTimeToSleep = settings.time_to_sleep;
 
 		mCollisionResolver = new CollisionResolverSimple();
 
@@ -207,39 +520,24 @@ public class PhysicsWorld {
 			return;
 		}
 
-		initializeCollisionPairPool();
-
 		mInitialized = true;
 	}
 
-	private void initializeCollisionPairPool() {
-		for (int i = 0; i < 32; i++) {
-			mCollisionPairPool.addLast(new CollisionPair());
-		}
-	}
-
 	public void unload() {
 		mInitialized = false;
 
-		final int lNumObjectsInCollisionPool = mCollisionPairPool.size();
-		for (int i = 0; i < lNumObjectsInCollisionPool; i++) {
-			final var lCollisionPair = mCollisionPairPool.get(i);
-
-			if (lCollisionPair != null) {
-				lCollisionPair.bodyA = null;
-				lCollisionPair.bodyB = null;
-			}
-		}
-		mCollisionPairPool.clear();
+		mCollisionPairs.clear();
 
 		final var lNumBodies = mBodies.size();
 		for (int i = 0; i < lNumBodies; i++) {
 			final var lBody = mBodies.get(i);
 			if (lBody != null) {
+				mBroadPhase.removeBody(lBody);
 				lBody.userData(null);
 			}
 		}
 		mBodies.clear();
+		mSequentialImpulseSolver.clear();
 
 		mCollisionCallbackList.clear();
 	}
@@ -255,154 +553,523 @@ public class PhysicsWorld {
 
 		final var lSystemTimeBegin = System.nanoTime();
 
+		mContactEdgeBodiesA.clear();
+		mContactEdgeBodiesB.clear();
+
+		mNumPairsReported = 0;
+		mNumDuplicatePairsRemoved = 0;
+		mNumNarrowPhasePairs = 0;
+		mNumAabbPairs = 0;
+
+		if (mDeterministic)
+			updateWorldIndices();
+
+		if (mUseSequentialImpulseSolver)
+			stepSequentialImpulse(time);
+		else
+			stepIterations(time);
+
+		mCurrentIterationNr = -1;
+
+		if (mSleepingEnabled)
+			updateSleep(time);
+
+		if (mDeterministic)
+			mStateHash = computeStateHash();
+
+		updateShapeCaches();
+		updateDebugStats();
+
+		mStepTime = ((System.nanoTime() - lSystemTimeBegin) / TimeConstants.NanoToMilli);
+	}
+
+	/***
+	 * Brings the cached AABB and world vertices of every shape up to date with the transform of its body. The caches are otherwise updated lazily, by the first read after a body has moved (e.g. by the MTV separation), which would make the queries write to the shapes.
+	 *
+	 * This is called at the end of {@link #stepWorld(float)}, and needs to be called again before running queries on several threads if bodies were added or moved after the step.
+	 */
+	public void updateShapeCaches() {
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++)
+			mBodies.get(i).aabb();
+	}
+
+	private void updateDebugStats() {
+		final var lDebugStats = Debug.debugManager().stats();
+		if (lDebugStats == null)
+			return;
+
+		lDebugStats.incTag(DebugStats.TAG_ID_PHYSICS_PAIRS_FOUND, mNumPairsReported);
+		lDebugStats.incTag(DebugStats.TAG_ID_PHYSICS_PAIRS_DUPLICATES, mNumDuplicatePairsRemoved);
+		lDebugStats.incTag(DebugStats.TAG_ID_PHYSICS_PAIRS_AABB, mNumAabbPairs);
+	}
+
+	private void stepIterations(float time) {
 		time /= mNumIterations;
 		for (int it = 0; it < mNumIterations; it++) {
 			mCurrentIterationNr = it;
 
 			mAreBodiesLocked = true;
-			mCollisionPair.clear();
+			mCollisionPairs.clear();
 			stepBodies(time);
 
-			broadPhase();
+			runBroadPhase();
 			mAreBodiesLocked = false;
 
 			narrowPhase();
 		}
-		mCurrentIterationNr = -1;
+	}
 
-		mStepTime = ((System.nanoTime() - lSystemTimeBegin) / TimeConstants.NanoToMilli);
+	private void stepSequentialImpulse(float time) {
+		mCurrentIterationNr = 0;
+
+		mAreBodiesLocked = true;
+		mCollisionPairs.clear();
+		integrateVelocities(time);
+
+		runBroadPhase();
+		mAreBodiesLocked = false;
+
+		mSequentialImpulseSolver.beginContacts();
+		narrowPhase();
+		mSequentialImpulseSolver.endContacts();
+
+		if (mDeterministic)
+			mSequentialImpulseSolver.sortConstraintsByWorldIndex();
+
+		final var lNumCallbacks = mCollisionCallbackList.size();
+		final var lNumConstraints = mSequentialImpulseSolver.numConstraints();
+		for (int i = 0; i < lNumConstraints; i++) {
+			final var lManifold = mSequentialImpulseSolver.getConstraint(i).manifold;
+			for (int j = 0; j < lNumCallbacks; j++)
+				mCollisionCallbackList.get(j).preSolve(lManifold);
+		}
+
+		mSequentialImpulseSolver.solve(time, mVelocityIterations);
+
+		for (int i = 0; i < lNumConstraints; i++) {
+			final var lManifold = mSequentialImpulseSolver.getConstraint(i).manifold;
+			for (int j = 0; j < lNumCallbacks; j++)
+				mCollisionCallbackList.get(j).postSolve(lManifold);
+		}
+
+		integratePositions(time);
 	}
 
-	private void stepBodies(float time) {
-		updateCounter++;
+	private void integrateVelocities(float time) {
+		mNumAwakeBodies = 0;
+
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
+
+			lBody.debugIsColliding = false;
 
-		final var lActiveCellKeys = mPhysicsHashGrid.getActiveCellKeys();
-		final int lNumActiveCellKeys = lActiveCellKeys.size();
-		for (int i = 0; i < lNumActiveCellKeys; i++) {
-			final var lCellKey = lActiveCellKeys.get(i);
-			final var lCell = mPhysicsHashGrid.getCell(lCellKey);
-			final var lNumEntitiesInCell = lCell.size();
+			if (!lBody.isAwake() || lBody.bodyType() == BodyType.Static)
+				continue;
 
-			boolean isCellActive = false;
-			for (int j = lNumEntitiesInCell - 1; j >= 0; j--) {
-				final var lBody = lCell.get(j);
+			mNumAwakeBodies++;
+			lBody.integrateVelocity(time, mGravityX, mGravityY);
+		}
+	}
 
-				if (lBody._updateCounter >= updateCounter)
-					continue;
+	private void integratePositions(float time) {
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
+			if (!lBody.isAwake())
+				continue;
 
-				lBody._updateCounter = updateCounter;
-				lBody.step(time, mGravityX, mGravityY);
+			if (lBody.isBullet())
+				addBulletBody(lBody);
 
-				mPhysicsHashGrid.updateEntity(lBody);
+			lBody.integratePosition(time, mDeterministic);
 
-				isCellActive = isCellActive || lBody._isActive;
-			}
+			mBroadPhase.updateBody(lBody, time);
 		}
+
+		sweepBulletBodies(time);
 	}
 
-	private void broadPhase() {
-		final var lActiveCellKeys = mPhysicsHashGrid.getActiveCellKeys();
-		final int lNumActiveCellKeys = lActiveCellKeys.size();
-		for (int i = lNumActiveCellKeys - 1; i >= 0; i--) {
-			final var lCellKey = lActiveCellKeys.get(i);
-			final var lCell = mPhysicsHashGrid.getCell(lCellKey);
-			final var lNumEntitiesInCell = lCell.size();
+	private void stepBodies(float time) {
+		mNumAwakeBodies = 0;
+
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
 
-			if (lNumEntitiesInCell == 0) {
-				lActiveCellKeys.remove(i);
+			lBody.debugIsColliding = false;
+
+			if (!lBody.isAwake())
 				continue;
-			}
 
-			for (int j = 0; j < lNumEntitiesInCell; j++) {
-				final var lBodyA = lCell.get(j);
-				final var lBodyA_aabb = lBodyA.aabb();
+			if (lBody.bodyType() != BodyType.Static)
+				mNumAwakeBodies++;
 
-				lBodyA.debugIsColliding = false;
+			if (lBody.isBullet())
+				addBulletBody(lBody);
 
-				for (int s = j + 1; s < lNumEntitiesInCell; s++) {
-					final var lBodyB = lCell.get(s);
+			lBody.step(time, mGravityX, mGravityY, mDeterministic);
 
-					if (lBodyA == lBodyB)
-						continue;
+			mBroadPhase.updateBody(lBody, time);
+		}
 
-					if (lBodyA.bodyType() == BodyType.Static && lBodyB.bodyType() == BodyType.Static)
-						continue;
+		sweepBulletBodies(time);
+	}
+
+	// --- continuous collision detection
 
-					if (lBodyA.categoryBits() == 0 || lBodyB.categoryBits() == 0)
-						continue;
+	private void addBulletBody(RigidBody body) {
+		if (body.bodyType() != BodyType.Dynamic || body.shape() == null)
+			return;
+
+		if (mNumBulletBodies == mBulletBodies.length) {
+			final int lNewCapacity = Math.max(8, mBulletBodies.length * 2);
+			mBulletBodies = Arrays.copyOf(mBulletBodies, lNewCapacity);
+			mBulletStartPositions = Arrays.copyOf(mBulletStartPositions, lNewCapacity * 2);
+		}
 
-					if (lBodyA.maskBits() == 0 || lBodyB.maskBits() == 0)
-						continue;
+		mBulletStartPositions[mNumBulletBodies << 1] = body.transform.p.x;
+		mBulletStartPositions[(mNumBulletBodies << 1) + 1] = body.transform.p.y;
+		mBulletBodies[mNumBulletBodies++] = body;
+	}
 
-					final var passedFilterCollision = (lBodyA.maskBits() & lBodyB.categoryBits()) != 0 && (lBodyA.categoryBits() & lBodyB.maskBits()) != 0;
+	/***
+	 * Sweeps the bullet bodies from their positions before the integration to their integrated positions against the static bodies. On impact, a bullet is moved to the time of impact, its velocity is reflected about the contact normal and the remaining time is sub-stepped with the new velocity.
+	 */
+	private void sweepBulletBodies(float time) {
+		for (int i = 0; i < mNumBulletBodies; i++) {
+			final var lBody = mBulletBodies[i];
+			mBulletBodies[i] = null;
 
-					if (!passedFilterCollision)
-						continue;
+			if (sweepBulletBody(lBody, mBulletStartPositions[i << 1], mBulletStartPositions[(i << 1) + 1], time))
+				mBroadPhase.updateBody(lBody, time);
+		}
 
-					final var lBodyB_aabb = lBodyB.aabb();
-					if (!lBodyA_aabb.intersectsAA(lBodyB_aabb))
-						continue;
+		mNumBulletBodies = 0;
+	}
 
-					final var lCollisionPair = getFreeCollisionPair();
-					lCollisionPair.bodyA = lBodyA;
-					lCollisionPair.bodyB = lBodyB;
+	private boolean sweepBulletBody(RigidBody body, float startX, float startY, float time) {
+		final float lRadius = TimeOfImpact.coreRadius(body.shape());
+
+		float lPositionX = startX;
+		float lPositionY = startY;
+		float lDeltaX = body.transform.p.x - startX;
+		float lDeltaY = body.transform.p.y - startY;
+		float lRemainingTime = time;
+
+		boolean lHasHit = false;
+		for (int i = 0; i < MAX_BULLET_SUB_STEPS; i++) {
+			final var lStaticBody = findBulletTimeOfImpact(body, lPositionX, lPositionY, lDeltaX, lDeltaY, lRadius);
+			if (lStaticBody == null) {
+				lPositionX += lDeltaX;
+				lPositionY += lDeltaY;
+				break;
+			}
 
-					mCollisionPair.add(lCollisionPair);
-				}
+			lHasHit = true;
+
+			final float t = mBulletTOIResult.t;
+			final float lDeltaLength = (float) Math.sqrt(lDeltaX * lDeltaX + lDeltaY * lDeltaY);
+			final float lSafeT = Math.max(0.f, t - BULLET_TOI_SLOP / lDeltaLength);
+			lPositionX += lDeltaX * lSafeT;
+			lPositionY += lDeltaY * lSafeT;
+
+			final float nx = mBulletTOIResult.normalX;
+			final float ny = mBulletTOIResult.normalY;
+			final float lNormalVelocity = body.vx * nx + body.vy * ny;
+			if (lNormalVelocity < 0.f) {
+				final float e = Math.min(body.shape().restitution(), lStaticBody.shape().restitution());
+				body.vx -= (1.f + e) * lNormalVelocity * nx;
+				body.vy -= (1.f + e) * lNormalVelocity * ny;
 			}
+
+			lRemainingTime *= 1.f - t;
+			lDeltaX = body.vx * lRemainingTime;
+			lDeltaY = body.vy * lRemainingTime;
+		}
+
+		if (!lHasHit)
+			return false;
+
+		body.transform.p.x = lPositionX;
+		body.transform.p.y = lPositionY;
+		return true;
+	}
+
+	/***
+	 * @return The static body hit first by the sweep (with the hit stored in mBulletTOIResult), or null if the sweep doesn't hit any static body.
+	 */
+	private RigidBody findBulletTimeOfImpact(RigidBody body, float startX, float startY, float deltaX, float deltaY, float radius) {
+		mBulletTOIResult.reset();
+		mBulletSweepBody = body;
+		mBulletSweepRadius = radius;
+		mBulletHitBody = null;
+
+		mBroadPhase.raycast(startX, startY, startX + deltaX, startY + deltaY, radius, mBulletSweepCallback);
+
+		mBulletSweepBody = null;
+		return mBulletHitBody;
+	}
+
+	private float reportBulletSweepBody(RigidBody otherBody, float p1x, float p1y, float p2x, float p2y, float maxFraction) {
+		if (otherBody.bodyType() != BodyType.Static || otherBody.isSensor() || !IBroadPhase.canCollide(mBulletSweepBody, otherBody))
+			return -1.f;
+
+		if (!TimeOfImpact.sweepCircle(p1x, p1y, p2x - p1x, p2y - p1y, mBulletSweepRadius, otherBody, mBulletTOIResult))
+			return -1.f;
+
+		mBulletHitBody = otherBody;
+		return mBulletTOIResult.t;
+	}
+
+	private void runBroadPhase() {
+		mBroadPhase.findPairs(mBroadPhasePairCallback);
+
+		if (mDeterministic)
+			mCollisionPairs.sortByWorldIndex();
+	}
+
+	// --- deterministic mode
+
+	private void updateWorldIndices() {
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++)
+			mBodies.get(i)._worldIndex = i;
+	}
+
+	/***
+	 * Computes a 64-bit hash of the transforms, velocities and awake states of all bodies, in the order they were added to the world.
+	 */
+	public long computeStateHash() {
+		long lHash = 0xCBF29CE484222325L;
+
+		final var lNumBodies = mBodies.size();
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
+
+			lHash = hashCombine(lHash, Float.floatToIntBits(lBody.transform.p.x));
+			lHash = hashCombine(lHash, Float.floatToIntBits(lBody.transform.p.y));
+			lHash = hashCombine(lHash, Float.floatToIntBits(lBody.transform.angle));
+			lHash = hashCombine(lHash, Float.floatToIntBits(lBody.vx));
+			lHash = hashCombine(lHash, Float.floatToIntBits(lBody.vy));
+			lHash = hashCombine(lHash, Float.floatToIntBits(lBody.angularVelocity));
+			lHash = hashCombine(lHash, lBody.isAwake() ? 1 : 0);
 		}
+
+		// final avalanche, so that single bit differences spread over the whole hash
+		lHash ^= lHash >>> 33;
+		lHash *= 0xFF51AFD7ED558CCDL;
+		lHash ^= lHash >>> 33;
+		return lHash;
+	}
+
+	private static long hashCombine(long hash, int value) {
+		// FNV-1a over 32-bit words
+		return (hash ^ (value & 0xFFFFFFFFL)) * 0x100000001B3L;
 	}
 
 	private void narrowPhase() {
-		final var lNumCallbacks = mCollisionCallbackList.size();
+		final var lNumCollisionPairs = mCollisionPairs.numPairs();
+		mNumPairsReported += mCollisionPairs.numPairsReported();
+		mNumDuplicatePairsRemoved += mCollisionPairs.numDuplicatesRemoved();
+		mNumNarrowPhasePairs += lNumCollisionPairs;
+
+		if (mParallelNarrowPhase && lNumCollisionPairs >= PARALLEL_NARROW_PHASE_MIN_PAIRS) {
+			narrowPhaseParallel(lNumCollisionPairs);
+			return;
+		}
 
-		final var lNumCollisionPairs = mCollisionPair.size();
 		for (int i = 0; i < lNumCollisionPairs; i++) {
-			final var lCollisionPair = mCollisionPair.get(i);
+			final var lBodyA = mCollisionPairs.bodyA(i);
+			final var lBodyB = mCollisionPairs.bodyB(i);
+			if (!lBodyA.aabb().intersectsAA(lBodyB.aabb()))
+				continue;
+
+			mNumAabbPairs++;
+			mContactManifold.initialize(lBodyA, lBodyB);
+
+			if (IntersectionTests.checkCollides(mContactManifold))
+				processContact(mContactManifold, true);
+		}
+	}
+
+	private void narrowPhaseParallel(int numCollisionPairs) {
+		ensurePairContactManifoldCapacity(numCollisionPairs);
+
+		// make sure the cached world vertices of all shapes are up-to-date, as they are lazily updated (and so cannot be shared between threads otherwise).
+		updateShapeCaches();
+
+		final var lNarrowPhaseTask = new NarrowPhaseTask(0, numCollisionPairs);
+		ForkJoinPool.commonPool().invoke(lNarrowPhaseTask);
+		mNumAabbPairs += lNarrowPhaseTask.mNumAabbPairs;
+
+		for (int i = 0; i < numCollisionPairs; i++) {
+			if (mPairIsColliding[i])
+				processContact(mPairContactManifolds[i], false);
+		}
+	}
 
-			mContactManifold.initialize(lCollisionPair.bodyA, lCollisionPair.bodyB);
+	/** Performs the collision detection and contact generation for the collision pairs in the range [startIndex, endIndex) and returns the number of pairs whose AABBs overlap. Safe to call from multiple threads for disjoint ranges. */
+	private int detectContacts(int startIndex, int endIndex) {
+		final var lScratch = NarrowPhaseScratch.forCurrentThread();
 
-			final var lBodyA = lCollisionPair.bodyA;
-			final var lBodyB = lCollisionPair.bodyB;
+		int lNumAabbPairs = 0;
+		for (int i = startIndex; i < endIndex; i++) {
+			final var lBodyA = mCollisionPairs.bodyA(i);
+			final var lBodyB = mCollisionPairs.bodyB(i);
+			if (!lBodyA.aabb().intersectsAA(lBodyB.aabb())) {
+				mPairIsColliding[i] = false;
+				continue;
+			}
 
-			if (IntersectionTests.checkCollides(mContactManifold)) {
-				lBodyA.debugIsColliding = true;
-				lBodyB.debugIsColliding = true;
+			lNumAabbPairs++;
 
-				for (int j = 0; j < lNumCallbacks; j++)
-					mCollisionCallbackList.get(j).preContact(mContactManifold);
+			final var lContactManifold = mPairContactManifolds[i];
+			lContactManifold.initialize(lBodyA, lBodyB);
 
-				if (!mContactManifold.enableResolveContact) {
-					returnCollisionPair(lCollisionPair);
-					continue;
-				}
+			final var lIsColliding = IntersectionTests.checkCollides(lContactManifold, lScratch);
+			if (lIsColliding)
+				SATContacts.fillContactPoints(lContactManifold, lScratch);
 
-				final var lDealingWithSensorShape = lBodyA.isSensor() || lBodyB.isSensor();
-				if (enableMtvSeparation && !lDealingWithSensorShape)
-					separateBodiesByMTV(mContactManifold);
+			mPairIsColliding[i] = lIsColliding;
+		}
 
-				SATContacts.fillContactPoints(mContactManifold);
+		return lNumAabbPairs;
+	}
 
-				for (int j = 0; j < lNumCallbacks; j++)
-					mCollisionCallbackList.get(j).postContact(mContactManifold);
+	private void processContact(ContactManifold contactManifold, boolean fillContactPoints) {
+		final var lNumCallbacks = mCollisionCallbackList.size();
 
-				if (enableCollisionResponse && mCollisionResolver != null) {
-					for (int j = 0; j < lNumCallbacks; j++)
-						mCollisionCallbackList.get(j).preSolve(mContactManifold);
+		final var lBodyA = contactManifold.bodyA;
+		final var lBodyB = contactManifold.bodyB;
 
-					if (!lDealingWithSensorShape)
-						mCollisionResolver.resolveCollisions(mContactManifold);
+		lBodyA.debugIsColliding = true;
+		lBodyB.debugIsColliding = true;
 
-					for (int j = 0; j < lNumCallbacks; j++)
-						mCollisionCallbackList.get(j).postSolve(mContactManifold);
+		for (int j = 0; j < lNumCallbacks; j++)
+			mCollisionCallbackList.get(j).preContact(contactManifold);
 
-				}
+		if (!contactManifold.enableResolveContact)
+			return;
+
+		final var lDealingWithSensorShape = lBodyA.isSensor() || lBodyB.isSensor();
+		if (!lDealingWithSensorShape) {
+			// wake-on-contact
+			lBodyA.setAwake(true);
+			lBodyB.setAwake(true);
+
+			if (mSleepingEnabled && lBodyA.bodyType() != BodyType.Static && lBodyB.bodyType() != BodyType.Static) {
+				mContactEdgeBodiesA.add(lBodyA);
+				mContactEdgeBodiesB.add(lBodyB);
 			}
+		}
+		if (enableMtvSeparation && !lDealingWithSensorShape && !mUseSequentialImpulseSolver)
+			separateBodiesByMTV(contactManifold);
+
+		if (fillContactPoints)
+			SATContacts.fillContactPoints(contactManifold);
+
+		for (int j = 0; j < lNumCallbacks; j++)
+			mCollisionCallbackList.get(j).postContact(contactManifold);
 
-			returnCollisionPair(lCollisionPair);
+		// with the solver, the contacts are collected and solved together after the narrow phase
+		if (mUseSequentialImpulseSolver && !lDealingWithSensorShape) {
+			if (enableCollisionResponse)
+				mSequentialImpulseSolver.addContact(contactManifold);
+
+			return;
+		}
+
+		if (enableCollisionResponse && mCollisionResolver != null) {
+			for (int j = 0; j < lNumCallbacks; j++)
+				mCollisionCallbackList.get(j).preSolve(contactManifold);
+
+			if (!lDealingWithSensorShape)
+				mCollisionResolver.resolveCollisions(contactManifold);
+
+			for (int j = 0; j < lNumCallbacks; j++)
+				mCollisionCallbackList.get(j).postSolve(contactManifold);
+		}
+	}
+
+	private void ensurePairContactManifoldCapacity(int numCollisionPairs) {
+		if (mPairContactManifolds.length >= numCollisionPairs)
+			return;
+
+		final var lOldCapacity = mPairContactManifolds.length;
+		final var lNewCapacity = Math.max(numCollisionPairs, lOldCapacity * 2);
+
+		mPairContactManifolds = Arrays.copyOf(mPairContactManifolds, lNewCapacity);
+		for (int i = lOldCapacity; i < lNewCapacity; i++)
+			mPairContactManifolds[i] = new ContactManifold();
+
+		mPairIsColliding = new boolean[lNewCapacity];
+	}
+
+	/***
+	 * Builds the islands of touching (non-static) bodies from the contacts of the last step and puts an island to sleep once all of its bodies have been at rest for long enough.
+	 */
+	private void updateSleep(float time) {
+		final var lNumBodies = mBodies.size();
+		if (mIslandParents.length < lNumBodies) {
+			mIslandParents = new int[Math.max(lNumBodies, mIslandParents.length * 2)];
+			mIslandMinSleepTimes = new float[mIslandParents.length];
+		}
+
+		for (int i = 0; i < lNumBodies; i++) {
+			mBodies.get(i)._islandIndex = i;
+			mIslandParents[i] = i;
+			mIslandMinSleepTimes[i] = Float.MAX_VALUE;
+		}
+
+		final var lNumContactEdges = mContactEdgeBodiesA.size();
+		for (int i = 0; i < lNumContactEdges; i++) {
+			final int lRootA = findIslandRoot(mContactEdgeBodiesA.get(i)._islandIndex);
+			final int lRootB = findIslandRoot(mContactEdgeBodiesB.get(i)._islandIndex);
+			if (lRootA != lRootB)
+				mIslandParents[lRootB] = lRootA;
+		}
+
+		final var lLinearTolerance2 = mSleepLinearTolerance * mSleepLinearTolerance;
+		final var lAngularTolerance2 = mSleepAngularTolerance * mSleepAngularTolerance;
+
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
+			if (lBody.bodyType() == BodyType.Static || !lBody.isAwake())
+				continue;
+
+			final var lLinearVelocity2 = lBody.vx * lBody.vx + lBody.vy * lBody.vy;
+			final var lAngularVelocity2 = lBody.angularVelocity * lBody.angularVelocity;
+
+			if (!lBody.allowSleep() || lLinearVelocity2 > lLinearTolerance2 || lAngularVelocity2 > lAngularTolerance2)
+				lBody._sleepTime = 0.f;
+			else
+				lBody._sleepTime += time;
+
+			final int lRoot = findIslandRoot(i);
+			mIslandMinSleepTimes[lRoot] = Math.min(mIslandMinSleepTimes[lRoot], lBody._sleepTime);
+		}
+
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = mBodies.get(i);
+			if (lBody.bodyType() == BodyType.Static || !lBody.isAwake())
+				continue;
+
+			if (mIslandMinSleepTimes[findIslandRoot(i)] >= mTimeToSleep)
+				lBody.setAwake(false);
 		}
 	}
 
+	private int findIslandRoot(int index) {
+		while (mIslandParents[index] != index) {
+			mIslandParents[index] = mIslandParents[mIslandParents[index]]; // path halving
+			index = mIslandParents[index];
+		}
+
+		return index;
+	}
+
 	// --------------------------------------
 	// Methods
 	// --------------------------------------
@@ -432,8 +1099,93 @@ public class PhysicsWorld {
 		}
 	}
 
+	// --- queries
+
+	/***
+	 * Casts a ray from p1 to p2 and finds the closest body (with a category bit in maskBits) hit by the ray. Sensors and bodies which contain p1 are ignored.
+	 * 
+	 * Queries don't allocate, but they read the lazily updated AABB and world vertex caches of the shapes, and update them if they are stale. {@link #stepWorld(float)} updates all caches before it returns, so queries issued between two steps only read shared state and can run on several threads at once, as long as no body is added, moved or changed in between (or {@link #updateShapeCaches()} is called again afterwards). The world mustn't be stepped while queries run.
+	 * 
+	 * @return true if a body was hit, in which case the hit is stored in the result.
+	 */
+	public boolean raycast(float p1x, float p1y, float p2x, float p2y, int maskBits, RaycastResult result) {
+		return circleCast(p1x, p1y, p2x, p2y, 0.f, maskBits, result);
+	}
+
+	/***
+	 * Sweeps a circle with the given radius from p1 to p2 and finds the closest body (with a category bit in maskBits) hit by the circle. The hit point is the point of contact on the surface of the body. Sensors and bodies overlapped at p1 are ignored.
+	 * 
+	 * @see #raycast(float, float, float, float, int, RaycastResult) for the threading rules.
+	 * 
+	 * @return true if a body was hit, in which case the hit is stored in the result.
+	 */
+	public boolean circleCast(float p1x, float p1y, float p2x, float p2y, float radius, int maskBits, RaycastResult result) {
+		result.reset();
+
+		final var lContext = mQueryContexts.get();
+		lContext.maskBits = maskBits;
+		lContext.radius = radius;
+		lContext.raycastResult = result;
+
+		mBroadPhase.raycast(p1x, p1y, p2x, p2y, radius, lContext);
+
+		lContext.raycastResult = null;
+		return result.hasHit();
+	}
+
+	/***
+	 * Casts a batch of rays. The rays are packed into the rays array as (p1x, p1y, p2x, p2y) and the closest hit of ray i is stored in results[i].
+	 * 
+	 * @see #raycast(float, float, float, float, int, RaycastResult) for the threading rules. Large batches can be split across worker threads.
+	 * 
+	 * @return The number of rays which hit a body.
+	 */
+	public int raycastBatch(float[] rays, int numRays, int maskBits, RaycastResult[] results) {
+		return circleCastBatch(rays, numRays, 0.f, maskBits, results);
+	}
+
+	/***
+	 * Casts a batch of circles with the given radius. The casts are packed into the rays array as (p1x, p1y, p2x, p2y) and the closest hit of cast i is stored in results[i].
+	 * 
+	 * @return The number of casts which hit a body.
+	 */
+	public int circleCastBatch(float[] rays, int numRays, float radius, int maskBits, RaycastResult[] results) {
+		int lNumHits = 0;
+		for (int i = 0; i < numRays; i++) {
+			final int lOffset = i << 2;
+			if (circleCast(rays[lOffset], rays[lOffset + 1], rays[lOffset + 2], rays[lOffset + 3], radius, maskBits, results[i]))
+				lNumHits++;
+		}
+
+		return lNumHits;
+	}
+
+	/***
+	 * Finds the bodies (with a category bit in maskBits) whose AABBs overlap the given AABB. The query stops once the results array is full.
+	 * 
+	 * @see #raycast(float, float, float, float, int, RaycastResult) for the threading rules.
+	 * 
+	 * @return The number of bodies stored in the results array.
+	 */
+	public int queryAABB(float minX, float minY, float maxX, float maxY, int maskBits, RigidBody[] results) {
+		if (results.length == 0)
+			return 0;
+
+		final var lContext = mQueryContexts.get();
+		lContext.maskBits = maskBits;
+		lContext.aabbResults = results;
+		lContext.numAabbResults = 0;
+
+		mBroadPhase.queryAABB(minX, minY, maxX, maxY, lContext);
+
+		lContext.aabbResults = null;
+		return lContext.numAabbResults;
+	}
+
+	// ---
+
 	public void addBody(RigidBody newBody) {
-		mPhysicsHashGrid.addEntity(newBody);
+		mBroadPhase.addBody(newBody);
 
 		mBodies.add(newBody);
 	}
@@ -444,7 +1196,7 @@ public class PhysicsWorld {
 			return false;
 		}
 
-		mPhysicsHashGrid.removeEntity(body);
+		mBroadPhase.removeBody(body);
 		return mBodies.remove(body);
 	}
 
@@ -455,27 +1207,15 @@ public class PhysicsWorld {
 		return mBodies.get(bodyIndex);
 	}
 
-	private CollisionPair getFreeCollisionPair() {
-		if (!mCollisionPairPool.isEmpty()) {
-			return mCollisionPairPool.removeFirst();
-		}
-
-		enlargeCollisionPairPool(8);
-		return mCollisionPairPool.removeFirst();
-	}
-
-	// -----
+	private void addCollisionPair(RigidBody bodyA, RigidBody bodyB) {
+		// pairs without an awake (non-static) body are skipped, so sleeping islands don't reach the narrow phase
+		if (!isAwakeNonStatic(bodyA) && !isAwakeNonStatic(bodyB))
+			return;
 
-	private void enlargeCollisionPairPool(final int amount) {
-		for (int i = 0; i < amount; i++) {
-			mCollisionPairPool.addLast(new CollisionPair());
-		}
+		mCollisionPairs.addPair(bodyA, bodyB);
 	}
 
-	private void returnCollisionPair(CollisionPair obj) {
-		obj.bodyA = null;
-		obj.bodyB = null;
-		mCollisionPairPool.addLast(obj);
+	private static boolean isAwakeNonStatic(RigidBody body) {
+		return body.isAwake() && body.bodyType() != BodyType.Static;
 	}
-
 }
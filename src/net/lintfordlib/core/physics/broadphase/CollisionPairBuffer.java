@@ -0,0 +1,249 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import java.util.Arrays;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+
+/***
+ * A growable, allocation-free buffer for the collision pairs reported by an {@link IBroadPhase}. The pairs are stored as packed body indices in a primitive int array. Pairs which are reported more than once (e.g. bodies which span several cells of a hash grid) are only added once.
+ *
+ * Each body taking part in a pair is given a slot in the body table of the buffer for the current pass (see {@link #clear()}), and the pairs refer to the bodies by their slot. This keeps the pairs valid even if bodies are removed from the world while the pairs are processed.
+ */
+public class CollisionPairBuffer implements IBroadPhasePairCallback {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	// slot -> body, for the current pass
+	private RigidBody[] mBodies = new RigidBody[INITIAL_CAPACITY];
+	private int mNumBodies;
+
+	// pair i is (mPairs[2i], mPairs[2i + 1])
+	private int[] mPairs = new int[INITIAL_CAPACITY * 2];
+	private int mNumPairs;
+
+	// open addressing hash set of the packed pair keys, entries are only valid if their stamp matches the current pass
+	private long[] mPairKeys = new long[INITIAL_CAPACITY * 2];
+	private int[] mPairKeyStamps = new int[INITIAL_CAPACITY * 2];
+	private int mPassStamp = 1;
+
+	private int mNumPairsReported;
+	private int mNumDuplicatesRemoved;
+
+	// scratch arrays for sortByWorldIndex
+	private long[] mSortKeys = new long[0];
+	private int[] mSlotRemap = new int[0];
+	private RigidBody[] mSortedBodies = new RigidBody[0];
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	/***
+	 * @return The number of unique pairs in the buffer.
+	 */
+	public int numPairs() {
+		return mNumPairs;
+	}
+
+	/***
+	 * @return The number of pairs reported by the broad phase since the last {@link #clear()}, including duplicates.
+	 */
+	public int numPairsReported() {
+		return mNumPairsReported;
+	}
+
+	/***
+	 * @return The number of duplicate pairs which were dropped since the last {@link #clear()}.
+	 */
+	public int numDuplicatesRemoved() {
+		return mNumDuplicatesRemoved;
+	}
+
+	public RigidBody bodyA(int pairIndex) {
+		return mBodies[mPairs[pairIndex << 1]];
+	}
+
+	public RigidBody bodyB(int pairIndex) {
+		return mBodies[mPairs[(pairIndex << 1) + 1]];
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Removes all pairs and starts a new pass.
+	 */
+	public void clear() {
+		Arrays.fill(mBodies, 0, mNumBodies, null);
+		mNumBodies = 0;
+		mNumPairs = 0;
+
+		mNumPairsReported = 0;
+		mNumDuplicatesRemoved = 0;
+
+		nextPassStamp();
+	}
+
+	/***
+	 * Sorts the pairs by the {@link RigidBody#_worldIndex} of their bodies, with the body with the lower index as bodyA of each pair. Afterwards, the order of the pairs only depends on the bodies, and not on the order in which the broad phase reported them.
+	 */
+	public void sortByWorldIndex() {
+		if (mSortKeys.length < Math.max(mNumBodies, mNumPairs))
+			mSortKeys = new long[Math.max(mBodies.length, mPairs.length / 2)];
+
+		if (mSlotRemap.length < mNumBodies || mSortedBodies.length < mNumBodies) {
+			mSlotRemap = new int[mBodies.length];
+			mSortedBodies = new RigidBody[mBodies.length];
+		}
+
+		// the slots and keys of the pair set change, so this continues as a new pass
+		nextPassStamp();
+
+		// renumber the slots, so the slot order follows the world index of the bodies
+		for (int i = 0; i < mNumBodies; i++)
+			mSortKeys[i] = ((long) mBodies[i]._worldIndex << 32) | i;
+
+		Arrays.sort(mSortKeys, 0, mNumBodies);
+
+		for (int i = 0; i < mNumBodies; i++) {
+			final int lOldSlot = (int) mSortKeys[i];
+			final var lBody = mBodies[lOldSlot];
+			mSlotRemap[lOldSlot] = i;
+			mSortedBodies[i] = lBody;
+			lBody._pairBufferStamp = mPassStamp;
+			lBody._pairBufferSlot = i;
+		}
+
+		final var lBodies = mBodies;
+		mBodies = mSortedBodies;
+		mSortedBodies = lBodies;
+		Arrays.fill(mSortedBodies, 0, mNumBodies, null);
+
+		// then sort the pairs by their new slots
+		for (int i = 0; i < mNumPairs; i++) {
+			final int lSlotA = mSlotRemap[mPairs[i << 1]];
+			final int lSlotB = mSlotRemap[mPairs[(i << 1) + 1]];
+			mSortKeys[i] = lSlotA < lSlotB ? ((long) lSlotA << 32) | lSlotB : ((long) lSlotB << 32) | lSlotA;
+		}
+
+		Arrays.sort(mSortKeys, 0, mNumPairs);
+
+		for (int i = 0; i < mNumPairs; i++) {
+			final long lKey = mSortKeys[i];
+			mPairs[i << 1] = (int) (lKey >>> 32);
+			mPairs[(i << 1) + 1] = (int) lKey;
+			insertKey(lKey);
+		}
+	}
+
+	@Override
+	public void addPair(RigidBody bodyA, RigidBody bodyB) {
+		addPairIfUnique(bodyA, bodyB);
+	}
+
+	/***
+	 * Adds the pair to the buffer, unless it was already added in this pass.
+	 *
+	 * @return true if the pair was added, false if it was a duplicate.
+	 */
+	public boolean addPairIfUnique(RigidBody bodyA, RigidBody bodyB) {
+		mNumPairsReported++;
+
+		final int lSlotA = slotOf(bodyA);
+		final int lSlotB = slotOf(bodyB);
+
+		final long lKey = lSlotA < lSlotB ? ((long) lSlotA << 32) | lSlotB : ((long) lSlotB << 32) | lSlotA;
+		if (!insertKey(lKey)) {
+			mNumDuplicatesRemoved++;
+			return false;
+		}
+
+		if ((mNumPairs << 1) + 2 > mPairs.length)
+			mPairs = Arrays.copyOf(mPairs, mPairs.length * 2);
+
+		mPairs[mNumPairs << 1] = lSlotA;
+		mPairs[(mNumPairs << 1) + 1] = lSlotB;
+		mNumPairs++;
+
+		return true;
+	}
+
+	// ---
+
+	private int slotOf(RigidBody body) {
+		if (body._pairBufferStamp == mPassStamp && body._pairBufferSlot < mNumBodies && mBodies[body._pairBufferSlot] == body)
+			return body._pairBufferSlot;
+
+		if (mNumBodies == mBodies.length)
+			mBodies = Arrays.copyOf(mBodies, mBodies.length * 2);
+
+		body._pairBufferStamp = mPassStamp;
+		body._pairBufferSlot = mNumBodies;
+		mBodies[mNumBodies] = body;
+
+		return mNumBodies++;
+	}
+
+	private boolean insertKey(long key) {
+		// keep the load factor below .5
+		if ((mNumPairs + 1) * 2 > mPairKeys.length)
+			growKeySet();
+
+		final int lMask = mPairKeys.length - 1;
+		int lIndex = hash(key) & lMask;
+		while (mPairKeyStamps[lIndex] == mPassStamp) {
+			if (mPairKeys[lIndex] == key)
+				return false;
+
+			lIndex = (lIndex + 1) & lMask;
+		}
+
+		mPairKeys[lIndex] = key;
+		mPairKeyStamps[lIndex] = mPassStamp;
+		return true;
+	}
+
+	private void growKeySet() {
+		final var lOldKeys = mPairKeys;
+		final var lOldStamps = mPairKeyStamps;
+
+		mPairKeys = new long[lOldKeys.length * 2];
+		mPairKeyStamps = new int[lOldKeys.length * 2];
+
+		final int lMask = mPairKeys.length - 1;
+		for (int i = 0; i < lOldKeys.length; i++) {
+			if (lOldStamps[i] != mPassStamp)
+				continue;
+
+			int lIndex = hash(lOldKeys[i]) & lMask;
+			while (mPairKeyStamps[lIndex] == mPassStamp)
+				lIndex = (lIndex + 1) & lMask;
+
+			mPairKeys[lIndex] = lOldKeys[i];
+			mPairKeyStamps[lIndex] = mPassStamp;
+		}
+	}
+
+	private void nextPassStamp() {
+		mPassStamp++;
+		if (mPassStamp == 0) {
+			// the stamp wrapped around, so old entries could look valid again
+			Arrays.fill(mPairKeyStamps, 0);
+			mPassStamp = 1;
+		}
+	}
+
+	private static int hash(long key) {
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32));
+	}
+}
@@ -0,0 +1,291 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.spatial.DynamicAABBTree;
+import net.lintfordlib.core.physics.spatial.IDynamicTreeQueryCallback;
+import net.lintfordlib.core.physics.spatial.IDynamicTreeRaycastCallback;
+
+/***
+ * An {@link IBroadPhase} backed by a {@link DynamicAABBTree}. Unlike the {@link HashGridBroadPhase}, the tree has no world boundary and adapts to the distribution of the bodies, so it works well for both clustered and sparse, unbounded worlds.
+ *
+ * Besides finding collision pairs, the tree can be used as a spatial index for AABB, point and raycast queries against the {@link RigidBody}s of the world.
+ *
+ * The pairs of proxies whose fat AABBs overlap are kept between calls to {@link #findPairs(IBroadPhasePairCallback)}. As a fat AABB only changes when its proxy is created or re-inserted, only the proxies in the move buffer are queried against the tree, and bodies resting inside their fat AABBs cost nothing but the test of their pairs.
+ */
+public class DynamicTreeBroadPhase implements IBroadPhase {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** Forwards the leaves reported by the tree to the broad phase callbacks. Each querying thread has its own instance. */
+	private static class TreeQueryAdapter implements IDynamicTreeQueryCallback<RigidBody>, IDynamicTreeRaycastCallback<RigidBody> {
+
+		float minX;
+		float minY;
+		float maxX;
+		float maxY;
+		IBroadPhaseQueryCallback queryCallback;
+		IBroadPhaseRaycastCallback raycastCallback;
+
+		@Override
+		public boolean reportProxy(int proxyId, RigidBody body) {
+			// the tree reports the fat AABBs, so check the actual AABB of the body
+			final var lAABB = body.aabb();
+			if (lAABB.left() > maxX || minX > lAABB.right() || lAABB.top() > maxY || minY > lAABB.bottom())
+				return true;
+
+			return queryCallback.reportBody(body);
+		}
+
+		@Override
+		public float reportRayProxy(int proxyId, RigidBody body, float p1x, float p1y, float p2x, float p2y, float maxFraction) {
+			return raycastCallback.reportBody(body, p1x, p1y, p2x, p2y, maxFraction);
+		}
+	}
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final DynamicAABBTree<RigidBody> mTree = new DynamicAABBTree<>();
+
+	// proxies which were created, re-inserted or destroyed since the last findPairs
+	private int[] mMoveBuffer = new int[INITIAL_CAPACITY];
+	private int mMoveCount;
+
+	// mMoveStamps[proxyId] == mMoveStamp while the proxy is in the move buffer
+	private int[] mMoveStamps = new int[INITIAL_CAPACITY];
+	private int mMoveStamp = 1;
+
+	// the pairs of proxies whose fat AABBs overlapped in the last findPairs, encoded as (lowerProxyId << 32) | higherProxyId
+	private long[] mPairs = new long[INITIAL_CAPACITY];
+	private int mPairCount;
+
+	private final IDynamicTreeQueryCallback<RigidBody> mPairQueryCallback = this::reportPairQueryProxy;
+	private int mPairQueryProxyId;
+
+	private final ThreadLocal<TreeQueryAdapter> mQueryAdapters = ThreadLocal.withInitial(TreeQueryAdapter::new);
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public DynamicAABBTree<RigidBody> tree() {
+		return mTree;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	@Override
+	public void addBody(RigidBody body) {
+		if (body._broadPhaseProxyId != -1)
+			return;
+
+		final var lAABB = body.aabb();
+		body._broadPhaseProxyId = mTree.createProxy(lAABB.left(), lAABB.top(), lAABB.right(), lAABB.bottom(), body);
+
+		bufferMove(body._broadPhaseProxyId);
+	}
+
+	@Override
+	public void removeBody(RigidBody body) {
+		final int lProxyId = body._broadPhaseProxyId;
+		if (lProxyId < 0 || lProxyId >= mTree.nodeCapacity() || mTree.getUserData(lProxyId) != body)
+			return;
+
+		// the pairs of the proxy are dropped by the next findPairs. If the id is reused before then, the new proxy is already in the move buffer.
+		bufferMove(lProxyId);
+
+		mTree.destroyProxy(lProxyId);
+		body._broadPhaseProxyId = -1;
+	}
+
+	@Override
+	public void updateBody(RigidBody body) {
+		moveProxy(body, 0.f, 0.f);
+	}
+
+	/***
+	 * Moves the proxy of the body, extending its fat AABB in the direction the body will move over the next step of the given length (its velocity times the time step), so fast bodies need re-inserting less often.
+	 */
+	@Override
+	public void updateBody(RigidBody body, float time) {
+		moveProxy(body, body.vx * time, body.vy * time);
+	}
+
+	private void moveProxy(RigidBody body, float displacementX, float displacementY) {
+		final int lProxyId = body._broadPhaseProxyId;
+		if (lProxyId == -1)
+			return;
+
+		final var lAABB = body.aabb();
+		if (mTree.moveProxy(lProxyId, lAABB.left(), lAABB.top(), lAABB.right(), lAABB.bottom(), displacementX, displacementY))
+			bufferMove(lProxyId);
+	}
+
+	private void bufferMove(int proxyId) {
+		if (proxyId >= mMoveStamps.length)
+			mMoveStamps = Arrays.copyOf(mMoveStamps, Math.max(mTree.nodeCapacity(), proxyId + 1));
+
+		if (mMoveStamps[proxyId] == mMoveStamp)
+			return;
+
+		mMoveStamps[proxyId] = mMoveStamp;
+
+		if (mMoveCount == mMoveBuffer.length)
+			mMoveBuffer = Arrays.copyOf(mMoveBuffer, mMoveBuffer.length * 2);
+
+		mMoveBuffer[mMoveCount++] = proxyId;
+	}
+
+	/***
+	 * Reports all pairs of bodies whose AABBs overlap. Sleeping bodies are not updated, so they keep their fat AABBs and their pairs. A body which is woken up enters the move buffer once its proxy is re-inserted by {@link #updateBody(RigidBody, float)}.
+	 */
+	@Override
+	public void findPairs(IBroadPhasePairCallback callback) {
+		// drop the pairs of the moved proxies, they are found again by querying their new fat AABBs
+		int lWriteIndex = 0;
+		for (int i = 0; i < mPairCount; i++) {
+			final long lPair = mPairs[i];
+			if (mMoveStamps[(int) (lPair >>> 32)] == mMoveStamp || mMoveStamps[(int) lPair] == mMoveStamp)
+				continue;
+
+			mPairs[lWriteIndex++] = lPair;
+		}
+		mPairCount = lWriteIndex;
+
+		for (int i = 0; i < mMoveCount; i++) {
+			final int lProxyId = mMoveBuffer[i];
+
+			// destroyed (and not reused) since it was buffered
+			if (!mTree.isLeaf(lProxyId))
+				continue;
+
+			mPairQueryProxyId = lProxyId;
+			mTree.queryAABB(mTree.fatMinX(lProxyId), mTree.fatMinY(lProxyId), mTree.fatMaxX(lProxyId), mTree.fatMaxY(lProxyId), mPairQueryCallback);
+		}
+
+		mMoveCount = 0;
+		mMoveStamp++;
+
+		for (int i = 0; i < mPairCount; i++) {
+			final long lPair = mPairs[i];
+			final var lBodyA = mTree.getUserData((int) (lPair >>> 32));
+			final var lBodyB = mTree.getUserData((int) lPair);
+
+			if (!IBroadPhase.canCollide(lBodyA, lBodyB))
+				continue;
+
+			if (!lBodyA.aabb().intersectsAA(lBodyB.aabb()))
+				continue;
+
+			callback.addPair(lBodyA, lBodyB);
+		}
+	}
+
+	private boolean reportPairQueryProxy(int proxyId, RigidBody otherBody) {
+		if (proxyId == mPairQueryProxyId)
+			return true;
+
+		// a pair of two moved proxies is found by both of their queries, so only keep it from the proxy with the lower id
+		if (mMoveStamps[proxyId] == mMoveStamp && proxyId < mPairQueryProxyId)
+			return true;
+
+		if (mPairCount == mPairs.length)
+			mPairs = Arrays.copyOf(mPairs, mPairs.length * 2);
+
+		final long lLowerId = Math.min(proxyId, mPairQueryProxyId);
+		final long lHigherId = Math.max(proxyId, mPairQueryProxyId);
+		mPairs[mPairCount++] = (lLowerId << 32) | lHigherId;
+		return true;
+	}
+
+	// --- queries
+
+	@Override
+	public void queryAABB(float minX, float minY, float maxX, float maxY, IBroadPhaseQueryCallback callback) {
+		final var lAdapter = mQueryAdapters.get();
+
+		// keep the state of an outer query, in case this query is nested in its callback
+		final var lOuterMinX = lAdapter.minX;
+		final var lOuterMinY = lAdapter.minY;
+		final var lOuterMaxX = lAdapter.maxX;
+		final var lOuterMaxY = lAdapter.maxY;
+		final var lOuterCallback = lAdapter.queryCallback;
+
+		lAdapter.minX = minX;
+		lAdapter.minY = minY;
+		lAdapter.maxX = maxX;
+		lAdapter.maxY = maxY;
+		lAdapter.queryCallback = callback;
+
+		try {
+			mTree.queryAABB(minX, minY, maxX, maxY, lAdapter);
+		} finally {
+			lAdapter.minX = lOuterMinX;
+			lAdapter.minY = lOuterMinY;
+			lAdapter.maxX = lOuterMaxX;
+			lAdapter.maxY = lOuterMaxY;
+			lAdapter.queryCallback = lOuterCallback;
+		}
+	}
+
+	@Override
+	public void raycast(float p1x, float p1y, float p2x, float p2y, float radius, IBroadPhaseRaycastCallback callback) {
+		final var lAdapter = mQueryAdapters.get();
+		final var lOuterCallback = lAdapter.raycastCallback;
+		lAdapter.raycastCallback = callback;
+
+		try {
+			mTree.raycast(p1x, p1y, p2x, p2y, radius, lAdapter);
+		} finally {
+			lAdapter.raycastCallback = lOuterCallback;
+		}
+	}
+
+	/***
+	 * Adds all bodies whose AABBs overlap the given AABB to the list.
+	 */
+	public void queryAABB(float minX, float minY, float maxX, float maxY, List<RigidBody> toFill) {
+		mTree.queryAABB(minX, minY, maxX, maxY, (proxyId, body) -> {
+			final var lAABB = body.aabb();
+			if (lAABB.left() <= maxX && minX <= lAABB.right() && lAABB.top() <= maxY && minY <= lAABB.bottom())
+				toFill.add(body);
+
+			return true;
+		});
+	}
+
+	/***
+	 * Adds all bodies whose AABBs contain the given point to the list.
+	 */
+	public void queryPoint(float x, float y, List<RigidBody> toFill) {
+		mTree.queryPoint(x, y, (proxyId, body) -> {
+			if (body.aabb().intersectsAA(x, y))
+				toFill.add(body);
+
+			return true;
+		});
+	}
+
+	/***
+	 * Casts a ray from p1 to p2 and reports each body whose (fat) AABB is crossed by the ray to the callback. The callback performs the exact test against the body's shape.
+	 *
+	 * @see IDynamicTreeRaycastCallback for the meaning of the callback return value.
+	 */
+	public void raycast(float p1x, float p1y, float p2x, float p2y, IDynamicTreeRaycastCallback<RigidBody> callback) {
+		mTree.raycast(p1x, p1y, p2x, p2y, callback);
+	}
+}
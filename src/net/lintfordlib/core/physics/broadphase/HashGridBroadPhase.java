@@ -0,0 +1,218 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import net.lintfordlib.core.maths.MathHelper;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.spatial.PhysicsHashGrid;
+
+/***
+ * An {@link IBroadPhase} which buckets {@link RigidBody}s into the cells of a fixed size {@link PhysicsHashGrid}. All bodies within a cell are tested against each other.
+ */
+public class HashGridBroadPhase implements IBroadPhase {
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final PhysicsHashGrid<RigidBody> mPhysicsHashGrid;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public PhysicsHashGrid<RigidBody> grid() {
+		return mPhysicsHashGrid;
+	}
+
+	// --------------------------------------
+	// Constructor
+	// --------------------------------------
+
+	public HashGridBroadPhase(float boundaryWidthInUnits, float boundaryHeightInUnits, int tilesWide, int tilesHigh) {
+		mPhysicsHashGrid = new PhysicsHashGrid<>(boundaryWidthInUnits, boundaryHeightInUnits, tilesWide, tilesHigh);
+	}
+
+	/***
+	 * Creates a broad phase on a sparse, unbounded {@link PhysicsHashGrid} with the given cell size.
+	 */
+	public HashGridBroadPhase(float cellWidthInUnits, float cellHeightInUnits) {
+		mPhysicsHashGrid = new PhysicsHashGrid<>(cellWidthInUnits, cellHeightInUnits);
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	@Override
+	public void addBody(RigidBody body) {
+		mPhysicsHashGrid.addEntity(body);
+	}
+
+	@Override
+	public void removeBody(RigidBody body) {
+		mPhysicsHashGrid.removeEntity(body);
+	}
+
+	@Override
+	public void updateBody(RigidBody body) {
+		mPhysicsHashGrid.updateEntity(body);
+	}
+
+	@Override
+	public void findPairs(IBroadPhasePairCallback callback) {
+		final var lGrid = mPhysicsHashGrid;
+		final int lNumActiveCells = lGrid.numActiveCells();
+		for (int i = lNumActiveCells - 1; i >= 0; i--) {
+			final var lCellKey = lGrid.getActiveCellKey(i);
+			final var lNumEntitiesInCell = lGrid.getCellSize(lCellKey);
+
+			for (int j = 0; j < lNumEntitiesInCell; j++) {
+				final var lBodyA = lGrid.getCellEntity(lCellKey, j);
+				final var lBodyA_aabb = lBodyA.aabb();
+
+				for (int s = j + 1; s < lNumEntitiesInCell; s++) {
+					final var lBodyB = lGrid.getCellEntity(lCellKey, s);
+
+					if (!IBroadPhase.canCollide(lBodyA, lBodyB))
+						continue;
+
+					if (!lBodyA_aabb.intersectsAA(lBodyB.aabb()))
+						continue;
+
+					callback.addPair(lBodyA, lBodyB);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void queryAABB(float minX, float minY, float maxX, float maxY, IBroadPhaseQueryCallback callback) {
+		final var lGrid = mPhysicsHashGrid;
+		final int lMinColumn = lGrid.getColumnAtX(minX);
+		final int lMinRow = lGrid.getRowAtY(minY);
+		final int lMaxColumn = lGrid.getColumnAtX(maxX);
+		final int lMaxRow = lGrid.getRowAtY(maxY);
+
+		for (int xx = lMinColumn; xx <= lMaxColumn; xx++) {
+			for (int yy = lMinRow; yy <= lMaxRow; yy++) {
+				final int lCellKey = lGrid.getKey(xx, yy);
+				final int lNumEntitiesInCell = lGrid.getCellSize(lCellKey);
+				for (int j = 0; j < lNumEntitiesInCell; j++) {
+					final var lBody = lGrid.getCellEntity(lCellKey, j);
+
+					// a body spanning several cells is only reported from the first cell it shares with the query (no stamps are written, so queries are thread-safe)
+					if (xx != Math.max(lBody.minUnitX, lMinColumn) || yy != Math.max(lBody.minUnitY, lMinRow))
+						continue;
+
+					final var lAABB = lBody.aabb();
+					if (lAABB.left() > maxX || minX > lAABB.right() || lAABB.top() > maxY || minY > lAABB.bottom())
+						continue;
+
+					if (!callback.reportBody(lBody))
+						return;
+				}
+			}
+		}
+	}
+
+	/***
+	 * Rays are traversed through the grid cell by cell (DDA), so the traversal stops at the first cell beyond the closest hit. Rays with a radius visit all cells overlapped by their swept AABB.
+	 */
+	@Override
+	public void raycast(float p1x, float p1y, float p2x, float p2y, float radius, IBroadPhaseRaycastCallback callback) {
+		if (radius > 0.f) {
+			raycastSweptCells(p1x, p1y, p2x, p2y, radius, callback);
+			return;
+		}
+
+		final var lGrid = mPhysicsHashGrid;
+		final float lHalfWidth = lGrid.boundaryWidthInUnits() * .5f;
+		final float lHalfHeight = lGrid.boundaryHeightInUnits() * .5f;
+		final float lCellWidth = lGrid.cellWidthInUnits();
+		final float lCellHeight = lGrid.cellHeightInUnits();
+
+		final float dx = p2x - p1x;
+		final float dy = p2y - p1y;
+
+		// the traversal runs over the unbounded cells, bodies outside of the boundary of a dense grid are stored in the (clamped) border cells. Sparse grids have no boundary, so their cells start at 0,0.
+		int lCellX = (int) Math.floor((p1x + lHalfWidth) / lCellWidth);
+		int lCellY = (int) Math.floor((p1y + lHalfHeight) / lCellHeight);
+
+		final int lStepX = dx > 0.f ? 1 : -1;
+		final int lStepY = dy > 0.f ? 1 : -1;
+
+		final float lDeltaTX = dx != 0.f ? lCellWidth / Math.abs(dx) : Float.MAX_VALUE;
+		final float lDeltaTY = dy != 0.f ? lCellHeight / Math.abs(dy) : Float.MAX_VALUE;
+
+		float lNextTX = dx != 0.f ? ((lCellX + (dx > 0.f ? 1 : 0)) * lCellWidth - lHalfWidth - p1x) / dx : Float.MAX_VALUE;
+		float lNextTY = dy != 0.f ? ((lCellY + (dy > 0.f ? 1 : 0)) * lCellHeight - lHalfHeight - p1y) / dy : Float.MAX_VALUE;
+
+		float lMaxFraction = 1.f;
+		int lLastCellKey = -1;
+
+		while (true) {
+			final int lCellKey = lGrid.isSparse() ? lGrid.getKey(lCellX, lCellY) : lGrid.getKey(MathHelper.clampi(lCellX, 0, lGrid.numTilesWide() - 1), MathHelper.clampi(lCellY, 0, lGrid.numTilesHigh() - 1));
+			if (lCellKey != lLastCellKey) {
+				lLastCellKey = lCellKey;
+
+				final int lNumEntitiesInCell = lGrid.getCellSize(lCellKey);
+				for (int j = 0; j < lNumEntitiesInCell; j++) {
+					final var lBody = lGrid.getCellEntity(lCellKey, j);
+					if (!IBroadPhase.rayOverlapsAABB(p1x, p1y, p2x, p2y, 0.f, lMaxFraction, lBody))
+						continue;
+
+					final var lValue = callback.reportBody(lBody, p1x, p1y, p2x, p2y, lMaxFraction);
+					if (lValue == 0.f)
+						return;
+
+					if (lValue > 0.f)
+						lMaxFraction = lValue;
+				}
+			}
+
+			if (lNextTX < lNextTY) {
+				if (lNextTX > lMaxFraction)
+					return;
+
+				lCellX += lStepX;
+				lNextTX += lDeltaTX;
+			} else {
+				if (lNextTY > lMaxFraction)
+					return;
+
+				lCellY += lStepY;
+				lNextTY += lDeltaTY;
+			}
+		}
+	}
+
+	private void raycastSweptCells(float p1x, float p1y, float p2x, float p2y, float radius, IBroadPhaseRaycastCallback callback) {
+		final var lGrid = mPhysicsHashGrid;
+		final int lMinColumn = lGrid.getColumnAtX(Math.min(p1x, p2x) - radius);
+		final int lMinRow = lGrid.getRowAtY(Math.min(p1y, p2y) - radius);
+		final int lMaxColumn = lGrid.getColumnAtX(Math.max(p1x, p2x) + radius);
+		final int lMaxRow = lGrid.getRowAtY(Math.max(p1y, p2y) + radius);
+
+		float lMaxFraction = 1.f;
+		for (int xx = lMinColumn; xx <= lMaxColumn; xx++) {
+			for (int yy = lMinRow; yy <= lMaxRow; yy++) {
+				final int lCellKey = lGrid.getKey(xx, yy);
+				final int lNumEntitiesInCell = lGrid.getCellSize(lCellKey);
+				for (int j = 0; j < lNumEntitiesInCell; j++) {
+					final var lBody = lGrid.getCellEntity(lCellKey, j);
+					if (xx != Math.max(lBody.minUnitX, lMinColumn) || yy != Math.max(lBody.minUnitY, lMinRow))
+						continue;
+
+					if (!IBroadPhase.rayOverlapsAABB(p1x, p1y, p2x, p2y, radius, lMaxFraction, lBody))
+						continue;
+
+					final var lValue = callback.reportBody(lBody, p1x, p1y, p2x, p2y, lMaxFraction);
+					if (lValue == 0.f)
+						return;
+
+					if (lValue > 0.f)
+						lMaxFraction = lValue;
+				}
+			}
+		}
+	}
+}
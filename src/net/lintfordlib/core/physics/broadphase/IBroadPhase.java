@@ -0,0 +1,110 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+
+/***
+ * The broad phase of the {@link net.lintfordlib.core.physics.PhysicsWorld} keeps track of all {@link RigidBody}s and reports the pairs of bodies whose AABBs overlap (and so need checking in the narrow phase).
+ */
+public interface IBroadPhase {
+
+	// --------------------------------------
+	// Statics
+	// --------------------------------------
+
+	/***
+	 * Performs the collision filtering common to all broad phases (static/static, category and mask bits).
+	 * 
+	 * @return true if the two bodies are allowed to collide with each other, otherwise false.
+	 */
+	public static boolean canCollide(RigidBody bodyA, RigidBody bodyB) {
+		if (bodyA == bodyB)
+			return false;
+
+		if (bodyA.bodyType() == BodyType.Static && bodyB.bodyType() == BodyType.Static)
+			return false;
+
+		if (bodyA.categoryBits() == 0 || bodyB.categoryBits() == 0)
+			return false;
+
+		if (bodyA.maskBits() == 0 || bodyB.maskBits() == 0)
+			return false;
+
+		return (bodyA.maskBits() & bodyB.categoryBits()) != 0 && (bodyA.categoryBits() & bodyB.maskBits()) != 0;
+	}
+
+	/***
+	 * Slab test of the ray p1 to p2 (clipped to maxFraction) against the AABB of the body, enlarged by the radius.
+	 * 
+	 * @return true if the ray crosses the enlarged AABB.
+	 */
+	public static boolean rayOverlapsAABB(float p1x, float p1y, float p2x, float p2y, float radius, float maxFraction, RigidBody body) {
+		final var lAABB = body.aabb();
+
+		float lMinT = 0.f;
+		float lMaxT = maxFraction;
+
+		final float dx = p2x - p1x;
+		if (dx == 0.f) {
+			if (p1x < lAABB.left() - radius || p1x > lAABB.right() + radius)
+				return false;
+		} else {
+			float t1 = (lAABB.left() - radius - p1x) / dx;
+			float t2 = (lAABB.right() + radius - p1x) / dx;
+			lMinT = Math.max(lMinT, Math.min(t1, t2));
+			lMaxT = Math.min(lMaxT, Math.max(t1, t2));
+			if (lMinT > lMaxT)
+				return false;
+		}
+
+		final float dy = p2y - p1y;
+		if (dy == 0.f)
+			return p1y >= lAABB.top() - radius && p1y <= lAABB.bottom() + radius;
+
+		float t1 = (lAABB.top() - radius - p1y) / dy;
+		float t2 = (lAABB.bottom() + radius - p1y) / dy;
+		lMinT = Math.max(lMinT, Math.min(t1, t2));
+		lMaxT = Math.min(lMaxT, Math.max(t1, t2));
+		return lMinT <= lMaxT;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	public abstract void addBody(RigidBody body);
+
+	public abstract void removeBody(RigidBody body);
+
+	/***
+	 * Called by the world after a body has been integrated, to allow the broad phase to update its internal structure.
+	 */
+	public abstract void updateBody(RigidBody body);
+
+	/***
+	 * Called by the world after a body has been integrated over the given time step. Broad phases which can predict the movement of the body (e.g. by the displacement of its velocity over the step) override this, the default calls {@link #updateBody(RigidBody)}.
+	 */
+	public default void updateBody(RigidBody body, float time) {
+		updateBody(body);
+	}
+
+	/***
+	 * Reports each pair of bodies which pass the collision filtering and whose AABBs overlap to the given callback.
+	 */
+	public abstract void findPairs(IBroadPhasePairCallback callback);
+
+	/***
+	 * Reports each body whose AABB overlaps the given AABB to the callback, once. No collision filtering is performed.
+	 * 
+	 * Queries don't modify the broad phase, so they can run concurrently from several threads as long as no bodies are added, removed or updated in the meantime.
+	 */
+	public abstract void queryAABB(float minX, float minY, float maxX, float maxY, IBroadPhaseQueryCallback callback);
+
+	/***
+	 * Casts a ray with the given radius from p1 to p2 and reports each body whose AABB (enlarged by the radius) is crossed by the ray to the callback. The callback performs the exact test against the body's shape and can clip the ray. No collision filtering is performed.
+	 * 
+	 * @see IBroadPhaseRaycastCallback for the meaning of the callback return value.
+	 */
+	public abstract void raycast(float p1x, float p1y, float p2x, float p2y, float radius, IBroadPhaseRaycastCallback callback);
+
+}
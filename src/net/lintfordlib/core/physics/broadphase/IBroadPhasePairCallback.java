@@ -0,0 +1,9 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+
+public interface IBroadPhasePairCallback {
+
+	void addPair(RigidBody bodyA, RigidBody bodyB);
+
+}
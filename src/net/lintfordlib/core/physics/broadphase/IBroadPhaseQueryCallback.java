@@ -0,0 +1,14 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+
+public interface IBroadPhaseQueryCallback {
+
+	/***
+	 * Called for each body found by an AABB query of an {@link IBroadPhase}.
+	 * 
+	 * @return true to continue the query, false to terminate it.
+	 */
+	boolean reportBody(RigidBody body);
+
+}
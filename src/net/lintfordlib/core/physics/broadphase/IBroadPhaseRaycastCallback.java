@@ -0,0 +1,14 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+
+public interface IBroadPhaseRaycastCallback {
+
+	/***
+	 * Called for each body whose AABB (enlarged by the radius of the cast) is crossed by the ray (p1 to p2), clipped to maxFraction. A body may be reported more than once.
+	 * 
+	 * @return 0 to terminate the ray cast, a value between 0 and 1 to clip the ray to that fraction, or a negative value (or maxFraction) to ignore this body and continue.
+	 */
+	float reportBody(RigidBody body, float p1x, float p1y, float p2x, float p2y, float maxFraction);
+
+}
@@ -0,0 +1,258 @@
+package net.lintfordlib.core.physics.broadphase;
+
+import java.util.Arrays;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+
+/***
+ * An incremental sort-and-sweep {@link IBroadPhase} along the x-axis. The min/max endpoints of all body AABBs are kept in persistent arrays which are re-sorted with an insertion sort each step. As bodies only move a small amount between steps, the endpoints are nearly sorted already and the sort stays close to O(n).
+ */
+public class SweepAndPruneBroadPhase implements IBroadPhase {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	// proxy id -> body
+	private RigidBody[] mProxies = new RigidBody[INITIAL_CAPACITY];
+	private int mProxyCount;
+
+	private int[] mFreeProxyIds = new int[INITIAL_CAPACITY];
+	private int mNumFreeProxyIds;
+
+	// proxies removed since the last findPairs. Their endpoints stay in the arrays (the proxy slot is null) until they are compacted out in one pass, only then are the ids freed.
+	private int[] mRemovedProxyIds = new int[INITIAL_CAPACITY];
+	private int mNumRemovedProxyIds;
+
+	// endpoints are encoded as (proxyId << 1) | isMax
+	private int[] mEndpoints = new int[INITIAL_CAPACITY * 2];
+	private float[] mEndpointValues = new float[INITIAL_CAPACITY * 2];
+	private int mNumEndpoints;
+
+	// proxies whose min endpoint has been passed during the sweep, but not yet their max endpoint
+	private int[] mActiveProxyIds = new int[INITIAL_CAPACITY];
+	private int[] mActiveProxyIndices = new int[INITIAL_CAPACITY];
+	private int mNumActiveProxies;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public int numProxies() {
+		return mNumEndpoints / 2 - mNumRemovedProxyIds;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	@Override
+	public void addBody(RigidBody body) {
+		if (body._broadPhaseProxyId != -1)
+			return;
+
+		final int lProxyId = allocateProxyId();
+		mProxies[lProxyId] = body;
+		body._broadPhaseProxyId = lProxyId;
+
+		if (mNumEndpoints + 2 > mEndpoints.length) {
+			mEndpoints = Arrays.copyOf(mEndpoints, mEndpoints.length * 2);
+			mEndpointValues = Arrays.copyOf(mEndpointValues, mEndpointValues.length * 2);
+		}
+
+		// new endpoints are appended and moved into place by the next insertion sort
+		final var lAABB = body.aabb();
+		mEndpoints[mNumEndpoints] = lProxyId << 1;
+		mEndpointValues[mNumEndpoints++] = lAABB.left();
+		mEndpoints[mNumEndpoints] = (lProxyId << 1) | 1;
+		mEndpointValues[mNumEndpoints++] = lAABB.right();
+	}
+
+	@Override
+	public void removeBody(RigidBody body) {
+		final int lProxyId = body._broadPhaseProxyId;
+		if (lProxyId < 0 || lProxyId >= mProxyCount || mProxies[lProxyId] != body)
+			return;
+
+		// the endpoints are dropped by the next findPairs, so removing many bodies in one step only costs a single pass over the endpoints
+		mProxies[lProxyId] = null;
+		body._broadPhaseProxyId = -1;
+
+		mRemovedProxyIds[mNumRemovedProxyIds++] = lProxyId;
+	}
+
+	@Override
+	public void updateBody(RigidBody body) {
+		// endpoints are refreshed in bulk before sorting
+	}
+
+	@Override
+	public void findPairs(IBroadPhasePairCallback callback) {
+		if (mNumRemovedProxyIds > 0)
+			compactRemovedEndpoints();
+
+		refreshEndpointValues();
+		insertionSortEndpoints();
+		sweep(callback);
+	}
+
+	// ---
+
+	private void compactRemovedEndpoints() {
+		// keeps the remaining endpoints in sorted order
+		int lWriteIndex = 0;
+		for (int i = 0; i < mNumEndpoints; i++) {
+			if (mProxies[mEndpoints[i] >> 1] == null)
+				continue;
+
+			mEndpoints[lWriteIndex] = mEndpoints[i];
+			mEndpointValues[lWriteIndex] = mEndpointValues[i];
+			lWriteIndex++;
+		}
+		mNumEndpoints = lWriteIndex;
+
+		// the ids can only be reused once no endpoints refer to them anymore
+		System.arraycopy(mRemovedProxyIds, 0, mFreeProxyIds, mNumFreeProxyIds, mNumRemovedProxyIds);
+		mNumFreeProxyIds += mNumRemovedProxyIds;
+		mNumRemovedProxyIds = 0;
+	}
+
+	private void refreshEndpointValues() {
+		final var lEndpoints = mEndpoints;
+		final var lValues = mEndpointValues;
+		final int lNumEndpoints = mNumEndpoints;
+		for (int i = 0; i < lNumEndpoints; i++) {
+			final int lEndpoint = lEndpoints[i];
+			final var lAABB = mProxies[lEndpoint >> 1].aabb();
+			lValues[i] = (lEndpoint & 1) == 0 ? lAABB.left() : lAABB.right();
+		}
+	}
+
+	private void insertionSortEndpoints() {
+		final var lEndpoints = mEndpoints;
+		final var lValues = mEndpointValues;
+		final int lNumEndpoints = mNumEndpoints;
+		for (int i = 1; i < lNumEndpoints; i++) {
+			final int lEndpoint = lEndpoints[i];
+			final float lValue = lValues[i];
+
+			int j = i - 1;
+			while (j >= 0 && endpointLessThan(lValue, lEndpoint, lValues[j], lEndpoints[j])) {
+				lEndpoints[j + 1] = lEndpoints[j];
+				lValues[j + 1] = lValues[j];
+				j--;
+			}
+
+			lEndpoints[j + 1] = lEndpoint;
+			lValues[j + 1] = lValue;
+		}
+	}
+
+	// On equal values, max endpoints are ordered before min endpoints, so touching AABBs are not reported (as with Rectangle.intersectsAA).
+	private static boolean endpointLessThan(float valueA, int endpointA, float valueB, int endpointB) {
+		if (valueA != valueB)
+			return valueA < valueB;
+
+		return (endpointA & 1) > (endpointB & 1);
+	}
+
+	private void sweep(IBroadPhasePairCallback callback) {
+		mNumActiveProxies = 0;
+
+		final int lNumEndpoints = mNumEndpoints;
+		for (int i = 0; i < lNumEndpoints; i++) {
+			final int lEndpoint = mEndpoints[i];
+			final int lProxyId = lEndpoint >> 1;
+
+			if ((lEndpoint & 1) == 1) {
+				removeActiveProxy(lProxyId);
+				continue;
+			}
+
+			final var lBodyB = mProxies[lProxyId];
+			final var lBodyB_aabb = lBodyB.aabb();
+
+			for (int j = 0; j < mNumActiveProxies; j++) {
+				final var lBodyA = mProxies[mActiveProxyIds[j]];
+
+				if (!IBroadPhase.canCollide(lBodyA, lBodyB))
+					continue;
+
+				// the x-axis overlap is implied by the sweep, so only y needs checking
+				final var lBodyA_aabb = lBodyA.aabb();
+				if (lBodyA_aabb.top() >= lBodyB_aabb.bottom() || lBodyB_aabb.top() >= lBodyA_aabb.bottom())
+					continue;
+
+				callback.addPair(lBodyA, lBodyB);
+			}
+
+			addActiveProxy(lProxyId);
+		}
+	}
+
+	@Override
+	public void queryAABB(float minX, float minY, float maxX, float maxY, IBroadPhaseQueryCallback callback) {
+		// the endpoints are only re-sorted in findPairs, so the live AABBs of the proxies are tested instead
+		for (int i = 0; i < mProxyCount; i++) {
+			final var lBody = mProxies[i];
+			if (lBody == null)
+				continue;
+
+			final var lAABB = lBody.aabb();
+			if (lAABB.left() <= maxX && minX <= lAABB.right() && lAABB.top() <= maxY && minY <= lAABB.bottom() && !callback.reportBody(lBody))
+				return;
+		}
+	}
+
+	@Override
+	public void raycast(float p1x, float p1y, float p2x, float p2y, float radius, IBroadPhaseRaycastCallback callback) {
+		float lMaxFraction = 1.f;
+		for (int i = 0; i < mProxyCount; i++) {
+			final var lBody = mProxies[i];
+			if (lBody == null || !IBroadPhase.rayOverlapsAABB(p1x, p1y, p2x, p2y, radius, lMaxFraction, lBody))
+				continue;
+
+			final var lValue = callback.reportBody(lBody, p1x, p1y, p2x, p2y, lMaxFraction);
+			if (lValue == 0.f)
+				return;
+
+			if (lValue > 0.f)
+				lMaxFraction = lValue;
+		}
+	}
+
+	private void addActiveProxy(int proxyId) {
+		mActiveProxyIndices[proxyId] = mNumActiveProxies;
+		mActiveProxyIds[mNumActiveProxies++] = proxyId;
+	}
+
+	private void removeActiveProxy(int proxyId) {
+		final int lIndex = mActiveProxyIndices[proxyId];
+		final int lLastProxyId = mActiveProxyIds[--mNumActiveProxies];
+
+		mActiveProxyIds[lIndex] = lLastProxyId;
+		mActiveProxyIndices[lLastProxyId] = lIndex;
+	}
+
+	private int allocateProxyId() {
+		if (mNumFreeProxyIds > 0)
+			return mFreeProxyIds[--mNumFreeProxyIds];
+
+		if (mProxyCount == mProxies.length) {
+			final int lNewCapacity = mProxies.length * 2;
+			mProxies = Arrays.copyOf(mProxies, lNewCapacity);
+			mFreeProxyIds = Arrays.copyOf(mFreeProxyIds, lNewCapacity);
+			mRemovedProxyIds = Arrays.copyOf(mRemovedProxyIds, lNewCapacity);
+			mActiveProxyIds = Arrays.copyOf(mActiveProxyIds, lNewCapacity);
+			mActiveProxyIndices = Arrays.copyOf(mActiveProxyIndices, lNewCapacity);
+		}
+
+		return mProxyCount++;
+	}
+}
@@ -2,7 +2,6 @@ package net.lintfordlib.core.physics.collisions;
 
 import net.lintfordlib.core.maths.MathHelper;
 import net.lintfordlib.core.maths.Projection;
-import net.lintfordlib.core.maths.Projection.SatCollisionProjectionResult;
 import net.lintfordlib.core.maths.Vector2f;
 import net.lintfordlib.core.physics.dynamics.RigidBody;
 
@@ -14,30 +13,30 @@ import net.lintfordlib.core.physics.dynamics.RigidBody;
  */
 public class IntersectionTests {
 
-	// ---------------------------------------------
-	// Constants
-	// ---------------------------------------------
-
-	private static final SatCollisionProjectionResult projectionResult1 = new SatCollisionProjectionResult();
-	private static final SatCollisionProjectionResult projectionResult2 = new SatCollisionProjectionResult();
-
 	// ---------------------------------------------
 	// Core-Methods
 	// ---------------------------------------------
 
 	public static final boolean checkCollides(final ContactManifold manifold) {
+		return checkCollides(manifold, NarrowPhaseScratch.forCurrentThread());
+	}
+
+	/***
+	 * Checks if the two bodies of the given manifold are intersecting, using the given (thread owned) scratch space.
+	 */
+	public static final boolean checkCollides(final ContactManifold manifold, final NarrowPhaseScratch scratch) {
 		final var lShapeA = manifold.bodyA.shape();
 		final var lShapeAType = lShapeA.shapeType();
 
 		switch (lShapeAType) {
 		case Polygon:
-			return intersectionsPolygonShape(manifold);
+			return intersectionsPolygonShape(manifold, scratch);
 
 		case LineWidth:
-			return intersectionsLineWidthShape(manifold);
+			return intersectionsLineWidthShape(manifold, scratch);
 
 		case Circle:
-			return intersectionsCircleShape(manifold);
+			return intersectionsCircleShape(manifold, scratch);
 
 		}
 
@@ -46,7 +45,7 @@ public class IntersectionTests {
 
 	// ---
 
-	private static final boolean intersectionsPolygonShape(ContactManifold contactManifold) {
+	private static final boolean intersectionsPolygonShape(ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var lShapeB = contactManifold.bodyB.shape();
 		final var lShapeBType = lShapeB.shapeType();
 
@@ -55,19 +54,19 @@ public class IntersectionTests {
 
 		switch (lShapeBType) {
 		case Polygon:
-			return intersectsPolygons(lPolygonBody_A, lOtherBody_B, contactManifold);
+			return intersectsPolygons(lPolygonBody_A, lOtherBody_B, contactManifold, scratch);
 
 		case LineWidth:
-			return intersectsLinePolygon(lOtherBody_B, lPolygonBody_A, contactManifold);
+			return intersectsLinePolygon(lOtherBody_B, lPolygonBody_A, contactManifold, scratch);
 
 		case Circle:
-			return intersectsCirclePolygon(lOtherBody_B, lPolygonBody_A, contactManifold);
+			return intersectsCirclePolygon(lOtherBody_B, lPolygonBody_A, contactManifold, scratch);
 		}
 
 		return false;
 	}
 
-	private static final boolean intersectionsLineWidthShape(ContactManifold contactManifold) {
+	private static final boolean intersectionsLineWidthShape(ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var lShapeB = contactManifold.bodyB.shape();
 		final var lShapeBType = lShapeB.shapeType();
 
@@ -76,10 +75,10 @@ public class IntersectionTests {
 
 		switch (lShapeBType) {
 		case Polygon:
-			return intersectsLinePolygon(lLineWidthBody_A, lOtherBody_B, contactManifold);
+			return intersectsLinePolygon(lLineWidthBody_A, lOtherBody_B, contactManifold, scratch);
 
 		case LineWidth:
-			return intersectsLineLine(lLineWidthBody_A, lOtherBody_B, contactManifold);
+			return intersectsLineLine(lLineWidthBody_A, lOtherBody_B, contactManifold, scratch);
 
 		case Circle:
 			return intersectsLineCircle(lLineWidthBody_A, lOtherBody_B, contactManifold);
@@ -88,7 +87,7 @@ public class IntersectionTests {
 		return false;
 	}
 
-	private static final boolean intersectionsCircleShape(ContactManifold contactManifold) {
+	private static final boolean intersectionsCircleShape(ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var lCircleBody_A = contactManifold.bodyA;
 		final var lOtherBody_B = contactManifold.bodyB;
 
@@ -97,7 +96,7 @@ public class IntersectionTests {
 
 		switch (lShapeBType) {
 		case Polygon:
-			return intersectsCirclePolygon(lCircleBody_A, lOtherBody_B, contactManifold);
+			return intersectsCirclePolygon(lCircleBody_A, lOtherBody_B, contactManifold, scratch);
 
 		case LineWidth:
 			return intersectsLineCircle(lOtherBody_B, lCircleBody_A, contactManifold);
@@ -116,7 +115,7 @@ public class IntersectionTests {
 
 	// Polygons
 
-	private static final boolean intersectsPolygons(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result) {
+	private static final boolean intersectsPolygons(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result, NarrowPhaseScratch scratch) {
 		final var lPolygonABody = bodyA;
 		final var lPolygonBBody = bodyB;
 
@@ -144,22 +143,22 @@ public class IntersectionTests {
 			final var axisX = edgeY / edgeLength;
 			final var axisY = -edgeX / edgeLength;
 
-			Projection.projectVertices(lPolygonAVertices, axisX, axisY, projectionResult1);
-			Projection.projectVertices(lPolygonBVertices, axisX, axisY, projectionResult2);
+			Projection.projectVertices(lPolygonAVertices, axisX, axisY, scratch.projectionResult1);
+			Projection.projectVertices(lPolygonBVertices, axisX, axisY, scratch.projectionResult2);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = (projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = (scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axisX;
 				result.normal.y = axisY;
 			}
 
-			final float minimumDepthValueB = (projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = (scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axisX;
@@ -180,22 +179,22 @@ public class IntersectionTests {
 			final var axisX = edgeY / edgeLength;
 			final var axisY = -edgeX / edgeLength;
 
-			Projection.projectVertices(lPolygonAVertices, axisX, axisY, projectionResult1);
-			Projection.projectVertices(lPolygonBVertices, axisX, axisY, projectionResult2);
+			Projection.projectVertices(lPolygonAVertices, axisX, axisY, scratch.projectionResult1);
+			Projection.projectVertices(lPolygonBVertices, axisX, axisY, scratch.projectionResult2);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = (projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = (scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axisX;
 				result.normal.y = axisY;
 			}
 
-			final float minimumDepthValueB = (projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = (scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axisX;
@@ -208,7 +207,7 @@ public class IntersectionTests {
 
 	// Circles
 
-	private static final boolean intersectsCirclePolygon(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result) {
+	private static final boolean intersectsCirclePolygon(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result, NarrowPhaseScratch scratch) {
 		final var lCircleBody = bodyA;
 		final var lPolygonBody = bodyB;
 
@@ -241,22 +240,22 @@ public class IntersectionTests {
 			final var axisX = edgeY / edgeLength;
 			final var axisY = -edgeX / edgeLength;
 
-			Projection.projectCircle(lCircleX, lCircleY, lCircleRadius, axisX, axisY, projectionResult1);
-			Projection.projectVertices(lPolygonVertices, axisX, axisY, projectionResult2);
+			Projection.projectCircle(lCircleX, lCircleY, lCircleRadius, axisX, axisY, scratch.projectionResult1);
+			Projection.projectVertices(lPolygonVertices, axisX, axisY, scratch.projectionResult2);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = (projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = (scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axisX;
 				result.normal.y = axisY;
 			}
 
-			final float minimumDepthValueB = (projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = (scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axisX;
@@ -272,22 +271,22 @@ public class IntersectionTests {
 		axisX /= axisLength;
 		axisY /= axisLength;
 
-		Projection.projectCircle(lCircleX, lCircleY, lCircleRadius, axisX, axisY, projectionResult1);
-		Projection.projectVertices(lPolygonVertices, axisX, axisY, projectionResult2);
+		Projection.projectCircle(lCircleX, lCircleY, lCircleRadius, axisX, axisY, scratch.projectionResult1);
+		Projection.projectVertices(lPolygonVertices, axisX, axisY, scratch.projectionResult2);
 
-		if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+		if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 			result.isIntersecting = false;
 			return false; // early out
 		}
 
-		final float minimumDepthValueA = (projectionResult1.max - projectionResult2.min);
+		final float minimumDepthValueA = (scratch.projectionResult1.max - scratch.projectionResult2.min);
 		if (minimumDepthValueA < result.depth) {
 			result.depth = minimumDepthValueA;
 			result.normal.x = axisX;
 			result.normal.y = axisY;
 		}
 
-		final float minimumDepthValueB = (projectionResult2.max - projectionResult1.min);
+		final float minimumDepthValueB = (scratch.projectionResult2.max - scratch.projectionResult1.min);
 		if (minimumDepthValueB < result.depth) {
 			result.depth = minimumDepthValueB;
 			result.normal.x = -axisX;
@@ -332,7 +331,7 @@ public class IntersectionTests {
 
 	// Lines
 
-	private static final boolean intersectsLinePolygon(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result) {
+	private static final boolean intersectsLinePolygon(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result, NarrowPhaseScratch scratch) {
 		final var lLineBody = bodyA;
 		final var lPolygonBody = bodyB;
 
@@ -363,22 +362,22 @@ public class IntersectionTests {
 			final var axisX = edgeY / axisLength;
 			final var axisY = -edgeX / axisLength;
 
-			Projection.projectLineWidth(lsx, lsy, lex, ley, lineRadius, axisX, axisY, projectionResult1);
-			Projection.projectVertices(polygonVertices, axisX, axisY, projectionResult2);
+			Projection.projectLineWidth(lsx, lsy, lex, ley, lineRadius, axisX, axisY, scratch.projectionResult1);
+			Projection.projectVertices(polygonVertices, axisX, axisY, scratch.projectionResult2);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = (projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = (scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axisX;
 				result.normal.y = axisY;
 			}
 
-			final float minimumDepthValueB = (projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = (scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axisX;
@@ -399,22 +398,22 @@ public class IntersectionTests {
 			var axisX = edgeY / edgeLength;
 			var axisY = -edgeX / edgeLength;
 
-			Projection.projectVertices(polygonVertices, axisX, axisY, projectionResult2);
-			Projection.projectLineWidth(lsx, lsy, lex, ley, lineRadius, axisX, axisY, projectionResult1);
+			Projection.projectVertices(polygonVertices, axisX, axisY, scratch.projectionResult2);
+			Projection.projectLineWidth(lsx, lsy, lex, ley, lineRadius, axisX, axisY, scratch.projectionResult1);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = (projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = (scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axisX;
 				result.normal.y = axisY;
 			}
 
-			final float minimumDepthValueB = (projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = (scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axisX;
@@ -478,7 +477,7 @@ public class IntersectionTests {
 		return false;
 	}
 
-	private static final boolean intersectsLineLine(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result) {
+	private static final boolean intersectsLineLine(final RigidBody bodyA, final RigidBody bodyB, final ContactManifold result, NarrowPhaseScratch scratch) {
 		final var lLineABody = result.bodyA;
 		final var lLineBBody = result.bodyB;
 
@@ -516,22 +515,22 @@ public class IntersectionTests {
 			axis01X /= axis01Length;
 			axis01Y /= axis01Length;
 
-			Projection.projectLineWidth(ax, ay, bx, by, lLineARadius, axis01X, axis01Y, projectionResult1);
-			Projection.projectLineWidth(px, py, qx, qy, lLineBRadius, axis01X, axis01Y, projectionResult2);
+			Projection.projectLineWidth(ax, ay, bx, by, lLineARadius, axis01X, axis01Y, scratch.projectionResult1);
+			Projection.projectLineWidth(px, py, qx, qy, lLineBRadius, axis01X, axis01Y, scratch.projectionResult2);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = Math.abs(projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = Math.abs(scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axis01X;
 				result.normal.y = axis01Y;
 			}
 
-			final float minimumDepthValueB = Math.abs(projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = Math.abs(scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axis01X;
@@ -547,22 +546,22 @@ public class IntersectionTests {
 			axis02X /= axis02Length;
 			axis02Y /= axis02Length;
 
-			Projection.projectLineWidth(ax, ay, bx, by, lLineBRadius, axis02X, axis02Y, projectionResult1);
-			Projection.projectLineWidth(px, py, qx, qy, lLineARadius, axis02X, axis02Y, projectionResult2);
+			Projection.projectLineWidth(ax, ay, bx, by, lLineBRadius, axis02X, axis02Y, scratch.projectionResult1);
+			Projection.projectLineWidth(px, py, qx, qy, lLineARadius, axis02X, axis02Y, scratch.projectionResult2);
 
-			if (projectionResult1.min >= projectionResult2.max || projectionResult2.min >= projectionResult1.max) {
+			if (scratch.projectionResult1.min >= scratch.projectionResult2.max || scratch.projectionResult2.min >= scratch.projectionResult1.max) {
 				result.isIntersecting = false;
 				return false; // early out
 			}
 
-			final float minimumDepthValueA = Math.abs(projectionResult1.max - projectionResult2.min);
+			final float minimumDepthValueA = Math.abs(scratch.projectionResult1.max - scratch.projectionResult2.min);
 			if (minimumDepthValueA < result.depth) {
 				result.depth = minimumDepthValueA;
 				result.normal.x = axis02X;
 				result.normal.y = axis02Y;
 			}
 
-			final float minimumDepthValueB = Math.abs(projectionResult2.max - projectionResult1.min);
+			final float minimumDepthValueB = Math.abs(scratch.projectionResult2.max - scratch.projectionResult1.min);
 			if (minimumDepthValueB < result.depth) {
 				result.depth = minimumDepthValueB;
 				result.normal.x = -axis02X;
@@ -0,0 +1,36 @@
+package net.lintfordlib.core.physics.collisions;
+
+import net.lintfordlib.core.maths.Projection.SatCollisionProjectionResult;
+
+/***
+ * Temporary objects used by {@link IntersectionTests} and {@link SATContacts} while testing a pair of bodies. Each thread performing narrow phase tests needs its own instance.
+ */
+public class NarrowPhaseScratch {
+
+	// ---------------------------------------------
+	// Constants
+	// ---------------------------------------------
+
+	private static final ThreadLocal<NarrowPhaseScratch> THREAD_SCRATCH = ThreadLocal.withInitial(NarrowPhaseScratch::new);
+
+	// ---------------------------------------------
+	// Variables
+	// ---------------------------------------------
+
+	public final SatCollisionProjectionResult projectionResult1 = new SatCollisionProjectionResult();
+	public final SatCollisionProjectionResult projectionResult2 = new SatCollisionProjectionResult();
+
+	final SATContacts.PointSegmentResult pointSegmentResult = new SATContacts.PointSegmentResult();
+
+	// ---------------------------------------------
+	// Methods
+	// ---------------------------------------------
+
+	/***
+	 * @return The {@link NarrowPhaseScratch} instance belonging to the calling thread.
+	 */
+	public static NarrowPhaseScratch forCurrentThread() {
+		return THREAD_SCRATCH.get();
+	}
+
+}
@@ -0,0 +1,48 @@
+package net.lintfordlib.core.physics.collisions;
+
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+
+/***
+ * The closest hit of a ray or circle cast through the {@link net.lintfordlib.core.physics.PhysicsWorld}. Instances are owned by the caller and re-used between queries.
+ */
+public class RaycastResult {
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	/** The body which was hit, or null if the cast didn't hit anything. */
+	public RigidBody body;
+
+	/** The fraction [0,1] along the cast (p1 to p2) at which the hit occurred. */
+	public float fraction;
+
+	/** The point on the surface of the body which was hit. */
+	public float pointX;
+	public float pointY;
+
+	/** The surface normal of the body at the hit point. */
+	public float normalX;
+	public float normalY;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public boolean hasHit() {
+		return body != null;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	public void reset() {
+		body = null;
+		fraction = 1.f;
+		pointX = 0.f;
+		pointY = 0.f;
+		normalX = 0.f;
+		normalY = 0.f;
+	}
+}
@@ -11,25 +11,24 @@ public class SATContacts {
 	// Inner-Classes
 	// ---------------------------------------------
 
-	private static class PointSegmentResult {
+	static class PointSegmentResult {
 		public float dist2;
 		public float contactX;
 		public float contactY;
 	}
 
-	// ---------------------------------------------
-	// Constants
-	// ---------------------------------------------
-
-	public static final ContactManifold tempResult = new ContactManifold();
-
-	private static final PointSegmentResult pointSegmentResult = new PointSegmentResult();
-
 	// ---------------------------------------------
 	// Core-Methods
 	// ---------------------------------------------
 
 	public static final void fillContactPoints(ContactManifold manifold) {
+		fillContactPoints(manifold, NarrowPhaseScratch.forCurrentThread());
+	}
+
+	/***
+	 * Finds the contact points of the two (intersecting) bodies of the given manifold, using the given (thread owned) scratch space.
+	 */
+	public static final void fillContactPoints(ContactManifold manifold, NarrowPhaseScratch scratch) {
 		final var bodyA = manifold.bodyA;
 		final var bodyB = manifold.bodyB;
 
@@ -38,42 +37,42 @@ public class SATContacts {
 		manifold.contactCount = 0;
 
 		if (lShapeTypeA == ShapeType.Polygon)
-			findContactsOnPolygonShape(bodyA, bodyB, manifold);
+			findContactsOnPolygonShape(bodyA, bodyB, manifold, scratch);
 		else if (lShapeTypeA == ShapeType.LineWidth)
-			findContactsOnLineShape(bodyA, bodyB, manifold);
+			findContactsOnLineShape(bodyA, bodyB, manifold, scratch);
 		else if (lShapeTypeA == ShapeType.Circle)
-			findContactsOnCircleShape(bodyA, bodyB, manifold);
+			findContactsOnCircleShape(bodyA, bodyB, manifold, scratch);
 
 	}
 
-	private static void findContactsOnPolygonShape(RigidBody polygonBody, RigidBody otherBody, ContactManifold manifold) {
+	private static void findContactsOnPolygonShape(RigidBody polygonBody, RigidBody otherBody, ContactManifold manifold, NarrowPhaseScratch scratch) {
 		final var lShapeTypeB = otherBody.shape().shapeType();
 
 		if (lShapeTypeB == ShapeType.Polygon)
-			findPolygonPolygonContactPoints(polygonBody, otherBody, manifold);
+			findPolygonPolygonContactPoints(polygonBody, otherBody, manifold, scratch);
 		else if (lShapeTypeB == ShapeType.LineWidth)
-			findLinePolygonContactPoints(polygonBody, otherBody, manifold);
+			findLinePolygonContactPoints(polygonBody, otherBody, manifold, scratch);
 		else if (lShapeTypeB == ShapeType.Circle)
-			findCirclePolygonContactPoint(polygonBody, otherBody, manifold);
+			findCirclePolygonContactPoint(polygonBody, otherBody, manifold, scratch);
 	}
 
-	private static void findContactsOnLineShape(RigidBody lineBody, RigidBody otherBody, ContactManifold manifold) {
+	private static void findContactsOnLineShape(RigidBody lineBody, RigidBody otherBody, ContactManifold manifold, NarrowPhaseScratch scratch) {
 		final var lShapeTypeB = otherBody.shape().shapeType();
 
 		if (lShapeTypeB == ShapeType.Polygon)
-			findLinePolygonContactPoints(lineBody, otherBody, manifold);
+			findLinePolygonContactPoints(lineBody, otherBody, manifold, scratch);
 		else if (lShapeTypeB == ShapeType.LineWidth)
-			findLineLineContactPoints(lineBody, otherBody, manifold);
+			findLineLineContactPoints(lineBody, otherBody, manifold, scratch);
 		else if (lShapeTypeB == ShapeType.Circle)
 			findLineCircleContactPoint(lineBody, otherBody, manifold);
 
 	}
 
-	private static void findContactsOnCircleShape(RigidBody circleBody, RigidBody otherBody, ContactManifold manifold) {
+	private static void findContactsOnCircleShape(RigidBody circleBody, RigidBody otherBody, ContactManifold manifold, NarrowPhaseScratch scratch) {
 		final var lShapeTypeB = otherBody.shape().shapeType();
 
 		if (lShapeTypeB == ShapeType.Polygon)
-			findCirclePolygonContactPoint(circleBody, otherBody, manifold);
+			findCirclePolygonContactPoint(circleBody, otherBody, manifold, scratch);
 		else if (lShapeTypeB == ShapeType.LineWidth)
 			findLineCircleContactPoint(circleBody, otherBody, manifold);
 		else if (lShapeTypeB == ShapeType.Circle)
@@ -85,7 +84,7 @@ public class SATContacts {
 	// Methods
 	// ---------------------------------------------
 
-	private static void findPolygonPolygonContactPoints(RigidBody polygonABody, RigidBody polygonBBody, ContactManifold contactManifold) {
+	private static void findPolygonPolygonContactPoints(RigidBody polygonABody, RigidBody polygonBBody, ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var polyAVerts = polygonABody.getWorldVertices();
 		final var polyBVerts = polygonBBody.getWorldVertices();
 
@@ -100,7 +99,7 @@ public class SATContacts {
 				final var va = polyBVerts.get(j);
 				final var vb = polyBVerts.get((j + 1) % polyBVerts.size());
 
-				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y);
+				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 
 				// a second point with ~same distance
 				if (MathHelper.equalWithinEpsilon(lPointSegmentDist.dist2, minDist2)) {
@@ -129,7 +128,7 @@ public class SATContacts {
 				final var va = polyAVerts.get(j);
 				final var vb = polyAVerts.get((j + 1) % polyAVerts.size());
 
-				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y);
+				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 
 				// a second point with ~same distance
 				if (MathHelper.equalWithinEpsilon(lPointSegmentDist.dist2, minDist2)) {
@@ -152,7 +151,7 @@ public class SATContacts {
 		}
 	}
 
-	private static void findLinePolygonContactPoints(RigidBody lineBody, RigidBody bodyPolygonBody, ContactManifold contactManifold) {
+	private static void findLinePolygonContactPoints(RigidBody lineBody, RigidBody bodyPolygonBody, ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var lineVerts = lineBody.getWorldVertices();
 		final var polyVerts = bodyPolygonBody.getWorldVertices();
 
@@ -165,7 +164,7 @@ public class SATContacts {
 			final var va = lineVerts.get(0);
 			final var vb = lineVerts.get(1);
 
-			final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y);
+			final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 
 			// a second point with ~same distance
 			if (MathHelper.equalWithinEpsilon(lPointSegmentDist.dist2, minDist2)) {
@@ -194,7 +193,7 @@ public class SATContacts {
 				final var va = polyVerts.get(j);
 				final var vb = polyVerts.get((j + 1) % polyVerts.size());
 
-				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y);
+				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 
 				// a second point with ~same distance
 				if (MathHelper.equalWithinEpsilon(lPointSegmentDist.dist2, minDist2)) {
@@ -217,7 +216,7 @@ public class SATContacts {
 		}
 	}
 
-	private static void findCirclePolygonContactPoint(RigidBody circleBody, RigidBody polygonBody, ContactManifold contactManifold) {
+	private static void findCirclePolygonContactPoint(RigidBody circleBody, RigidBody polygonBody, ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var lCircleAX = circleBody.transform.p.x;
 		final var lCircleAY = circleBody.transform.p.y;
 
@@ -230,7 +229,7 @@ public class SATContacts {
 			final var va = lPolygonVertices.get(i);
 			final var vb = lPolygonVertices.get((i + 1) % lPolygonVertices.size());
 
-			final var lPointSegmentDist = pointSegmentDistance2(lCircleAX, lCircleAY, va.x, va.y, vb.x, vb.y);
+			final var lPointSegmentDist = pointSegmentDistance2(lCircleAX, lCircleAY, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 			if (lPointSegmentDist.dist2 < minDist2) {
 				minDist2 = lPointSegmentDist.dist2;
 
@@ -295,7 +294,7 @@ public class SATContacts {
 		manifold.contactCount = 1;
 	}
 
-	private static void findLineLineContactPoints(RigidBody lineABody, RigidBody lineBBody, ContactManifold contactManifold) {
+	private static void findLineLineContactPoints(RigidBody lineABody, RigidBody lineBBody, ContactManifold contactManifold, NarrowPhaseScratch scratch) {
 		final var lineAVertices = lineABody.getWorldVertices();
 		final var lineBVertices = lineBBody.getWorldVertices();
 
@@ -310,7 +309,7 @@ public class SATContacts {
 				final var va = lineBVertices.get(j);
 				final var vb = lineBVertices.get((j + 1) % lineBVertices.size());
 
-				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y);
+				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 
 				// a second point with ~same distance
 				if (MathHelper.equalWithinEpsilon(lPointSegmentDist.dist2, minDist2)) {
@@ -339,7 +338,7 @@ public class SATContacts {
 				final var va = lineAVertices.get(j);
 				final var vb = lineAVertices.get((j + 1) % lineAVertices.size());
 
-				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y);
+				final var lPointSegmentDist = pointSegmentDistance2(p.x, p.y, va.x, va.y, vb.x, vb.y, scratch.pointSegmentResult);
 
 				// a second point with ~same distance
 				if (MathHelper.equalWithinEpsilon(lPointSegmentDist.dist2, minDist2)) {
@@ -363,7 +362,7 @@ public class SATContacts {
 
 	}
 
-	private static PointSegmentResult pointSegmentDistance2(float px, float py, float ax, float ay, float bx, float by) {
+	private static PointSegmentResult pointSegmentDistance2(float px, float py, float ax, float ay, float bx, float by, PointSegmentResult pointSegmentResult) {
 		final var abX = bx - ax;
 		final var abY = by - ay;
 
@@ -0,0 +1,218 @@
+package net.lintfordlib.core.physics.collisions;
+
+import java.util.List;
+
+import net.lintfordlib.core.maths.Vector2f;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.shapes.BaseShape;
+
+/***
+ * Time of impact tests for continuous collision detection. The moving body is treated as a circle (its core radius, see {@link #coreRadius(BaseShape)}) which is swept along a straight line. The sweep is tested against the Minkowski sum of the circle and the shape of the other body, i.e. a ray is cast against the edges and vertices of the other shape inflated by the radius of the circle.
+ */
+public final class TimeOfImpact {
+
+	// ---------------------------------------------
+	// Inner-Classes
+	// ---------------------------------------------
+
+	public static class TOIResult {
+
+		/** The fraction [0,1] of the sweep at which the first contact occurs. */
+		public float t;
+
+		/** The contact normal, pointing from the hit shape towards the moving circle. */
+		public float normalX;
+		public float normalY;
+
+		public void reset() {
+			t = Float.MAX_VALUE;
+			normalX = 0.f;
+			normalY = 0.f;
+		}
+	}
+
+	// ---------------------------------------------
+	// Constructor
+	// ---------------------------------------------
+
+	private TimeOfImpact() {
+	}
+
+	// ---------------------------------------------
+	// Methods
+	// ---------------------------------------------
+
+	/***
+	 * @return The radius of the largest circle centered on the body which is contained in the given shape. This is used as the swept radius of the body, so a sweep only reports an impact when the body would otherwise pass (partly) through the other shape.
+	 */
+	public static float coreRadius(BaseShape shape) {
+		switch (shape.shapeType()) {
+		case Circle:
+			return shape.radius();
+		case LineWidth:
+			return shape.height() * .5f;
+		default:
+			return Math.min(shape.width(), shape.height()) * .5f;
+		}
+	}
+
+	/***
+	 * Sweeps a circle from (startX, startY) by (deltaX, deltaY) against the shape of the given body. Sweeps which start overlapping the shape are not reported, as these are handled by the discrete narrow phase.
+	 *
+	 * @return true if the sweep hits the shape earlier than result.t, in which case the result is updated.
+	 */
+	public static boolean sweepCircle(float startX, float startY, float deltaX, float deltaY, float radius, RigidBody body, TOIResult result) {
+		final var lShape = body.shape();
+		if (lShape == null)
+			return false;
+
+		if (deltaX * deltaX + deltaY * deltaY == 0.f)
+			return false;
+
+		switch (lShape.shapeType()) {
+		case Circle:
+			return rayCircle(startX, startY, deltaX, deltaY, body.transform.p.x, body.transform.p.y, radius + lShape.radius(), result);
+
+		case LineWidth: {
+			final var lVertices = body.getWorldVertices();
+			final var lRadius = radius + lShape.height() * .5f;
+			final var ax = lVertices.get(0).x;
+			final var ay = lVertices.get(0).y;
+			final var bx = lVertices.get(1).x;
+			final var by = lVertices.get(1).y;
+
+			boolean lHit = raySegmentSide(startX, startY, deltaX, deltaY, ax, ay, bx, by, lRadius, 1.f, result);
+			lHit |= raySegmentSide(startX, startY, deltaX, deltaY, ax, ay, bx, by, lRadius, -1.f, result);
+			lHit |= rayCircle(startX, startY, deltaX, deltaY, ax, ay, lRadius, result);
+			lHit |= rayCircle(startX, startY, deltaX, deltaY, bx, by, lRadius, result);
+			return lHit;
+		}
+
+		default:
+			return sweepCirclePolygon(startX, startY, deltaX, deltaY, radius, body, result);
+		}
+	}
+
+	// ---
+
+	private static boolean sweepCirclePolygon(float startX, float startY, float deltaX, float deltaY, float radius, RigidBody body, TOIResult result) {
+		final var lVertices = body.getWorldVertices();
+		final int lNumVertices = lVertices.size();
+
+		float lCenterX = 0.f;
+		float lCenterY = 0.f;
+		for (int i = 0; i < lNumVertices; i++) {
+			lCenterX += lVertices.get(i).x;
+			lCenterY += lVertices.get(i).y;
+		}
+
+		lCenterX /= lNumVertices;
+		lCenterY /= lNumVertices;
+
+		// the vertex winding depends on the world orientation, so the outward side of each edge is found using the center of the polygon
+		if (isInsideInflatedPolygon(startX, startY, radius, lVertices, lCenterX, lCenterY))
+			return false;
+
+		boolean lHit = false;
+		for (int i = 0; i < lNumVertices; i++) {
+			final var a = lVertices.get(i);
+			final var b = lVertices.get((i + 1) % lNumVertices);
+
+			lHit |= raySegmentSide(startX, startY, deltaX, deltaY, a.x, a.y, b.x, b.y, radius, outwardSide(a.x, a.y, b.x, b.y, lCenterX, lCenterY), result);
+			lHit |= rayCircle(startX, startY, deltaX, deltaY, a.x, a.y, radius, result);
+		}
+
+		return lHit;
+	}
+
+	private static boolean isInsideInflatedPolygon(float px, float py, float radius, List<Vector2f> vertices, float centerX, float centerY) {
+		final int lNumVertices = vertices.size();
+		for (int i = 0; i < lNumVertices; i++) {
+			final var a = vertices.get(i);
+			final var b = vertices.get((i + 1) % lNumVertices);
+
+			final float lEdgeLength = (float) Math.sqrt((b.x - a.x) * (b.x - a.x) + (b.y - a.y) * (b.y - a.y));
+			if (lEdgeLength == 0.f)
+				continue;
+
+			final float lSide = outwardSide(a.x, a.y, b.x, b.y, centerX, centerY);
+			final float nx = -(b.y - a.y) / lEdgeLength * lSide;
+			final float ny = (b.x - a.x) / lEdgeLength * lSide;
+			if ((px - a.x) * nx + (py - a.y) * ny > radius)
+				return false;
+		}
+
+		return true;
+	}
+
+	/***
+	 * @return 1 if perp(b-a) points away from the center, otherwise -1.
+	 */
+	private static float outwardSide(float ax, float ay, float bx, float by, float centerX, float centerY) {
+		return -(by - ay) * (ax - centerX) + (bx - ax) * (ay - centerY) > 0.f ? 1.f : -1.f;
+	}
+
+	/***
+	 * Casts the ray against the side of the segment a-b which is offset by the radius along the normal perp(b-a) * side.
+	 */
+	private static boolean raySegmentSide(float px, float py, float dx, float dy, float ax, float ay, float bx, float by, float radius, float side, TOIResult result) {
+		final float ex = bx - ax;
+		final float ey = by - ay;
+		final float lEdgeLengthSq = ex * ex + ey * ey;
+		if (lEdgeLengthSq == 0.f)
+			return false;
+
+		final float lEdgeLength = (float) Math.sqrt(lEdgeLengthSq);
+		final float nx = -ey / lEdgeLength * side;
+		final float ny = ex / lEdgeLength * side;
+
+		final float lApproachSpeed = dx * nx + dy * ny;
+		if (lApproachSpeed >= 0.f)
+			return false;
+
+		final float lDistance = (px - ax) * nx + (py - ay) * ny - radius;
+		if (lDistance < 0.f)
+			return false;
+
+		final float t = lDistance / -lApproachSpeed;
+		if (t > 1.f || t >= result.t)
+			return false;
+
+		final float hx = px + dx * t;
+		final float hy = py + dy * t;
+		final float s = ((hx - ax) * ex + (hy - ay) * ey) / lEdgeLengthSq;
+		if (s < 0.f || s > 1.f)
+			return false;
+
+		result.t = t;
+		result.normalX = nx;
+		result.normalY = ny;
+		return true;
+	}
+
+	private static boolean rayCircle(float px, float py, float dx, float dy, float cx, float cy, float radius, TOIResult result) {
+		final float mx = px - cx;
+		final float my = py - cy;
+
+		final float b = mx * dx + my * dy;
+		final float c = mx * mx + my * my - radius * radius;
+
+		// starting inside or moving away
+		if (c < 0.f || b >= 0.f)
+			return false;
+
+		final float a = dx * dx + dy * dy;
+		final float lDiscriminant = b * b - a * c;
+		if (lDiscriminant < 0.f)
+			return false;
+
+		final float t = (-b - (float) Math.sqrt(lDiscriminant)) / a;
+		if (t < 0.f || t > 1.f || t >= result.t)
+			return false;
+
+		result.t = t;
+		result.normalX = (mx + dx * t) / radius;
+		result.normalY = (my + dy * t) / radius;
+		return true;
+	}
+}
@@ -28,8 +28,14 @@ public class RigidBody extends PhysicsGridEntity {
 	// Variables
 	// --------------------------------------
 
-	public boolean _isActive = true;
+	public boolean _isActive = true; // awake
 	public int _updateCounter = 0;
+	public int _broadPhaseProxyId = -1;
+	public int _pairBufferStamp;
+	public int _pairBufferSlot;
+	public int _islandIndex = -1;
+	public int _worldIndex = -1;
+	public float _sleepTime;
 
 	private static int uidCounter;
 
@@ -61,6 +67,8 @@ public class RigidBody extends PhysicsGridEntity {
 
 	private BodyType mBodyType;
 	private boolean mIsSensor;
+	private boolean mAllowSleep = true;
+	private boolean mIsBullet;
 
 	public boolean debugIsSelected;
 	public boolean debugIsColliding;
@@ -73,16 +81,65 @@ public class RigidBody extends PhysicsGridEntity {
 		return uidCounter++;
 	}
 
+	/***
+	 * @return true if this body is awake. Sleeping bodies are not integrated and are skipped in the narrow phase of the {@link net.lintfordlib.core.physics.PhysicsWorld} until they are woken up.
+	 */
+	public boolean isAwake() {
+		return _isActive;
+	}
+
+	/***
+	 * Wakes up or puts this {@link RigidBody} to sleep. Putting a body to sleep clears its velocities and accumulated forces.
+	 */
+	public void setAwake(boolean isAwake) {
+		if (mBodyType == BodyType.Static)
+			return;
+
+		if (isAwake) {
+			if (!_isActive) {
+				_isActive = true;
+				_sleepTime = 0.f;
+			}
+
+			return;
+		}
+
+		_isActive = false;
+		_sleepTime = 0.f;
+
+		vx = 0.f;
+		vy = 0.f;
+		angularVelocity = 0.f;
+		accX = 0.f;
+		accY = 0.f;
+		torque = 0.f;
+	}
+
+	public boolean allowSleep() {
+		return mAllowSleep;
+	}
+
+	/***
+	 * Sets whether this body is allowed to fall asleep when it comes to rest. Disallowing sleep wakes the body up.
+	 */
+	public void allowSleep(boolean allowSleep) {
+		mAllowSleep = allowSleep;
+		if (!allowSleep)
+			setAwake(true);
+	}
+
 	public void setAngularVelocity(float angularVelocity) {
 		if (mBodyType == BodyType.Static)
 			return;
 
 		this.angularVelocity = angularVelocity;
+		setAwake(true);
 	}
 
 	public void setLinearVelocity(float vx, float vy) {
 		this.vx = vx;
 		this.vy = vy;
+		setAwake(true);
 	}
 
 	public void applyAngularVelocity(float angularVelocity) {
@@ -147,6 +204,20 @@ public class RigidBody extends PhysicsGridEntity {
 		mIsSensor = isSensor;
 	}
 
+	/***
+	 * @returns true if continuous collision detection is enabled for this {@link RigidBody}.
+	 */
+	public boolean isBullet() {
+		return mIsBullet;
+	}
+
+	/***
+	 * Enables continuous collision detection against static bodies for this {@link RigidBody}. The movement of a bullet is swept against the static geometry each step, and the body is sub-stepped at the time of impact, so fast, small bodies don't tunnel through thin walls. Only dynamic bodies are swept.
+	 */
+	public void isBullet(boolean isBullet) {
+		mIsBullet = isBullet;
+	}
+
 	/**
 	 * Returns the {@link BodyType} set for this RigidBody instance.
 	 */
@@ -198,7 +269,7 @@ public class RigidBody extends PhysicsGridEntity {
 		this.angularDamping = 1.f;
 
 		this.transform.p.set(unitPositionX, unitPositionY);
-		this.transform.setAngle(angle);
+		this.transform.setAngle(angle, true);
 	}
 
 	// --------------------------------------
@@ -206,25 +277,55 @@ public class RigidBody extends PhysicsGridEntity {
 	// --------------------------------------
 
 	public void step(float time, float gravityX, float gravityY) {
+		step(time, gravityX, gravityY, false);
+	}
+
+	/***
+	 * Same as {@link #step(float, float, float)}. With strict set, the transcendental functions are computed with {@link StrictMath} (see {@link #integratePosition(float, boolean)}).
+	 */
+	public void step(float time, float gravityX, float gravityY, boolean strict) {
 		if (mBodyType == BodyType.Static)
 			return;
 
 		// Symplectic Euler
+		integrateVelocity(time, gravityX, gravityY);
+		integratePosition(time, strict);
+	}
+
+	/***
+	 * Applies the accumulated forces and gravity to the velocities of this body (the first half of {@link #step(float, float, float)}).
+	 */
+	public void integrateVelocity(float time, float gravityX, float gravityY) {
+		if (mBodyType == BodyType.Static)
+			return;
 
-		// Apply forces first
 		vx += (accX + gravityX) * time;
 		vy += (accY + gravityY) * time;
 		angularVelocity += torque * invInertia * time;
+	}
+
+	/***
+	 * Updates the position/orientation from the velocities, applies damping and resets the accumulated forces (the second half of {@link #step(float, float, float)}).
+	 */
+	public void integratePosition(float time) {
+		integratePosition(time, false);
+	}
+
+	/***
+	 * Same as {@link #integratePosition(float)}. With strict set, the transcendental functions are computed with {@link StrictMath}, so the result is identical on every platform (used by the deterministic mode of the {@link net.lintfordlib.core.physics.PhysicsWorld}).
+	 */
+	public void integratePosition(float time, boolean strict) {
+		if (mBodyType == BodyType.Static)
+			return;
 
-		// Then update position/orientation
 		transform.p.x += vx * time;
 		transform.p.y += vy * time;
-		transform.setAngle(transform.angle + angularVelocity * time);
+		transform.setAngle(transform.angle + angularVelocity * time, strict);
 
 		// Apply damping after integration
 		vx *= linearDampingX;
 		vy *= linearDampingY;
-		angularVelocity *= (float) Math.exp(-.97f * time);
+		angularVelocity *= strict ? (float) StrictMath.exp(-.97f * time) : (float) Math.exp(-.97f * time);
 
 		// Reset forces
 		accX = 0.f;
@@ -262,26 +363,34 @@ public class RigidBody extends PhysicsGridEntity {
 
 	}
 
+	// -- Transform changes wake the body up
+
 	public void moveTo(float x, float y) {
 		transform.setPosition(x, y);
+		setAwake(true);
 	}
 
 	public void move(float x, float y) {
 		transform.p.x += x;
 		transform.p.y += y;
+		setAwake(true);
 	}
 
 	public void angle(float a) {
-		this.transform.setAngle(a);
+		// set outside of the step, so always computed strictly in case the body is (or will be) in a deterministic world
+		this.transform.setAngle(a, true);
+		setAwake(true);
 	}
 
 	// -- Impulses: Change a body's velocity / angular velocity immediately
 
 	public void addAngularImpulse(float angualrImpulse) {
+		setAwake(true);
 		angularVelocity += angualrImpulse * invInertia;
 	}
 
 	public void addImpulse(float ix, float iy) {
+		setAwake(true);
 		vx += ix * invMass;
 		vy += iy * invMass;
 
@@ -289,6 +398,7 @@ public class RigidBody extends PhysicsGridEntity {
 	}
 
 	public void addImpulse(float ix, float iy, float px, float py) {
+		setAwake(true);
 		vx += ix * invMass;
 		vy += iy * invMass;
 
@@ -298,15 +408,18 @@ public class RigidBody extends PhysicsGridEntity {
 	// -- Forces: act gradually over time (should be applied as needed per update)
 
 	public void addTorque(float torque) {
+		setAwake(true);
 		this.torque += torque;
 	}
 
 	public void addForce(float fx, float fy) {
+		setAwake(true);
 		accX += fx * invMass;
 		accY += fy * invMass;
 	}
 
 	public void addForceAtLocalPoint(float fx, float fy, float px, float py) {
+		setAwake(true);
 		accX += fx * invMass;
 		accY += fy * invMass;
 
@@ -314,6 +427,7 @@ public class RigidBody extends PhysicsGridEntity {
 	}
 
 	public void addForceAtWorldPoint(float fx, float fy, float px, float py) {
+		setAwake(true);
 		accX += fx * invMass;
 		accY += fy * invMass;
 
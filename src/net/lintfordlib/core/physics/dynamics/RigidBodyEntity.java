@@ -73,6 +73,16 @@ public abstract class RigidBodyEntity extends GridEntity {
 		maxY = grid.getCellIndexY((int) (aabb.bottom() * lUnitToPixels));
 	}
 
+	@Override
+	public float gridCenterX(SpatialHashGrid<?> grid) {
+		return body.aabb().centerX() * ConstantsPhysics.UnitsToPixels();
+	}
+
+	@Override
+	public float gridCenterY(SpatialHashGrid<?> grid) {
+		return body.aabb().centerY() * ConstantsPhysics.UnitsToPixels();
+	}
+
 	@Override
 	public boolean isGridCacheOld(SpatialHashGrid<?> grid) {
 		final var aabb = body.aabb();
@@ -0,0 +1,665 @@
+package net.lintfordlib.core.physics.resolvers;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import net.lintfordlib.core.maths.Vector2f;
+import net.lintfordlib.core.physics.collisions.ContactManifold;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+
+/***
+ * A sequential impulse contact solver with persistent contacts. Unlike the {@link ICollisionResolver}s, which resolve each {@link ContactManifold} once right after it was detected, the solver collects all contacts of a step and then iterates over them a number of times, without redoing the collision detection.
+ *
+ * Contacts are kept across steps (keyed by the body pair) for as long as the bodies stay in contact. The impulses accumulated by a contact point in the last step are used to warm start the point in the next step, which lets stacks converge with only a few velocity iterations per step. Overlap is removed with a Baumgarte velocity bias (allowing a small slop), so that resting contacts persist between steps.
+ */
+public class SequentialImpulseSolver {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/***
+	 * A persistent contact between two bodies, with up to two contact points.
+	 */
+	public static class ContactConstraint {
+
+		/** A copy of the last detected manifold. The impulse fields hold the total normal impulse applied in the last step. */
+		public final ContactManifold manifold = new ContactManifold();
+
+		long key;
+		boolean isTouched;
+
+		float friction;
+		float restitution;
+
+		final float[] localAnchorX = new float[2];
+		final float[] localAnchorY = new float[2];
+
+		final float[] normalImpulse = new float[2];
+		final float[] tangentImpulse = new float[2];
+
+		// per-step solver data
+		final float[] rAX = new float[2];
+		final float[] rAY = new float[2];
+		final float[] rBX = new float[2];
+		final float[] rBY = new float[2];
+		final float[] normalMass = new float[2];
+		final float[] tangentMass = new float[2];
+		final float[] velocityBias = new float[2];
+
+		// the two-point block matrix K and its inverse (only valid if useBlockSolver)
+		boolean useBlockSolver;
+		float k11, k12, k22;
+		float invK11, invK12, invK22;
+
+		public float normalImpulse(int contactIndex) {
+			return normalImpulse[contactIndex];
+		}
+
+		public float tangentImpulse(int contactIndex) {
+			return tangentImpulse[contactIndex];
+		}
+	}
+
+	/***
+	 * An open addressing hash table (linear probing) which maps the key of a body pair to its contact. The keys are stored in a primitive array, so the lookups of each step don't box them. Removed entries are deleted by shifting the following entries of the probe sequence back, so no tombstones build up as contacts come and go.
+	 */
+	private static final class ConstraintTable {
+
+		private static final int MIN_CAPACITY = 64;
+
+		private long[] mKeys;
+		private ContactConstraint[] mValues; // null marks an empty slot
+		private int mSize;
+
+		ConstraintTable() {
+			allocate(MIN_CAPACITY);
+		}
+
+		ContactConstraint get(long key) {
+			final int lMask = mKeys.length - 1;
+
+			int lIndex = hash(key) & lMask;
+			while (mValues[lIndex] != null) {
+				if (mKeys[lIndex] == key)
+					return mValues[lIndex];
+
+				lIndex = (lIndex + 1) & lMask;
+			}
+
+			return null;
+		}
+
+		void put(long key, ContactConstraint value) {
+			if ((mSize + 1) * 2 > mKeys.length)
+				resize(mKeys.length * 2);
+
+			if (insert(key, value))
+				mSize++;
+		}
+
+		void remove(long key) {
+			final int lMask = mKeys.length - 1;
+
+			int lIndex = hash(key) & lMask;
+			while (mValues[lIndex] != null) {
+				if (mKeys[lIndex] == key)
+					break;
+
+				lIndex = (lIndex + 1) & lMask;
+			}
+
+			if (mValues[lIndex] == null)
+				return;
+
+			// shift the entries of the probe sequence which follow back into the hole
+			int lHole = lIndex;
+			int lNext = lIndex;
+			while (true) {
+				lNext = (lNext + 1) & lMask;
+				if (mValues[lNext] == null)
+					break;
+
+				final int lHome = hash(mKeys[lNext]) & lMask;
+
+				// the entry can only move into the hole if its home slot isn't (cyclically) between the hole and its current slot
+				final boolean lStays = lHole <= lNext ? (lHole < lHome && lHome <= lNext) : (lHole < lHome || lHome <= lNext);
+				if (lStays)
+					continue;
+
+				mKeys[lHole] = mKeys[lNext];
+				mValues[lHole] = mValues[lNext];
+				lHole = lNext;
+			}
+
+			mValues[lHole] = null;
+			mSize--;
+		}
+
+		private boolean insert(long key, ContactConstraint value) {
+			final int lMask = mKeys.length - 1;
+
+			int lIndex = hash(key) & lMask;
+			while (mValues[lIndex] != null) {
+				if (mKeys[lIndex] == key) {
+					mValues[lIndex] = value;
+					return false;
+				}
+
+				lIndex = (lIndex + 1) & lMask;
+			}
+
+			mKeys[lIndex] = key;
+			mValues[lIndex] = value;
+			return true;
+		}
+
+		private void resize(int capacity) {
+			final var lOldKeys = mKeys;
+			final var lOldValues = mValues;
+
+			allocate(capacity);
+
+			for (int i = 0; i < lOldKeys.length; i++) {
+				if (lOldValues[i] != null)
+					insert(lOldKeys[i], lOldValues[i]);
+			}
+		}
+
+		private void allocate(int capacity) {
+			mKeys = new long[capacity];
+			mValues = new ContactConstraint[capacity];
+		}
+
+		private static int hash(long key) {
+			final long lHash = key * 0x9E3779B97F4A7C15L;
+			return (int) (lHash ^ (lHash >>> 32));
+		}
+	}
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	/** The fraction of the overlap which is removed each step. */
+	private static final float BAUMGARTE = .2f;
+
+	/** The overlap allowed before position correction kicks in, so that resting contacts persist. */
+	private static final float LINEAR_SLOP = .01f;
+
+	/** The approach speed (units/s) below which contacts are treated as inelastic. */
+	private static final float RESTITUTION_VELOCITY_THRESHOLD = 1.f;
+
+	/** The maximum condition number of the two-point block matrix before the solver falls back to solving the points one at a time. */
+	private static final float MAX_BLOCK_CONDITION_NUMBER = 1000.f;
+
+	/** Contact points within this distance (in the local space of body A) of a point from the last step are considered the same feature and inherit its impulses. */
+	private static final float WARM_START_MATCH_DISTANCE = .1f;
+
+	private static final Comparator<ContactConstraint> CONSTRAINT_WORLD_INDEX_ORDER = (a, b) -> {
+		final int lCompare = Integer.compare(minWorldIndex(a), minWorldIndex(b));
+		return lCompare != 0 ? lCompare : Integer.compare(maxWorldIndex(a), maxWorldIndex(b));
+	};
+
+	// --------------------------------------
+	// Variables
+	// --------------------------------------
+
+	private final ConstraintTable mConstraintTable = new ConstraintTable();
+	private final List<ContactConstraint> mConstraints = new ArrayList<>();
+	private final List<ContactConstraint> mConstraintPool = new ArrayList<>();
+
+	private boolean mWarmStarting = true;
+
+	// --------------------------------------
+	// Properties
+	// --------------------------------------
+
+	public int numConstraints() {
+		return mConstraints.size();
+	}
+
+	public ContactConstraint getConstraint(int index) {
+		return mConstraints.get(index);
+	}
+
+	public boolean warmStarting() {
+		return mWarmStarting;
+	}
+
+	/***
+	 * Enables or disables warm starting with the impulses of the last step (enabled by default).
+	 */
+	public void warmStarting(boolean warmStarting) {
+		mWarmStarting = warmStarting;
+	}
+
+	// --------------------------------------
+	// Methods
+	// --------------------------------------
+
+	/***
+	 * Marks all persistent contacts as untouched. Contacts which are not reported again with {@link #addContact(ContactManifold)} before {@link #endContacts()} are removed.
+	 */
+	public void beginContacts() {
+		final var lNumConstraints = mConstraints.size();
+		for (int i = 0; i < lNumConstraints; i++)
+			mConstraints.get(i).isTouched = false;
+	}
+
+	/***
+	 * Adds (or updates) the persistent contact for the bodies of the given manifold. The manifold is copied and can be re-used by the caller.
+	 */
+	public ContactConstraint addContact(ContactManifold manifold) {
+		final var lBodyA = manifold.bodyA;
+		final var lBodyB = manifold.bodyB;
+		final var lKey = pairKey(lBodyA, lBodyB);
+
+		var lConstraint = mConstraintTable.get(lKey);
+		if (lConstraint == null) {
+			lConstraint = obtainConstraint();
+			lConstraint.key = lKey;
+			lConstraint.normalImpulse[0] = lConstraint.normalImpulse[1] = 0.f;
+			lConstraint.tangentImpulse[0] = lConstraint.tangentImpulse[1] = 0.f;
+			lConstraint.manifold.contactCount = 0;
+			lConstraint.manifold.bodyA = lBodyA;
+			lConstraint.manifold.bodyB = lBodyB;
+
+			mConstraintTable.put(lKey, lConstraint);
+			mConstraints.add(lConstraint);
+		}
+
+		lConstraint.isTouched = true;
+		updateConstraint(lConstraint, manifold);
+
+		return lConstraint;
+	}
+
+	/***
+	 * Removes all contacts which were not reported since the last {@link #beginContacts()}.
+	 */
+	public void endContacts() {
+		for (int i = mConstraints.size() - 1; i >= 0; i--) {
+			final var lConstraint = mConstraints.get(i);
+			if (lConstraint.isTouched)
+				continue;
+
+			removeConstraintAt(i);
+		}
+	}
+
+	public void clear() {
+		for (int i = mConstraints.size() - 1; i >= 0; i--)
+			removeConstraintAt(i);
+	}
+
+	/***
+	 * Sorts the contacts by the {@link RigidBody#_worldIndex} of their bodies. The contacts are otherwise kept in the order they were first added (and shuffled by removals), which depends on the history of the world.
+	 */
+	public void sortConstraintsByWorldIndex() {
+		mConstraints.sort(CONSTRAINT_WORLD_INDEX_ORDER);
+	}
+
+	/***
+	 * Prepares the contacts, applies the warm starting impulses and then runs the given number of velocity iterations over all contacts.
+	 */
+	public void solve(float time, int velocityIterations) {
+		if (time <= 0.f)
+			return;
+
+		final var lNumConstraints = mConstraints.size();
+		for (int i = 0; i < lNumConstraints; i++)
+			preStep(mConstraints.get(i), 1.f / time);
+
+		for (int it = 0; it < velocityIterations; it++) {
+			for (int i = 0; i < lNumConstraints; i++)
+				solveVelocity(mConstraints.get(i));
+		}
+
+		for (int i = 0; i < lNumConstraints; i++) {
+			final var lConstraint = mConstraints.get(i);
+			final var lManifold = lConstraint.manifold;
+			final var lTotalNormalImpulse = lConstraint.normalImpulse[0] + lConstraint.normalImpulse[1];
+
+			lManifold.impulseX = lTotalNormalImpulse * lManifold.normal.x;
+			lManifold.impulseY = lTotalNormalImpulse * lManifold.normal.y;
+		}
+	}
+
+	// ---
+
+	private void updateConstraint(ContactConstraint constraint, ContactManifold manifold) {
+		final var lStored = constraint.manifold;
+
+		// the broad phase doesn't guarantee the order of the bodies in a pair, so keep the order of the first report
+		final var lIsFlipped = manifold.bodyA != lStored.bodyA;
+		final var lNormalSign = lIsFlipped ? -1.f : 1.f;
+
+		lStored.isIntersecting = manifold.isIntersecting;
+		lStored.enableResolveContact = manifold.enableResolveContact;
+		lStored.depth = manifold.depth;
+		lStored.normal.set(manifold.normal.x * lNormalSign, manifold.normal.y * lNormalSign);
+
+		final var lShapeA = lStored.bodyA.shape();
+		final var lShapeB = lStored.bodyB.shape();
+		constraint.friction = (lShapeA.staticFriction() + lShapeB.staticFriction()) * .5f;
+		constraint.restitution = Math.min(lShapeA.restitution(), lShapeB.restitution());
+
+		final var lTransformA = lStored.bodyA.transform;
+		final var lOldContactCount = lStored.contactCount;
+		final var lOldAnchor0X = constraint.localAnchorX[0];
+		final var lOldAnchor0Y = constraint.localAnchorY[0];
+		final var lOldAnchor1X = constraint.localAnchorX[1];
+		final var lOldAnchor1Y = constraint.localAnchorY[1];
+		final var lOldNormalImpulse0 = constraint.normalImpulse[0];
+		final var lOldNormalImpulse1 = constraint.normalImpulse[1];
+		final var lOldTangentImpulse0 = constraint.tangentImpulse[0];
+		final var lOldTangentImpulse1 = constraint.tangentImpulse[1];
+
+		final var lMatchDistance2 = WARM_START_MATCH_DISTANCE * WARM_START_MATCH_DISTANCE;
+
+		final var lContactCount = manifold.contactCount;
+		for (int i = 0; i < lContactCount; i++) {
+			final var lContact = i == 0 ? manifold.contact1 : manifold.contact2;
+			(i == 0 ? lStored.contact1 : lStored.contact2).set(lContact.x, lContact.y);
+
+			// the contact point in the local space of body A
+			final var dx = lContact.x - lTransformA.p.x;
+			final var dy = lContact.y - lTransformA.p.y;
+			final var lLocalX = lTransformA.q.c * dx + lTransformA.q.s * dy;
+			final var lLocalY = -lTransformA.q.s * dx + lTransformA.q.c * dy;
+
+			constraint.localAnchorX[i] = lLocalX;
+			constraint.localAnchorY[i] = lLocalY;
+			constraint.normalImpulse[i] = 0.f;
+			constraint.tangentImpulse[i] = 0.f;
+
+			if (!mWarmStarting)
+				continue;
+
+			if (lOldContactCount > 0 && distance2(lLocalX, lLocalY, lOldAnchor0X, lOldAnchor0Y) < lMatchDistance2) {
+				constraint.normalImpulse[i] = lOldNormalImpulse0;
+				constraint.tangentImpulse[i] = lOldTangentImpulse0;
+			} else if (lOldContactCount > 1 && distance2(lLocalX, lLocalY, lOldAnchor1X, lOldAnchor1Y) < lMatchDistance2) {
+				constraint.normalImpulse[i] = lOldNormalImpulse1;
+				constraint.tangentImpulse[i] = lOldTangentImpulse1;
+			}
+		}
+
+		for (int i = lContactCount; i < 2; i++) {
+			constraint.normalImpulse[i] = 0.f;
+			constraint.tangentImpulse[i] = 0.f;
+		}
+
+		lStored.contactCount = lContactCount;
+	}
+
+	private void preStep(ContactConstraint constraint, float inverseTime) {
+		final var lManifold = constraint.manifold;
+		final var lBodyA = lManifold.bodyA;
+		final var lBodyB = lManifold.bodyB;
+
+		final var lInvMassA = invMass(lBodyA);
+		final var lInvMassB = invMass(lBodyB);
+		final var lInvInertiaA = invInertia(lBodyA);
+		final var lInvInertiaB = invInertia(lBodyB);
+
+		final var nx = lManifold.normal.x;
+		final var ny = lManifold.normal.y;
+		final var tx = ny;
+		final var ty = -nx;
+
+		final var lPositionBias = BAUMGARTE * inverseTime * Math.max(0.f, lManifold.depth - LINEAR_SLOP);
+
+		final var lContactCount = lManifold.contactCount;
+		for (int i = 0; i < lContactCount; i++) {
+			final var lContact = i == 0 ? lManifold.contact1 : lManifold.contact2;
+
+			final var rAX = lContact.x - lBodyA.transform.p.x;
+			final var rAY = lContact.y - lBodyA.transform.p.y;
+			final var rBX = lContact.x - lBodyB.transform.p.x;
+			final var rBY = lContact.y - lBodyB.transform.p.y;
+
+			constraint.rAX[i] = rAX;
+			constraint.rAY[i] = rAY;
+			constraint.rBX[i] = rBX;
+			constraint.rBY[i] = rBY;
+
+			final var rnA = Vector2f.cross(rAX, rAY, nx, ny);
+			final var rnB = Vector2f.cross(rBX, rBY, nx, ny);
+			final var lNormalK = lInvMassA + lInvMassB + lInvInertiaA * rnA * rnA + lInvInertiaB * rnB * rnB;
+			constraint.normalMass[i] = lNormalK > 0.f ? 1.f / lNormalK : 0.f;
+
+			final var rtA = Vector2f.cross(rAX, rAY, tx, ty);
+			final var rtB = Vector2f.cross(rBX, rBY, tx, ty);
+			final var lTangentK = lInvMassA + lInvMassB + lInvInertiaA * rtA * rtA + lInvInertiaB * rtB * rtB;
+			constraint.tangentMass[i] = lTangentK > 0.f ? 1.f / lTangentK : 0.f;
+
+			// relative velocity at the contact point
+			final var dvX = lBodyB.vx - lBodyB.angularVelocity * rBY - lBodyA.vx + lBodyA.angularVelocity * rAY;
+			final var dvY = lBodyB.vy + lBodyB.angularVelocity * rBX - lBodyA.vy - lBodyA.angularVelocity * rAX;
+			final var vn = Vector2f.dot(dvX, dvY, nx, ny);
+
+			var lVelocityBias = lPositionBias;
+			if (vn < -RESTITUTION_VELOCITY_THRESHOLD)
+				lVelocityBias += -constraint.restitution * vn;
+
+			constraint.velocityBias[i] = lVelocityBias;
+
+			if (mWarmStarting) {
+				final var px = constraint.normalImpulse[i] * nx + constraint.tangentImpulse[i] * tx;
+				final var py = constraint.normalImpulse[i] * ny + constraint.tangentImpulse[i] * ty;
+				applyImpulse(lBodyA, lBodyB, lInvMassA, lInvMassB, lInvInertiaA, lInvInertiaB, rAX, rAY, rBX, rBY, px, py);
+			} else {
+				constraint.normalImpulse[i] = 0.f;
+				constraint.tangentImpulse[i] = 0.f;
+			}
+		}
+
+		constraint.useBlockSolver = false;
+		if (lContactCount == 2) {
+			final var rn1A = Vector2f.cross(constraint.rAX[0], constraint.rAY[0], nx, ny);
+			final var rn1B = Vector2f.cross(constraint.rBX[0], constraint.rBY[0], nx, ny);
+			final var rn2A = Vector2f.cross(constraint.rAX[1], constraint.rAY[1], nx, ny);
+			final var rn2B = Vector2f.cross(constraint.rBX[1], constraint.rBY[1], nx, ny);
+
+			final var k11 = lInvMassA + lInvMassB + lInvInertiaA * rn1A * rn1A + lInvInertiaB * rn1B * rn1B;
+			final var k22 = lInvMassA + lInvMassB + lInvInertiaA * rn2A * rn2A + lInvInertiaB * rn2B * rn2B;
+			final var k12 = lInvMassA + lInvMassB + lInvInertiaA * rn1A * rn2A + lInvInertiaB * rn1B * rn2B;
+			final var lDeterminant = k11 * k22 - k12 * k12;
+
+			// only use the block solver if K is well conditioned
+			if (k11 * k11 < MAX_BLOCK_CONDITION_NUMBER * lDeterminant) {
+				constraint.useBlockSolver = true;
+				constraint.k11 = k11;
+				constraint.k12 = k12;
+				constraint.k22 = k22;
+
+				final var lInvDeterminant = 1.f / lDeterminant;
+				constraint.invK11 = k22 * lInvDeterminant;
+				constraint.invK12 = -k12 * lInvDeterminant;
+				constraint.invK22 = k11 * lInvDeterminant;
+			}
+		}
+	}
+
+	private void solveVelocity(ContactConstraint constraint) {
+		final var lManifold = constraint.manifold;
+		final var lBodyA = lManifold.bodyA;
+		final var lBodyB = lManifold.bodyB;
+
+		final var lInvMassA = invMass(lBodyA);
+		final var lInvMassB = invMass(lBodyB);
+		final var lInvInertiaA = invInertia(lBodyA);
+		final var lInvInertiaB = invInertia(lBodyB);
+
+		final var nx = lManifold.normal.x;
+		final var ny = lManifold.normal.y;
+		final var tx = ny;
+		final var ty = -nx;
+
+		final var lContactCount = lManifold.contactCount;
+
+		// friction first, as the non-penetration is more important
+		for (int i = 0; i < lContactCount; i++) {
+			final var rAX = constraint.rAX[i];
+			final var rAY = constraint.rAY[i];
+			final var rBX = constraint.rBX[i];
+			final var rBY = constraint.rBY[i];
+
+			final var dvX = lBodyB.vx - lBodyB.angularVelocity * rBY - lBodyA.vx + lBodyA.angularVelocity * rAY;
+			final var dvY = lBodyB.vy + lBodyB.angularVelocity * rBX - lBodyA.vy - lBodyA.angularVelocity * rAX;
+			final var vt = Vector2f.dot(dvX, dvY, tx, ty);
+
+			final var lMaxFriction = constraint.friction * constraint.normalImpulse[i];
+			final var lOldImpulse = constraint.tangentImpulse[i];
+			final var lNewImpulse = Math.max(-lMaxFriction, Math.min(lOldImpulse - constraint.tangentMass[i] * vt, lMaxFriction));
+			constraint.tangentImpulse[i] = lNewImpulse;
+
+			final var lLambda = lNewImpulse - lOldImpulse;
+			applyImpulse(lBodyA, lBodyB, lInvMassA, lInvMassB, lInvInertiaA, lInvInertiaB, rAX, rAY, rBX, rBY, lLambda * tx, lLambda * ty);
+		}
+
+		if (constraint.useBlockSolver) {
+			solveNormalBlock(constraint, lBodyA, lBodyB, lInvMassA, lInvMassB, lInvInertiaA, lInvInertiaB, nx, ny);
+			return;
+		}
+
+		for (int i = 0; i < lContactCount; i++) {
+			final var rAX = constraint.rAX[i];
+			final var rAY = constraint.rAY[i];
+			final var rBX = constraint.rBX[i];
+			final var rBY = constraint.rBY[i];
+
+			final var dvX = lBodyB.vx - lBodyB.angularVelocity * rBY - lBodyA.vx + lBodyA.angularVelocity * rAY;
+			final var dvY = lBodyB.vy + lBodyB.angularVelocity * rBX - lBodyA.vy - lBodyA.angularVelocity * rAX;
+			final var vn = Vector2f.dot(dvX, dvY, nx, ny);
+
+			// clamp the accumulated impulse, not the increment, so earlier iterations can be corrected
+			final var lOldImpulse = constraint.normalImpulse[i];
+			final var lNewImpulse = Math.max(lOldImpulse - constraint.normalMass[i] * (vn - constraint.velocityBias[i]), 0.f);
+			constraint.normalImpulse[i] = lNewImpulse;
+
+			final var lLambda = lNewImpulse - lOldImpulse;
+			applyImpulse(lBodyA, lBodyB, lInvMassA, lInvMassB, lInvInertiaA, lInvInertiaB, rAX, rAY, rBX, rBY, lLambda * nx, lLambda * ny);
+		}
+	}
+
+	/***
+	 * Solves the normal impulses of both contact points together (as a 2x2 linear complementarity problem), which avoids the rotation the one-at-a-time solve introduces into resting stacks.
+	 */
+	private static void solveNormalBlock(ContactConstraint constraint, RigidBody bodyA, RigidBody bodyB, float invMassA, float invMassB, float invInertiaA, float invInertiaB, float nx, float ny) {
+		final var r1AX = constraint.rAX[0];
+		final var r1AY = constraint.rAY[0];
+		final var r1BX = constraint.rBX[0];
+		final var r1BY = constraint.rBY[0];
+		final var r2AX = constraint.rAX[1];
+		final var r2AY = constraint.rAY[1];
+		final var r2BX = constraint.rBX[1];
+		final var r2BY = constraint.rBY[1];
+
+		final var dv1X = bodyB.vx - bodyB.angularVelocity * r1BY - bodyA.vx + bodyA.angularVelocity * r1AY;
+		final var dv1Y = bodyB.vy + bodyB.angularVelocity * r1BX - bodyA.vy - bodyA.angularVelocity * r1AX;
+		final var dv2X = bodyB.vx - bodyB.angularVelocity * r2BY - bodyA.vx + bodyA.angularVelocity * r2AY;
+		final var dv2Y = bodyB.vy + bodyB.angularVelocity * r2BX - bodyA.vy - bodyA.angularVelocity * r2AX;
+
+		final var a1 = constraint.normalImpulse[0];
+		final var a2 = constraint.normalImpulse[1];
+
+		// b = vn - bias - K * a
+		final var b1 = Vector2f.dot(dv1X, dv1Y, nx, ny) - constraint.velocityBias[0] - (constraint.k11 * a1 + constraint.k12 * a2);
+		final var b2 = Vector2f.dot(dv2X, dv2Y, nx, ny) - constraint.velocityBias[1] - (constraint.k12 * a1 + constraint.k22 * a2);
+
+		float x1, x2;
+
+		// case 1: both points active
+		x1 = -(constraint.invK11 * b1 + constraint.invK12 * b2);
+		x2 = -(constraint.invK12 * b1 + constraint.invK22 * b2);
+		if (x1 < 0.f || x2 < 0.f) {
+			// case 2: only the first point active
+			x1 = -constraint.normalMass[0] * b1;
+			x2 = 0.f;
+			if (x1 < 0.f || constraint.k12 * x1 + b2 < 0.f) {
+				// case 3: only the second point active
+				x1 = 0.f;
+				x2 = -constraint.normalMass[1] * b2;
+				if (x2 < 0.f || constraint.k12 * x2 + b1 < 0.f) {
+					// case 4: both points separating
+					x1 = 0.f;
+					x2 = 0.f;
+					if (b1 < 0.f || b2 < 0.f)
+						return;
+				}
+			}
+		}
+
+		final var d1 = x1 - a1;
+		final var d2 = x2 - a2;
+		constraint.normalImpulse[0] = x1;
+		constraint.normalImpulse[1] = x2;
+
+		applyImpulse(bodyA, bodyB, invMassA, invMassB, invInertiaA, invInertiaB, r1AX, r1AY, r1BX, r1BY, d1 * nx, d1 * ny);
+		applyImpulse(bodyA, bodyB, invMassA, invMassB, invInertiaA, invInertiaB, r2AX, r2AY, r2BX, r2BY, d2 * nx, d2 * ny);
+	}
+
+	private static void applyImpulse(RigidBody bodyA, RigidBody bodyB, float invMassA, float invMassB, float invInertiaA, float invInertiaB, float rAX, float rAY, float rBX, float rBY, float px, float py) {
+		bodyA.vx -= px * invMassA;
+		bodyA.vy -= py * invMassA;
+		bodyA.angularVelocity -= Vector2f.cross(rAX, rAY, px, py) * invInertiaA;
+
+		bodyB.vx += px * invMassB;
+		bodyB.vy += py * invMassB;
+		bodyB.angularVelocity += Vector2f.cross(rBX, rBY, px, py) * invInertiaB;
+	}
+
+	// only dynamic bodies respond to contact impulses (as with the ICollisionResolvers)
+	private static float invMass(RigidBody body) {
+		return body.bodyType() == BodyType.Dynamic ? body.invMass() : 0.f;
+	}
+
+	private static float invInertia(RigidBody body) {
+		return body.bodyType() == BodyType.Dynamic ? body.invInertia() : 0.f;
+	}
+
+	private static float distance2(float x0, float y0, float x1, float y1) {
+		final var dx = x1 - x0;
+		final var dy = y1 - y0;
+		return dx * dx + dy * dy;
+	}
+
+	private static int minWorldIndex(ContactConstraint constraint) {
+		return Math.min(constraint.manifold.bodyA._worldIndex, constraint.manifold.bodyB._worldIndex);
+	}
+
+	private static int maxWorldIndex(ContactConstraint constraint) {
+		return Math.max(constraint.manifold.bodyA._worldIndex, constraint.manifold.bodyB._worldIndex);
+	}
+
+	private static long pairKey(RigidBody bodyA, RigidBody bodyB) {
+		final long lMin = Math.min(bodyA.uid, bodyB.uid);
+		final long lMax = Math.max(bodyA.uid, bodyB.uid);
+		return (lMin << 32) | lMax;
+	}
+
+	private ContactConstraint obtainConstraint() {
+		if (!mConstraintPool.isEmpty())
+			return mConstraintPool.remove(mConstraintPool.size() - 1);
+
+		return new ContactConstraint();
+	}
+
+	private void removeConstraintAt(int index) {
+		final var lConstraint = mConstraints.get(index);
+		final var lLastIndex = mConstraints.size() - 1;
+		mConstraints.set(index, mConstraints.get(lLastIndex));
+		mConstraints.remove(lLastIndex);
+
+		mConstraintTable.remove(lConstraint.key);
+
+		lConstraint.manifold.bodyA = null;
+		lConstraint.manifold.bodyB = null;
+		mConstraintPool.add(lConstraint);
+	}
+}
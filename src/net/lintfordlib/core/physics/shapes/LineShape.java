@@ -97,8 +97,9 @@ public class LineShape extends BaseShape {
 
 		// CCW winding order
 
-		final var s = (float) Math.sin(rotRadians);
-		final var c = (float) Math.cos(rotRadians);
+		// the local vertices are only computed once, so StrictMath keeps the shape identical on every platform at no cost to the step
+		final var s = (float) StrictMath.sin(rotRadians);
+		final var c = (float) StrictMath.cos(rotRadians);
 
 		final var local_l = new Vector2f(-mWidth * .5f * c, -mWidth * .5f * s);
 		final var local_r = new Vector2f(mWidth * .5f * c, mWidth * .5f * s);
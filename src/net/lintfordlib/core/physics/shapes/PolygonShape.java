@@ -166,8 +166,9 @@ public class PolygonShape extends BaseShape {
 		mHeight = unitHeight;
 		mRadius = (float) Math.sqrt(mWidth * mWidth + mHeight * mHeight) * .5f;
 
-		final var s = (float) Math.sin(rotRadians);
-		final var c = (float) Math.cos(rotRadians);
+		// the local vertices are only computed once, so StrictMath keeps the shape identical on every platform at no cost to the step
+		final var s = (float) StrictMath.sin(rotRadians);
+		final var c = (float) StrictMath.cos(rotRadians);
 
 		final var l = -mWidth * .5f;
 		final var b = mHeight * .5f;
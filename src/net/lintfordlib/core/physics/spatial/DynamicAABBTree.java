@@ -0,0 +1,629 @@
+package net.lintfordlib.core.physics.spatial;
+
+import java.util.Arrays;
+
+/***
+ * A dynamic bounding volume hierarchy of axis-aligned bounding boxes (after Box2D's b2DynamicTree). Leaves store 'fat' AABBs, which are enlarged by {@link #AABB_EXTENSION}, so that objects can move a small amount without the tree needing to be updated. The tree is re-balanced with rotations as leaves are inserted and removed.
+ *
+ * Nodes are stored in flat primitive arrays and referenced by index (proxy ids are the leaf node indices).
+ */
+public class DynamicAABBTree<T> {
+
+	// ---------------------------------------------
+	// Inner-Classes
+	// ---------------------------------------------
+
+	private static class TraversalStack {
+		int[] nodes = new int[64];
+		int top; // the first free entry, nested queries (from within a callback) continue above the entries of the outer query
+	}
+
+	// ---------------------------------------------
+	// Constants
+	// ---------------------------------------------
+
+	public static final int NULL_NODE = -1;
+
+	/** The amount (in units) by which the AABBs of leaves are enlarged. */
+	public static final float AABB_EXTENSION = .1f;
+
+	/** Predictive multiplier applied to the displacement given to {@link #moveProxy(int, float, float, float, float, float, float)}. */
+	public static final float AABB_MULTIPLIER = 4.f;
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	// ---------------------------------------------
+	// Variables
+	// ---------------------------------------------
+
+	private float[] mMinX;
+	private float[] mMinY;
+	private float[] mMaxX;
+	private float[] mMaxY;
+
+	private int[] mParent; // also used as the next pointer in the free list
+	private int[] mChild1;
+	private int[] mChild2;
+	private int[] mHeight; // leaf = 0, free node = -1
+
+	private Object[] mUserData;
+
+	private int mRoot = NULL_NODE;
+	private int mNodeCount;
+	private int mNodeCapacity;
+	private int mFreeList;
+
+	// each querying thread has its own traversal stack, so queries can run concurrently (and nested) while the tree isn't modified
+	private final ThreadLocal<TraversalStack> mTraversalStacks = ThreadLocal.withInitial(TraversalStack::new);
+
+	// ---------------------------------------------
+	// Properties
+	// ---------------------------------------------
+
+	public int root() {
+		return mRoot;
+	}
+
+	public int nodeCount() {
+		return mNodeCount;
+	}
+
+	public int nodeCapacity() {
+		return mNodeCapacity;
+	}
+
+	public int height() {
+		return mRoot == NULL_NODE ? 0 : mHeight[mRoot];
+	}
+
+	public boolean isLeaf(int proxyId) {
+		return mHeight[proxyId] == 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T getUserData(int proxyId) {
+		return (T) mUserData[proxyId];
+	}
+
+	public float fatMinX(int proxyId) {
+		return mMinX[proxyId];
+	}
+
+	public float fatMinY(int proxyId) {
+		return mMinY[proxyId];
+	}
+
+	public float fatMaxX(int proxyId) {
+		return mMaxX[proxyId];
+	}
+
+	public float fatMaxY(int proxyId) {
+		return mMaxY[proxyId];
+	}
+
+	// ---------------------------------------------
+	// Constructor
+	// ---------------------------------------------
+
+	public DynamicAABBTree() {
+		mNodeCapacity = INITIAL_CAPACITY;
+		allocateNodeArrays(mNodeCapacity);
+		buildFreeList(0);
+	}
+
+	// ---------------------------------------------
+	// Methods
+	// ---------------------------------------------
+
+	/***
+	 * Creates a new leaf in the tree for the given AABB.
+	 *
+	 * @return The proxy id of the new leaf.
+	 */
+	public int createProxy(float minX, float minY, float maxX, float maxY, T userData) {
+		final int lProxyId = allocateNode();
+
+		mMinX[lProxyId] = minX - AABB_EXTENSION;
+		mMinY[lProxyId] = minY - AABB_EXTENSION;
+		mMaxX[lProxyId] = maxX + AABB_EXTENSION;
+		mMaxY[lProxyId] = maxY + AABB_EXTENSION;
+		mUserData[lProxyId] = userData;
+		mHeight[lProxyId] = 0;
+
+		insertLeaf(lProxyId);
+
+		return lProxyId;
+	}
+
+	public void destroyProxy(int proxyId) {
+		assert (proxyId >= 0 && proxyId < mNodeCapacity && isLeaf(proxyId)) : "Invalid proxy id";
+
+		removeLeaf(proxyId);
+		freeNode(proxyId);
+	}
+
+	/***
+	 * Updates the AABB of a leaf. The leaf is only re-inserted into the tree if the new AABB has left the fat AABB of the leaf.
+	 *
+	 * @return true if the leaf was re-inserted, otherwise false.
+	 */
+	public boolean moveProxy(int proxyId, float minX, float minY, float maxX, float maxY, float displacementX, float displacementY) {
+		assert (proxyId >= 0 && proxyId < mNodeCapacity && isLeaf(proxyId)) : "Invalid proxy id";
+
+		if (mMinX[proxyId] <= minX && mMinY[proxyId] <= minY && maxX <= mMaxX[proxyId] && maxY <= mMaxY[proxyId])
+			return false;
+
+		removeLeaf(proxyId);
+
+		var lFatMinX = minX - AABB_EXTENSION;
+		var lFatMinY = minY - AABB_EXTENSION;
+		var lFatMaxX = maxX + AABB_EXTENSION;
+		var lFatMaxY = maxY + AABB_EXTENSION;
+
+		// extend the AABB in the direction of travel
+		final var lDx = AABB_MULTIPLIER * displacementX;
+		final var lDy = AABB_MULTIPLIER * displacementY;
+
+		if (lDx < 0.f)
+			lFatMinX += lDx;
+		else
+			lFatMaxX += lDx;
+
+		if (lDy < 0.f)
+			lFatMinY += lDy;
+		else
+			lFatMaxY += lDy;
+
+		mMinX[proxyId] = lFatMinX;
+		mMinY[proxyId] = lFatMinY;
+		mMaxX[proxyId] = lFatMaxX;
+		mMaxY[proxyId] = lFatMaxY;
+
+		insertLeaf(proxyId);
+		return true;
+	}
+
+	/***
+	 * Reports all leaves whose fat AABBs overlap the given AABB to the callback.
+	 */
+	public void queryAABB(float minX, float minY, float maxX, float maxY, IDynamicTreeQueryCallback<T> callback) {
+		final var lTraversalStack = mTraversalStacks.get();
+		final int lStackBase = lTraversalStack.top;
+		var lStack = lTraversalStack.nodes;
+		if (lStackBase + 1 > lStack.length)
+			lStack = lTraversalStack.nodes = Arrays.copyOf(lStack, lStack.length * 2);
+
+		int lStackCount = lStackBase;
+		lStack[lStackCount++] = mRoot;
+
+		try {
+			while (lStackCount > lStackBase) {
+				final int lNodeId = lStack[--lStackCount];
+				if (lNodeId == NULL_NODE)
+					continue;
+
+				if (mMinX[lNodeId] > maxX || mMaxX[lNodeId] < minX || mMinY[lNodeId] > maxY || mMaxY[lNodeId] < minY)
+					continue;
+
+				if (mHeight[lNodeId] == 0) {
+					lTraversalStack.top = lStackCount;
+					if (!callback.reportProxy(lNodeId, getUserData(lNodeId)))
+						return;
+
+					lStack = lTraversalStack.nodes;
+					continue;
+				}
+
+				if (lStackCount + 2 > lStack.length)
+					lStack = lTraversalStack.nodes = Arrays.copyOf(lStack, lStack.length * 2);
+
+				lStack[lStackCount++] = mChild1[lNodeId];
+				lStack[lStackCount++] = mChild2[lNodeId];
+			}
+		} finally {
+			lTraversalStack.top = lStackBase;
+		}
+	}
+
+	/***
+	 * Reports all leaves whose fat AABBs contain the given point to the callback.
+	 */
+	public void queryPoint(float x, float y, IDynamicTreeQueryCallback<T> callback) {
+		queryAABB(x, y, x, y, callback);
+	}
+
+	/***
+	 * Casts a ray from p1 to p2 through the tree. Each leaf whose fat AABB is crossed by the ray (clipped to the current max fraction) is reported to the callback.
+	 */
+	public void raycast(float p1x, float p1y, float p2x, float p2y, IDynamicTreeRaycastCallback<T> callback) {
+		raycast(p1x, p1y, p2x, p2y, 0.f, callback);
+	}
+
+	/***
+	 * Casts a ray with the given radius (i.e. sweeps a circle) from p1 to p2 through the tree. Each leaf whose fat AABB, enlarged by the radius, is crossed by the ray (clipped to the current max fraction) is reported to the callback.
+	 */
+	public void raycast(float p1x, float p1y, float p2x, float p2y, float radius, IDynamicTreeRaycastCallback<T> callback) {
+		var lRayX = p2x - p1x;
+		var lRayY = p2y - p1y;
+		final var lRayLength = (float) Math.sqrt(lRayX * lRayX + lRayY * lRayY);
+		if (lRayLength <= 0.f)
+			return;
+
+		lRayX /= lRayLength;
+		lRayY /= lRayLength;
+
+		// v is perpendicular to the segment
+		final var lVX = -lRayY;
+		final var lVY = lRayX;
+		final var lAbsVX = Math.abs(lVX);
+		final var lAbsVY = Math.abs(lVY);
+
+		float lMaxFraction = 1.f;
+
+		// the segment bounds are enlarged by the radius instead of each node
+		float lSegMinX = Math.min(p1x, p2x) - radius;
+		float lSegMinY = Math.min(p1y, p2y) - radius;
+		float lSegMaxX = Math.max(p1x, p2x) + radius;
+		float lSegMaxY = Math.max(p1y, p2y) + radius;
+
+		final var lTraversalStack = mTraversalStacks.get();
+		final int lStackBase = lTraversalStack.top;
+		var lStack = lTraversalStack.nodes;
+		if (lStackBase + 1 > lStack.length)
+			lStack = lTraversalStack.nodes = Arrays.copyOf(lStack, lStack.length * 2);
+
+		int lStackCount = lStackBase;
+		lStack[lStackCount++] = mRoot;
+
+		try {
+			while (lStackCount > lStackBase) {
+				final int lNodeId = lStack[--lStackCount];
+				if (lNodeId == NULL_NODE)
+					continue;
+
+				if (mMinX[lNodeId] > lSegMaxX || mMaxX[lNodeId] < lSegMinX || mMinY[lNodeId] > lSegMaxY || mMaxY[lNodeId] < lSegMinY)
+					continue;
+
+				// separating axis for segment: |dot(v, p1 - c)| > dot(|v|, h)
+				final var lCenterX = (mMinX[lNodeId] + mMaxX[lNodeId]) * .5f;
+				final var lCenterY = (mMinY[lNodeId] + mMaxY[lNodeId]) * .5f;
+				final var lHalfX = (mMaxX[lNodeId] - mMinX[lNodeId]) * .5f + radius;
+				final var lHalfY = (mMaxY[lNodeId] - mMinY[lNodeId]) * .5f + radius;
+				final var lSeparation = Math.abs(lVX * (p1x - lCenterX) + lVY * (p1y - lCenterY)) - (lAbsVX * lHalfX + lAbsVY * lHalfY);
+				if (lSeparation > 0.f)
+					continue;
+
+				if (mHeight[lNodeId] == 0) {
+					lTraversalStack.top = lStackCount;
+					final var lValue = callback.reportRayProxy(lNodeId, getUserData(lNodeId), p1x, p1y, p2x, p2y, lMaxFraction);
+					lStack = lTraversalStack.nodes;
+
+					if (lValue == 0.f)
+						return; // client terminated the ray cast
+
+					if (lValue > 0.f) {
+						// client clipped the ray
+						lMaxFraction = lValue;
+
+						final var lTX = p1x + lMaxFraction * (p2x - p1x);
+						final var lTY = p1y + lMaxFraction * (p2y - p1y);
+						lSegMinX = Math.min(p1x, lTX) - radius;
+						lSegMinY = Math.min(p1y, lTY) - radius;
+						lSegMaxX = Math.max(p1x, lTX) + radius;
+						lSegMaxY = Math.max(p1y, lTY) + radius;
+					}
+
+					continue;
+				}
+
+				if (lStackCount + 2 > lStack.length)
+					lStack = lTraversalStack.nodes = Arrays.copyOf(lStack, lStack.length * 2);
+
+				lStack[lStackCount++] = mChild1[lNodeId];
+				lStack[lStackCount++] = mChild2[lNodeId];
+			}
+		} finally {
+			lTraversalStack.top = lStackBase;
+		}
+	}
+
+	// ---
+
+	private void insertLeaf(int leaf) {
+		if (mRoot == NULL_NODE) {
+			mRoot = leaf;
+			mParent[leaf] = NULL_NODE;
+			return;
+		}
+
+		final var lLeafMinX = mMinX[leaf];
+		final var lLeafMinY = mMinY[leaf];
+		final var lLeafMaxX = mMaxX[leaf];
+		final var lLeafMaxY = mMaxY[leaf];
+
+		// find the best sibling for the new leaf (surface area heuristic, using the perimeter in 2d)
+		int lIndex = mRoot;
+		while (mHeight[lIndex] > 0) {
+			final int lChild1 = mChild1[lIndex];
+			final int lChild2 = mChild2[lIndex];
+
+			final var lArea = perimeter(mMinX[lIndex], mMinY[lIndex], mMaxX[lIndex], mMaxY[lIndex]);
+			final var lCombinedArea = combinedPerimeter(lIndex, lLeafMinX, lLeafMinY, lLeafMaxX, lLeafMaxY);
+
+			// cost of creating a new parent for this node and the new leaf
+			final var lCost = 2.f * lCombinedArea;
+
+			// minimum cost of pushing the leaf further down the tree
+			final var lInheritanceCost = 2.f * (lCombinedArea - lArea);
+
+			final var lCost1 = descendCost(lChild1, lLeafMinX, lLeafMinY, lLeafMaxX, lLeafMaxY) + lInheritanceCost;
+			final var lCost2 = descendCost(lChild2, lLeafMinX, lLeafMinY, lLeafMaxX, lLeafMaxY) + lInheritanceCost;
+
+			if (lCost < lCost1 && lCost < lCost2)
+				break;
+
+			lIndex = lCost1 < lCost2 ? lChild1 : lChild2;
+		}
+
+		final int lSibling = lIndex;
+
+		// create a new parent
+		final int lOldParent = mParent[lSibling];
+		final int lNewParent = allocateNode();
+		mParent[lNewParent] = lOldParent;
+		mUserData[lNewParent] = null;
+		mMinX[lNewParent] = Math.min(lLeafMinX, mMinX[lSibling]);
+		mMinY[lNewParent] = Math.min(lLeafMinY, mMinY[lSibling]);
+		mMaxX[lNewParent] = Math.max(lLeafMaxX, mMaxX[lSibling]);
+		mMaxY[lNewParent] = Math.max(lLeafMaxY, mMaxY[lSibling]);
+		mHeight[lNewParent] = mHeight[lSibling] + 1;
+
+		if (lOldParent != NULL_NODE) {
+			if (mChild1[lOldParent] == lSibling)
+				mChild1[lOldParent] = lNewParent;
+			else
+				mChild2[lOldParent] = lNewParent;
+		} else {
+			mRoot = lNewParent;
+		}
+
+		mChild1[lNewParent] = lSibling;
+		mChild2[lNewParent] = leaf;
+		mParent[lSibling] = lNewParent;
+		mParent[leaf] = lNewParent;
+
+		refitAncestors(mParent[leaf]);
+	}
+
+	private void removeLeaf(int leaf) {
+		if (leaf == mRoot) {
+			mRoot = NULL_NODE;
+			return;
+		}
+
+		final int lParent = mParent[leaf];
+		final int lGrandParent = mParent[lParent];
+		final int lSibling = mChild1[lParent] == leaf ? mChild2[lParent] : mChild1[lParent];
+
+		if (lGrandParent != NULL_NODE) {
+			// destroy parent and connect sibling to grandparent
+			if (mChild1[lGrandParent] == lParent)
+				mChild1[lGrandParent] = lSibling;
+			else
+				mChild2[lGrandParent] = lSibling;
+
+			mParent[lSibling] = lGrandParent;
+			freeNode(lParent);
+
+			refitAncestors(lGrandParent);
+		} else {
+			mRoot = lSibling;
+			mParent[lSibling] = NULL_NODE;
+			freeNode(lParent);
+		}
+	}
+
+	private void refitAncestors(int index) {
+		while (index != NULL_NODE) {
+			index = balance(index);
+
+			final int lChild1 = mChild1[index];
+			final int lChild2 = mChild2[index];
+
+			mHeight[index] = 1 + Math.max(mHeight[lChild1], mHeight[lChild2]);
+			combine(index, lChild1, lChild2);
+
+			index = mParent[index];
+		}
+	}
+
+	/***
+	 * Performs a left or right rotation if node A is imbalanced.
+	 *
+	 * @return the new root index of the sub-tree.
+	 */
+	private int balance(int iA) {
+		if (mHeight[iA] < 2)
+			return iA;
+
+		final int iB = mChild1[iA];
+		final int iC = mChild2[iA];
+
+		final int lBalance = mHeight[iC] - mHeight[iB];
+
+		// rotate C up
+		if (lBalance > 1) {
+			final int iF = mChild1[iC];
+			final int iG = mChild2[iC];
+
+			// swap A and C
+			mChild1[iC] = iA;
+			mParent[iC] = mParent[iA];
+			mParent[iA] = iC;
+
+			// A's old parent should point to C
+			replaceChild(mParent[iC], iA, iC);
+
+			if (mHeight[iF] > mHeight[iG]) {
+				mChild2[iC] = iF;
+				mChild2[iA] = iG;
+				mParent[iG] = iA;
+				combine(iA, iB, iG);
+				combine(iC, iA, iF);
+
+				mHeight[iA] = 1 + Math.max(mHeight[iB], mHeight[iG]);
+				mHeight[iC] = 1 + Math.max(mHeight[iA], mHeight[iF]);
+			} else {
+				mChild2[iC] = iG;
+				mChild2[iA] = iF;
+				mParent[iF] = iA;
+				combine(iA, iB, iF);
+				combine(iC, iA, iG);
+
+				mHeight[iA] = 1 + Math.max(mHeight[iB], mHeight[iF]);
+				mHeight[iC] = 1 + Math.max(mHeight[iA], mHeight[iG]);
+			}
+
+			return iC;
+		}
+
+		// rotate B up
+		if (lBalance < -1) {
+			final int iD = mChild1[iB];
+			final int iE = mChild2[iB];
+
+			// swap A and B
+			mChild1[iB] = iA;
+			mParent[iB] = mParent[iA];
+			mParent[iA] = iB;
+
+			// A's old parent should point to B
+			replaceChild(mParent[iB], iA, iB);
+
+			if (mHeight[iD] > mHeight[iE]) {
+				mChild2[iB] = iD;
+				mChild1[iA] = iE;
+				mParent[iE] = iA;
+				combine(iA, iC, iE);
+				combine(iB, iA, iD);
+
+				mHeight[iA] = 1 + Math.max(mHeight[iC], mHeight[iE]);
+				mHeight[iB] = 1 + Math.max(mHeight[iA], mHeight[iD]);
+			} else {
+				mChild2[iB] = iE;
+				mChild1[iA] = iD;
+				mParent[iD] = iA;
+				combine(iA, iC, iD);
+				combine(iB, iA, iE);
+
+				mHeight[iA] = 1 + Math.max(mHeight[iC], mHeight[iD]);
+				mHeight[iB] = 1 + Math.max(mHeight[iA], mHeight[iE]);
+			}
+
+			return iB;
+		}
+
+		return iA;
+	}
+
+	private void replaceChild(int parent, int oldChild, int newChild) {
+		if (parent == NULL_NODE) {
+			mRoot = newChild;
+			return;
+		}
+
+		if (mChild1[parent] == oldChild)
+			mChild1[parent] = newChild;
+		else
+			mChild2[parent] = newChild;
+	}
+
+	private void combine(int target, int a, int b) {
+		mMinX[target] = Math.min(mMinX[a], mMinX[b]);
+		mMinY[target] = Math.min(mMinY[a], mMinY[b]);
+		mMaxX[target] = Math.max(mMaxX[a], mMaxX[b]);
+		mMaxY[target] = Math.max(mMaxY[a], mMaxY[b]);
+	}
+
+	private float combinedPerimeter(int node, float minX, float minY, float maxX, float maxY) {
+		return perimeter(Math.min(mMinX[node], minX), Math.min(mMinY[node], minY), Math.max(mMaxX[node], maxX), Math.max(mMaxY[node], maxY));
+	}
+
+	private float descendCost(int child, float minX, float minY, float maxX, float maxY) {
+		final var lCombined = combinedPerimeter(child, minX, minY, maxX, maxY);
+		if (mHeight[child] == 0)
+			return lCombined;
+
+		return lCombined - perimeter(mMinX[child], mMinY[child], mMaxX[child], mMaxY[child]);
+	}
+
+	private static float perimeter(float minX, float minY, float maxX, float maxY) {
+		return 2.f * ((maxX - minX) + (maxY - minY));
+	}
+
+	// --- node pool
+
+	private int allocateNode() {
+		if (mFreeList == NULL_NODE) {
+			final int lOldCapacity = mNodeCapacity;
+			mNodeCapacity *= 2;
+			allocateNodeArrays(mNodeCapacity);
+			buildFreeList(lOldCapacity);
+		}
+
+		final int lNodeId = mFreeList;
+		mFreeList = mParent[lNodeId];
+		mParent[lNodeId] = NULL_NODE;
+		mChild1[lNodeId] = NULL_NODE;
+		mChild2[lNodeId] = NULL_NODE;
+		mHeight[lNodeId] = 0;
+		mUserData[lNodeId] = null;
+		mNodeCount++;
+
+		return lNodeId;
+	}
+
+	private void freeNode(int nodeId) {
+		mParent[nodeId] = mFreeList;
+		mHeight[nodeId] = -1;
+		mUserData[nodeId] = null;
+		mFreeList = nodeId;
+		mNodeCount--;
+	}
+
+	private void allocateNodeArrays(int capacity) {
+		if (mMinX == null) {
+			mMinX = new float[capacity];
+			mMinY = new float[capacity];
+			mMaxX = new float[capacity];
+			mMaxY = new float[capacity];
+			mParent = new int[capacity];
+			mChild1 = new int[capacity];
+			mChild2 = new int[capacity];
+			mHeight = new int[capacity];
+			mUserData = new Object[capacity];
+			return;
+		}
+
+		mMinX = Arrays.copyOf(mMinX, capacity);
+		mMinY = Arrays.copyOf(mMinY, capacity);
+		mMaxX = Arrays.copyOf(mMaxX, capacity);
+		mMaxY = Arrays.copyOf(mMaxY, capacity);
+		mParent = Arrays.copyOf(mParent, capacity);
+		mChild1 = Arrays.copyOf(mChild1, capacity);
+		mChild2 = Arrays.copyOf(mChild2, capacity);
+		mHeight = Arrays.copyOf(mHeight, capacity);
+		mUserData = Arrays.copyOf(mUserData, capacity);
+	}
+
+	private void buildFreeList(int fromIndex) {
+		for (int i = fromIndex; i < mNodeCapacity - 1; i++) {
+			mParent[i] = i + 1;
+			mHeight[i] = -1;
+		}
+
+		mParent[mNodeCapacity - 1] = NULL_NODE;
+		mHeight[mNodeCapacity - 1] = -1;
+		mFreeList = fromIndex;
+	}
+}
@@ -0,0 +1,12 @@
+package net.lintfordlib.core.physics.spatial;
+
+public interface IDynamicTreeQueryCallback<T> {
+
+	/***
+	 * Called for each leaf of a {@link DynamicAABBTree} found by a query.
+	 * 
+	 * @return true to continue the query, false to terminate it.
+	 */
+	boolean reportProxy(int proxyId, T userData);
+
+}
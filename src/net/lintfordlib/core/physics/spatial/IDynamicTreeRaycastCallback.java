@@ -0,0 +1,12 @@
+package net.lintfordlib.core.physics.spatial;
+
+public interface IDynamicTreeRaycastCallback<T> {
+
+	/***
+	 * Called for each leaf of a {@link DynamicAABBTree} whose fat AABB is crossed by the ray (p1 to p2).
+	 * 
+	 * @return 0 to terminate the ray cast, a value between 0 and 1 to clip the ray to that fraction, or a negative value (or maxFraction) to ignore this leaf and continue.
+	 */
+	float reportRayProxy(int proxyId, T userData, float p1x, float p1y, float p2x, float p2y, float maxFraction);
+
+}
@@ -23,12 +23,16 @@ public abstract class PhysicsGridEntity extends Entity {
 
 	public int queryId;
 
+	// the slot of this entity in each cell it is stored in, indexed by (row - minUnitY) * (maxUnitX - minUnitX + 1) + (column - minUnitX). Maintained by the PhysicsHashGrid.
+	public int[] _gridCellSlots;
+	public int _gridNumCells;
+
 	// ---------------------------------------------
 	// Properties
 	// ---------------------------------------------
 
 	public boolean isOnGrid() {
-		return minUnitX != -1 && minUnitY != -1 && maxUnitX != -1 && maxUnitY != -1;
+		return _gridNumCells > 0;
 	}
 
 	// ---------------------------------------------
@@ -1,12 +1,19 @@
 package net.lintfordlib.core.physics.spatial;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import net.lintfordlib.ConstantsPhysics;
 import net.lintfordlib.core.debug.Debug;
+import net.lintfordlib.core.geometry.partitioning.SparseCellTable;
 import net.lintfordlib.core.maths.MathHelper;
 
+/***
+ * A grid of cells, each of which stores the entities whose bounds overlap it. Each entity keeps its slot within every cell it is stored in (see {@link PhysicsGridEntity#_gridCellSlots}), so entities are added to and removed from cells in O(1). The keys of all non-empty cells are tracked in a packed int array.
+ *
+ * The grid either covers a fixed boundary around 0,0 (positions outside of it are clamped to the border cells), or is sparse and unbounded. A sparse grid maps the cell coordinates to the cell storage with a {@link SparseCellTable}, creates cells as entities enter them and reclaims them once they are empty. In a sparse grid, the cell keys are the indices of the cells' storage and are only valid while the cell contains entities.
+ */
 public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 
 	// ---------------------------------------------
@@ -15,6 +22,8 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 
 	public static final int COLLISION_ENTITY_TYPE_NONE = 0;
 
+	private static final int INITIAL_CELL_CAPACITY = 4;
+
 	// ---------------------------------------------
 	// Variables
 	// ---------------------------------------------
@@ -27,10 +36,27 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 
 	private int mQueryId;
 
-	private List<List<T>> mCells;
-	private List<Integer> mActiveCellKeys;
+	// cell key -> the entities in the cell, packed into [0, mCellCounts[key])
+	private PhysicsGridEntity[][] mCells;
+	private int[] mCellCounts;
+
+	// the keys of all non-empty cells, packed into [0, mNumActiveCells), and the index of each cell within it (-1 if the cell is empty)
+	private int[] mActiveCellKeys;
+	private int[] mActiveCellIndices;
+	private int mNumActiveCells;
+
 	private int mGridUidCounter;
 
+	// sparse mode: the coordinates of each allocated cell, and the keys of reclaimed cells whose storage can be re-used
+	private boolean mIsSparse;
+	private float mCellWidthInUnits;
+	private float mCellHeightInUnits;
+	private SparseCellTable mSparseCellTable;
+	private int[] mCellColumns;
+	private int[] mCellRows;
+	private int[] mFreeCellKeys;
+	private int mNumFreeCellKeys;
+
 	// SHARED between all queries!
 	private final List<T> mReturnResultsList = new ArrayList<>(48);
 
@@ -42,19 +68,58 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 		return mGridUidCounter++;
 	}
 
+	/***
+	 * @return The number of cells in the grid. For a sparse grid, this is the number of cells which are currently allocated.
+	 */
 	public int getTotalCellCount() {
-		return mCells.size();
+		return mIsSparse ? mSparseCellTable.size() : mCells.length;
+	}
+
+	/***
+	 * @return true if the grid is unbounded, with cells allocated as they are needed.
+	 */
+	public boolean isSparse() {
+		return mIsSparse;
 	}
 
-	public List<Integer> getActiveCellKeys() {
-		return mActiveCellKeys;
+	public float cellWidthInUnits() {
+		return mCellWidthInUnits;
+	}
+
+	public float cellHeightInUnits() {
+		return mCellHeightInUnits;
+	}
+
+	/***
+	 * @return The number of cells which contain at least one entity.
+	 */
+	public int numActiveCells() {
+		return mNumActiveCells;
+	}
+
+	/***
+	 * @return The key of the active cell at the given index [0, {@link #numActiveCells()}). The order of the active cells changes as cells become empty.
+	 */
+	public int getActiveCellKey(int index) {
+		return mActiveCellKeys[index];
 	}
 
-	public List<T> getCell(int cellKey) {
-		if (cellKey < 0 || cellKey >= mCells.size())
-			return null;
+	/***
+	 * @return The number of entities stored in the cell, or 0 if the key is outside of the grid.
+	 */
+	public int getCellSize(int cellKey) {
+		if (cellKey < 0 || cellKey >= mCells.length)
+			return 0;
+
+		return mCellCounts[cellKey];
+	}
 
-		return mCells.get(cellKey);
+	/***
+	 * @return The entity at the given index [0, {@link #getCellSize(int)}) of the cell. The order of the entities within a cell changes as entities are removed.
+	 */
+	@SuppressWarnings("unchecked")
+	public T getCellEntity(int cellKey, int index) {
+		return (T) mCells[cellKey][index];
 	}
 
 	public float boundaryWidthInUnits() {
@@ -88,13 +153,38 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 		mTilesHigh = tilesHigh;
 		final int totalCells = mTilesWide * mTilesHigh;
 
+		mCellWidthInUnits = boundaryWidthInUnits / tilesWide;
+		mCellHeightInUnits = boundaryHeightInUnits / tilesHigh;
+
 		Debug.debugManager().logger().i(getClass().getSimpleName(), "Created a HashGrid with " + totalCells + " total cells");
 
-		mActiveCellKeys = new ArrayList<>();
-		mCells = new ArrayList<>();
-		for (int i = 0; i < totalCells; i++) {
-			mCells.add(new ArrayList<>());
-		}
+		mCells = new PhysicsGridEntity[totalCells][];
+		mCellCounts = new int[totalCells];
+
+		mActiveCellKeys = new int[totalCells];
+		mActiveCellIndices = new int[totalCells];
+		Arrays.fill(mActiveCellIndices, -1);
+	}
+
+	/**
+	 * Creates a sparse, unbounded spatial hash grid with the specified cell size. Cells are only allocated while they contain entities.
+	 */
+	public PhysicsHashGrid(float cellWidthInUnits, float cellHeightInUnits) {
+		mIsSparse = true;
+		mCellWidthInUnits = cellWidthInUnits;
+		mCellHeightInUnits = cellHeightInUnits;
+
+		mSparseCellTable = new SparseCellTable();
+
+		final int lInitialCapacity = 64;
+		mCells = new PhysicsGridEntity[lInitialCapacity][];
+		mCellCounts = new int[lInitialCapacity];
+		mActiveCellKeys = new int[lInitialCapacity];
+		mActiveCellIndices = new int[lInitialCapacity];
+		Arrays.fill(mActiveCellIndices, -1);
+		mCellColumns = new int[lInitialCapacity];
+		mCellRows = new int[lInitialCapacity];
+		mFreeCellKeys = new int[lInitialCapacity];
 	}
 
 	// ---------------------------------------------
@@ -116,6 +206,9 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 	}
 
 	public void addEntity(T entity) {
+		if (entity.isOnGrid())
+			removeEntity(entity);
+
 		insertEntity(entity);
 	}
 
@@ -123,7 +216,7 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 		if (entity == null)
 			return;
 
-		if (entity.isGridCacheOld(this) == false)
+		if (entity.isOnGrid() && entity.isGridCacheOld(this) == false)
 			return;
 
 		removeEntity(entity);
@@ -134,14 +227,15 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 		if (entity.isOnGrid() == false)
 			return;
 
-		for (int xx = entity.minUnitX; xx <= entity.maxUnitX; xx++) {
-			for (int yy = entity.minUnitY; yy <= entity.maxUnitY; yy++) {
-				final var lCellKey = getKey(xx, yy);
-				final var lCell = mCells.get(lCellKey); // O(1)
-				lCell.remove(entity); // O(n)
+		final var lCellSlots = entity._gridCellSlots;
+		int lSlotIndex = 0;
+		for (int yy = entity.minUnitY; yy <= entity.maxUnitY; yy++) {
+			for (int xx = entity.minUnitX; xx <= entity.maxUnitX; xx++) {
+				removeFromCell(getKey(xx, yy), lCellSlots[lSlotIndex++]);
 			}
 		}
 
+		entity._gridNumCells = 0;
 		entity.minUnitX = -1;
 		entity.minUnitY = -1;
 		entity.maxUnitX = -1;
@@ -164,22 +258,26 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 	public List<T> findNearbyEntities(float centerX, float centerY, float radius, int entityTypeFlag) {
 		mReturnResultsList.clear();
 
-		final int minX = getColumnAtX((int) (centerX - radius));
-		final int minY = getRowAtY((int) (centerY - radius));
+		final int minX = getColumnAtX(centerX - radius);
+		final int minY = getRowAtY(centerY - radius);
 
-		final int maxX = getColumnAtX((int) (centerX + radius));
-		final int maxY = getRowAtY((int) (centerY + radius));
+		final int maxX = getColumnAtX(centerX + radius);
+		final int maxY = getRowAtY(centerY + radius);
 
 		mQueryId++;
 
 		for (int xx = minX; xx <= maxX; xx++) {
 			for (int yy = minY; yy <= maxY; yy++) {
 				final int lCellKey = getKey(xx, yy);
-				final var lCell = mCells.get(lCellKey);
+				if (lCellKey == SparseCellTable.NO_CELL)
+					continue;
 
-				final int lNumEntitiesInCell = lCell.size();
+				final var lCell = mCells[lCellKey];
+
+				final int lNumEntitiesInCell = mCellCounts[lCellKey];
 				for (int j = 0; j < lNumEntitiesInCell; j++) { // O(n)
-					final var lEntity = lCell.get(j);
+					@SuppressWarnings("unchecked")
+					final var lEntity = (T) lCell[j];
 					if (lEntity.queryId != mQueryId) {
 						mReturnResultsList.add(lEntity); // O(1) - (O(n) if new array has to be created)
 						lEntity.queryId = mQueryId;
@@ -193,34 +291,145 @@ public class PhysicsHashGrid<T extends PhysicsGridEntity> {
 
 	// ---
 
-	// O(n)
 	private void insertEntity(T entity) {
 		entity.fillEntityBounds(this);
 
-		for (int xx = entity.minUnitX; xx <= entity.maxUnitX; xx++) {
-			for (int yy = entity.minUnitY; yy <= entity.maxUnitY; yy++) {
-				final var lCellKey = getKey(xx, yy);
+		final int lNumCells = (entity.maxUnitX - entity.minUnitX + 1) * (entity.maxUnitY - entity.minUnitY + 1);
+		if (entity._gridCellSlots == null || entity._gridCellSlots.length < lNumCells)
+			entity._gridCellSlots = new int[Math.max(lNumCells, INITIAL_CELL_CAPACITY)];
 
-				final var lCell = mCells.get(lCellKey); // O(1)
-				if (!lCell.contains(entity)) // O(n)
-					lCell.add(entity); // O(1) - (O(n) if new array has to be created)
-
-				if (mActiveCellKeys.contains(lCellKey) == false) // O(n)
-					mActiveCellKeys.add(lCellKey);
+		final var lCellSlots = entity._gridCellSlots;
+		int lSlotIndex = 0;
+		for (int yy = entity.minUnitY; yy <= entity.maxUnitY; yy++) {
+			for (int xx = entity.minUnitX; xx <= entity.maxUnitX; xx++) {
+				final int lCellKey = mIsSparse ? getOrCreateSparseCell(xx, yy) : getKey(xx, yy);
+				lCellSlots[lSlotIndex++] = addToCell(lCellKey, entity);
 			}
 		}
+
+		entity._gridNumCells = lNumCells;
 	}
 
+	/***
+	 * @return The slot of the entity within the cell.
+	 */
+	private int addToCell(int cellKey, T entity) {
+		var lCell = mCells[cellKey];
+		final int lCount = mCellCounts[cellKey];
+
+		if (lCell == null)
+			lCell = mCells[cellKey] = new PhysicsGridEntity[INITIAL_CELL_CAPACITY];
+		else if (lCount == lCell.length)
+			lCell = mCells[cellKey] = Arrays.copyOf(lCell, lCount * 2);
+
+		lCell[lCount] = entity;
+		mCellCounts[cellKey] = lCount + 1;
+
+		if (lCount == 0) {
+			mActiveCellIndices[cellKey] = mNumActiveCells;
+			mActiveCellKeys[mNumActiveCells++] = cellKey;
+		}
+
+		return lCount;
+	}
+
+	/***
+	 * Removes the entity in the given slot of the cell by moving the last entity of the cell into the slot.
+	 */
+	private void removeFromCell(int cellKey, int slot) {
+		final var lCell = mCells[cellKey];
+		final int lLast = --mCellCounts[cellKey];
+
+		if (slot != lLast) {
+			final var lMovedEntity = lCell[lLast];
+			lCell[slot] = lMovedEntity;
+			lMovedEntity._gridCellSlots[cellSlotIndex(lMovedEntity, cellKey)] = slot;
+		}
+
+		lCell[lLast] = null;
+
+		if (lLast == 0) {
+			final int lActiveIndex = mActiveCellIndices[cellKey];
+			final int lLastActiveKey = mActiveCellKeys[--mNumActiveCells];
+			mActiveCellKeys[lActiveIndex] = lLastActiveKey;
+			mActiveCellIndices[lLastActiveKey] = lActiveIndex;
+			mActiveCellIndices[cellKey] = -1;
+
+			if (mIsSparse)
+				reclaimSparseCell(cellKey);
+		}
+	}
+
+	private int getOrCreateSparseCell(int xx, int yy) {
+		final int lCellKey = mSparseCellTable.get(xx, yy);
+		if (lCellKey != SparseCellTable.NO_CELL)
+			return lCellKey;
+
+		// re-use the storage of a reclaimed cell if there is one
+		final int lNewCellKey;
+		if (mNumFreeCellKeys > 0) {
+			lNewCellKey = mFreeCellKeys[--mNumFreeCellKeys];
+		} else {
+			lNewCellKey = mSparseCellTable.size();
+			if (lNewCellKey == mCells.length)
+				growSparseCellStorage(mCells.length * 2);
+		}
+
+		mCellColumns[lNewCellKey] = xx;
+		mCellRows[lNewCellKey] = yy;
+		mSparseCellTable.put(xx, yy, lNewCellKey);
+		return lNewCellKey;
+	}
+
+	private void reclaimSparseCell(int cellKey) {
+		mSparseCellTable.remove(mCellColumns[cellKey], mCellRows[cellKey]);
+		mFreeCellKeys[mNumFreeCellKeys++] = cellKey;
+	}
+
+	private void growSparseCellStorage(int capacity) {
+		final int lOldCapacity = mCells.length;
+
+		mCells = Arrays.copyOf(mCells, capacity);
+		mCellCounts = Arrays.copyOf(mCellCounts, capacity);
+		mActiveCellKeys = Arrays.copyOf(mActiveCellKeys, capacity);
+		mActiveCellIndices = Arrays.copyOf(mActiveCellIndices, capacity);
+		Arrays.fill(mActiveCellIndices, lOldCapacity, capacity, -1);
+		mCellColumns = Arrays.copyOf(mCellColumns, capacity);
+		mCellRows = Arrays.copyOf(mCellRows, capacity);
+		mFreeCellKeys = Arrays.copyOf(mFreeCellKeys, capacity);
+	}
+
+	/***
+	 * @return The index into {@link PhysicsGridEntity#_gridCellSlots} of the given cell, which must lie within the cached bounds of the entity.
+	 */
+	private int cellSlotIndex(PhysicsGridEntity entity, int cellKey) {
+		final int lColumn = mIsSparse ? mCellColumns[cellKey] : cellKey % mTilesWide;
+		final int lRow = mIsSparse ? mCellRows[cellKey] : cellKey / mTilesWide;
+		return (lRow - entity.minUnitY) * (entity.maxUnitX - entity.minUnitX + 1) + (lColumn - entity.minUnitX);
+	}
+
+	/***
+	 * @return The key of the cell at the given column and row. For a sparse grid, this is {@link SparseCellTable#NO_CELL} if the cell contains no entities.
+	 */
 	public int getKey(int xx, int yy) {
+		if (mIsSparse)
+			return mSparseCellTable.get(xx, yy);
+
 		return yy * mTilesWide + xx;
 	}
 
 	public int getColumnAtX(float x) {
+		if (mIsSparse)
+			return (int) Math.floor(x / mCellWidthInUnits);
+
 		final float divisor = mBoundaryWidthInUnits / mTilesWide;
 		return MathHelper.clampi((int) ((x + mBoundaryWidthInUnits / 2.f) / divisor), 0, mTilesWide - 1);
 	}
 
 	public int getRowAtY(float y) {
+		if (mIsSparse)
+			return (int) Math.floor(y / mCellHeightInUnits);
+
 		final float divisor = mBoundaryHeightInUnits / mTilesHigh;
 		return MathHelper.clampi((int) ((y + mBoundaryHeightInUnits / 2.f) / divisor), 0, mTilesHigh - 1);
 	}
@@ -76,7 +76,11 @@ public class DebugPhysicsGridRenderer extends BaseRenderer {
 
 	@Override
 	public void draw(LintfordCore core, RenderPass renderPass) {
-		drawSpatialHashGridGrid(core, mWorld.grid());
+		final var lGrid = mWorld.grid();
+		if (lGrid == null)
+			return;
+
+		drawSpatialHashGridGrid(core, lGrid);
 	}
 
 	// ---------------------------------------------
@@ -114,11 +118,10 @@ public class DebugPhysicsGridRenderer extends BaseRenderer {
 				final int lCellKey = grid.getCellKeyFromWorldPosition(xWorld, yWorld);
 				lFontUnit.drawText(String.valueOf(lCellKey), -lHalfBW + (xx * lTileSizeW) + 2f, -lHalfBH + (yy * lTileSizeH) + 1f, .001f, 0.5f);
 
-				final var lCellContents = grid.getCell(lCellKey);
-				if (lCellContents != null && lCellContents.size() > 0) {
-					final int lNumCellContent = lCellContents.size();
+				final int lNumCellContent = grid.getCellSize(lCellKey);
+				if (lNumCellContent > 0) {
 					for (int j = 0; j < lNumCellContent; j++) {
-						final var entity = lCellContents.get(j);
+						final var entity = grid.getCellEntity(lCellKey, j);
 						lFontUnit.drawText(String.valueOf(entity.uid), -lHalfBW + (xx * lTileSizeW) + 10f, -lHalfBH + (yy * lTileSizeH) + 10f + (j * 7), .001f, 0.5f);
 					}
 				}
@@ -105,29 +105,7 @@ public class ParticleRenderer {
 		if (!textureBatch.isDrawing())
 			return;
 
-		final var lParticleSystem = mParticleSystem.particles();
-		final var lNumParticles = lParticleSystem.size();
-
-		final var lCamBounds = textureBatch.camera().boundingRectangle();
-
-		for (int i = 0; i < lNumParticles; i++) {
-			final var lParticleInst = lParticleSystem.get(i);
-
-			if (!lParticleInst.isAssigned())
-				continue;
-
-			if (!lCamBounds.intersectsAA(lParticleInst.worldPositionX, lParticleInst.worldPositionY, lParticleInst.width, lParticleInst.height))
-				continue;
-
-			float lWidthScaled = mSpriteFrame != null ? mSpriteFrame.width() : lParticleInst.width;
-			float lHeightScaled = mSpriteFrame != null ? mSpriteFrame.height() : lParticleInst.height;
-
-			lWidthScaled *= lParticleInst.scale;
-			lHeightScaled *= lParticleInst.scale;
-
-			textureBatch.setColor(lParticleInst.color);
-			textureBatch.drawAroundCenter(mSpritesheetDefinition, mSpriteFrame, lParticleInst.worldPositionX, lParticleInst.worldPositionY, lWidthScaled, lHeightScaled, lParticleInst.rotationInRadians, lParticleInst.rox, lParticleInst.roy, lParticleInst.zDepth);
-		}
+		textureBatch.drawParticles(mSpritesheetDefinition, mSpriteFrame, mParticleSystem.particles());
 	}
 
 	// --------------------------------------
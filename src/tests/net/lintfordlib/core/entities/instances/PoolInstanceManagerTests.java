@@ -0,0 +1,242 @@
+package tests.net.lintfordlib.core.entities.instances;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.entities.instances.ClosedPoolInstanceManager;
+import net.lintfordlib.core.entities.instances.ClosedPooledBaseData;
+import net.lintfordlib.core.entities.instances.OpenPoolInstanceManager;
+import net.lintfordlib.core.entities.instances.OpenPooledBaseData;
+
+public class PoolInstanceManagerTests {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	private static class TestClosedData extends ClosedPooledBaseData {
+		private static final long serialVersionUID = 1L;
+
+		int value;
+
+		TestClosedData(int uid) {
+			super(uid);
+		}
+
+		@Override
+		public void reset() {
+			value = 0;
+		}
+	}
+
+	private static class TestClosedPool extends ClosedPoolInstanceManager<TestClosedData> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected TestClosedData createPoolObjectInstance() {
+			return new TestClosedData(getNewInstanceUID());
+		}
+	}
+
+	private static class TestOpenData extends OpenPooledBaseData {
+		private static final long serialVersionUID = 1L;
+
+		TestOpenData(int uid) {
+			super(uid);
+		}
+	}
+
+	private static class TestOpenPool extends OpenPoolInstanceManager<TestOpenData> {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected TestOpenData createPoolObjectInstance() {
+			return new TestOpenData(getNewInstanceUID());
+		}
+	}
+
+	/** A copy of the list based ClosedPoolInstanceManager, used as the baseline of the benchmark. */
+	private static class ListClosedPool {
+		final List<TestClosedData> mInstances = new ArrayList<>();
+		final List<TestClosedData> mPooledItems = new ArrayList<>();
+		int mUidCounter;
+
+		TestClosedData getInstanceByUid(int uid) {
+			final int lNumInstances = mInstances.size();
+			for (int i = 0; i < lNumInstances; i++) {
+				if (mInstances.get(i).uid == uid)
+					return mInstances.get(i);
+			}
+			return null;
+		}
+
+		TestClosedData getFreePooledItem() {
+			if (mPooledItems.isEmpty()) {
+				for (int i = 0; i < ClosedPoolInstanceManager.DEFAULT_ENLARGEN_POOL_AMOUNT; i++)
+					mPooledItems.add(new TestClosedData(mUidCounter++));
+			}
+
+			final var lInst = mPooledItems.remove(0);
+			if (mInstances.contains(lInst) == false)
+				mInstances.add(lInst);
+
+			return lInst;
+		}
+
+		void returnPooledItem(TestClosedData returnItem) {
+			if (mInstances.contains(returnItem))
+				mInstances.remove(returnItem);
+
+			if (!mPooledItems.contains(returnItem)) {
+				returnItem.reset();
+				mPooledItems.add(returnItem);
+			}
+		}
+	}
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void closedPool_RandomChurn_ShouldKeepInstancesAndUidIndexConsistent() {
+		// arrange
+		final var pool = new TestClosedPool();
+		final var live = new ArrayList<TestClosedData>();
+		final var rand = new SplittableRandom(7);
+
+		// act
+		for (int i = 0; i < 5000; i++) {
+			if (live.isEmpty() || rand.nextInt(3) > 0) {
+				live.add(pool.getFreePooledItem());
+			} else {
+				pool.returnPooledItem(live.remove(rand.nextInt(live.size())));
+			}
+		}
+
+		// assert
+		assertEquals(live.size(), pool.numInstances(), "The pool tracks the wrong number of instances in use.");
+		assertEquals(new HashSet<>(live), new HashSet<>(pool.instances()), "The pool's instance list doesn't match the instances in use.");
+		for (final var inst : live) {
+			assertTrue(inst.isAssigned(), "An instance in use isn't marked as assigned.");
+			assertSame(inst, pool.getInstanceByUid(inst.uid), "The uid lookup didn't return the instance in use.");
+		}
+	}
+
+	@Test
+	void closedPool_ReturnedInstance_ShouldNotBeFoundByUidOrHandle() {
+		// arrange
+		final var pool = new TestClosedPool();
+		final var inst = pool.getFreePooledItem();
+		final var handle = pool.getHandle(inst);
+
+		// act
+		pool.returnPooledItem(inst);
+		pool.returnPooledItem(inst);
+
+		// assert
+		assertNull(pool.getInstanceByUid(inst.uid), "A returned instance was found by its uid.");
+		assertNull(pool.getInstanceByHandle(handle), "A stale handle resolved to a returned instance.");
+		assertEquals(0, pool.numInstances(), "The returned instance is still in the instance list.");
+	}
+
+	@Test
+	void closedPool_ReusedInstance_ShouldOnlyResolveNewHandle() {
+		// arrange
+		final var pool = new TestClosedPool();
+		final var inst = pool.getFreePooledItem();
+		final var oldHandle = pool.getHandle(inst);
+		pool.returnPooledItem(inst);
+
+		// act - the free list is a stack, so the same instance is handed out again
+		final var reused = pool.getFreePooledItem();
+		final var newHandle = pool.getHandle(reused);
+
+		// assert
+		assertSame(inst, reused, "The pool didn't reuse the returned instance.");
+		assertNotEquals(oldHandle, newHandle, "The handle of the reused instance didn't change.");
+		assertNull(pool.getInstanceByHandle(oldHandle), "The stale handle resolved to the reused instance.");
+		assertSame(reused, pool.getInstanceByHandle(newHandle), "The new handle didn't resolve to the instance.");
+	}
+
+	@Test
+	void openPool_InstanceReturnedTwice_ShouldBeStoredOnce() {
+		// arrange
+		final var pool = new TestOpenPool();
+		final var inst = pool.getFreePooledItem();
+		final var handle = pool.getHandle(inst);
+		final var numFree = pool.numInstances();
+
+		// act
+		pool.returnPooledItem(inst);
+		pool.returnPooledItem(inst);
+
+		// assert
+		assertEquals(numFree + 1, pool.numInstances(), "The returned instance was added to the pool more than once.");
+		assertSame(inst, pool.getInstanceByUid(inst.uid), "The uid lookup didn't return the free instance.");
+		assertNull(pool.getInstanceByHandle(handle), "A stale handle resolved to a returned instance.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_IndexedPoolVsListPool() {
+		final int[] liveCounts = { 10000, 50000 };
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			for (final var numLive : liveCounts) {
+				final var indexedPool = new TestClosedPool();
+				final var indexedLive = new ArrayList<TestClosedData>(numLive);
+				for (int i = 0; i < numLive; i++)
+					indexedLive.add(indexedPool.getFreePooledItem());
+
+				final var listPool = new ListClosedPool();
+				final var listLive = new ArrayList<TestClosedData>(numLive);
+				for (int i = 0; i < numLive; i++)
+					listLive.add(listPool.getFreePooledItem());
+
+				// each frame despawns and respawns 1% of the live instances and looks up as many by uid
+				final int lNumFrames = 20;
+				final int lChurn = numLive / 100;
+
+				var rand = new SplittableRandom(3);
+				long lStart = System.nanoTime();
+				for (int f = 0; f < lNumFrames; f++) {
+					for (int i = 0; i < lChurn; i++) {
+						final int lIndex = rand.nextInt(indexedLive.size());
+						indexedPool.returnPooledItem(indexedLive.get(lIndex));
+						indexedLive.set(lIndex, indexedPool.getFreePooledItem());
+						indexedPool.getInstanceByUid(indexedLive.get(rand.nextInt(indexedLive.size())).uid);
+					}
+				}
+				final double lIndexedMs = (System.nanoTime() - lStart) / (double) lNumFrames / 1_000_000.;
+
+				rand = new SplittableRandom(3);
+				lStart = System.nanoTime();
+				for (int f = 0; f < lNumFrames; f++) {
+					for (int i = 0; i < lChurn; i++) {
+						final int lIndex = rand.nextInt(listLive.size());
+						listPool.returnPooledItem(listLive.get(lIndex));
+						listLive.set(lIndex, listPool.getFreePooledItem());
+						listPool.getInstanceByUid(listLive.get(rand.nextInt(listLive.size())).uid);
+					}
+				}
+				final double lListMs = (System.nanoTime() - lStart) / (double) lNumFrames / 1_000_000.;
+
+				if (pass > 0)
+					System.out.printf("%6d live instances: indexed pool %9.3f ms/frame, list pool %9.3f ms/frame%n", numLive, lIndexedMs, lListMs);
+			}
+		}
+	}
+}
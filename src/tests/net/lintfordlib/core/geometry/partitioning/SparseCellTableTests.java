@@ -0,0 +1,68 @@
+package tests.net.lintfordlib.core.geometry.partitioning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.geometry.partitioning.SparseCellTable;
+
+public class SparseCellTableTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void putAndRemove_RandomCells_ShouldMatchHashMap() {
+		// arrange
+		final var rand = new SplittableRandom(5);
+		final var table = new SparseCellTable();
+		final var expected = new HashMap<Long, Integer>();
+
+		// act - cells are drawn from a small range, so puts and removes collide and probe sequences overlap
+		for (int i = 0; i < 20000; i++) {
+			final int cellX = rand.nextInt(-40, 40);
+			final int cellY = rand.nextInt(-40, 40);
+			final long key = SparseCellTable.packKey(cellX, cellY);
+
+			if (rand.nextInt(3) == 0) {
+				final var removed = expected.remove(key);
+				assertEquals(removed == null ? SparseCellTable.NO_CELL : removed.intValue(), table.remove(cellX, cellY), "remove returned the wrong value.");
+			} else {
+				table.put(cellX, cellY, i);
+				expected.put(key, i);
+			}
+		}
+
+		// assert
+		assertEquals(expected.size(), table.size(), "The table contains the wrong number of cells.");
+		for (int cellX = -40; cellX < 40; cellX++) {
+			for (int cellY = -40; cellY < 40; cellY++) {
+				final var value = expected.get(SparseCellTable.packKey(cellX, cellY));
+				assertEquals(value == null ? SparseCellTable.NO_CELL : value.intValue(), table.get(cellX, cellY), "get returned the wrong value for (" + cellX + "," + cellY + ").");
+			}
+		}
+	}
+
+	@Test
+	void remove_AllCellsRemoved_ShouldShrinkTable() {
+		// arrange
+		final var table = new SparseCellTable();
+		for (int i = 0; i < 10000; i++)
+			table.put(i * 1000, -i * 1000, i);
+
+		final int grownCapacity = table.capacity();
+
+		// act
+		for (int i = 0; i < 10000; i++)
+			table.remove(i * 1000, -i * 1000);
+
+		// assert
+		assertEquals(0, table.size(), "The table isn't empty.");
+		assertTrue(table.capacity() < grownCapacity / 100, "The table didn't release its slots.");
+	}
+}
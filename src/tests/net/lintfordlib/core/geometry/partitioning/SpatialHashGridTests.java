@@ -0,0 +1,355 @@
+package tests.net.lintfordlib.core.geometry.partitioning;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.geometry.partitioning.GridEntity;
+import net.lintfordlib.core.geometry.partitioning.SpatialHashGrid;
+
+public class SpatialHashGridTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void findNearbyEntities_SparseGridFarFromOrigin_ShouldFindEntity() {
+		// arrange
+		final var grid = new SpatialHashGrid<CircleEntity>(32, 32);
+		final var near = new CircleEntity(1, -1_000_000.f, 2_000_000.f, 8.f);
+		final var far = new CircleEntity(2, 1_000_000.f, 2_000_000.f, 8.f);
+		grid.addEntity(near);
+		grid.addEntity(far);
+
+		// act
+		final var result = grid.findNearbyEntities(-1_000_010.f, 2_000_000.f, 16.f);
+
+		// assert
+		assertEquals(1, result.size(), "The query returned the wrong number of entities.");
+		assertEquals(near, result.get(0), "The query returned the wrong entity.");
+	}
+
+	@Test
+	void updateEntity_SparseGridEntityMovedAway_ShouldReclaimEmptyCells() {
+		// arrange
+		final var grid = new SpatialHashGrid<CircleEntity>(32, 32);
+		final var entity = new CircleEntity(1, 16.f, 16.f, 4.f);
+		grid.addEntity(entity);
+
+		// act - walk the entity across many cells, it always fits within a single cell
+		for (int i = 1; i <= 1000; i++) {
+			entity.x = i * 64.f + 16.f;
+			grid.updateEntity(entity);
+		}
+
+		// assert
+		assertEquals(1, grid.numCells(), "Empty cells weren't reclaimed.");
+		assertEquals(1, grid.findNearbyEntities(64_016.f, 16.f, 1.f).size(), "The entity wasn't found at its new position.");
+		assertEquals(0, grid.findNearbyEntities(16.f, 16.f, 1.f).size(), "The entity was found at its old position.");
+	}
+
+	@Test
+	void removeEntity_SparseGridEntityAtNegativeCell_ShouldBeOffGrid() {
+		// arrange - cell -1 is a valid cell in a sparse grid
+		final var grid = new SpatialHashGrid<CircleEntity>(32, 32);
+		final var entity = new CircleEntity(1, -16.f, -16.f, 4.f);
+		grid.addEntity(entity);
+		final var wasOnGrid = entity.isOnGrid();
+
+		// act
+		grid.removeEntity(entity);
+
+		// assert
+		assertTrue(wasOnGrid, "The entity wasn't on the grid after it was added.");
+		assertFalse(entity.isOnGrid(), "The entity is still on the grid.");
+		assertEquals(0, grid.numCells(), "The empty cell wasn't reclaimed.");
+	}
+
+	@Test
+	void findNearbyEntities_EntitySpanningSeveralCells_ShouldBeReportedOnce() {
+		// arrange - the cells are 10 units wide, so the entity spans four cells
+		final var grid = new SpatialHashGrid<CircleEntity>(100, 100, 10, 10);
+		final var entity = new CircleEntity(1, 0.f, 0.f, 4.f);
+		grid.addEntity(entity);
+		final var results = new ArrayList<CircleEntity>();
+
+		// act
+		final var numFound = grid.findNearbyEntities(results, 0.f, 0.f, 20.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE);
+
+		// assert
+		assertEquals(1, numFound, "The entity wasn't reported exactly once.");
+		assertEquals(entity, results.get(0), "The query returned the wrong entity.");
+	}
+
+	@Test
+	void visitNearbyEntities_NestedQueryFromCallback_ShouldNotDisturbOuterQuery() {
+		// arrange
+		final var grid = createRandomGrid(new SplittableRandom(9), 200);
+		final var expected = new ArrayList<CircleEntity>();
+		grid.findNearbyEntities(expected, 0.f, 0.f, 30.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE);
+
+		// act - each entity found by the outer query runs its own (overlapping) query
+		final var outerResults = new ArrayList<CircleEntity>();
+		final var innerResults = new ArrayList<CircleEntity>();
+		grid.visitNearbyEntities(0.f, 0.f, 30.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE, entity -> {
+			outerResults.add(entity);
+			innerResults.clear();
+			grid.findNearbyEntities(innerResults, entity.x, entity.y, 10.f);
+			return true;
+		});
+
+		// assert
+		assertTrue(expected.size() > 1, "The outer query didn't find enough entities.");
+		assertEquals(expected, outerResults, "The nested queries changed the results of the outer query.");
+	}
+
+	@Test
+	void findNearbyEntities_ConcurrentQueriesFromWorkerThreads_ShouldMatchSerialResults() {
+		// arrange
+		final var rand = new SplittableRandom(13);
+		final var grid = createRandomGrid(rand, 1000);
+		final int numQueries = 2000;
+		final var queries = new float[numQueries * 2];
+		for (int i = 0; i < queries.length; i++)
+			queries[i] = (rand.nextFloat() - .5f) * 100.f;
+
+		final var serialCounts = new int[numQueries];
+		final var serialResults = new ArrayList<CircleEntity>();
+		for (int i = 0; i < numQueries; i++) {
+			serialResults.clear();
+			serialCounts[i] = grid.findNearbyEntities(serialResults, queries[i * 2], queries[i * 2 + 1], 8.f);
+		}
+
+		// act - each worker uses its own result buffer
+		final var parallelCounts = new int[numQueries];
+		IntStream.range(0, numQueries).parallel().forEach(i -> {
+			final List<CircleEntity> results = new ArrayList<>();
+			parallelCounts[i] = grid.findNearbyEntities(results, queries[i * 2], queries[i * 2 + 1], 8.f);
+		});
+
+		// assert
+		for (int i = 0; i < numQueries; i++)
+			assertEquals(serialCounts[i], parallelCounts[i], "Query " + i + " found a different number of entities on the worker thread.");
+	}
+
+	@Test
+	void findEntitiesInRadius_EntityInCornerOfOverlappedCell_ShouldBeFilteredByDistance() {
+		// arrange
+		final var grid = new SpatialHashGrid<CircleEntity>(100, 100, 10, 10);
+		final var inside = new CircleEntity(1, 3.f, 3.f, 1.f);
+		final var outside = new CircleEntity(2, 9.f, 9.f, .5f);
+		grid.addEntity(inside);
+		grid.addEntity(outside);
+		final var results = new ArrayList<CircleEntity>();
+
+		// act
+		final var numFound = grid.findEntitiesInRadius(results, 0.f, 0.f, 8.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE);
+
+		// assert
+		assertEquals(2, grid.findNearbyEntities(0.f, 0.f, 8.f).size(), "The square query should return both entities.");
+		assertEquals(1, numFound, "The circle query didn't filter by distance.");
+		assertEquals(inside, results.get(0), "The circle query returned the wrong entity.");
+	}
+
+	@Test
+	void findNearestEntities_RandomEntities_ShouldMatchSortedBruteForce() {
+		final var grids = List.of(new SpatialHashGrid<CircleEntity>(200, 200, 20, 20), new SpatialHashGrid<CircleEntity>(10, 10));
+		for (final var grid : grids) {
+			// arrange
+			final var rand = new SplittableRandom(17);
+			final var entities = new ArrayList<CircleEntity>();
+			for (int i = 0; i < 500; i++) {
+				final var entity = new CircleEntity(i, (rand.nextFloat() - .5f) * 200.f, (rand.nextFloat() - .5f) * 200.f, rand.nextFloat() * 5.f);
+				entities.add(entity);
+				grid.addEntity(entity);
+			}
+
+			final var results = new CircleEntity[8];
+			final var distancesSq = new float[8];
+
+			for (int q = 0; q < 50; q++) {
+				final var x = (rand.nextFloat() - .5f) * 240.f;
+				final var y = (rand.nextFloat() - .5f) * 240.f;
+
+				// act
+				final var numFound = grid.findNearestEntities(x, y, Float.MAX_VALUE, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE, results, distancesSq);
+
+				// assert
+				final var expected = new ArrayList<>(entities);
+				expected.sort((a, b) -> Float.compare(distanceSq(a, x, y), distanceSq(b, x, y)));
+
+				final var lName = grid.isSparse() ? "sparse grid" : "dense grid";
+				assertEquals(results.length, numFound, "The query found the wrong number of entities (" + lName + ").");
+				for (int i = 0; i < numFound; i++) {
+					assertEquals(distanceSq(expected.get(i), x, y), distancesSq[i], "Result " + i + " isn't the " + i + "th nearest entity (" + lName + ").");
+					assertEquals(distanceSq(results[i], x, y), distancesSq[i], "Result " + i + " has the wrong distance (" + lName + ").");
+				}
+			}
+		}
+	}
+
+	@Test
+	void findNearestEntities_FewerEntitiesThanRequestedOnSparseGrid_ShouldReturnAll() {
+		// arrange
+		final var grid = new SpatialHashGrid<CircleEntity>(16, 16);
+		grid.addEntity(new CircleEntity(1, 5000.f, -3000.f, 1.f));
+		grid.addEntity(new CircleEntity(2, 10.f, 10.f, 1.f));
+		final var results = new CircleEntity[4];
+		final var distancesSq = new float[4];
+
+		// act
+		final var numFound = grid.findNearestEntities(0.f, 0.f, Float.MAX_VALUE, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE, results, distancesSq);
+
+		// assert
+		assertEquals(2, numFound, "The unbounded query didn't return all entities.");
+		assertEquals(2, results[0].uid, "The results aren't sorted by distance.");
+	}
+
+	@Test
+	void updateEntity_EntityMovedWithinItsCell_ShouldMeasureFromTheNewPosition() {
+		// arrange
+		final var grid = new SpatialHashGrid<CircleEntity>(100, 100, 2, 2);
+		final var entity = new CircleEntity(1, 10.f, 10.f, 1.f);
+		grid.addEntity(entity);
+
+		// act
+		entity.x = 40.f;
+		final var isCacheOld = entity.isGridCacheOld(grid);
+		final var positionBeforeUpdate = entity.gridPositionX;
+		grid.updateEntity(entity);
+
+		// assert
+		assertFalse(isCacheOld, "The entity didn't stay within its cell.");
+		assertEquals(10.f, positionBeforeUpdate, "Checking the grid cache changed the grid position.");
+		assertEquals(0, grid.findEntitiesInRadius(new ArrayList<>(), 10.f, 10.f, 5.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE), "The entity was found at its old position.");
+		assertEquals(1, grid.findEntitiesInRadius(new ArrayList<>(), 40.f, 10.f, 5.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE), "The entity wasn't found at its new position.");
+	}
+
+	@Test
+	void findNearestEntities_OneFarEntityOnSparseGrid_ShouldNotProbeTheEmptyCellsInBetween() {
+		// arrange - a ring by ring search would probe billions of empty cells to reach the far entity
+		final var grid = new SpatialHashGrid<CircleEntity>(16, 16);
+		grid.addEntity(new CircleEntity(1, 10.f, 10.f, 1.f));
+		grid.addEntity(new CircleEntity(2, 20.f, 5.f, 1.f));
+		grid.addEntity(new CircleEntity(3, -50_000_000.f, 30_000_000.f, 1.f));
+		final var results = new CircleEntity[3];
+		final var distancesSq = new float[3];
+
+		// act
+		final var numFound = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> grid.findNearestEntities(0.f, 0.f, Float.MAX_VALUE, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE, results, distancesSq));
+
+		// assert
+		assertEquals(3, numFound, "The unbounded query didn't return all entities.");
+		assertEquals(1, results[0].uid, "The results aren't sorted by distance.");
+		assertEquals(2, results[1].uid, "The results aren't sorted by distance.");
+		assertEquals(3, results[2].uid, "The far entity wasn't found.");
+	}
+
+	@Test
+	void findNearestEntities_EntityWithoutGridCenter_ShouldMeasureFromCenterOfCellBounds() {
+		// arrange - the entity fits in the cell spanning [-10, 0) on both axes of the bounded grid
+		final var grid = new SpatialHashGrid<GridEntity>(100, 100, 10, 10);
+		final var entity = new BoundsOnlyEntity(1, -4.f, -4.f, 1.f);
+		grid.addEntity(entity);
+		final var results = new GridEntity[1];
+		final var distancesSq = new float[1];
+
+		// act
+		final var numFound = grid.findNearestEntities(0.f, 0.f, 50.f, SpatialHashGrid.COLLISION_ENTITY_TYPE_NONE, results, distancesSq);
+
+		// assert
+		assertEquals(1, numFound, "The query didn't return the entity.");
+		assertEquals(50.f, distancesSq[0], 1e-4f, "The distance wasn't measured from the center of the cell bounds.");
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static float distanceSq(CircleEntity entity, float x, float y) {
+		final var dx = entity.x - x;
+		final var dy = entity.y - y;
+		return dx * dx + dy * dy;
+	}
+
+	private static SpatialHashGrid<CircleEntity> createRandomGrid(SplittableRandom rand, int numEntities) {
+		final var lGrid = new SpatialHashGrid<CircleEntity>(100, 100, 10, 10);
+		for (int i = 0; i < numEntities; i++)
+			lGrid.addEntity(new CircleEntity(i, (rand.nextFloat() - .5f) * 100.f, (rand.nextFloat() - .5f) * 100.f, 1.f + rand.nextFloat() * 6.f));
+
+		return lGrid;
+	}
+
+	/** Relies on the default grid center of {@link GridEntity}. */
+	private static class BoundsOnlyEntity extends GridEntity {
+
+		private static final long serialVersionUID = 1L;
+
+		final float x;
+		final float y;
+		final float radius;
+
+		BoundsOnlyEntity(int uid, float x, float y, float radius) {
+			super(uid, 1);
+			this.x = x;
+			this.y = y;
+			this.radius = radius;
+		}
+
+		@Override
+		public void fillEntityBounds(SpatialHashGrid<?> grid) {
+			fillEntityBoundsCircle(grid, x, y, radius);
+		}
+
+		@Override
+		public boolean isGridCacheOld(SpatialHashGrid<?> grid) {
+			return isGridCacheOldCircle(grid, x, y, radius);
+		}
+	}
+
+	private static class CircleEntity extends GridEntity {
+
+		private static final long serialVersionUID = 1L;
+
+		float x;
+		float y;
+		final float radius;
+
+		CircleEntity(int uid, float x, float y, float radius) {
+			super(uid, 1);
+			this.x = x;
+			this.y = y;
+			this.radius = radius;
+		}
+
+		@Override
+		public void fillEntityBounds(SpatialHashGrid<?> grid) {
+			fillEntityBoundsCircle(grid, x, y, radius);
+		}
+
+		@Override
+		public boolean isGridCacheOld(SpatialHashGrid<?> grid) {
+			return isGridCacheOldCircle(grid, x, y, radius);
+		}
+
+		@Override
+		public float gridCenterX(SpatialHashGrid<?> grid) {
+			return x;
+		}
+
+		@Override
+		public float gridCenterY(SpatialHashGrid<?> grid) {
+			return y;
+		}
+	}
+}
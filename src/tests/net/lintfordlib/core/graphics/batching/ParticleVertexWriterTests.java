@@ -0,0 +1,224 @@
+package tests.net.lintfordlib.core.graphics.batching;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.batching.ParticleVertexWriter;
+import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
+
+public class ParticleVertexWriterTests {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final float FRAME_WIDTH = 16.f;
+	private static final float FRAME_HEIGHT = 8.f;
+	private static final float U_LEFT = .25f;
+	private static final float V_TOP = .5f;
+	private static final float U_RIGHT = .375f;
+	private static final float V_BOTTOM = .5625f;
+	private static final int TEXTURE_SLOT = 3;
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** A copy of the per-particle path of the ParticleRenderer (cull test, setColorRGBA and TextureBatchPCT.drawAroundCenter), used as the reference and as the baseline of the benchmark. */
+	private static class PerParticleWriter {
+		float mR, mG, mB, mA;
+
+		void write(FloatBuffer buffer, ParticleArrays particles, Rectangle camBounds) {
+			for (int i = 0; i < particles.numParticles(); i++) {
+				if (!camBounds.intersectsAA(particles.worldPositionX[i], particles.worldPositionY[i], particles.width[i], particles.height[i]))
+					continue;
+
+				mR = particles.colorR[i];
+				mG = particles.colorG[i];
+				mB = particles.colorB[i];
+				mA = particles.colorA[i];
+				drawAroundCenter(buffer, particles.worldPositionX[i], particles.worldPositionY[i], FRAME_WIDTH * particles.scale[i], FRAME_HEIGHT * particles.scale[i], particles.zDepth[i], particles.rotationInRadians[i], particles.rox[i], particles.roy[i], 1.f);
+			}
+		}
+
+		void drawAroundCenter(FloatBuffer buffer, float dx, float dy, float dw, float dh, float zDepth, float rota, float rotx, float roty, float scale) {
+			final var sin = (float) Math.sin(rota);
+			final var cos = (float) Math.cos(rota);
+
+			final var lHalfW = (dw * scale) / 2f;
+			final var lHalfH = (dh * scale) / 2f;
+
+			final var originX = -rotx;
+			final var originY = -roty;
+
+			final var x0 = -(lHalfW - originX) * cos - (lHalfH + originY) * sin;
+			final var y0 = -(lHalfW - originX) * sin + (lHalfH + originY) * cos;
+
+			final var x1 = -(lHalfW - originX) * cos - (-lHalfH + originY) * sin;
+			final var y1 = -(lHalfW - originX) * sin + (-lHalfH + originY) * cos;
+
+			final var x2 = (lHalfW + originX) * cos - (-lHalfH + originY) * sin;
+			final var y2 = (lHalfW + originX) * sin + (-lHalfH + originY) * cos;
+
+			final var x3 = (lHalfW + originX) * cos - (lHalfH + originY) * sin;
+			final var y3 = (lHalfW + originX) * sin + (lHalfH + originY) * cos;
+
+			addVertToBuffer(buffer, dx + x0, dy + y0, zDepth, 1f, U_LEFT, V_TOP, TEXTURE_SLOT);
+			addVertToBuffer(buffer, dx + x1, dy + y1, zDepth, 1f, U_LEFT, V_BOTTOM, TEXTURE_SLOT);
+			addVertToBuffer(buffer, dx + x2, dy + y2, zDepth, 1f, U_RIGHT, V_BOTTOM, TEXTURE_SLOT);
+			addVertToBuffer(buffer, dx + x3, dy + y3, zDepth, 1f, U_RIGHT, V_TOP, TEXTURE_SLOT);
+		}
+
+		void addVertToBuffer(FloatBuffer buffer, float x, float y, float z, float w, float u, float v, int texIndex) {
+			buffer.put(x);
+			buffer.put(y);
+			buffer.put(z);
+			buffer.put(w);
+
+			buffer.put(mR);
+			buffer.put(mG);
+			buffer.put(mB);
+			buffer.put(mA);
+
+			buffer.put(u);
+			buffer.put(v);
+
+			buffer.put(texIndex);
+		}
+	}
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void write_RandomParticles_ShouldMatchPerParticlePath() {
+		// arrange
+		final var particles = createParticles(2000, new SplittableRandom(5));
+		final var camBounds = new Rectangle(-200.f, -150.f, 400.f, 300.f);
+		final var expectedBuffer = createBuffer(particles.numParticles());
+		final var actualBuffer = createBuffer(particles.numParticles());
+		final var writer = createWriter(camBounds);
+
+		// act
+		new PerParticleWriter().write(expectedBuffer, particles, camBounds);
+		final var nextIndex = writer.write(actualBuffer, particles, 0, particles.numParticles(), Integer.MAX_VALUE);
+
+		// assert
+		assertEquals(particles.numParticles(), nextIndex, "Not all particles were processed.");
+		assertEquals(expectedBuffer.position() / ParticleVertexWriter.NUM_FLOATS_PER_QUAD, writer.numQuadsWritten(), "The number of quads written is wrong.");
+		assertArrayEquals(toArray(expectedBuffer), toArray(actualBuffer), "The vertices differ from those of the per-particle path.");
+	}
+
+	@Test
+	void write_MoreQuadsThanAllowed_ShouldStopAtFirstUnwrittenParticle() {
+		// arrange - the first particle is culled, so the quad limit is reached at the fourth particle
+		final var particles = createParticles(10, new SplittableRandom(5));
+		for (int i = 0; i < particles.numParticles(); i++) {
+			particles.worldPositionX[i] = i == 0 ? 10000.f : 0.f;
+			particles.worldPositionY[i] = 0.f;
+		}
+
+		final var buffer = createBuffer(particles.numParticles());
+		final var writer = createWriter(new Rectangle(-100.f, -100.f, 200.f, 200.f));
+
+		// act
+		final var nextIndex = writer.write(buffer, particles, 0, particles.numParticles(), 3);
+
+		// assert
+		assertEquals(3, writer.numQuadsWritten(), "The wrong number of quads was written.");
+		assertEquals(4, nextIndex, "The writer didn't stop after the last particle it wrote.");
+		assertEquals(3 * ParticleVertexWriter.NUM_FLOATS_PER_QUAD, buffer.position(), "The buffer position doesn't match the number of quads written.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_WriterVsPerParticlePath() {
+		final int lNumParticles = 100_000;
+		final int lNumFrames = 200;
+
+		final var particles = createParticles(lNumParticles, new SplittableRandom(5));
+		final var camBounds = new Rectangle(-200.f, -150.f, 400.f, 300.f);
+		final var buffer = createBuffer(lNumParticles);
+		final var writer = createWriter(camBounds);
+		final var perParticleWriter = new PerParticleWriter();
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			long lStart = System.nanoTime();
+			for (int f = 0; f < lNumFrames; f++) {
+				buffer.clear();
+				writer.write(buffer, particles, 0, lNumParticles, Integer.MAX_VALUE);
+			}
+			final double lWriterMs = (System.nanoTime() - lStart) / (double) lNumFrames / 1_000_000.;
+
+			lStart = System.nanoTime();
+			for (int f = 0; f < lNumFrames; f++) {
+				buffer.clear();
+				perParticleWriter.write(buffer, particles, camBounds);
+			}
+			final double lPerParticleMs = (System.nanoTime() - lStart) / (double) lNumFrames / 1_000_000.;
+
+			if (pass > 0)
+				System.out.printf("%d particles: vertex writer %7.3f ms/frame, per-particle path %7.3f ms/frame%n", lNumParticles, lWriterMs, lPerParticleMs);
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	/** Creates particles around the origin, a quarter of them unrotated, some of them outside of the camera bounds used by the tests. */
+	private static ParticleArrays createParticles(int numParticles, SplittableRandom rand) {
+		final var particles = new ParticleArrays(numParticles);
+		final var particle = new Particle();
+		for (int i = 0; i < numParticles; i++) {
+			particles.add(particle);
+
+			particles.worldPositionX[i] = (rand.nextFloat() - .5f) * 600.f;
+			particles.worldPositionY[i] = (rand.nextFloat() - .5f) * 450.f;
+			particles.width[i] = 16.f;
+			particles.height[i] = 16.f;
+			particles.scale[i] = .5f + rand.nextFloat();
+			particles.rotationInRadians[i] = rand.nextInt(4) == 0 ? 0.f : rand.nextFloat() * 6.28f;
+			particles.rox[i] = rand.nextFloat() * 4.f - 2.f;
+			particles.roy[i] = rand.nextFloat() * 4.f - 2.f;
+			particles.zDepth[i] = rand.nextFloat();
+			particles.colorR[i] = rand.nextFloat();
+			particles.colorG[i] = rand.nextFloat();
+			particles.colorB[i] = rand.nextFloat();
+			particles.colorA[i] = rand.nextFloat();
+		}
+
+		return particles;
+	}
+
+	private static ParticleVertexWriter createWriter(Rectangle camBounds) {
+		final var writer = new ParticleVertexWriter();
+		writer.spriteFrame(FRAME_WIDTH, FRAME_HEIGHT, U_LEFT, V_TOP, U_RIGHT, V_BOTTOM);
+		writer.textureSlotIndex(TEXTURE_SLOT);
+		writer.cullBounds(camBounds);
+		return writer;
+	}
+
+	private static FloatBuffer createBuffer(int numQuads) {
+		return ByteBuffer.allocateDirect(numQuads * ParticleVertexWriter.NUM_FLOATS_PER_QUAD * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+	}
+
+	private static float[] toArray(FloatBuffer buffer) {
+		final var array = new float[buffer.position()];
+		buffer.flip();
+		buffer.get(array);
+		return array;
+	}
+}
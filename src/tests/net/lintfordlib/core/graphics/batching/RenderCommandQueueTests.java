@@ -0,0 +1,216 @@
+package tests.net.lintfordlib.core.graphics.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.graphics.batching.RecordingBatchDrawBackend;
+import net.lintfordlib.core.graphics.batching.RenderCommandQueue;
+
+public class RenderCommandQueueTests {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int NUM_FLOATS_PER_VERTEX = RenderCommandQueue.NUM_FLOATS_PER_QUAD / 4;
+
+	private static final int GL_ONE = 1;
+	private static final int GL_SRC_ALPHA = 0x0302;
+	private static final int GL_ONE_MINUS_SRC_ALPHA = 0x0303;
+
+	private static final int MAX_QUADS = 1000;
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void flush_InterleavedTextures_ShouldGroupByTexture() {
+		// arrange - 16 textures drawn in turn, so each draw call in submission order only holds 8 quads
+		final var queue = new RenderCommandQueue();
+		for (int i = 0; i < 160; i++)
+			addQuad(queue, i, 0.5f, 0, 1 + i % 16, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+		final var backend = new RecordingBatchDrawBackend();
+
+		// act
+		queue.flush(createBuffer(), MAX_QUADS, backend);
+
+		// assert
+		assertEquals(2, backend.numDrawCalls(), "The quads weren't grouped into the fewest draw calls.");
+		assertEquals(160, backend.numQuads(), "Not all quads were drawn.");
+		assertEquals(8, backend.numTextures(0), "The first draw call doesn't use all texture slots.");
+		assertTrue(queue.isEmpty(), "The queue wasn't cleared by the flush.");
+	}
+
+	@Test
+	void flush_SortingDisabled_ShouldMatchSubmissionOrder() {
+		// arrange
+		final var queue = new RenderCommandQueue();
+		queue.sortCommands(false);
+		for (int i = 0; i < 160; i++)
+			addQuad(queue, i, 0.5f, 0, 1 + i % 16, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+		final var backend = new RecordingBatchDrawBackend();
+		backend.recordVertices(true);
+
+		// act
+		queue.flush(createBuffer(), MAX_QUADS, backend);
+
+		// assert
+		assertEquals(20, backend.numDrawCalls(), "The quads weren't drawn with the draw calls of the immediate mode.");
+		for (int i = 0; i < 160; i++)
+			assertEquals(i, markerOf(backend, i), "The quads weren't drawn in submission order.");
+	}
+
+	@Test
+	void flush_LayersAndDepths_ShouldDrawBackToFrontAndKeepSubmissionOrder() {
+		// arrange - (layer, depth) per quad, submitted out of order
+		final var queue = new RenderCommandQueue();
+		addQuad(queue, 0, 0.5f, 1, 1, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		addQuad(queue, 1, -2.f, 0, 2, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		addQuad(queue, 2, 0.5f, 0, 1, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		addQuad(queue, 3, 0.1f, 0, 3, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		addQuad(queue, 4, 0.5f, 0, 1, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+		addQuad(queue, 5, -2.f, 1, 1, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+		final var backend = new RecordingBatchDrawBackend();
+		backend.recordVertices(true);
+
+		// act
+		queue.flush(createBuffer(), MAX_QUADS, backend);
+
+		// assert
+		final int[] expectedOrder = { 1, 3, 2, 4, 5, 0 };
+		for (int i = 0; i < expectedOrder.length; i++)
+			assertEquals(expectedOrder[i], markerOf(backend, i), "Quad " + i + " was drawn out of order.");
+	}
+
+	@Test
+	void flush_BlendStates_ShouldSplitDrawCallsByState() {
+		// arrange
+		final var queue = new RenderCommandQueue();
+		for (int i = 0; i < 30; i++) {
+			final boolean lAdditive = i % 3 == 1;
+			addQuad(queue, i, 0.5f, 0, 1, true, GL_SRC_ALPHA, lAdditive ? GL_ONE : GL_ONE_MINUS_SRC_ALPHA);
+		}
+
+		final var backend = new RecordingBatchDrawBackend();
+
+		// act
+		queue.flush(createBuffer(), MAX_QUADS, backend);
+
+		// assert
+		assertEquals(2, backend.numDrawCalls(), "The quads weren't grouped by blend state.");
+		assertEquals(20, backend.numQuads(0), "The first blend state didn't get its quads.");
+		assertEquals(GL_ONE_MINUS_SRC_ALPHA, backend.blendDstFactor(0), "The first draw call has the wrong blend state.");
+		assertEquals(10, backend.numQuads(1), "The second blend state didn't get its quads.");
+		assertEquals(GL_ONE, backend.blendDstFactor(1), "The second draw call has the wrong blend state.");
+	}
+
+	@Test
+	void flush_MoreQuadsThanFitTheBuffer_ShouldSplitAndResolveTextureSlots() {
+		// arrange
+		final var queue = new RenderCommandQueue();
+		for (int i = 0; i < 25; i++)
+			addQuad(queue, i, 0.5f, 0, 7 + i % 2, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+		final var backend = new RecordingBatchDrawBackend();
+		backend.recordVertices(true);
+
+		// act
+		queue.flush(createBuffer(), 10, backend);
+
+		// assert
+		assertEquals(3, backend.numDrawCalls(), "The quads weren't split at the size of the buffer.");
+		assertEquals(25 * RenderCommandQueue.NUM_FLOATS_PER_QUAD, backend.numVertexFloats(), "The vertex stream has the wrong size.");
+
+		// the 13 quads of texture 7 come first, and each draw call assigns the slots from 0, so only the second draw call uses two slots
+		final var vertices = backend.vertices();
+		for (int q = 0; q < 25; q++) {
+			final int lExpectedSlot = q >= 13 && q < 20 ? 1 : 0;
+			final float lTextureIndex = vertices[q * RenderCommandQueue.NUM_FLOATS_PER_QUAD + NUM_FLOATS_PER_VERTEX - 1];
+			assertEquals(lExpectedSlot, (int) lTextureIndex, "Quad " + q + " has the wrong texture slot.");
+		}
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_SortedVsSubmissionOrder() {
+		final int lNumQuads = 100_000;
+		final int lNumFrames = 100;
+		final int lNumTextures = 24;
+
+		final var lRand = new SplittableRandom(5);
+		final var lQuads = new float[lNumQuads * RenderCommandQueue.NUM_FLOATS_PER_QUAD];
+		final var lTextures = new int[lNumQuads];
+		for (int i = 0; i < lNumQuads; i++) {
+			fillQuad(lQuads, i * RenderCommandQueue.NUM_FLOATS_PER_QUAD, i, 0.5f + lRand.nextInt(4) * .1f);
+			lTextures[i] = 1 + lRand.nextInt(lNumTextures);
+		}
+
+		final var lBuffer = FloatBuffer.allocate(10000 * RenderCommandQueue.NUM_FLOATS_PER_QUAD);
+		final var lBackend = new RecordingBatchDrawBackend();
+		final var lQueue = new RenderCommandQueue();
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			for (int s = 0; s < 2; s++) {
+				final boolean lSorted = s == 1;
+				lQueue.sortCommands(lSorted);
+
+				long lNanos = 0L;
+				for (int f = 0; f < lNumFrames; f++) {
+					lBackend.clear();
+
+					final long lStart = System.nanoTime();
+					for (int i = 0; i < lNumQuads; i++)
+						lQueue.addQuads(lQuads, i * RenderCommandQueue.NUM_FLOATS_PER_QUAD, 1, 0, lTextures[i], null, true, GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+
+					lQueue.flush(lBuffer, 10000, lBackend);
+					lNanos += System.nanoTime() - lStart;
+				}
+
+				if (pass > 0)
+					System.out.printf("%d quads, %d textures, %s: %7.3f ms/frame, %d draw calls%n", lNumQuads, lNumTextures, lSorted ? "sorted" : "submission order", lNanos / (double) lNumFrames / 1_000_000., lBackend.numDrawCalls());
+			}
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static FloatBuffer createBuffer() {
+		return FloatBuffer.allocate(MAX_QUADS * RenderCommandQueue.NUM_FLOATS_PER_QUAD);
+	}
+
+	/** Adds a quad whose x coordinates hold the given marker, so the quad can be identified in the vertex stream. */
+	private static void addQuad(RenderCommandQueue queue, int marker, float zDepth, int layer, int textureId, boolean blendEnabled, int blendSrcFactor, int blendDstFactor) {
+		final var lVertices = new float[RenderCommandQueue.NUM_FLOATS_PER_QUAD];
+		fillQuad(lVertices, 0, marker, zDepth);
+		queue.addQuads(lVertices, 0, 1, layer, textureId, null, blendEnabled, blendSrcFactor, blendDstFactor);
+	}
+
+	private static void fillQuad(float[] vertices, int offset, int marker, float zDepth) {
+		for (int v = 0; v < 4; v++) {
+			final int o = offset + v * NUM_FLOATS_PER_VERTEX;
+			vertices[o] = marker;
+			vertices[o + 1] = v;
+			vertices[o + 2] = zDepth;
+			vertices[o + 3] = 1.f;
+			for (int c = 4; c < 8; c++)
+				vertices[o + c] = 1.f;
+		}
+	}
+
+	private static int markerOf(RecordingBatchDrawBackend backend, int quadIndex) {
+		return (int) backend.vertices()[quadIndex * RenderCommandQueue.NUM_FLOATS_PER_QUAD];
+	}
+}
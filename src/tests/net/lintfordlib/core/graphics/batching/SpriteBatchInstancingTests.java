@@ -0,0 +1,80 @@
+package tests.net.lintfordlib.core.graphics.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import net.lintfordlib.assets.ResourceManager;
+import net.lintfordlib.core.camera.ICamera;
+import net.lintfordlib.core.graphics.batching.SpriteBatch;
+import net.lintfordlib.core.graphics.batching.SpriteInstanceBatch;
+import net.lintfordlib.core.graphics.textures.Texture;
+import net.lintfordlib.core.maths.Matrix4f;
+
+public class SpriteBatchInstancingTests {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int GL_ONE = 1;
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	private record DrawCall(int numInstances, boolean blendEnabled, int blendSrcFactor, int blendDstFactor, Matrix4f modelMatrix) {
+	}
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void drawAroundCenter_MoreThanMaxInstances_ShouldFlushWithTheBlendStateAndModelMatrixOfTheSpriteBatch() {
+		// arrange
+		final var spriteBatch = new SpriteBatch();
+		spriteBatch.useInstancing(true);
+		spriteBatch.customShader(null);
+
+		final var lModelMatrix = new Matrix4f();
+		spriteBatch.modelMatrix(lModelMatrix);
+		spriteBatch.setGlBlendEnabled(false);
+		spriteBatch.setGlBlendFactor(GL_ONE, GL_ONE);
+
+		final List<DrawCall> drawCalls = new ArrayList<>();
+		final var lInstanceBatch = spriteBatch.instanceBatch();
+		lInstanceBatch.drawBackend((instances, numInstances, textureSlots, blendEnabled, blendSrcFactor, blendDstFactor, modelMatrix) -> drawCalls.add(new DrawCall(numInstances, blendEnabled, blendSrcFactor, blendDstFactor, modelMatrix)));
+		lInstanceBatch.loadResources(Mockito.mock(ResourceManager.class, Mockito.withSettings().stubOnly()));
+		lInstanceBatch.begin(Mockito.mock(ICamera.class, Mockito.withSettings().stubOnly()));
+
+		final var lTexture = Mockito.mock(Texture.class, Mockito.withSettings().stubOnly());
+		Mockito.when(lTexture.getTextureID()).thenReturn(1);
+		Mockito.when(lTexture.getTextureWidth()).thenReturn(64);
+		Mockito.when(lTexture.getTextureHeight()).thenReturn(64);
+
+		// act
+		for (int i = 0; i < SpriteInstanceBatch.MAX_INSTANCES + 1; i++)
+			spriteBatch.drawAroundCenter(lTexture, 0.f, 0.f, 16.f, 16.f, i, 0.f, 16.f, 16.f, -0.1f, 0.f, 0.f, 0.f, 1.f);
+
+		spriteBatch.end();
+
+		// assert
+		assertEquals(2, drawCalls.size(), "The instance batch didn't overflow into a second draw call.");
+		assertEquals(SpriteInstanceBatch.MAX_INSTANCES, drawCalls.get(0).numInstances());
+		assertEquals(1, drawCalls.get(1).numInstances());
+
+		for (final var lDrawCall : drawCalls) {
+			assertFalse(lDrawCall.blendEnabled(), "A draw call used the blend state of the instance batch instead of the sprite batch.");
+			assertEquals(GL_ONE, lDrawCall.blendSrcFactor());
+			assertEquals(GL_ONE, lDrawCall.blendDstFactor());
+			assertSame(lModelMatrix, lDrawCall.modelMatrix(), "A draw call used the model matrix of the instance batch instead of the sprite batch.");
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package tests.net.lintfordlib.core.graphics.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.batching.ParticleVertexWriter;
+import net.lintfordlib.core.graphics.batching.SpriteInstanceWriter;
+import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
+
+public class SpriteInstanceWriterTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void write_OneInstance_ShouldMatchByteLayout() {
+		// arrange
+		final var buffer = ByteBuffer.allocate(2 * SpriteInstanceWriter.BYTES_PER_INSTANCE).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.position(4);
+
+		// act
+		SpriteInstanceWriter.write(buffer, 10.f, 20.f, -.5f, 32.f, 16.f, 1.5f, -2.f, 3.f, 1.f, .5f, 0.f, .25f, 0.f, 1.f, .5f, .25f, 7);
+
+		// assert - offsets relative to the start position of the buffer
+		assertEquals(4 + 48, buffer.position(), "The position wasn't advanced by one instance.");
+		assertEquals(10.f, buffer.getFloat(4 + 0), "Wrong position x.");
+		assertEquals(20.f, buffer.getFloat(4 + 4), "Wrong position y.");
+		assertEquals(-.5f, buffer.getFloat(4 + 8), "Wrong depth.");
+		assertEquals(32.f, buffer.getFloat(4 + 12), "Wrong width.");
+		assertEquals(16.f, buffer.getFloat(4 + 16), "Wrong height.");
+		assertEquals(1.5f, buffer.getFloat(4 + 20), "Wrong rotation.");
+		assertEquals(-2.f, buffer.getFloat(4 + 24), "Wrong origin x.");
+		assertEquals(3.f, buffer.getFloat(4 + 28), "Wrong origin y.");
+
+		assertEquals(0xFF, buffer.get(4 + 32) & 0xFF, "Wrong red byte.");
+		assertEquals(0x80, buffer.get(4 + 33) & 0xFF, "Wrong green byte.");
+		assertEquals(0x00, buffer.get(4 + 34) & 0xFF, "Wrong blue byte.");
+		assertEquals(0x40, buffer.get(4 + 35) & 0xFF, "Wrong alpha byte.");
+
+		// little endian shorts
+		assertEquals(0x00, buffer.get(4 + 36) & 0xFF, "Wrong u0 low byte.");
+		assertEquals(0x00, buffer.get(4 + 37) & 0xFF, "Wrong u0 high byte.");
+		assertEquals(0xFF, buffer.get(4 + 38) & 0xFF, "Wrong v0 low byte.");
+		assertEquals(0xFF, buffer.get(4 + 39) & 0xFF, "Wrong v0 high byte.");
+		assertEquals(0x8000, buffer.getShort(4 + 40) & 0xFFFF, "Wrong u1.");
+		assertEquals(0x4000, buffer.getShort(4 + 42) & 0xFFFF, "Wrong v1.");
+
+		assertEquals(7.f, buffer.getFloat(4 + 44), "Wrong texture slot index.");
+	}
+
+	@Test
+	void packUnorm_OutOfRangeValues_ShouldClamp() {
+		// arrange
+		final float[] values = { -1.f, 0.f, 1.f / 255.f, 1.f, 2.f, Float.NaN };
+
+		// act
+		final var lBytes = new int[values.length];
+		final var lShorts = new int[values.length];
+		for (int i = 0; i < values.length; i++) {
+			lBytes[i] = SpriteInstanceWriter.packUnorm8(values[i]) & 0xFF;
+			lShorts[i] = SpriteInstanceWriter.packUnorm16(values[i]) & 0xFFFF;
+		}
+
+		// assert
+		assertEquals(0, lBytes[0], "Negative values weren't clamped to 0.");
+		assertEquals(0, lBytes[1]);
+		assertEquals(1, lBytes[2], "The value wasn't rounded to the nearest byte.");
+		assertEquals(255, lBytes[3]);
+		assertEquals(255, lBytes[4], "Values above 1 weren't clamped to 255.");
+		assertEquals(0, lBytes[5], "NaN wasn't packed as 0.");
+		assertEquals(0, lShorts[0], "Negative values weren't clamped to 0.");
+		assertEquals(257, lShorts[2], "The value wasn't rounded to the nearest short.");
+		assertEquals(65535, lShorts[4], "Values above 1 weren't clamped to 65535.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_InstancesVsVertices() {
+		final int lNumSprites = 100_000;
+		final int lNumFrames = 200;
+
+		final var lRand = new SplittableRandom(3);
+		final var lSprites = new ParticleArrays(lNumSprites);
+		final var lParticle = new Particle();
+		for (int i = 0; i < lNumSprites; i++) {
+			lParticle.spawnParticle(lRand.nextFloat() * 1000.f, lRand.nextFloat() * 1000.f, 0.f, 0.f, 0.f, 1000.f);
+			lParticle.rotationInRadians = lRand.nextFloat() * 6.f;
+			lParticle.width = 16.f;
+			lParticle.height = 16.f;
+			lSprites.add(lParticle);
+		}
+
+		// the current path, with the same quads TextureBatchPCT.drawAroundCenter writes (but without its per sprite calls and lookups)
+		final var lVertexWriter = new ParticleVertexWriter();
+		lVertexWriter.spriteFrame(16.f, 16.f, 0.f, 0.f, .25f, .25f);
+		lVertexWriter.cullBounds(new Rectangle(-10000.f, -10000.f, 20000.f, 20000.f));
+		final var lVertexBuffer = ByteBuffer.allocateDirect(lNumSprites * ParticleVertexWriter.NUM_FLOATS_PER_QUAD * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+
+		final var lInstanceBuffer = ByteBuffer.allocateDirect(lNumSprites * SpriteInstanceWriter.BYTES_PER_INSTANCE).order(ByteOrder.nativeOrder());
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			var lVertexNanos = 0L;
+			var lInstanceNanos = 0L;
+			for (int f = 0; f < lNumFrames; f++) {
+				long lStart = System.nanoTime();
+				lVertexBuffer.clear();
+				lVertexWriter.write(lVertexBuffer, lSprites, 0, lNumSprites, lNumSprites);
+				lVertexNanos += System.nanoTime() - lStart;
+
+				lStart = System.nanoTime();
+				writeInstances(lInstanceBuffer, lSprites);
+				lInstanceNanos += System.nanoTime() - lStart;
+			}
+
+			if (pass > 0) {
+				final long lVertexBytes = lVertexBuffer.position() * (long) Float.BYTES;
+				final long lInstanceBytes = lInstanceBuffer.position();
+				System.out.printf("%d sprites: vertices %7.3f ms/frame, %d bytes uploaded%n", lNumSprites, lVertexNanos / (double) lNumFrames / 1_000_000., lVertexBytes);
+				System.out.printf("%d sprites: instances %7.3f ms/frame, %d bytes uploaded%n", lNumSprites, lInstanceNanos / (double) lNumFrames / 1_000_000., lInstanceBytes);
+			}
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	/** Writes the sprites as SpriteInstanceBatch.drawAroundCenter does. */
+	private static void writeInstances(ByteBuffer buffer, ParticleArrays sprites) {
+		buffer.clear();
+
+		final int lNumSprites = sprites.numParticles();
+		for (int i = 0; i < lNumSprites; i++) {
+			final float lScale = sprites.scale[i];
+			SpriteInstanceWriter.write(buffer, sprites.worldPositionX[i], sprites.worldPositionY[i], sprites.zDepth[i], 16.f * lScale, 16.f * lScale, sprites.rotationInRadians[i], -sprites.rox[i], -sprites.roy[i], sprites.colorR[i], sprites.colorG[i], sprites.colorB[i], sprites.colorA[i], 0.f, 0.f, .25f, .25f, 0);
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package tests.net.lintfordlib.core.graphics.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.graphics.batching.RenderCommandQueue;
+import net.lintfordlib.core.graphics.batching.StaticGeometryChunk;
+import net.lintfordlib.core.graphics.batching.StaticGeometryChunks;
+
+public class StaticGeometryChunksTests {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final float CHUNK_SIZE = 100.f;
+	private static final int NUM_FLOATS_PER_VERTEX = 11;
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void endRebuild_QuadsInDifferentRegions_ShouldBeKeyedByTheCellOfTheirCenter() {
+		// arrange
+		final var chunks = new StaticGeometryChunks(CHUNK_SIZE, 1000);
+
+		// act
+		chunks.beginRebuild();
+		addQuad(chunks, 10.f, 10.f, 32.f, 32.f, 1);
+		addQuad(chunks, 50.f, 60.f, 32.f, 32.f, 1);
+		addQuad(chunks, 150.f, 10.f, 32.f, 32.f, 1);
+		addQuad(chunks, -40.f, 10.f, 32.f, 32.f, 1);
+		chunks.endRebuild();
+
+		// assert
+		assertEquals(3, chunks.numChunks());
+		assertEquals(2, chunks.chunk(0, 0).numQuads(), "The quads of the first cell weren't grouped into one chunk.");
+		assertEquals(1, chunks.chunk(1, 0).numQuads());
+		assertEquals(1, chunks.chunk(-1, 0).numQuads(), "Negative positions weren't floored into their cell.");
+		assertEquals(82.f, chunks.chunk(0, 0).boundsMaxX(), "The chunk bounds don't enclose its quads.");
+		assertFalse(chunks.isDirty(), "The geometry is still dirty after the rebuild.");
+	}
+
+	@Test
+	void cull_CameraBounds_ShouldOnlyReturnChunksWithQuadsInsideTheBounds() {
+		// arrange
+		final var chunks = new StaticGeometryChunks(CHUNK_SIZE, 1000);
+		chunks.beginRebuild();
+		addQuad(chunks, 10.f, 10.f, 32.f, 32.f, 1); // cell (0, 0)
+		addQuad(chunks, 90.f, 10.f, 60.f, 32.f, 1); // cell (1, 0), but reaches into cell (0, 0)
+		addQuad(chunks, 250.f, 10.f, 32.f, 32.f, 1); // cell (2, 0)
+		addQuad(chunks, 10.f, 250.f, 32.f, 32.f, 1); // cell (0, 2)
+		chunks.endRebuild();
+
+		final List<StaticGeometryChunk> visibleChunks = new ArrayList<>();
+
+		// act
+		final int lNumVisible = chunks.cull(new Rectangle(0.f, 0.f, 100.f, 100.f), visibleChunks);
+
+		// assert
+		assertEquals(2, lNumVisible);
+		assertTrue(visibleChunks.contains(chunks.chunk(0, 0)));
+		assertTrue(visibleChunks.contains(chunks.chunk(1, 0)), "A chunk whose quads reach into the bounds was culled.");
+	}
+
+	@Test
+	void endRebuild_MoreTexturesThanSlots_ShouldSortByTextureAndSplitDrawRanges() {
+		// arrange - 10 textures, submitted alternately
+		final var chunks = new StaticGeometryChunks(CHUNK_SIZE, 1000);
+		chunks.beginRebuild();
+		for (int i = 0; i < 20; i++)
+			addQuad(chunks, i * 2.f, 0.f, 2.f, 2.f, 1 + i % 10);
+
+		// act
+		chunks.endRebuild();
+
+		// assert
+		final var lChunk = chunks.chunk(0, 0);
+		assertEquals(20, lChunk.numQuads());
+		assertEquals(2, lChunk.numDrawRanges(), "The quads weren't split when the texture slots were full.");
+
+		final var lFirstRange = lChunk.drawRange(0);
+		final var lSecondRange = lChunk.drawRange(1);
+		assertEquals(8, lFirstRange.textureSlots().numTextures());
+		assertEquals(16, lFirstRange.numQuads(), "The quads weren't grouped by texture.");
+		assertEquals(16, lSecondRange.firstQuad());
+		assertEquals(4, lSecondRange.numQuads());
+
+		// the texture index of each vertex refers to the slots of its range
+		final var lVertices = lChunk.vertices();
+		final int lLastQuad = lChunk.numQuads() - 1;
+		final int lTextureSlot = (int) lVertices[lLastQuad * RenderCommandQueue.NUM_FLOATS_PER_QUAD + NUM_FLOATS_PER_VERTEX - 1];
+		assertEquals(10, lSecondRange.textureSlots().textureId(lTextureSlot));
+	}
+
+	@Test
+	void beginRebuild_DirtyRegion_ShouldOnlyRebuildChunksInTheRegion() {
+		// arrange
+		final var chunks = new StaticGeometryChunks(CHUNK_SIZE, 1000);
+		chunks.beginRebuild();
+		addQuad(chunks, 10.f, 10.f, 32.f, 32.f, 1);
+		addQuad(chunks, 110.f, 10.f, 32.f, 32.f, 1);
+		chunks.endRebuild();
+
+		final var lCleanChunk = chunks.chunk(1, 0);
+		final var lCleanVertices = lCleanChunk.vertices();
+
+		// act - the owner submits all of its quads again, with one more in each cell
+		chunks.markDirty(10.f, 10.f, 32.f, 32.f);
+		chunks.beginRebuild();
+		addQuad(chunks, 10.f, 10.f, 32.f, 32.f, 1);
+		addQuad(chunks, 50.f, 10.f, 32.f, 32.f, 2);
+		addQuad(chunks, 110.f, 10.f, 32.f, 32.f, 1);
+		addQuad(chunks, 150.f, 10.f, 32.f, 32.f, 2);
+		addQuad(chunks, 410.f, 10.f, 32.f, 32.f, 2);
+		chunks.endRebuild();
+
+		// assert
+		assertEquals(2, chunks.chunk(0, 0).numQuads(), "The dirty chunk wasn't rebuilt.");
+		assertEquals(2, chunks.chunk(0, 0).buildCount());
+		assertEquals(1, lCleanChunk.numQuads(), "A chunk outside of the dirty region was rebuilt.");
+		assertEquals(1, lCleanChunk.buildCount());
+		assertSame(lCleanVertices, lCleanChunk.vertices());
+		assertNull(chunks.chunk(4, 0), "A chunk outside of the dirty region was created.");
+		assertNotNull(chunks.chunk(0, 0));
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	/** Adds an axis aligned quad with the vertex order of TextureBatchPCT.draw. */
+	private static void addQuad(StaticGeometryChunks chunks, float x, float y, float w, float h, int textureId) {
+		final var lVertices = new float[RenderCommandQueue.NUM_FLOATS_PER_QUAD];
+		putVertex(lVertices, 0, x, y + h);
+		putVertex(lVertices, 1, x, y);
+		putVertex(lVertices, 2, x + w, y);
+		putVertex(lVertices, 3, x + w, y + h);
+
+		chunks.addQuads(lVertices, 0, 1, 0, textureId, null, true, 0x0302, 0x0303);
+	}
+
+	private static void putVertex(float[] vertices, int vertexIndex, float x, float y) {
+		final int o = vertexIndex * NUM_FLOATS_PER_VERTEX;
+		vertices[o] = x;
+		vertices[o + 1] = y;
+		vertices[o + 3] = 1.f;
+		vertices[o + 4] = 1.f;
+		vertices[o + 5] = 1.f;
+		vertices[o + 6] = 1.f;
+		vertices[o + 7] = 1.f;
+	}
+}
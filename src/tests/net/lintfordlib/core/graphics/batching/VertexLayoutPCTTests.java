@@ -0,0 +1,91 @@
+package tests.net.lintfordlib.core.graphics.batching;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.graphics.batching.VertexLayoutPCT;
+
+public class VertexLayoutPCTTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void encode_CompactUnorm16Uv_ShouldMatchByteLayout() {
+		// arrange
+		final var layout = VertexLayoutPCT.COMPACT_UNORM16_UV;
+		final var source = createVertex(10.f, 20.f, -.5f, 1.f, .5f, 0.f, .25f, .5f, 1.f, 7.f);
+		final var destination = ByteBuffer.allocate(4 + layout.stride()).order(ByteOrder.LITTLE_ENDIAN);
+		destination.position(4);
+
+		// act
+		layout.encode(source, destination);
+
+		// assert - offsets relative to the start position of the buffer
+		assertEquals(4 + 24, destination.position(), "The position wasn't advanced by one vertex.");
+		assertEquals(0, source.position(), "The position of the source was changed.");
+		assertEquals(24, layout.stride(), "Wrong compact stride.");
+
+		assertEquals(10.f, destination.getFloat(4 + 0), "Wrong position x.");
+		assertEquals(20.f, destination.getFloat(4 + 4), "Wrong position y.");
+		assertEquals(-.5f, destination.getFloat(4 + 8), "Wrong position z.");
+
+		assertEquals(0xFF, destination.get(4 + 12) & 0xFF, "Wrong red byte.");
+		assertEquals(0x80, destination.get(4 + 13) & 0xFF, "Wrong green byte.");
+		assertEquals(0x00, destination.get(4 + 14) & 0xFF, "Wrong blue byte.");
+		assertEquals(0x40, destination.get(4 + 15) & 0xFF, "Wrong alpha byte.");
+
+		assertEquals(0x8000, destination.getShort(4 + 16) & 0xFFFF, "Wrong u.");
+		assertEquals(0xFFFF, destination.getShort(4 + 18) & 0xFFFF, "Wrong v.");
+
+		assertEquals(7, destination.get(4 + 20), "Wrong texture index.");
+		assertEquals(0, destination.get(4 + 21), "The padding wasn't zeroed.");
+		assertEquals(0, destination.get(4 + 22), "The padding wasn't zeroed.");
+		assertEquals(0, destination.get(4 + 23), "The padding wasn't zeroed.");
+	}
+
+	@Test
+	void encode_CompactHalfFloatUv_ShouldWriteHalfFloats() {
+		// arrange
+		final var layout = VertexLayoutPCT.COMPACT_HALF_FLOAT_UV;
+		final var source = createVertex(0.f, 0.f, 0.f, 1.f, 1.f, 1.f, 1.f, 1.5f, .25f, 0.f);
+		final var destination = ByteBuffer.allocate(layout.stride()).order(ByteOrder.LITTLE_ENDIAN);
+
+		// act
+		layout.encode(source, destination);
+
+		// assert - coordinates outside of [0, 1] aren't clamped
+		assertEquals(0x3E00, destination.getShort(16) & 0xFFFF, "Wrong half float u.");
+		assertEquals(0x3400, destination.getShort(18) & 0xFFFF, "Wrong half float v.");
+	}
+
+	@Test
+	void encode_Float_ShouldCopyAllFloats() {
+		// arrange
+		final var layout = VertexLayoutPCT.FLOAT;
+		final var source = createVertex(1.f, 2.f, 3.f, .1f, .2f, .3f, .4f, .5f, .6f, 2.f);
+		final var destination = ByteBuffer.allocate(layout.stride()).order(ByteOrder.LITTLE_ENDIAN);
+
+		// act
+		layout.encode(source, destination);
+
+		// assert
+		assertEquals(44, destination.position(), "The position wasn't advanced by one vertex.");
+		for (int i = 0; i < VertexLayoutPCT.NUM_SOURCE_FLOATS_PER_VERTEX; i++)
+			assertEquals(source.get(i), destination.getFloat(i * Float.BYTES), "Float " + i + " wasn't copied.");
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static FloatBuffer createVertex(float x, float y, float z, float r, float g, float b, float a, float u, float v, float textureIndex) {
+		return FloatBuffer.wrap(new float[] { x, y, z, 1.f, r, g, b, a, u, v, textureIndex });
+	}
+}
@@ -0,0 +1,210 @@
+package tests.net.lintfordlib.core.graphics.buffers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.graphics.buffers.IVertexStreamGl;
+import net.lintfordlib.core.graphics.buffers.VertexStreamBuffer;
+
+public class VertexStreamBufferTests {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** Keeps the buffer in heap memory and records the fences, instead of calling OpenGl. */
+	private static class FakeVertexStreamGl implements IVertexStreamGl {
+
+		ByteBuffer storage;
+		int numBufferDataCalls;
+		int numMapRangeCalls;
+		int numUnmapCalls;
+
+		long nextFence = 1;
+		final Set<Long> liveFences = new HashSet<>();
+		final List<Long> waitedFences = new ArrayList<>();
+
+		@Override
+		public int genBuffer() {
+			return 7;
+		}
+
+		@Override
+		public void deleteBuffer(int bufferId) {
+			storage = null;
+		}
+
+		@Override
+		public void bindArrayBuffer(int bufferId) {
+
+		}
+
+		@Override
+		public void bufferData(long sizeInBytes) {
+			storage = ByteBuffer.allocate((int) sizeInBytes).order(ByteOrder.nativeOrder());
+			numBufferDataCalls++;
+		}
+
+		@Override
+		public ByteBuffer mapBufferRangeUnsynchronized(long offsetInBytes, long lengthInBytes) {
+			numMapRangeCalls++;
+			return storage.slice((int) offsetInBytes, (int) lengthInBytes);
+		}
+
+		@Override
+		public ByteBuffer bufferStorageMapPersistent(long sizeInBytes) {
+			storage = ByteBuffer.allocate((int) sizeInBytes).order(ByteOrder.nativeOrder());
+			return storage.duplicate();
+		}
+
+		@Override
+		public void unmapBuffer() {
+			numUnmapCalls++;
+		}
+
+		@Override
+		public long fenceSync() {
+			liveFences.add(nextFence);
+			return nextFence++;
+		}
+
+		@Override
+		public boolean clientWaitSync(long fence, long timeoutInNanos) {
+			waitedFences.add(fence);
+			return true;
+		}
+
+		@Override
+		public void deleteSync(long fence) {
+			liveFences.remove(fence);
+		}
+
+		float floatAt(int vertex, int strideInBytes) {
+			return storage.order(ByteOrder.nativeOrder()).getFloat(vertex * strideInBytes);
+		}
+	}
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int NUM_FLOATS_PER_VERTEX = 8;
+	private static final int STRIDE = NUM_FLOATS_PER_VERTEX * Float.BYTES;
+	private static final int VERTICES_PER_SEGMENT = 100;
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void upload_UploadsFitIntoSegment_ShouldAppendAndWriteVertices() {
+		// arrange
+		final var gl = new FakeVertexStreamGl();
+		final var stream = new VertexStreamBuffer(gl, STRIDE, VERTICES_PER_SEGMENT, true);
+		stream.loadResources();
+
+		// act
+		final int lFirst = stream.upload(createVertices(10, 1.f));
+		final int lSecond = stream.upload(createVertices(5, 2.f));
+
+		// assert
+		assertEquals(0, lFirst, "The first upload doesn't start at the beginning of the buffer.");
+		assertEquals(10, lSecond, "The second upload wasn't appended to the first.");
+		assertEquals(1.f, gl.floatAt(9, STRIDE), "The first upload wasn't written into the mapped buffer.");
+		assertEquals(2.f, gl.floatAt(10, STRIDE), "The second upload wasn't written behind the first.");
+		assertEquals(15L * STRIDE, stream.numBytesUploaded(), "The uploaded bytes weren't counted.");
+		assertTrue(gl.liveFences.isEmpty(), "A fence was inserted before the segment was left.");
+	}
+
+	@Test
+	void upload_UploadDoesNotFitSegment_ShouldFenceSegmentAndMoveToNext() {
+		// arrange
+		final var gl = new FakeVertexStreamGl();
+		final var stream = new VertexStreamBuffer(gl, STRIDE, VERTICES_PER_SEGMENT, true);
+		stream.loadResources();
+		stream.upload(createVertices(60, 1.f));
+
+		// act
+		final int lFirstVertex = stream.upload(createVertices(60, 2.f));
+
+		// assert
+		assertEquals(VERTICES_PER_SEGMENT, lFirstVertex, "The upload didn't move to the start of the next segment.");
+		assertEquals(1, stream.segmentIndex(), "The ring is in the wrong segment.");
+		assertEquals(1, gl.liveFences.size(), "The segment which was left wasn't fenced.");
+		assertEquals(0, stream.numFenceWaits(), "The ring waited for a segment which was never used.");
+	}
+
+	@Test
+	void upload_RingWrapsAround_ShouldWaitForFenceOfReusedSegment() {
+		// arrange
+		final var gl = new FakeVertexStreamGl();
+		final var stream = new VertexStreamBuffer(gl, STRIDE, VERTICES_PER_SEGMENT, true);
+		stream.loadResources();
+		for (int i = 0; i < VertexStreamBuffer.NUM_SEGMENTS; i++)
+			stream.upload(createVertices(60, 1.f));
+
+		// act
+		final int lFirstVertex = stream.upload(createVertices(60, 2.f));
+
+		// assert
+		assertEquals(0, lFirstVertex, "The ring didn't wrap around to the start of the buffer.");
+		assertEquals(1, stream.numWrapArounds(), "The wrap around wasn't counted.");
+		assertEquals(List.of(1L), gl.waitedFences, "The ring didn't wait for the fence of the first segment.");
+		assertEquals(Set.of(2L, 3L), gl.liveFences, "The fence of the reused segment wasn't deleted, or the others were.");
+		assertEquals(0, gl.numBufferDataCalls, "A persistently mapped buffer mustn't be orphaned.");
+	}
+
+	@Test
+	void upload_WithoutPersistentMapping_ShouldOrphanBufferOnWrapAround() {
+		// arrange
+		final var gl = new FakeVertexStreamGl();
+		final var stream = new VertexStreamBuffer(gl, STRIDE, VERTICES_PER_SEGMENT, false);
+		stream.loadResources();
+		for (int i = 0; i < VertexStreamBuffer.NUM_SEGMENTS; i++)
+			stream.upload(createVertices(60, 1.f));
+
+		// act
+		final int lFirstVertex = stream.upload(createVertices(60, 2.f));
+
+		// assert
+		assertEquals(0, lFirstVertex, "The ring didn't wrap around to the start of the buffer.");
+		assertEquals(2, gl.numBufferDataCalls, "The buffer wasn't orphaned when the ring wrapped around.");
+		assertEquals(4, gl.numMapRangeCalls, "Each upload should map its own range.");
+		assertEquals(gl.numMapRangeCalls, gl.numUnmapCalls, "A mapped range wasn't unmapped.");
+		assertEquals(2.f, gl.floatAt(0, STRIDE), "The upload wasn't written into the orphaned buffer.");
+		assertEquals(1L, gl.nextFence, "Fences were inserted without persistent mapping.");
+	}
+
+	@Test
+	void upload_MoreVerticesThanSegment_ShouldThrow() {
+		// arrange
+		final var stream = new VertexStreamBuffer(new FakeVertexStreamGl(), STRIDE, VERTICES_PER_SEGMENT, true);
+		stream.loadResources();
+
+		// act & assert
+		assertThrows(IllegalArgumentException.class, () -> stream.upload(createVertices(VERTICES_PER_SEGMENT + 1, 1.f)));
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static FloatBuffer createVertices(int numVertices, float value) {
+		final var lVertices = FloatBuffer.allocate(numVertices * NUM_FLOATS_PER_VERTEX);
+		while (lVertices.hasRemaining())
+			lVertices.put(value);
+
+		return lVertices.flip();
+	}
+}
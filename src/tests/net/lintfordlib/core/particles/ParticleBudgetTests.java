@@ -0,0 +1,164 @@
+package tests.net.lintfordlib.core.particles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.geometry.Rectangle;
+import net.lintfordlib.core.particles.ParticleBudget;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemConstants;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemDefinition;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemInstance;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemManager;
+
+public class ParticleBudgetTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void emissionScale_EmitterInView_ShouldNotBeScaled() {
+		// arrange
+		final var budget = new ParticleBudget();
+		budget.setEnabled(true);
+		budget.beginFrame(new Rectangle(-100.f, -100.f, 200.f, 200.f), new ParticleSystemManager(null));
+
+		// act
+		final var scale = budget.emissionScale(50.f, -50.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW);
+
+		// assert
+		assertEquals(1.f, scale, "An emitter in view had its emission scaled without any budget pressure.");
+	}
+
+	@Test
+	void emissionScale_EmitterBeyondCutoffDistance_ShouldOnlyEmitIfCritical() {
+		// arrange
+		final var budget = new ParticleBudget();
+		budget.setEnabled(true);
+		budget.emissionCutoffDistance(500.f);
+		budget.beginFrame(new Rectangle(-100.f, -100.f, 200.f, 200.f), new ParticleSystemManager(null));
+
+		// act
+		final var nearScale = budget.emissionScale(350.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL);
+		final var farScale = budget.emissionScale(700.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL);
+		final var criticalScale = budget.emissionScale(700.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_CRITICAL);
+
+		// assert
+		assertEquals(ParticleBudget.DEFAULT_OFFSCREEN_EMISSION_SCALE * .5f, nearScale, 1e-6f, "The emission didn't fall off linearly with the distance from the view.");
+		assertEquals(0.f, farScale, "An emitter beyond the cutoff distance still emits.");
+		assertEquals(1.f, criticalScale, "The emission of a critical system was scaled.");
+	}
+
+	@Test
+	void emissionScale_UnderPressure_ShouldThrottleLowerPrioritiesMore() {
+		// arrange - 80% of the budget is in use
+		final var manager = new ParticleSystemManager(null);
+		addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL, 800);
+
+		final var budget = new ParticleBudget();
+		budget.setEnabled(true);
+		budget.maxParticles(1000);
+		budget.beginFrame(null, manager);
+
+		// act
+		final var lowScale = budget.emissionScale(0.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW);
+		final var normalScale = budget.emissionScale(0.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL);
+		final var highScale = budget.emissionScale(0.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_HIGH);
+
+		// assert
+		assertTrue(lowScale < normalScale, "Low priority emission wasn't throttled more than normal priority emission.");
+		assertTrue(normalScale < highScale, "Normal priority emission wasn't throttled more than high priority emission.");
+		assertEquals(1.f, highScale, "High priority emission was throttled below its pressure threshold.");
+	}
+
+	@Test
+	void enforce_OverBudget_ShouldDropLowestPriorityParticlesFirst() {
+		// arrange
+		final var manager = new ParticleSystemManager(null);
+		final var lowA = addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW, 300);
+		final var lowB = addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW, 100);
+		final var normal = addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL, 600);
+		final var critical = addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_CRITICAL, 500);
+
+		final var budget = new ParticleBudget();
+		budget.setEnabled(true);
+		budget.maxParticles(1000);
+
+		// act
+		final var numDropped = budget.enforce(manager);
+
+		// assert
+		assertEquals(500, numDropped, "The wrong number of particles was dropped.");
+		assertEquals(0, lowA.numParticles() + lowB.numParticles(), "Not all low priority particles were dropped.");
+		assertEquals(500, normal.numParticles(), "The normal priority system didn't make up the rest of the excess.");
+		assertEquals(500, critical.numParticles(), "Particles of a critical system were dropped.");
+	}
+
+	@Test
+	void enforce_OverBudget_ShouldDropTheOldestParticles() {
+		// arrange
+		final var manager = new ParticleSystemManager(null);
+		final var system = addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_NORMAL, 10);
+
+		final var particles = system.particles();
+		for (int i = 0; i < particles.numParticles(); i++)
+			particles.timeSinceStart[i] = (i * 7) % 10 * 100.f;
+
+		final var budget = new ParticleBudget();
+		budget.setEnabled(true);
+		budget.maxParticles(6);
+
+		// act
+		budget.enforce(manager);
+
+		// assert
+		assertEquals(6, particles.numParticles());
+		for (int i = 0; i < particles.numParticles(); i++)
+			assertTrue(particles.timeSinceStart[i] < 600.f, "A particle was kept while an older one was dropped.");
+	}
+
+	@Test
+	void enforce_Default_ShouldNotDropParticles() {
+		// arrange
+		final var manager = new ParticleSystemManager(null);
+		final var system = addSystem(manager, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW, 100);
+
+		final var budget = new ParticleBudget();
+		budget.maxParticles(10);
+		budget.beginFrame(new Rectangle(-100.f, -100.f, 200.f, 200.f), manager);
+
+		// act
+		final var numDropped = budget.enforce(manager);
+		final var offscreenScale = budget.emissionScale(500.f, 0.f, ParticleSystemConstants.PARTICLE_SYSTEM_PRIORITY_LOW);
+
+		// assert
+		assertFalse(budget.isEnabled(), "The budget should be opt-in.");
+		assertEquals(0, numDropped);
+		assertEquals(100, system.numParticles());
+		assertEquals(1.f, offscreenScale, "The emission was scaled by a disabled budget.");
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static ParticleSystemInstance addSystem(ParticleSystemManager manager, int priority, int numParticles) {
+		final var lDefinition = new ParticleSystemDefinition();
+		lDefinition.name = "system" + manager.getNumParticleSystems();
+		lDefinition.maxParticleCount = numParticles;
+		lDefinition.particleLifeMin = 1000.f;
+		lDefinition.priority = priority;
+
+		final var lSystem = new ParticleSystemInstance();
+		lSystem.assignSystemDefinitionAndResolveEmitters(manager.getNumParticleSystems(), lDefinition, null);
+		manager.particleSystems().add(lSystem);
+
+		for (int i = 0; i < numParticles; i++)
+			lSystem.spawnParticle(0.f, 0.f, 0.f, 0.f, 0.f);
+
+		return lSystem;
+	}
+}
@@ -0,0 +1,187 @@
+package tests.net.lintfordlib.core.particles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
+import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
+import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierPipeline;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleAlphaInOutModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleAlphaModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleDragModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleGravityModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticlePhysicsModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleScaleInOutModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleScaleModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleTurnToFaceModifier;
+
+public class ParticleModifierPipelineTests {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** A subclass of a built-in modifier, which the pipeline mustn't fuse. */
+	private static class StrongDragModifier extends ParticleDragModifier {
+		private static final long serialVersionUID = 1L;
+
+		StrongDragModifier() {
+			dragCoefficient = .5f;
+		}
+	}
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void compile_BuiltInModifiers_ShouldFuseIntoOneStage() {
+		// arrange
+		final var modifiers = createEffectModifiers();
+
+		// act
+		final var pipeline = ParticleModifierPipeline.compile(modifiers);
+
+		// assert
+		assertEquals(1, pipeline.numStages(), "The built-in modifiers weren't fused into a single pass.");
+		assertEquals(modifiers.size(), pipeline.numFusedModifiers(), "Not all built-in modifiers were fused.");
+	}
+
+	@Test
+	void compile_DependentOrderOrUnknownModifier_ShouldSplitStages() {
+		// arrange - the physics spin would run before turn-to-face in a fused kernel, and the subclass can't be fused
+		final var modifiers = new ArrayList<ParticleModifierBase>();
+		modifiers.add(new ParticleTurnToFaceModifier());
+		modifiers.add(new ParticlePhysicsModifier());
+		modifiers.add(new StrongDragModifier());
+		modifiers.add(new ParticleAlphaModifier());
+
+		// act
+		final var pipeline = ParticleModifierPipeline.compile(modifiers);
+
+		// assert
+		assertEquals(4, pipeline.numStages(), "The pipeline reordered dependent modifiers or fused an unknown modifier.");
+		assertEquals(3, pipeline.numFusedModifiers(), "The subclass of a built-in modifier was fused.");
+	}
+
+	@Test
+	void isCompiledFrom_ModifierAdded_ShouldReturnFalse() {
+		// arrange
+		final var modifiers = createEffectModifiers();
+		final var pipeline = ParticleModifierPipeline.compile(modifiers);
+
+		// act
+		modifiers.add(new ParticleAlphaModifier());
+
+		// assert
+		assertFalse(pipeline.isCompiledFrom(modifiers), "The pipeline didn't notice the change to the modifiers.");
+	}
+
+	@Test
+	void updateParticles_FusedPipeline_ShouldMatchModifiersInTurn() {
+		// arrange
+		final var modifiers = createEffectModifiers();
+		modifiers.add(2, new StrongDragModifier());
+		modifiers.add(new ParticleAlphaModifier());
+		modifiers.add(new ParticleTurnToFaceModifier());
+
+		final int lNumParticles = 1000;
+		final var expected = createRandomParticles(new SplittableRandom(7), lNumParticles);
+		final var actual = createRandomParticles(new SplittableRandom(7), lNumParticles);
+		final var pipeline = ParticleModifierPipeline.compile(modifiers);
+
+		// act
+		for (int f = 0; f < 10; f++) {
+			for (final var modifier : modifiers)
+				modifier.updateParticles(null, expected, 0, lNumParticles, 16.f);
+
+			pipeline.updateParticles(null, actual, 0, lNumParticles, 16.f);
+		}
+
+		// assert
+		assertArrayEquals(expected.worldPositionX, actual.worldPositionX, "The fused pipeline moved the particles differently.");
+		assertArrayEquals(expected.worldPositionY, actual.worldPositionY, "The fused pipeline moved the particles differently.");
+		assertArrayEquals(expected.vx, actual.vx, "The fused pipeline changed the velocity differently.");
+		assertArrayEquals(expected.vy, actual.vy, "The fused pipeline changed the velocity differently.");
+		assertArrayEquals(expected.rotationInRadians, actual.rotationInRadians, "The fused pipeline rotated the particles differently.");
+		assertArrayEquals(expected.colorA, actual.colorA, "The fused pipeline changed the alpha differently.");
+		assertArrayEquals(expected.scale, actual.scale, "The fused pipeline changed the scale differently.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_FusedPipelineVsModifiersInTurn() {
+		final int lNumParticles = 100_000;
+		final int lNumFrames = 500;
+		final var modifiers = createEffectModifiers();
+		modifiers.add(new ParticleTurnToFaceModifier());
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			final var separateParticles = createRandomParticles(new SplittableRandom(1), lNumParticles);
+			final var fusedParticles = createRandomParticles(new SplittableRandom(1), lNumParticles);
+			final var pipeline = ParticleModifierPipeline.compile(modifiers);
+
+			var lSeparateNanos = 0L;
+			var lFusedNanos = 0L;
+			for (int f = 0; f < lNumFrames; f++) {
+				long lStart = System.nanoTime();
+				for (final var modifier : modifiers)
+					modifier.updateParticles(null, separateParticles, 0, lNumParticles, 16.f);
+				lSeparateNanos += System.nanoTime() - lStart;
+
+				lStart = System.nanoTime();
+				pipeline.updateParticles(null, fusedParticles, 0, lNumParticles, 16.f);
+				lFusedNanos += System.nanoTime() - lStart;
+			}
+
+			if (pass > 0)
+				System.out.printf("%d particles, %d modifiers: in turn %7.3f ms/frame, fused %7.3f ms/frame%n", lNumParticles, modifiers.size(), lSeparateNanos / (double) lNumFrames / 1_000_000., lFusedNanos / (double) lNumFrames / 1_000_000.);
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	/** A typical effect: gravity, drag, physics, and alpha and scale over the lifetime. */
+	private static List<ParticleModifierBase> createEffectModifiers() {
+		final var lAlphaInOut = new ParticleAlphaInOutModifier();
+		lAlphaInOut.minAlpha = .2f;
+
+		final var lScaleInOut = new ParticleScaleInOutModifier();
+		lScaleInOut.minScaleAmount = .5f;
+		lScaleInOut.maxScaleAmount = 2.f;
+
+		final var lModifiers = new ArrayList<ParticleModifierBase>();
+		lModifiers.add(new ParticleGravityModifier(.1f, .5f));
+		lModifiers.add(new ParticleDragModifier());
+		lModifiers.add(new ParticlePhysicsModifier());
+		lModifiers.add(lAlphaInOut);
+		lModifiers.add(lScaleInOut);
+		return lModifiers;
+	}
+
+	private static ParticleArrays createRandomParticles(SplittableRandom rand, int count) {
+		final var lParticles = new ParticleArrays(count);
+		final var lParticle = new Particle();
+		for (int i = 0; i < count; i++) {
+			lParticle.spawnParticle(rand.nextFloat() * 100.f, rand.nextFloat() * 100.f, 0.f, rand.nextFloat() - .5f, rand.nextFloat() - .5f, 100.f + rand.nextFloat() * 900.f);
+			lParticle.timeSinceStart = rand.nextFloat() * 100.f;
+			lParticle.angVel = rand.nextFloat();
+			lParticle.rotationInRadians = rand.nextFloat();
+			lParticles.add(lParticle);
+		}
+
+		return lParticles;
+	}
+}
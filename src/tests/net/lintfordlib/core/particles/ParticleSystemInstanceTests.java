@@ -0,0 +1,251 @@
+package tests.net.lintfordlib.core.particles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import net.lintfordlib.core.LintfordCore;
+import net.lintfordlib.core.particles.Particle;
+import net.lintfordlib.core.particles.ParticleArrays;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemDefinition;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemInstance;
+import net.lintfordlib.core.particles.particlesystems.modifiers.ParticleModifierBase;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleAlphaInOutModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleDragModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleGravityModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticlePhysicsModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleScaleModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleTurnToFaceModifier;
+
+public class ParticleSystemInstanceTests {
+
+	// --------------------------------------
+	// Inner-Classes
+	// --------------------------------------
+
+	/** Only implements the per-particle update, so the batch update falls back to the default of {@link ParticleModifierBase}. */
+	private static class PerParticleModifier extends ParticleModifierBase {
+		private static final long serialVersionUID = 1L;
+
+		private final ParticleModifierBase mModifier;
+
+		PerParticleModifier(ParticleModifierBase modifier) {
+			super(PerParticleModifier.class.getSimpleName());
+			mModifier = modifier;
+		}
+
+		@Override
+		public void initialize(Particle particle) {
+		}
+
+		@Override
+		public void update(LintfordCore core) {
+		}
+
+		@Override
+		public void updateParticle(LintfordCore core, Particle particle) {
+			mModifier.updateParticle(core, particle);
+		}
+	}
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void spawnParticle_SystemFull_ShouldReturnNoParticle() {
+		// arrange
+		final var system = createSystem(4, 100.f);
+		for (int i = 0; i < 4; i++)
+			system.spawnParticle(i, 0.f, 0.f, 0.f, 0.f);
+
+		// act
+		final var index = system.spawnParticle(10.f, 0.f, 0.f, 0.f, 0.f);
+
+		// assert
+		assertEquals(ParticleSystemInstance.NO_PARTICLE, index, "A particle was spawned into a full system.");
+		assertEquals(4, system.numParticles(), "The system holds the wrong number of particles.");
+	}
+
+	@Test
+	void update_SomeParticlesExpire_ShouldKeepSurvivorsPacked() {
+		// arrange - the first five particles are spawned one frame before the others
+		final var system = createSystem(16, 100.f);
+		for (int i = 0; i < 5; i++)
+			system.spawnParticle(i, 0.f, 0.f, 0.f, 0.f);
+
+		system.update(null, 60.f);
+
+		for (int i = 0; i < 5; i++)
+			system.spawnParticle(100.f + i, 0.f, 0.f, 0.f, 0.f);
+
+		// act
+		system.update(null, 60.f);
+
+		// assert
+		final var particles = system.particles();
+		assertEquals(5, system.numParticles(), "The expired particles weren't removed.");
+		for (int i = 0; i < system.numParticles(); i++) {
+			assertTrue(particles.worldPositionX[i] >= 100.f, "An expired particle is still in the live range.");
+			assertEquals(60.f, particles.timeSinceStart[i], "A surviving particle has the wrong age.");
+		}
+	}
+
+	@Test
+	void updateParticles_BuiltInModifiers_ShouldMatchPerParticleUpdate() {
+		final ParticleModifierBase[] modifiers = { new ParticleGravityModifier(.1f, .5f), new ParticleDragModifier(.9f), new ParticlePhysicsModifier(), new ParticleScaleModifier(), new ParticleAlphaInOutModifier(), new ParticleTurnToFaceModifier() };
+		for (final var modifier : modifiers) {
+			// arrange
+			final var batchParticles = createRandomParticles(new SplittableRandom(5), 64);
+			final var singleParticles = createRandomParticles(new SplittableRandom(5), 64);
+
+			final var core = createCore(16.f);
+
+			// act
+			modifier.updateParticles(core, batchParticles, 8, 48, 16.f);
+			new PerParticleModifier(modifier).updateParticles(core, singleParticles, 8, 48, 16.f);
+
+			// assert
+			final var lName = modifier.getClass().getSimpleName();
+			for (int i = 0; i < 64; i++) {
+				assertEquals(singleParticles.vx[i], batchParticles.vx[i], 1e-6f, lName + " updated vx of particle " + i + " differently.");
+				assertEquals(singleParticles.vy[i], batchParticles.vy[i], 1e-6f, lName + " updated vy of particle " + i + " differently.");
+				assertEquals(singleParticles.worldPositionX[i], batchParticles.worldPositionX[i], 1e-4f, lName + " updated the position of particle " + i + " differently.");
+				assertEquals(singleParticles.rotationInRadians[i], batchParticles.rotationInRadians[i], 1e-5f, lName + " updated the rotation of particle " + i + " differently.");
+				assertEquals(singleParticles.scale[i], batchParticles.scale[i], 1e-6f, lName + " updated the scale of particle " + i + " differently.");
+				assertEquals(singleParticles.colorA[i], batchParticles.colorA[i], 1e-6f, lName + " updated the alpha of particle " + i + " differently.");
+			}
+		}
+	}
+
+	@Test
+	void updateParticles_PerParticleModifier_ShouldBeGivenTheElapsedTimeOfTheBatch() {
+		// arrange - the modifier moves each particle by the frame time it is given
+		final var particles = createRandomParticles(new SplittableRandom(9), 16);
+		final var expectedPositionX = particles.worldPositionX.clone();
+		final var modifier = new PerParticleModifier(new ParticleDragModifier()) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public void updateParticle(LintfordCore core, Particle particle, float elapsedTimeMilli) {
+				particle.worldPositionX += elapsedTimeMilli;
+			}
+		};
+
+		// act - the core is not needed to read the frame time
+		modifier.updateParticles(null, particles, 0, 16, 16.f);
+
+		// assert
+		for (int i = 0; i < 16; i++)
+			assertEquals(expectedPositionX[i] + 16.f, particles.worldPositionX[i], 1e-4f, "Particle " + i + " wasn't updated by the elapsed time of the batch.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_ParticleArraysVsParticleList() {
+		final int lNumParticles = 100_000;
+		final int lNumFrames = 200;
+		// modifiers which don't read the frame time from the (mocked) core or call trig functions, so neither side is dominated by the per-particle math
+		final ParticleModifierBase[] modifiers = { new ParticleDragModifier(), new ParticleScaleModifier(), new ParticleAlphaInOutModifier() };
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			final var system = createSystem(lNumParticles, 1000.f);
+			for (final var modifier : modifiers)
+				system.definition().modifiers().add(modifier);
+
+			final var core = createCore(16.f);
+			final var legacyParticles = new ArrayList<Particle>(lNumParticles);
+			for (int i = 0; i < lNumParticles; i++)
+				legacyParticles.add(new Particle());
+
+			var lArraysNanos = 0L;
+			var lListNanos = 0L;
+			for (int f = 0; f < lNumFrames; f++) {
+				// keep the systems full, particles live for 1000 ms so roughly 1.6% are replaced each frame
+				while (system.spawnParticle(0.f, 0.f, 0.f, 1.f, 1.f) != ParticleSystemInstance.NO_PARTICLE)
+					;
+
+				for (int i = 0; i < lNumParticles; i++) {
+					final var lParticle = legacyParticles.get(i);
+					if (!lParticle.isAssigned())
+						lParticle.spawnParticle(0.f, 0.f, 0.f, 1.f, 1.f, 1000.f);
+				}
+
+				long lStart = System.nanoTime();
+				system.update(core, 16.f);
+				lArraysNanos += System.nanoTime() - lStart;
+
+				lStart = System.nanoTime();
+				updateParticleList(core, legacyParticles, modifiers, 16.f);
+				lListNanos += System.nanoTime() - lStart;
+			}
+
+			if (pass > 0)
+				System.out.printf("%d particles: arrays %7.3f ms/frame, particle list %7.3f ms/frame%n", lNumParticles, lArraysNanos / (double) lNumFrames / 1_000_000., lListNanos / (double) lNumFrames / 1_000_000.);
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static LintfordCore createCore(float elapsedTimeMilli) {
+		final var lCoreTime = Mockito.mock(LintfordCore.CoreTime.class, Mockito.withSettings().stubOnly());
+		Mockito.when(lCoreTime.elapsedTimeMilli()).thenReturn((double) elapsedTimeMilli);
+
+		final var lCore = Mockito.mock(LintfordCore.class, Mockito.withSettings().stubOnly());
+		Mockito.when(lCore.appTime()).thenReturn(lCoreTime);
+		return lCore;
+	}
+
+	private static ParticleSystemInstance createSystem(int capacity, float lifeTime) {
+		final var lDefinition = new ParticleSystemDefinition();
+		lDefinition.maxParticleCount = capacity;
+		lDefinition.particleLifeMin = lifeTime;
+
+		final var lSystem = new ParticleSystemInstance();
+		lSystem.assignSystemDefinitionAndResolveEmitters(0, lDefinition, null);
+		return lSystem;
+	}
+
+	private static ParticleArrays createRandomParticles(SplittableRandom rand, int count) {
+		final var lParticles = new ParticleArrays(count);
+		final var lParticle = new Particle();
+		for (int i = 0; i < count; i++) {
+			lParticle.spawnParticle(rand.nextFloat() * 100.f, rand.nextFloat() * 100.f, 0.f, rand.nextFloat() - .5f, rand.nextFloat() - .5f, 100.f + rand.nextFloat() * 900.f);
+			lParticle.timeSinceStart = rand.nextFloat() * 100.f;
+			lParticle.angVel = rand.nextFloat();
+			lParticle.rotationInRadians = rand.nextFloat();
+			lParticles.add(lParticle);
+		}
+
+		return lParticles;
+	}
+
+	/** The update loop of the list based ParticleSystemInstance, used as the baseline of the benchmark. */
+	private static void updateParticleList(LintfordCore core, List<Particle> particles, ParticleModifierBase[] modifiers, float elapsedTimeMilli) {
+		final int lNumParticles = particles.size();
+		for (int i = 0; i < lNumParticles; i++) {
+			final var lParticle = particles.get(i);
+			if (!lParticle.isAssigned())
+				continue;
+
+			lParticle.timeSinceStart += elapsedTimeMilli;
+			if (lParticle.timeSinceStart >= lParticle.lifeTime()) {
+				lParticle.reset();
+				continue;
+			}
+
+			for (int j = 0; j < modifiers.length; j++)
+				modifiers[j].updateParticle(core, lParticle);
+		}
+	}
+}
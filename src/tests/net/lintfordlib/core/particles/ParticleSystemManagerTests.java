@@ -0,0 +1,199 @@
+package tests.net.lintfordlib.core.particles;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.LintfordCore;
+import net.lintfordlib.core.particles.particleemitters.ParticleEmitterInstance;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemDefinition;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemInstance;
+import net.lintfordlib.core.particles.particlesystems.ParticleSystemManager;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleAlphaInOutModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleDragModifier;
+import net.lintfordlib.core.particles.particlesystems.modifiers.custom.ParticleScaleModifier;
+
+public class ParticleSystemManagerTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void update_ParallelUpdate_ShouldMatchSerialUpdate() {
+		// arrange
+		final var serialManager = createManager(false);
+		final var parallelManager = createManager(true);
+
+		// act
+		runFrames(serialManager, 40);
+		runFrames(parallelManager, 40);
+
+		// assert
+		final var serialSystems = serialManager.particleSystems();
+		final var parallelSystems = parallelManager.particleSystems();
+		for (int s = 0; s < serialSystems.size(); s++) {
+			final var serialParticles = serialSystems.get(s).particles();
+			final var parallelParticles = parallelSystems.get(s).particles();
+			final var lNumParticles = serialParticles.numParticles();
+
+			assertTrue(lNumParticles > 0, "System " + s + " has no particles left to compare.");
+			assertEquals(lNumParticles, parallelParticles.numParticles(), "System " + s + " has a different number of particles.");
+			assertArrayEquals(serialParticles.timeSinceStart, parallelParticles.timeSinceStart, "The particles of system " + s + " have different ages.");
+			assertArrayEquals(serialParticles.vx, parallelParticles.vx, "The particles of system " + s + " have different velocities.");
+			assertArrayEquals(serialParticles.scale, parallelParticles.scale, "The particles of system " + s + " have different scales.");
+			assertArrayEquals(serialParticles.colorA, parallelParticles.colorA, "The particles of system " + s + " have different alphas.");
+		}
+	}
+
+	@Test
+	void update_ParallelUpdate_ShouldTriggerDeathEmitterLikeSerialUpdate() {
+		// arrange
+		final var serialManager = createManager(false);
+		final var parallelManager = createManager(true);
+		final var serialEmitter = new SpawningEmitter(serialManager.particleSystems().get(1));
+		final var parallelEmitter = new SpawningEmitter(parallelManager.particleSystems().get(1));
+		((DeathEmitterSystem) serialManager.particleSystems().get(0)).onDeathEmitter(serialEmitter);
+		((DeathEmitterSystem) parallelManager.particleSystems().get(0)).onDeathEmitter(parallelEmitter);
+
+		// act
+		runFrames(serialManager, 40);
+		runFrames(parallelManager, 40);
+
+		// assert - the target system comes after the dying system, so it would age the death spawns of an inline trigger in the same frame
+		assertTrue(serialEmitter.numSpawned > 0, "The death emitter wasn't triggered.");
+		assertEquals(serialEmitter.numSpawned, parallelEmitter.numSpawned, "The death emitter was triggered a different number of times.");
+
+		final var serialParticles = serialManager.particleSystems().get(1).particles();
+		final var parallelParticles = parallelManager.particleSystems().get(1).particles();
+		assertEquals(serialParticles.numParticles(), parallelParticles.numParticles(), "The target system has a different number of particles.");
+		assertArrayEquals(serialParticles.timeSinceStart, parallelParticles.timeSinceStart, "The particles of the target system have different ages.");
+		assertArrayEquals(serialParticles.worldPositionX, parallelParticles.worldPositionX, "The particles of the target system have different positions.");
+		assertArrayEquals(serialParticles.worldPositionY, parallelParticles.worldPositionY, "The particles of the target system have different positions.");
+		assertArrayEquals(serialParticles.vx, parallelParticles.vx, "The particles of the target system have different velocities.");
+		assertArrayEquals(serialParticles.scale, parallelParticles.scale, "The particles of the target system have different scales.");
+		assertArrayEquals(serialParticles.colorA, parallelParticles.colorA, "The particles of the target system have different alphas.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_ParallelVsSerialUpdate() {
+		final int lNumFrames = 200;
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			for (final var parallel : new boolean[] { false, true }) {
+				final var lManager = new ParticleSystemManager(null);
+				lManager.parallelUpdate(parallel);
+				for (int s = 0; s < 8; s++)
+					addSystem(lManager, 50_000, true);
+
+				long lTotalNanos = 0;
+				final var lRand = new SplittableRandom(9);
+				for (int f = 0; f < lNumFrames; f++) {
+					spawnUntilFull(lManager, lRand);
+
+					final long lStart = System.nanoTime();
+					lManager.update(null, 16.f);
+					lTotalNanos += System.nanoTime() - lStart;
+				}
+
+				if (pass > 0)
+					System.out.printf("8 x 50000 particles: %s update %7.3f ms/frame%n", parallel ? "parallel" : "serial  ", lTotalNanos / (double) lNumFrames / 1_000_000.);
+			}
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	/** Exposes the on-death emitter, which is otherwise resolved by name through the ParticleFrameworkData. */
+	private static class DeathEmitterSystem extends ParticleSystemInstance {
+		void onDeathEmitter(ParticleEmitterInstance emitter) {
+			mOnDeathEmitter = emitter;
+		}
+	}
+
+	/** Spawns a particle into the target system each time it is triggered, rather than on its next update, so the order of the death spawns shows in the target system. */
+	private static class SpawningEmitter extends ParticleEmitterInstance {
+		private static final long serialVersionUID = 1L;
+
+		private final transient ParticleSystemInstance mTargetSystem;
+		int numSpawned;
+
+		SpawningEmitter(ParticleSystemInstance targetSystem) {
+			mTargetSystem = targetSystem;
+		}
+
+		@Override
+		public void triggerSpawn(LintfordCore core) {
+			mTargetSystem.spawnParticle(aabb.x(), aabb.y(), zDepth, 1.f, -1.f);
+			numSpawned++;
+		}
+	}
+
+	/** A deterministic modifier which keeps its system on the calling thread, so the results of mixed updates can be compared. */
+	private static class SerialOnlyDragModifier extends ParticleDragModifier {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public boolean isThreadSafe() {
+			return false;
+		}
+	}
+
+	private static ParticleSystemManager createManager(boolean parallelUpdate) {
+		final var lManager = new ParticleSystemManager(null);
+		lManager.parallelUpdate(parallelUpdate);
+
+		addSystem(lManager, 20_000, true);
+		addSystem(lManager, 3_000, true);
+		addSystem(lManager, 500, false);
+		addSystem(lManager, 12_000, true);
+
+		return lManager;
+	}
+
+	private static void addSystem(ParticleSystemManager manager, int capacity, boolean threadSafe) {
+		final var lDefinition = new ParticleSystemDefinition();
+		lDefinition.name = "system" + manager.getNumParticleSystems();
+		lDefinition.maxParticleCount = capacity;
+		lDefinition.particleLifeMin = 200.f;
+		lDefinition.modifiers().add(new ParticleDragModifier());
+		lDefinition.modifiers().add(new ParticleScaleModifier());
+		lDefinition.modifiers().add(new ParticleAlphaInOutModifier());
+		if (!threadSafe)
+			lDefinition.modifiers().add(new SerialOnlyDragModifier());
+
+		final var lSystem = new DeathEmitterSystem();
+		lSystem.assignSystemDefinitionAndResolveEmitters(manager.getNumParticleSystems(), lDefinition, null);
+		manager.particleSystems().add(lSystem);
+	}
+
+	private static void runFrames(ParticleSystemManager manager, int numFrames) {
+		final var lRand = new SplittableRandom(3);
+		for (int f = 0; f < numFrames; f++) {
+			// spawn a few particles each frame, so the systems have particles of all ages
+			for (final var system : manager.particleSystems()) {
+				final int lNumToSpawn = system.particles().capacity() / 10;
+				for (int i = 0; i < lNumToSpawn; i++)
+					system.spawnParticle(1.f + lRand.nextFloat() * 100.f, lRand.nextFloat() * 100.f, 0.f, lRand.nextFloat() - .5f, lRand.nextFloat() - .5f);
+			}
+
+			manager.update(null, 16.f);
+		}
+	}
+
+	private static void spawnUntilFull(ParticleSystemManager manager, SplittableRandom rand) {
+		for (final var system : manager.particleSystems()) {
+			while (system.spawnParticle(rand.nextFloat() * 100.f, rand.nextFloat() * 100.f, 0.f, rand.nextFloat() - .5f, rand.nextFloat() - .5f) != ParticleSystemInstance.NO_PARTICLE)
+				;
+		}
+	}
+}
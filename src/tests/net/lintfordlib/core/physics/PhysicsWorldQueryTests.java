@@ -0,0 +1,172 @@
+package tests.net.lintfordlib.core.physics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.physics.PhysicsSettings;
+import net.lintfordlib.core.physics.PhysicsWorld;
+import net.lintfordlib.core.physics.broadphase.DynamicTreeBroadPhase;
+import net.lintfordlib.core.physics.broadphase.HashGridBroadPhase;
+import net.lintfordlib.core.physics.broadphase.IBroadPhase;
+import net.lintfordlib.core.physics.broadphase.SweepAndPruneBroadPhase;
+import net.lintfordlib.core.physics.collisions.RaycastResult;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.shapes.CircleShape;
+import net.lintfordlib.core.physics.shapes.PolygonShape;
+
+public class PhysicsWorldQueryTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void raycast_RayThroughTwoBoxes_ShouldReturnClosestHitForEachBroadPhase() {
+		final IBroadPhase[] broadPhases = { null, new HashGridBroadPhase(4.f, 4.f), new SweepAndPruneBroadPhase(), new DynamicTreeBroadPhase() };
+		for (final var broadPhase : broadPhases) {
+			// arrange
+			final var world = createWorld();
+			world.setBroadPhase(broadPhase);
+			final var nearBox = addBox(world, 3.f, 0.f);
+			addBox(world, 6.f, 0.f);
+			final var result = new RaycastResult();
+
+			// act
+			final var hasHit = world.raycast(-8.f, 0.f, 8.f, 0.f, 0xFFFF, result);
+
+			// assert
+			final var lName = broadPhase == null ? "HashGridBroadPhase" : broadPhase instanceof HashGridBroadPhase ? "sparse HashGridBroadPhase" : broadPhase.getClass().getSimpleName();
+			assertTrue(hasHit, "The ray didn't hit anything (" + lName + ").");
+			assertEquals(nearBox, result.body, "The ray didn't return the closest body (" + lName + ").");
+			assertEquals(2.5f, result.pointX, 1e-4f, "The hit point is wrong (" + lName + ").");
+			assertEquals(-1.f, result.normalX, 1e-4f, "The hit normal is wrong (" + lName + ").");
+		}
+	}
+
+	@Test
+	void circleCast_PassingCloseToBody_ShouldHitWhereRayMisses() {
+		// arrange
+		final var world = createWorld();
+		final var circle = addCircle(world, 0.f, 0.f, 1.f);
+		final var rayResult = new RaycastResult();
+		final var castResult = new RaycastResult();
+
+		// act
+		world.raycast(-5.f, 1.2f, 5.f, 1.2f, 0xFFFF, rayResult);
+		world.circleCast(-5.f, 1.2f, 5.f, 1.2f, .5f, 0xFFFF, castResult);
+
+		// assert
+		assertFalse(rayResult.hasHit(), "The ray hit the circle it passes by.");
+		assertEquals(circle, castResult.body, "The circle cast didn't hit the circle.");
+	}
+
+	@Test
+	void raycast_MaskExcludesBody_ShouldIgnoreBody() {
+		// arrange
+		final var world = createWorld();
+		addBox(world, 3.f, 0.f).categoryBits(0x2);
+		final var result = new RaycastResult();
+
+		// act
+		final var hasHit = world.raycast(-8.f, 0.f, 8.f, 0.f, 0x1, result);
+
+		// assert
+		assertFalse(hasHit, "The ray hit a body excluded by the mask bits.");
+	}
+
+	@Test
+	void queryAABB_BodySpanningSeveralCells_ShouldBeReportedOnce() {
+		// arrange - the hash grid cells are 4 units wide, so the box spans four cells
+		final var world = createWorld();
+		final var box = addBox(world, 0.f, 0.f);
+		final var results = new RigidBody[8];
+
+		// act
+		final var numResults = world.queryAABB(-3.f, -3.f, 3.f, 3.f, 0xFFFF, results);
+
+		// assert
+		assertEquals(1, numResults, "queryAABB returned the wrong number of bodies.");
+		assertEquals(box, results[0], "queryAABB returned the wrong body.");
+	}
+
+	@Test
+	void raycastBatch_SplitAcrossWorkerThreads_ShouldMatchSerialResults() {
+		// arrange
+		final var world = createWorld();
+		final var rand = new SplittableRandom(11);
+		for (int i = 0; i < 100; i++)
+			addCircle(world, (rand.nextFloat() - .5f) * 36.f, (rand.nextFloat() - .5f) * 36.f, .2f + rand.nextFloat() * .5f);
+
+		final int numRays = 4096;
+		final var rays = new float[numRays * 4];
+		for (int i = 0; i < rays.length; i++)
+			rays[i] = (rand.nextFloat() - .5f) * 40.f;
+
+		final var serialResults = createResults(numRays);
+		final var parallelResults = createResults(numRays);
+		final var serialNumHits = world.raycastBatch(rays, numRays, 0xFFFF, serialResults);
+
+		// act - each worker casts a slice of the batch into its own part of the results
+		final int batchSize = 256;
+		IntStream.range(0, numRays / batchSize).parallel().forEach(b -> {
+			final var lRays = new float[batchSize * 4];
+			final var lResults = new RaycastResult[batchSize];
+			System.arraycopy(rays, b * batchSize * 4, lRays, 0, lRays.length);
+			System.arraycopy(parallelResults, b * batchSize, lResults, 0, batchSize);
+			world.raycastBatch(lRays, batchSize, 0xFFFF, lResults);
+		});
+
+		// assert
+		assertTrue(serialNumHits > 0, "None of the rays hit a body.");
+		for (int i = 0; i < numRays; i++) {
+			assertEquals(serialResults[i].body, parallelResults[i].body, "Ray " + i + " hit a different body on the worker thread.");
+			assertEquals(serialResults[i].fraction, parallelResults[i].fraction, "Ray " + i + " hit at a different fraction on the worker thread.");
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static PhysicsWorld createWorld() {
+		final var lSettings = new PhysicsSettings();
+		lSettings.initializeGrid(40, 40, 10, 10);
+
+		final var lWorld = new PhysicsWorld(lSettings);
+		lWorld.initialize();
+		return lWorld;
+	}
+
+	private static RigidBody addBox(PhysicsWorld world, float x, float y) {
+		final var lBody = new RigidBody(BodyType.Static, x, y, 0.f);
+		lBody.addShape(PolygonShape.createBoxShape(1.f, 1.f, 0.f, 1.f, .5f, .5f, .5f));
+		lBody.categoryBits(0x1);
+		lBody.maskBits(0xFFFF);
+		world.addBody(lBody);
+		return lBody;
+	}
+
+	private static RigidBody addCircle(PhysicsWorld world, float x, float y, float radius) {
+		final var lBody = new RigidBody(BodyType.Static, x, y, 0.f);
+		lBody.addShape(CircleShape.createCircleShape(radius, 1.f, .5f, .5f, .5f));
+		lBody.categoryBits(0x1);
+		lBody.maskBits(0xFFFF);
+		world.addBody(lBody);
+		return lBody;
+	}
+
+	private static RaycastResult[] createResults(int numResults) {
+		final var lResults = new RaycastResult[numResults];
+		for (int i = 0; i < numResults; i++)
+			lResults[i] = new RaycastResult();
+
+		return lResults;
+	}
+}
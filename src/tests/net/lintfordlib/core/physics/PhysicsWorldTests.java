@@ -0,0 +1,375 @@
+package tests.net.lintfordlib.core.physics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.physics.PhysicsSettings;
+import net.lintfordlib.core.physics.PhysicsWorld;
+import net.lintfordlib.core.physics.broadphase.DynamicTreeBroadPhase;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.resolvers.CollisionResolverRotationAndFriction;
+import net.lintfordlib.core.physics.shapes.CircleShape;
+import net.lintfordlib.core.physics.shapes.LineShape;
+import net.lintfordlib.core.physics.shapes.PolygonShape;
+
+public class PhysicsWorldTests {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int NUM_BODIES = 600;
+	private static final int NUM_STEPS = 10;
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void stepWorld_ParallelNarrowPhaseWithoutMtvSeparation_ShouldMatchSerialNarrowPhase() {
+		// arrange
+		final var serialWorld = createWorld(false, false);
+		final var parallelWorld = createWorld(true, false);
+
+		// act
+		final var serialResult = stepAndCollectState(serialWorld);
+		final var parallelResult = stepAndCollectState(parallelWorld);
+
+		// assert
+		assertArrayEquals(serialResult, parallelResult, "The parallel narrow phase produced different results to the serial narrow phase.");
+	}
+
+	@Test
+	void stepWorld_ParallelNarrowPhase_ShouldBeDeterministic() {
+		// arrange
+		final var worldA = createWorld(true, true);
+		final var worldB = createWorld(true, true);
+
+		// act
+		final var resultA = stepAndCollectState(worldA);
+		final var resultB = stepAndCollectState(worldB);
+
+		// assert
+		assertArrayEquals(resultA, resultB, "The parallel narrow phase didn't produce the same results for the same input.");
+	}
+
+	@Test
+	void stepWorld_SleepingEnabledBodyAtRest_ShouldFallAsleep() {
+		// arrange
+		final var world = createRestingBodyWorld(true);
+		final var body = world.getBodyByIndex(1);
+
+		// act
+		for (int i = 0; i < 180; i++)
+			world.stepWorld(1.f / 60.f);
+
+		// assert
+		assertFalse(body.isAwake(), "The resting body didn't fall asleep.");
+		assertEquals(0, world.numAwakeBodies(), "The world reported awake bodies.");
+	}
+
+	@Test
+	void stepWorld_SleepingDisabledBodyAtRest_ShouldStayAwake() {
+		// arrange
+		final var world = createRestingBodyWorld(false);
+		final var body = world.getBodyByIndex(1);
+
+		// act
+		for (int i = 0; i < 180; i++)
+			world.stepWorld(1.f / 60.f);
+
+		// assert
+		assertTrue(body.isAwake(), "The body fell asleep while sleeping was disabled.");
+	}
+
+	@Test
+	void addImpulse_SleepingBody_ShouldWakeBody() {
+		// arrange
+		final var world = createRestingBodyWorld(true);
+		final var body = world.getBodyByIndex(1);
+		for (int i = 0; i < 180; i++)
+			world.stepWorld(1.f / 60.f);
+
+		// act
+		body.addImpulse(0.f, -1.f);
+		world.stepWorld(1.f / 60.f);
+
+		// assert
+		assertTrue(body.isAwake(), "The impulse didn't wake the body.");
+		assertTrue(body.vy < 0.f, "The woken body didn't respond to the impulse.");
+	}
+
+	@Test
+	void stepWorld_SequentialImpulseSolverBoxStack_ShouldStayUpright() {
+		// arrange
+		final var world = createBoxStackWorld(8);
+		final var topBox = world.getBodyByIndex(world.numBodies() - 1);
+
+		// act
+		for (int i = 0; i < 600; i++)
+			world.stepWorld(1.f / 60.f);
+
+		// assert - the top box center rests at 4.5 - 7.5 = -3 (minus the allowed penetration)
+		assertEquals(0.f, topBox.transform.p.x, .01f, "The stack drifted sideways.");
+		assertEquals(0.f, topBox.transform.angle, .01f, "The stack started to rotate.");
+		assertEquals(-3.f, topBox.transform.p.y, .1f, "The stack didn't come to rest in the expected position.");
+		assertEquals(8, world.sequentialImpulseSolver().numConstraints(), "The persistent contacts of the stack were not kept.");
+	}
+
+	@Test
+	void stepWorld_SequentialImpulseSolverBodiesSeparate_ShouldRemoveContact() {
+		// arrange
+		final var world = createBoxStackWorld(1);
+		final var box = world.getBodyByIndex(1);
+		for (int i = 0; i < 10; i++)
+			world.stepWorld(1.f / 60.f);
+
+		final var numConstraintsInContact = world.sequentialImpulseSolver().numConstraints();
+
+		// act
+		box.moveTo(0.f, -10.f);
+		world.stepWorld(1.f / 60.f);
+
+		// assert
+		assertEquals(1, numConstraintsInContact, "The resting contact wasn't added to the solver.");
+		assertEquals(0, world.sequentialImpulseSolver().numConstraints(), "The contact wasn't removed after the bodies separated.");
+	}
+
+	@Test
+	void stepWorld_BulletFiredAtThinWall_ShouldNotTunnel() {
+		// arrange
+		final var world = createBulletWorld(true);
+		final var bullet = world.getBodyByIndex(1);
+
+		// act
+		for (int i = 0; i < 30; i++)
+			world.stepWorld(1.f / 60.f);
+
+		// assert
+		assertTrue(bullet.transform.p.x < 5.f, "The bullet tunneled through the wall.");
+		assertTrue(bullet.vx < 0.f, "The bullet didn't bounce off the wall.");
+	}
+
+	@Test
+	void stepWorld_FastBodyWithoutContinuousCollision_ShouldTunnel() {
+		// arrange
+		final var world = createBulletWorld(false);
+		final var bullet = world.getBodyByIndex(1);
+
+		// act
+		for (int i = 0; i < 30; i++)
+			world.stepWorld(1.f / 60.f);
+
+		// assert - documents why bullets are needed: the discrete steps skip over the wall
+		assertTrue(bullet.transform.p.x > 5.f, "The fast body didn't pass through the wall.");
+	}
+
+	@Test
+	void stepWorld_DeterministicModeWithDifferentBroadPhases_ShouldProduceSameStateHashes() {
+		// arrange - the broad phases report the same pairs, but in a different order
+		final var gridWorld = createWorld(false, true);
+		final var treeWorld = createWorld(false, true);
+		treeWorld.setBroadPhase(new DynamicTreeBroadPhase());
+		gridWorld.deterministic(true);
+		treeWorld.deterministic(true);
+
+		for (int i = 0; i < NUM_STEPS; i++) {
+			// act
+			gridWorld.stepWorld(1.f / 60.f);
+			treeWorld.stepWorld(1.f / 60.f);
+
+			// assert
+			assertEquals(gridWorld.stateHash(), treeWorld.stateHash(), "The worlds desynced in step " + i + ".");
+		}
+	}
+
+	@Test
+	void angle_RotationSetOutsideOfTheStep_ShouldBeComputedWithStrictMath() {
+		// arrange
+		final var body = new RigidBody(BodyType.Dynamic, 0.f, 0.f, 0.f);
+		final var angle = 1.234f;
+
+		// act
+		body.angle(angle);
+		final var box = PolygonShape.createBoxShape(1.f, 2.f, angle, 1.f, 0.f, .8f, .6f);
+
+		// assert
+		assertEquals((float) StrictMath.sin(angle), body.transform.q.s, "The rotation of the body wasn't computed with StrictMath.");
+		assertEquals((float) StrictMath.cos(angle), body.transform.q.c, "The rotation of the body wasn't computed with StrictMath.");
+
+		final var c = (float) StrictMath.cos(angle);
+		final var s = (float) StrictMath.sin(angle);
+		assertEquals(-.5f * c - -1.f * s, box.getReadOnlyVertices().get(0).x, "The box vertices weren't rotated with StrictMath.");
+	}
+
+	@Test
+	void deterministic_EnabledOnOneWorld_ShouldOnlyComputeTheStepOfThatWorldWithStrictMath() {
+		// arrange
+		final var deterministicWorld = new PhysicsWorld();
+		final var normalWorld = new PhysicsWorld();
+		for (final var world : new PhysicsWorld[] { deterministicWorld, normalWorld }) {
+			world.setContactResolver(new CollisionResolverRotationAndFriction());
+			world.initialize();
+		}
+
+		deterministicWorld.deterministic(true);
+		final var deterministicBody = new RigidBody(BodyType.Dynamic, 0.f, 0.f, 0.f);
+		final var normalBody = new RigidBody(BodyType.Dynamic, 0.f, 0.f, 0.f);
+		deterministicBody.addShape(CircleShape.createCircleShape(.5f, 1.f, .3f, .5f, .4f));
+		normalBody.addShape(CircleShape.createCircleShape(.5f, 1.f, .3f, .5f, .4f));
+		deterministicBody.angularVelocity = 74.04f;
+		normalBody.angularVelocity = 74.04f;
+		deterministicWorld.addBody(deterministicBody);
+		normalWorld.addBody(normalBody);
+
+		// act
+		deterministicWorld.stepWorld(1.f / 60.f);
+		normalWorld.stepWorld(1.f / 60.f);
+
+		// assert
+		final var angle = deterministicBody.transform.angle;
+		assertEquals(angle, normalBody.transform.angle, "The worlds integrated different angles.");
+		assertFalse(normalWorld.deterministic(), "Enabling the deterministic mode of one world changed the other world.");
+		assertEquals((float) StrictMath.cos(angle), deterministicBody.transform.q.c, "The deterministic world didn't compute the rotation with StrictMath.");
+		assertEquals((float) Math.cos(angle), normalBody.transform.q.c, "The normal world didn't compute the rotation with Math.");
+	}
+
+	@Test
+	void computeStateHash_BodyMovedByOneUlp_ShouldChangeHash() {
+		// arrange
+		final var world = createWorld(false, true);
+		final var hashBefore = world.computeStateHash();
+		final var body = world.getBodyByIndex(NUM_BODIES / 2);
+
+		// act
+		body.transform.p.x = Math.nextUp(body.transform.p.x);
+
+		// assert
+		assertNotEquals(hashBefore, world.computeStateHash(), "The hash didn't change with the state of the body.");
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static PhysicsWorld createBulletWorld(boolean isBullet) {
+		final var lSettings = new PhysicsSettings();
+		lSettings.initializeGrid(40, 40, 8, 8);
+
+		final var lWorld = new PhysicsWorld(lSettings);
+		lWorld.initialize();
+
+		// a thin vertical wall at x = 5
+		final var lWall = new RigidBody(BodyType.Static, 5.f, 0.f, 0.f);
+		lWall.addShape(LineShape.createLineShape(10.f, .1f, (float) Math.toRadians(90), 1.f, .5f, .5f, .5f));
+		lWall.categoryBits(0x1);
+		lWall.maskBits(0x1);
+		lWorld.addBody(lWall);
+
+		final var lBullet = new RigidBody(BodyType.Dynamic, 0.f, 0.f, 0.f);
+		lBullet.addShape(CircleShape.createCircleShape(.05f, 1.f, .5f, .5f, .5f));
+		lBullet.categoryBits(0x1);
+		lBullet.maskBits(0x1);
+		lBullet.isBullet(isBullet);
+		lBullet.vx = 600.f;
+		lWorld.addBody(lBullet);
+
+		return lWorld;
+	}
+
+	private static PhysicsWorld createBoxStackWorld(int numBoxes) {
+		final var lSettings = new PhysicsSettings();
+		lSettings.enable_sequential_impulse_solver = true;
+		lSettings.gravityY = 9.81f;
+
+		final var lWorld = new PhysicsWorld(lSettings);
+		lWorld.initialize();
+
+		final var lFloor = new RigidBody(BodyType.Static, 0.f, 5.f, 0.f);
+		lFloor.addShape(PolygonShape.createBoxShape(20.f, 1.f, 0.f, 1.f, 0.f, .8f, .6f));
+		lFloor.categoryBits(0x1);
+		lFloor.maskBits(0x1);
+		lWorld.addBody(lFloor);
+
+		for (int i = 0; i < numBoxes; i++) {
+			final var lBox = new RigidBody(BodyType.Dynamic, 0.f, 4.f - i, 0.f);
+			lBox.addShape(PolygonShape.createBoxShape(1.f, 1.f, 0.f, 1.f, 0.f, .8f, .6f));
+			lBox.categoryBits(0x1);
+			lBox.maskBits(0x1);
+			lWorld.addBody(lBox);
+		}
+
+		return lWorld;
+	}
+
+	private static PhysicsWorld createRestingBodyWorld(boolean enableSleeping) {
+		final var lSettings = new PhysicsSettings();
+		lSettings.enable_sleeping = enableSleeping;
+		lSettings.gravityY = 9.81f;
+
+		final var lWorld = new PhysicsWorld(lSettings);
+		lWorld.setContactResolver(new CollisionResolverRotationAndFriction());
+		lWorld.initialize();
+
+		final var lFloor = new RigidBody(BodyType.Static, 0.f, 5.f, 0.f);
+		lFloor.addShape(PolygonShape.createBoxShape(10.f, 1.f, 0.f, 1.f, 0.f, .8f, .6f));
+		lFloor.categoryBits(0x1);
+		lFloor.maskBits(0x1);
+		lWorld.addBody(lFloor);
+
+		final var lBox = new RigidBody(BodyType.Dynamic, 0.f, 4.f, 0.f);
+		lBox.addShape(PolygonShape.createBoxShape(1.f, 1.f, 0.f, 1.f, 0.f, .8f, .6f));
+		lBox.categoryBits(0x1);
+		lBox.maskBits(0x1);
+		lWorld.addBody(lBox);
+
+		return lWorld;
+	}
+
+	private static PhysicsWorld createWorld(boolean parallelNarrowPhase, boolean mtvSeparation) {
+		final var lSettings = new PhysicsSettings();
+		lSettings.enable_parallel_narrow_phase = parallelNarrowPhase;
+		lSettings.enable_mtv_separation = mtvSeparation;
+		lSettings.gravityY = 9.81f;
+
+		final var lWorld = new PhysicsWorld(lSettings);
+		lWorld.setContactResolver(new CollisionResolverRotationAndFriction());
+		lWorld.initialize();
+
+		final var lRand = new SplittableRandom(99);
+		for (int i = 0; i < NUM_BODIES; i++) {
+			final var lBody = new RigidBody(BodyType.Dynamic, (lRand.nextFloat() - .5f) * 20.f, (lRand.nextFloat() - .5f) * 20.f, 0.f);
+			lBody.addShape(CircleShape.createCircleShape(.3f + lRand.nextFloat() * .4f, 1.f, .3f, .5f, .4f));
+			lBody.categoryBits(0x1);
+			lBody.maskBits(0x1);
+			lWorld.addBody(lBody);
+		}
+
+		return lWorld;
+	}
+
+	private static float[] stepAndCollectState(PhysicsWorld world) {
+		for (int i = 0; i < NUM_STEPS; i++)
+			world.stepWorld(1.f / 60.f);
+
+		final var lNumBodies = world.numBodies();
+		final var lState = new float[lNumBodies * 4];
+		for (int i = 0; i < lNumBodies; i++) {
+			final var lBody = world.getBodyByIndex(i);
+			lState[i * 4 + 0] = lBody.transform.p.x;
+			lState[i * 4 + 1] = lBody.transform.p.y;
+			lState[i * 4 + 2] = lBody.vx;
+			lState[i * 4 + 3] = lBody.vy;
+		}
+
+		return lState;
+	}
+}
@@ -0,0 +1,104 @@
+package tests.net.lintfordlib.core.physics.broadphase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.physics.broadphase.CollisionPairBuffer;
+import net.lintfordlib.core.physics.broadphase.HashGridBroadPhase;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.shapes.CircleShape;
+
+public class CollisionPairBufferTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void addPairIfUnique_SamePairInEitherOrder_ShouldOnlyAddOnce() {
+		// arrange
+		final var buffer = new CollisionPairBuffer();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(1.f, 0.f, 1.f);
+
+		// act
+		final var firstAdded = buffer.addPairIfUnique(bodyA, bodyB);
+		final var secondAdded = buffer.addPairIfUnique(bodyB, bodyA);
+
+		// assert
+		assertTrue(firstAdded, "The first pair wasn't added.");
+		assertFalse(secondAdded, "The duplicate pair was added.");
+		assertEquals(1, buffer.numPairs(), "The buffer contains the wrong number of pairs.");
+		assertEquals(2, buffer.numPairsReported(), "The buffer didn't count the reported pairs.");
+		assertEquals(1, buffer.numDuplicatesRemoved(), "The buffer didn't count the removed duplicate.");
+		assertEquals(bodyA, buffer.bodyA(0), "The pair returned the wrong first body.");
+		assertEquals(bodyB, buffer.bodyB(0), "The pair returned the wrong second body.");
+	}
+
+	@Test
+	void clear_PairAddedInLastPass_ShouldAcceptPairAgain() {
+		// arrange
+		final var buffer = new CollisionPairBuffer();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(1.f, 0.f, 1.f);
+		buffer.addPairIfUnique(bodyA, bodyB);
+
+		// act
+		buffer.clear();
+		final var added = buffer.addPairIfUnique(bodyA, bodyB);
+
+		// assert
+		assertTrue(added, "The pair from the last pass was treated as a duplicate.");
+		assertEquals(1, buffer.numPairs(), "The buffer contains the wrong number of pairs.");
+	}
+
+	@Test
+	void findPairs_BodiesSpanningSeveralHashGridCells_ShouldBeDeduplicated() {
+		// arrange - both bodies straddle the cell corner at (0,0), so they share four cells
+		final var broadPhase = new HashGridBroadPhase(20, 20, 4, 4);
+		final var buffer = new CollisionPairBuffer();
+		broadPhase.addBody(createCircleBody(-.5f, -.5f, 1.f));
+		broadPhase.addBody(createCircleBody(.5f, .5f, 1.f));
+
+		// act
+		broadPhase.findPairs(buffer);
+
+		// assert
+		assertEquals(1, buffer.numPairs(), "The buffer contains the wrong number of pairs.");
+		assertTrue(buffer.numDuplicatesRemoved() > 0, "The hash grid didn't report the pair more than once.");
+	}
+
+	@Test
+	void addPairIfUnique_ManyPairs_ShouldGrowBuffer() {
+		// arrange
+		final var buffer = new CollisionPairBuffer();
+		final var bodies = new RigidBody[100];
+		for (int i = 0; i < bodies.length; i++)
+			bodies[i] = createCircleBody(i, 0.f, 1.f);
+
+		// act
+		for (int i = 0; i < bodies.length; i++)
+			for (int j = i + 1; j < bodies.length; j++)
+				buffer.addPairIfUnique(bodies[i], bodies[j]);
+
+		// assert
+		assertEquals(100 * 99 / 2, buffer.numPairs(), "The buffer contains the wrong number of pairs.");
+		assertEquals(0, buffer.numDuplicatesRemoved(), "The buffer removed unique pairs.");
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static RigidBody createCircleBody(float x, float y, float radius) {
+		final var lBody = new RigidBody(BodyType.Dynamic, x, y, 0.f);
+		lBody.addShape(CircleShape.createCircleShape(radius, 1.f, .5f, .5f, .5f));
+		lBody.categoryBits(0x1);
+		lBody.maskBits(0x1);
+		return lBody;
+	}
+}
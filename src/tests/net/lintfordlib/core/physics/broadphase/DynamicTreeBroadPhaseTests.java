@@ -0,0 +1,319 @@
+package tests.net.lintfordlib.core.physics.broadphase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.physics.broadphase.DynamicTreeBroadPhase;
+import net.lintfordlib.core.physics.broadphase.HashGridBroadPhase;
+import net.lintfordlib.core.physics.broadphase.IBroadPhase;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.shapes.CircleShape;
+import net.lintfordlib.core.physics.spatial.DynamicAABBTree;
+
+public class DynamicTreeBroadPhaseTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void findPairs_RandomMovingScene_ShouldMatchHashGridPairs() {
+		// arrange
+		final var rand = new SplittableRandom(4321);
+		final var tree = new DynamicTreeBroadPhase();
+		final var hashGrid = new HashGridBroadPhase(100, 100, 10, 10);
+		final var bodies = createRandomBodies(rand, 500, 0.f, 0.f, 100.f);
+		for (final var body : bodies) {
+			tree.addBody(body);
+			hashGrid.addBody(body);
+		}
+
+		for (int frame = 0; frame < 10; frame++) {
+			// act
+			for (final var body : bodies) {
+				body.move(rand.nextFloat() - .5f, rand.nextFloat() - .5f);
+				tree.updateBody(body);
+				hashGrid.updateBody(body);
+			}
+
+			final var treePairs = collectPairs(tree);
+			final var hashGridPairs = collectPairs(hashGrid);
+
+			// assert
+			assertEquals(hashGridPairs, treePairs, "DynamicTreeBroadPhase didn't report the same pairs as the HashGridBroadPhase.");
+		}
+	}
+
+	@Test
+	void findPairs_BodiesRemovedAndAddedBetweenSteps_ShouldMatchHashGridPairs() {
+		// arrange
+		final var rand = new SplittableRandom(77);
+		final var tree = new DynamicTreeBroadPhase();
+		final var hashGrid = new HashGridBroadPhase(100, 100, 10, 10);
+		final var bodies = createRandomBodies(rand, 300, 0.f, 0.f, 100.f);
+		for (final var body : bodies) {
+			tree.addBody(body);
+			hashGrid.addBody(body);
+		}
+
+		for (int frame = 0; frame < 10; frame++) {
+			// act - the freed proxy ids are reused by the bodies added back in the same step
+			for (int i = 0; i < 20; i++) {
+				final var body = bodies.get(rand.nextInt(bodies.size()));
+				tree.removeBody(body);
+				hashGrid.removeBody(body);
+
+				if (rand.nextBoolean()) {
+					body.move(rand.nextFloat() * 4.f - 2.f, rand.nextFloat() * 4.f - 2.f);
+					tree.addBody(body);
+					hashGrid.addBody(body);
+				}
+			}
+
+			final var treePairs = collectPairs(tree);
+			final var hashGridPairs = collectPairs(hashGrid);
+
+			// assert
+			assertEquals(hashGridPairs, treePairs, "DynamicTreeBroadPhase didn't report the same pairs as the HashGridBroadPhase.");
+		}
+	}
+
+	@Test
+	void findPairs_RestingBodiesNotUpdated_ShouldKeepReportingTheirPair() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(1.5f, 0.f, 1.f);
+		tree.addBody(bodyA);
+		tree.addBody(bodyB);
+		final var firstPairs = collectPairs(tree);
+
+		// act
+		final var secondPairs = collectPairs(tree);
+
+		// assert
+		assertEquals(1, firstPairs.size(), "findPairs didn't report the pair of the new bodies.");
+		assertEquals(firstPairs, secondPairs, "findPairs didn't report the pair of the resting bodies again.");
+	}
+
+	@Test
+	void findPairs_BodiesFarOutsideGridBoundary_ShouldOnlyReportOverlappingPairs() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+		final var bodyA = createCircleBody(10000.f, 10000.f, 1.f);
+		final var bodyB = createCircleBody(10001.f, 10000.f, 1.f);
+		final var bodyC = createCircleBody(-10000.f, 10000.f, 1.f);
+		tree.addBody(bodyA);
+		tree.addBody(bodyB);
+		tree.addBody(bodyC);
+
+		// act
+		final var result = collectPairs(tree);
+
+		// assert
+		assertEquals(1, result.size(), "findPairs reported the wrong number of pairs.");
+		assertTrue(result.contains(pairKey(bodyA, bodyB)), "findPairs didn't report the overlapping pair.");
+	}
+
+	@Test
+	void removeBody_AllBodiesRemoved_ShouldLeaveTreeEmpty() {
+		// arrange
+		final var rand = new SplittableRandom(1);
+		final var tree = new DynamicTreeBroadPhase();
+		final var bodies = createRandomBodies(rand, 100, 0.f, 0.f, 50.f);
+		for (final var body : bodies)
+			tree.addBody(body);
+
+		// act
+		for (final var body : bodies)
+			tree.removeBody(body);
+
+		// assert
+		assertEquals(0, tree.tree().nodeCount(), "removeBody didn't free all of the tree nodes.");
+		assertEquals(0, tree.tree().height(), "removeBody didn't reset the tree.");
+	}
+
+	@Test
+	void addBody_ManyBodies_ShouldKeepTreeBalanced() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+
+		// act - inserting along a line is the worst case for an unbalanced tree
+		for (int i = 0; i < 1024; i++)
+			tree.addBody(createCircleBody(i * 3.f, 0.f, 1.f));
+
+		// assert
+		assertTrue(tree.tree().height() <= 20, "The tree height (" + tree.tree().height() + ") suggests the tree isn't being balanced.");
+	}
+
+	@Test
+	void updateBody_MovingBody_ShouldExtendTheFatAABBByTheDisplacementOfTheStep() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+		final var body = createCircleBody(0.f, 0.f, 1.f);
+		tree.addBody(body);
+		body.setLinearVelocity(30.f, -60.f);
+
+		// act - move the body out of its fat AABB, so the proxy is re-inserted
+		body.move(1.f, 0.f);
+		tree.updateBody(body, 1.f / 60.f);
+
+		// assert
+		final var lAABB = body.aabb();
+		final int lProxyId = body._broadPhaseProxyId;
+		assertEquals(lAABB.right() + DynamicAABBTree.AABB_EXTENSION + DynamicAABBTree.AABB_MULTIPLIER * .5f, tree.tree().fatMaxX(lProxyId), 1e-4f, "The fat AABB wasn't extended in the x direction of travel.");
+		assertEquals(lAABB.top() - DynamicAABBTree.AABB_EXTENSION - DynamicAABBTree.AABB_MULTIPLIER * 1.f, tree.tree().fatMinY(lProxyId), 1e-4f, "The fat AABB wasn't extended in the y direction of travel.");
+		assertEquals(lAABB.left() - DynamicAABBTree.AABB_EXTENSION, tree.tree().fatMinX(lProxyId), 1e-4f, "The fat AABB was extended against the direction of travel.");
+	}
+
+	@Test
+	void queryPoint_PointInsideBody_ShouldReturnBody() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(5.f, 0.f, 1.f);
+		tree.addBody(bodyA);
+		tree.addBody(bodyB);
+		final var result = new ArrayList<RigidBody>();
+
+		// act
+		tree.queryPoint(5.5f, .5f, result);
+
+		// assert
+		assertEquals(1, result.size(), "queryPoint returned the wrong number of bodies.");
+		assertEquals(bodyB, result.get(0), "queryPoint returned the wrong body.");
+	}
+
+	@Test
+	void queryAABB_AreaCoveringTwoBodies_ShouldReturnBoth() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+		tree.addBody(createCircleBody(0.f, 0.f, 1.f));
+		tree.addBody(createCircleBody(5.f, 0.f, 1.f));
+		tree.addBody(createCircleBody(50.f, 0.f, 1.f));
+		final var result = new ArrayList<RigidBody>();
+
+		// act
+		tree.queryAABB(-2.f, -2.f, 6.f, 2.f, result);
+
+		// assert
+		assertEquals(2, result.size(), "queryAABB returned the wrong number of bodies.");
+	}
+
+	@Test
+	void raycast_RayClippedOnFirstHit_ShouldOnlyReportNearestBody() {
+		// arrange
+		final var tree = new DynamicTreeBroadPhase();
+		final var nearBody = createCircleBody(5.f, 0.f, 1.f);
+		final var farBody = createCircleBody(50.f, 0.f, 1.f);
+		tree.addBody(farBody);
+		tree.addBody(nearBody);
+		tree.addBody(createCircleBody(5.f, 20.f, 1.f));
+		final var hits = new ArrayList<RigidBody>();
+
+		// act - clip the ray at the near edge of each hit AABB
+		tree.raycast(0.f, 0.f, 100.f, 0.f, (proxyId, body, p1x, p1y, p2x, p2y, maxFraction) -> {
+			final var fraction = (body.aabb().left() - p1x) / (p2x - p1x);
+			if (fraction > maxFraction)
+				return -1.f;
+
+			hits.add(body);
+			return fraction;
+		});
+
+		// assert
+		assertTrue(hits.contains(nearBody), "raycast didn't report the nearest body.");
+		assertEquals(nearBody, hits.get(hits.size() - 1), "raycast reported a body behind the clipped ray.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_DynamicTreeVsHashGrid_ClusteredAndSparse() {
+		final int lNumBodies = 5000;
+		final float[] lWorldSizes = { 20.f, 5000.f };
+		for (final var worldSize : lWorldSizes) {
+			final var rand = new SplittableRandom(42);
+			final var bodies = createRandomBodies(rand, lNumBodies, 0.f, 0.f, worldSize);
+
+			final var hashGrid = new HashGridBroadPhase(20, 20, 5, 5);
+			final var tree = new DynamicTreeBroadPhase();
+			for (final var body : bodies) {
+				hashGrid.addBody(body);
+				tree.addBody(body);
+			}
+
+			final var hashGridMs = runBenchmark(hashGrid, bodies, rand);
+			final var treeMs = runBenchmark(tree, bodies, rand);
+
+			System.out.printf("world size %6.0f: hash grid %8.3f ms/step, dynamic tree %8.3f ms/step%n", worldSize, hashGridMs, treeMs);
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static double runBenchmark(IBroadPhase broadPhase, List<RigidBody> bodies, SplittableRandom rand) {
+		final int lNumWarmupSteps = 20;
+		final int lNumSteps = 50;
+		final int[] lPairCount = new int[1];
+
+		long lTotalNanos = 0;
+		for (int i = 0; i < lNumWarmupSteps + lNumSteps; i++) {
+			for (final var body : bodies)
+				body.move((rand.nextFloat() - .5f) * .1f, (rand.nextFloat() - .5f) * .1f);
+
+			final long lStart = System.nanoTime();
+			for (final var body : bodies)
+				broadPhase.updateBody(body);
+
+			broadPhase.findPairs((a, b) -> lPairCount[0]++);
+			if (i >= lNumWarmupSteps)
+				lTotalNanos += System.nanoTime() - lStart;
+		}
+
+		return lTotalNanos / (double) lNumSteps / 1_000_000.;
+	}
+
+	private static List<RigidBody> createRandomBodies(SplittableRandom rand, int count, float centerX, float centerY, float worldSize) {
+		final var lBodies = new ArrayList<RigidBody>(count);
+		for (int i = 0; i < count; i++) {
+			final var x = centerX + (rand.nextFloat() - .5f) * worldSize;
+			final var y = centerY + (rand.nextFloat() - .5f) * worldSize;
+			final var radius = .25f + rand.nextFloat();
+			lBodies.add(createCircleBody(x, y, radius));
+		}
+
+		return lBodies;
+	}
+
+	private static RigidBody createCircleBody(float x, float y, float radius) {
+		final var lBody = new RigidBody(BodyType.Dynamic, x, y, 0.f);
+		lBody.addShape(CircleShape.createCircleShape(radius, 1.f, .5f, .5f, .5f));
+		lBody.categoryBits(0x1);
+		lBody.maskBits(0x1);
+		return lBody;
+	}
+
+	private static Set<Long> collectPairs(IBroadPhase broadPhase) {
+		final var lPairs = new HashSet<Long>();
+		broadPhase.findPairs((a, b) -> lPairs.add(pairKey(a, b)));
+		return lPairs;
+	}
+
+	private static long pairKey(RigidBody bodyA, RigidBody bodyB) {
+		final long lMin = Math.min(bodyA.uid, bodyB.uid);
+		final long lMax = Math.max(bodyA.uid, bodyB.uid);
+		return (lMin << 32) | lMax;
+	}
+}
@@ -0,0 +1,237 @@
+package tests.net.lintfordlib.core.physics.broadphase;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.physics.broadphase.HashGridBroadPhase;
+import net.lintfordlib.core.physics.broadphase.IBroadPhase;
+import net.lintfordlib.core.physics.broadphase.SweepAndPruneBroadPhase;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.shapes.CircleShape;
+
+public class SweepAndPruneBroadPhaseTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void findPairs_OverlappingBodies_ShouldReportPair() {
+		// arrange
+		final var broadPhase = new SweepAndPruneBroadPhase();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(1.5f, 0.f, 1.f);
+		broadPhase.addBody(bodyA);
+		broadPhase.addBody(bodyB);
+
+		// act
+		final var result = collectPairs(broadPhase);
+
+		// assert
+		assertEquals(1, result.size(), "findPairs didn't report the overlapping pair.");
+		assertTrue(result.contains(pairKey(bodyA, bodyB)), "findPairs reported the wrong pair.");
+	}
+
+	@Test
+	void findPairs_BodiesOverlapOnXOnly_ShouldReportNoPairs() {
+		// arrange
+		final var broadPhase = new SweepAndPruneBroadPhase();
+		broadPhase.addBody(createCircleBody(0.f, 0.f, 1.f));
+		broadPhase.addBody(createCircleBody(0.5f, 5.f, 1.f));
+
+		// act
+		final var result = collectPairs(broadPhase);
+
+		// assert
+		assertEquals(0, result.size(), "findPairs reported a pair which doesn't overlap on the y-axis.");
+	}
+
+	@Test
+	void findPairs_BodyMovedAway_ShouldReportNoPairs() {
+		// arrange
+		final var broadPhase = new SweepAndPruneBroadPhase();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(1.5f, 0.f, 1.f);
+		broadPhase.addBody(bodyA);
+		broadPhase.addBody(bodyB);
+		collectPairs(broadPhase);
+
+		// act
+		bodyB.moveTo(-10.f, 0.f);
+		final var result = collectPairs(broadPhase);
+
+		// assert
+		assertEquals(0, result.size(), "findPairs didn't re-sort the endpoints of the moved body.");
+	}
+
+	@Test
+	void removeBody_RemovedBody_ShouldReportNoPairs() {
+		// arrange
+		final var broadPhase = new SweepAndPruneBroadPhase();
+		final var bodyA = createCircleBody(0.f, 0.f, 1.f);
+		final var bodyB = createCircleBody(1.5f, 0.f, 1.f);
+		broadPhase.addBody(bodyA);
+		broadPhase.addBody(bodyB);
+
+		// act
+		broadPhase.removeBody(bodyB);
+		final var result = collectPairs(broadPhase);
+
+		// assert
+		assertEquals(0, result.size(), "findPairs reported a pair with a removed body.");
+		assertEquals(1, broadPhase.numProxies(), "removeBody didn't remove the proxy.");
+		assertEquals(-1, bodyB._broadPhaseProxyId, "removeBody didn't reset the proxy id.");
+	}
+
+	@Test
+	void removeBody_BodiesRemovedAndAddedBetweenSteps_ShouldMatchHashGridPairs() {
+		// arrange
+		final var rand = new SplittableRandom(99);
+		final var sweepAndPrune = new SweepAndPruneBroadPhase();
+		final var hashGrid = new HashGridBroadPhase(100, 100, 10, 10);
+		final var bodies = createRandomBodies(rand, 200, 100.f);
+		for (final var body : bodies) {
+			sweepAndPrune.addBody(body);
+			hashGrid.addBody(body);
+		}
+
+		for (int frame = 0; frame < 10; frame++) {
+			// act - remove a few bodies and re-add some of them, before and after their removal is compacted
+			for (int i = 0; i < 10; i++) {
+				final var body = bodies.get(rand.nextInt(bodies.size()));
+				sweepAndPrune.removeBody(body);
+				hashGrid.removeBody(body);
+
+				if (rand.nextBoolean()) {
+					sweepAndPrune.addBody(body);
+					hashGrid.addBody(body);
+				}
+			}
+
+			final var sweepAndPrunePairs = collectPairs(sweepAndPrune);
+			final var hashGridPairs = collectPairs(hashGrid);
+
+			// assert
+			assertEquals(hashGridPairs, sweepAndPrunePairs, "SweepAndPruneBroadPhase didn't report the same pairs as the HashGridBroadPhase.");
+		}
+	}
+
+	@Test
+	void findPairs_RandomMovingScene_ShouldMatchHashGridPairs() {
+		// arrange
+		final var rand = new SplittableRandom(1234);
+		final var sweepAndPrune = new SweepAndPruneBroadPhase();
+		final var hashGrid = new HashGridBroadPhase(100, 100, 10, 10);
+		final var bodies = createRandomBodies(rand, 500, 100.f);
+		for (final var body : bodies) {
+			sweepAndPrune.addBody(body);
+			hashGrid.addBody(body);
+		}
+
+		for (int frame = 0; frame < 10; frame++) {
+			// act
+			for (final var body : bodies) {
+				body.move(rand.nextFloat() - .5f, rand.nextFloat() - .5f);
+				hashGrid.updateBody(body);
+			}
+
+			final var sweepAndPrunePairs = collectPairs(sweepAndPrune);
+			final var hashGridPairs = collectPairs(hashGrid);
+
+			// assert
+			assertEquals(hashGridPairs, sweepAndPrunePairs, "SweepAndPruneBroadPhase didn't report the same pairs as the HashGridBroadPhase.");
+		}
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_SweepAndPruneVsHashGrid() {
+		final int[] bodyCounts = { 1000, 5000, 20000 };
+		for (final var numBodies : bodyCounts) {
+			final var rand = new SplittableRandom(42);
+			final var worldSize = (float) Math.sqrt(numBodies) * 2.f;
+			final var bodies = createRandomBodies(rand, numBodies, worldSize);
+
+			final var hashGrid = new HashGridBroadPhase(20, 20, 5, 5);
+			final var sweepAndPrune = new SweepAndPruneBroadPhase();
+			for (final var body : bodies) {
+				hashGrid.addBody(body);
+				sweepAndPrune.addBody(body);
+			}
+
+			final var hashGridMs = runBenchmark(hashGrid, bodies, rand);
+			final var sweepAndPruneMs = runBenchmark(sweepAndPrune, bodies, rand);
+
+			System.out.printf("%6d bodies: hash grid %8.3f ms/step, sweep and prune %8.3f ms/step%n", numBodies, hashGridMs, sweepAndPruneMs);
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static double runBenchmark(IBroadPhase broadPhase, List<RigidBody> bodies, SplittableRandom rand) {
+		final int lNumWarmupSteps = 20;
+		final int lNumSteps = 50;
+		final int[] lPairCount = new int[1];
+
+		long lTotalNanos = 0;
+		for (int i = 0; i < lNumWarmupSteps + lNumSteps; i++) {
+			for (final var body : bodies) {
+				body.move((rand.nextFloat() - .5f) * .1f, (rand.nextFloat() - .5f) * .1f);
+			}
+
+			final long lStart = System.nanoTime();
+			for (final var body : bodies)
+				broadPhase.updateBody(body);
+
+			broadPhase.findPairs((a, b) -> lPairCount[0]++);
+			if (i >= lNumWarmupSteps)
+				lTotalNanos += System.nanoTime() - lStart;
+		}
+
+		return lTotalNanos / (double) lNumSteps / 1_000_000.;
+	}
+
+	private static List<RigidBody> createRandomBodies(SplittableRandom rand, int count, float worldSize) {
+		final var lBodies = new ArrayList<RigidBody>(count);
+		for (int i = 0; i < count; i++) {
+			final var x = (rand.nextFloat() - .5f) * worldSize;
+			final var y = (rand.nextFloat() - .5f) * worldSize;
+			final var radius = .25f + rand.nextFloat();
+			lBodies.add(createCircleBody(x, y, radius));
+		}
+
+		return lBodies;
+	}
+
+	private static RigidBody createCircleBody(float x, float y, float radius) {
+		final var lBody = new RigidBody(BodyType.Dynamic, x, y, 0.f);
+		lBody.addShape(CircleShape.createCircleShape(radius, 1.f, .5f, .5f, .5f));
+		lBody.categoryBits(0x1);
+		lBody.maskBits(0x1);
+		return lBody;
+	}
+
+	private static Set<Long> collectPairs(IBroadPhase broadPhase) {
+		final var lPairs = new HashSet<Long>();
+		broadPhase.findPairs((a, b) -> lPairs.add(pairKey(a, b)));
+		return lPairs;
+	}
+
+	private static long pairKey(RigidBody bodyA, RigidBody bodyB) {
+		final long lMin = Math.min(bodyA.uid, bodyB.uid);
+		final long lMax = Math.max(bodyA.uid, bodyB.uid);
+		return (lMin << 32) | lMax;
+	}
+}
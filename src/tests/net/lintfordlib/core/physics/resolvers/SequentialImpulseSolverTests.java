@@ -0,0 +1,79 @@
+package tests.net.lintfordlib.core.physics.resolvers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.physics.collisions.ContactManifold;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.resolvers.SequentialImpulseSolver;
+import net.lintfordlib.core.physics.resolvers.SequentialImpulseSolver.ContactConstraint;
+import net.lintfordlib.core.physics.shapes.PolygonShape;
+
+public class SequentialImpulseSolverTests {
+
+	// --------------------------------------
+	// Constants
+	// --------------------------------------
+
+	private static final int NUM_BODIES = 300;
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void endContacts_PairsNotReportedAgain_ShouldOnlyKeepTheReportedContacts() {
+		// arrange
+		final var solver = new SequentialImpulseSolver();
+		final var bodies = createBodies();
+		final var manifold = new ContactManifold();
+
+		final var firstConstraints = new ContactConstraint[NUM_BODIES - 1];
+		solver.beginContacts();
+		for (int i = 0; i < NUM_BODIES - 1; i++)
+			firstConstraints[i] = solver.addContact(touch(manifold, bodies[i], bodies[i + 1]));
+		solver.endContacts();
+
+		// act - only every other pair is still in contact, and is reported with its bodies swapped
+		solver.beginContacts();
+		for (int i = 0; i < NUM_BODIES - 1; i += 2)
+			solver.addContact(touch(manifold, bodies[i + 1], bodies[i]));
+		solver.endContacts();
+
+		// assert
+		assertEquals(NUM_BODIES / 2, solver.numConstraints(), "The contacts which weren't reported again weren't removed.");
+		for (int i = 0; i < NUM_BODIES - 1; i += 2)
+			assertSame(firstConstraints[i], solver.addContact(touch(manifold, bodies[i], bodies[i + 1])), "A persistent contact wasn't found again by its body pair.");
+
+		assertEquals(NUM_BODIES / 2, solver.numConstraints(), "Reporting a persistent contact again added a new contact.");
+
+		solver.addContact(touch(manifold, bodies[1], bodies[2]));
+		assertEquals(NUM_BODIES / 2 + 1, solver.numConstraints(), "A removed contact was still found by its body pair.");
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static RigidBody[] createBodies() {
+		final var lBodies = new RigidBody[NUM_BODIES];
+		for (int i = 0; i < NUM_BODIES; i++) {
+			lBodies[i] = new RigidBody(BodyType.Dynamic, i, 0.f, 0.f);
+			lBodies[i].addShape(PolygonShape.createBoxShape(1.f, 1.f, 0.f, 1.f, 0.f, .8f, .6f));
+		}
+
+		return lBodies;
+	}
+
+	private static ContactManifold touch(ContactManifold manifold, RigidBody bodyA, RigidBody bodyB) {
+		manifold.bodyA = bodyA;
+		manifold.bodyB = bodyB;
+		manifold.normal.set(1.f, 0.f);
+		manifold.contact1.set(bodyA.transform.p.x + .5f, 0.f);
+		manifold.contactCount = 1;
+		return manifold;
+	}
+}
@@ -0,0 +1,419 @@
+package tests.net.lintfordlib.core.physics.spatial;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import net.lintfordlib.core.maths.MathHelper;
+import net.lintfordlib.core.physics.broadphase.HashGridBroadPhase;
+import net.lintfordlib.core.physics.broadphase.IBroadPhase;
+import net.lintfordlib.core.physics.broadphase.SweepAndPruneBroadPhase;
+import net.lintfordlib.core.physics.dynamics.RigidBody;
+import net.lintfordlib.core.physics.dynamics.RigidBody.BodyType;
+import net.lintfordlib.core.physics.shapes.CircleShape;
+import net.lintfordlib.core.physics.spatial.PhysicsHashGrid;
+
+public class PhysicsHashGridTests {
+
+	// --------------------------------------
+	// Tests
+	// --------------------------------------
+
+	@Test
+	void updateEntity_RandomChurn_ShouldKeepCellsConsistentWithEntityBounds() {
+		// arrange
+		final var rand = new SplittableRandom(7);
+		final var grid = new PhysicsHashGrid<RigidBody>(40, 40, 10, 10);
+		final var bodies = createRandomBodies(rand, 200, 40.f);
+		final var onGrid = new boolean[bodies.size()];
+		for (int i = 0; i < bodies.size(); i++) {
+			grid.addEntity(bodies.get(i));
+			onGrid[i] = true;
+		}
+
+		for (int frame = 0; frame < 50; frame++) {
+			// act - move every body, and remove or re-add a few of them
+			for (int i = 0; i < bodies.size(); i++) {
+				final var body = bodies.get(i);
+				body.move((rand.nextFloat() - .5f) * 4.f, (rand.nextFloat() - .5f) * 4.f);
+
+				if (rand.nextInt(20) == 0) {
+					if (onGrid[i])
+						grid.removeEntity(body);
+					else
+						grid.addEntity(body);
+
+					onGrid[i] = !onGrid[i];
+				} else if (onGrid[i]) {
+					grid.updateEntity(body);
+				}
+			}
+
+			// assert
+			assertGridConsistent(grid, bodies, onGrid);
+		}
+	}
+
+	@Test
+	void removeEntity_AllEntitiesRemoved_ShouldHaveNoActiveCells() {
+		// arrange
+		final var rand = new SplittableRandom(3);
+		final var grid = new PhysicsHashGrid<RigidBody>(40, 40, 10, 10);
+		final var bodies = createRandomBodies(rand, 50, 40.f);
+		for (final var body : bodies)
+			grid.addEntity(body);
+
+		// act
+		for (final var body : bodies)
+			grid.removeEntity(body);
+
+		// assert
+		assertEquals(0, grid.numActiveCells(), "Empty cells are still tracked as active.");
+		for (final var body : bodies)
+			assertFalse(body.isOnGrid(), "A removed body is still on the grid.");
+	}
+
+	@Test
+	void addEntity_EntityAddedTwice_ShouldOnlyBeStoredOnce() {
+		// arrange
+		final var grid = new PhysicsHashGrid<RigidBody>(40, 40, 10, 10);
+		final var body = createCircleBody(0.f, 0.f, 1.f);
+		grid.addEntity(body);
+
+		// act
+		grid.addEntity(body);
+
+		// assert - the body straddles the cell corner at (0,0)
+		assertEquals(4, grid.numActiveCells(), "The body is stored in the wrong number of cells.");
+		for (int i = 0; i < grid.numActiveCells(); i++)
+			assertEquals(1, grid.getCellSize(grid.getActiveCellKey(i)), "The body was stored twice in a cell.");
+	}
+
+	@Test
+	void findPairs_SparseGridFarFromOrigin_ShouldMatchSweepAndPrunePairs() {
+		// arrange
+		final var rand = new SplittableRandom(21);
+		final var sparseGrid = new HashGridBroadPhase(4.f, 4.f);
+		final var sweepAndPrune = new SweepAndPruneBroadPhase();
+		final var bodies = createRandomBodies(rand, 300, 60.f);
+		for (final var body : bodies) {
+			body.move(-5000.f, 7000.f);
+			sparseGrid.addBody(body);
+			sweepAndPrune.addBody(body);
+		}
+
+		for (int frame = 0; frame < 10; frame++) {
+			// act
+			for (final var body : bodies) {
+				body.move(rand.nextFloat() - .5f, rand.nextFloat() - .5f);
+				sparseGrid.updateBody(body);
+			}
+
+			final var sparseGridPairs = collectPairs(sparseGrid);
+			final var sweepAndPrunePairs = collectPairs(sweepAndPrune);
+
+			// assert
+			assertEquals(sweepAndPrunePairs, sparseGridPairs, "The sparse grid didn't report the same pairs as the SweepAndPruneBroadPhase.");
+		}
+	}
+
+	@Test
+	void removeEntity_SparseGridAllEntitiesRemoved_ShouldReclaimAllCells() {
+		// arrange
+		final var rand = new SplittableRandom(3);
+		final var grid = new PhysicsHashGrid<RigidBody>(4.f, 4.f);
+		final var bodies = createRandomBodies(rand, 50, 1000.f);
+		for (final var body : bodies)
+			grid.addEntity(body);
+
+		final var numCellsAllocated = grid.getTotalCellCount();
+
+		// act
+		for (final var body : bodies)
+			grid.removeEntity(body);
+
+		// assert
+		assertTrue(numCellsAllocated >= bodies.size(), "The sparse grid didn't allocate a cell per body.");
+		assertEquals(0, grid.getTotalCellCount(), "Empty cells weren't reclaimed.");
+		assertEquals(0, grid.numActiveCells(), "Empty cells are still tracked as active.");
+	}
+
+	@Disabled("Benchmark - run manually")
+	@Test
+	void benchmark_IntrusiveSlotsVsListCells() {
+		final int[] bodyCounts = { 500, 2000, 10000 };
+
+		// the first pass only warms up the JIT
+		for (int pass = 0; pass < 2; pass++) {
+			for (final var numBodies : bodyCounts) {
+				final var worldSize = (float) Math.sqrt(numBodies) * 4.f;
+
+				final var slotGrid = new PhysicsHashGrid<RigidBody>(worldSize, worldSize, 32, 32);
+				final var slotBodies = createRandomBodies(new SplittableRandom(42), numBodies, worldSize);
+				final var slotMs = runBenchmark(new SlotGridAdapter(slotGrid), slotBodies, new SplittableRandom(1), worldSize);
+
+				final var listGrid = new ListPhysicsHashGrid(worldSize, worldSize, 32, 32);
+				final var listBodies = createRandomBodies(new SplittableRandom(42), numBodies, worldSize);
+				final var listMs = runBenchmark(listGrid, listBodies, new SplittableRandom(1), worldSize);
+
+				if (pass > 0)
+					System.out.printf("%6d bodies: intrusive slots %8.3f ms/frame, list cells %8.3f ms/frame%n", numBodies, slotMs, listMs);
+			}
+		}
+	}
+
+	// --------------------------------------
+	// Helpers
+	// --------------------------------------
+
+	private static void assertGridConsistent(PhysicsHashGrid<RigidBody> grid, List<RigidBody> bodies, boolean[] onGrid) {
+		final int lNumCells = grid.getTotalCellCount();
+		final var lExpectedCounts = new int[lNumCells];
+		for (int i = 0; i < bodies.size(); i++) {
+			final var lBody = bodies.get(i);
+			assertEquals(onGrid[i], lBody.isOnGrid(), "The body's grid membership is wrong.");
+			if (!onGrid[i])
+				continue;
+
+			// the cached bounds must match the current position of the body
+			final var lAABB = lBody.aabb();
+			assertEquals(grid.getColumnAtX(lAABB.left()), lBody.minUnitX, "The cached bounds of the body are stale.");
+			assertEquals(grid.getRowAtY(lAABB.bottom()), lBody.maxUnitY, "The cached bounds of the body are stale.");
+
+			int lSlotIndex = 0;
+			for (int yy = lBody.minUnitY; yy <= lBody.maxUnitY; yy++) {
+				for (int xx = lBody.minUnitX; xx <= lBody.maxUnitX; xx++) {
+					final int lCellKey = grid.getKey(xx, yy);
+					lExpectedCounts[lCellKey]++;
+					assertEquals(lBody, grid.getCellEntity(lCellKey, lBody._gridCellSlots[lSlotIndex++]), "The slot of the body doesn't point at the body.");
+				}
+			}
+		}
+
+		int lNumActiveCells = 0;
+		for (int i = 0; i < lNumCells; i++) {
+			assertEquals(lExpectedCounts[i], grid.getCellSize(i), "Cell " + i + " contains the wrong number of bodies.");
+			if (lExpectedCounts[i] > 0)
+				lNumActiveCells++;
+		}
+
+		assertEquals(lNumActiveCells, grid.numActiveCells(), "The grid tracks the wrong number of active cells.");
+	}
+
+	private static Set<Long> collectPairs(IBroadPhase broadPhase) {
+		final var lPairs = new HashSet<Long>();
+		broadPhase.findPairs((a, b) -> lPairs.add(((long) Math.min(a.uid, b.uid) << 32) | Math.max(a.uid, b.uid)));
+		return lPairs;
+	}
+
+	private static double runBenchmark(BenchmarkGrid grid, List<RigidBody> bodies, SplittableRandom rand, float worldSize) {
+		final int lNumWarmupFrames = 50;
+		final int lNumFrames = 200;
+		final var lQueryResults = new ArrayList<RigidBody>();
+
+		for (final var body : bodies)
+			grid.add(body);
+
+		long lTotalNanos = 0;
+		for (int i = 0; i < lNumWarmupFrames + lNumFrames; i++) {
+			for (final var body : bodies)
+				body.move((rand.nextFloat() - .5f) * .5f, (rand.nextFloat() - .5f) * .5f);
+
+			final long lStart = System.nanoTime();
+
+			// update every body, re-insert 1% of them and run a query per 10 bodies
+			final int lNumBodies = bodies.size();
+			for (int j = 0; j < lNumBodies; j++) {
+				final var lBody = bodies.get(j);
+				if (j % 100 == i % 100) {
+					grid.remove(lBody);
+					grid.add(lBody);
+				} else {
+					grid.update(lBody);
+				}
+			}
+
+			for (int j = 0; j < lNumBodies / 10; j++) {
+				lQueryResults.clear();
+				grid.query(lQueryResults, (rand.nextFloat() - .5f) * worldSize, (rand.nextFloat() - .5f) * worldSize, 4.f);
+			}
+
+			if (i >= lNumWarmupFrames)
+				lTotalNanos += System.nanoTime() - lStart;
+		}
+
+		return lTotalNanos / (double) lNumFrames / 1_000_000.;
+	}
+
+	private static List<RigidBody> createRandomBodies(SplittableRandom rand, int count, float worldSize) {
+		final var lBodies = new ArrayList<RigidBody>(count);
+		for (int i = 0; i < count; i++) {
+			final var x = (rand.nextFloat() - .5f) * worldSize;
+			final var y = (rand.nextFloat() - .5f) * worldSize;
+			final var radius = .25f + rand.nextFloat();
+			lBodies.add(createCircleBody(x, y, radius));
+		}
+
+		return lBodies;
+	}
+
+	private static RigidBody createCircleBody(float x, float y, float radius) {
+		final var lBody = new RigidBody(BodyType.Dynamic, x, y, 0.f);
+		lBody.addShape(CircleShape.createCircleShape(radius, 1.f, .5f, .5f, .5f));
+		return lBody;
+	}
+
+	// --------------------------------------
+	// Benchmark Grids
+	// --------------------------------------
+
+	private interface BenchmarkGrid {
+		void add(RigidBody body);
+
+		void update(RigidBody body);
+
+		void remove(RigidBody body);
+
+		void query(List<RigidBody> toFill, float x, float y, float radius);
+	}
+
+	private static class SlotGridAdapter implements BenchmarkGrid {
+		private final PhysicsHashGrid<RigidBody> mGrid;
+
+		SlotGridAdapter(PhysicsHashGrid<RigidBody> grid) {
+			mGrid = grid;
+		}
+
+		@Override
+		public void add(RigidBody body) {
+			mGrid.addEntity(body);
+		}
+
+		@Override
+		public void update(RigidBody body) {
+			mGrid.updateEntity(body);
+		}
+
+		@Override
+		public void remove(RigidBody body) {
+			mGrid.removeEntity(body);
+		}
+
+		@Override
+		public void query(List<RigidBody> toFill, float x, float y, float radius) {
+			mGrid.findNearbyEntities(toFill, x, y, radius);
+		}
+	}
+
+	/***
+	 * The list based cell storage the PhysicsHashGrid used before the intrusive cell slots, kept as the baseline of the benchmark.
+	 */
+	private static class ListPhysicsHashGrid implements BenchmarkGrid {
+		private final float mBoundaryWidthInUnits;
+		private final float mBoundaryHeightInUnits;
+		private final int mTilesWide;
+		private final int mTilesHigh;
+		private final List<List<RigidBody>> mCells = new ArrayList<>();
+		private final List<Integer> mActiveCellKeys = new ArrayList<>();
+		private final int[] mMinX = new int[1 << 16];
+		private final int[] mMinY = new int[1 << 16];
+		private final int[] mMaxX = new int[1 << 16];
+		private final int[] mMaxY = new int[1 << 16];
+		private int mQueryId;
+
+		ListPhysicsHashGrid(float boundaryWidthInUnits, float boundaryHeightInUnits, int tilesWide, int tilesHigh) {
+			mBoundaryWidthInUnits = boundaryWidthInUnits;
+			mBoundaryHeightInUnits = boundaryHeightInUnits;
+			mTilesWide = tilesWide;
+			mTilesHigh = tilesHigh;
+			for (int i = 0; i < tilesWide * tilesHigh; i++)
+				mCells.add(new ArrayList<>());
+		}
+
+		// the body's own cached bounds belong to the PhysicsHashGrid, so this grid caches them by body uid
+
+		@Override
+		public void add(RigidBody body) {
+			final int lId = body.uid & 0xFFFF;
+			final var lAABB = body.aabb();
+			mMinX[lId] = getColumnAtX(lAABB.left());
+			mMinY[lId] = getRowAtY(lAABB.top());
+			mMaxX[lId] = getColumnAtX(lAABB.right());
+			mMaxY[lId] = getRowAtY(lAABB.bottom());
+
+			for (int xx = mMinX[lId]; xx <= mMaxX[lId]; xx++) {
+				for (int yy = mMinY[lId]; yy <= mMaxY[lId]; yy++) {
+					final int lCellKey = yy * mTilesWide + xx;
+					final var lCell = mCells.get(lCellKey);
+					if (!lCell.contains(body))
+						lCell.add(body);
+
+					if (mActiveCellKeys.contains(lCellKey) == false)
+						mActiveCellKeys.add(lCellKey);
+				}
+			}
+		}
+
+		@Override
+		public void update(RigidBody body) {
+			final int lId = body.uid & 0xFFFF;
+			final var lAABB = body.aabb();
+			if (getColumnAtX(lAABB.left()) == mMinX[lId] && getRowAtY(lAABB.top()) == mMinY[lId] && getColumnAtX(lAABB.right()) == mMaxX[lId] && getRowAtY(lAABB.bottom()) == mMaxY[lId])
+				return;
+
+			remove(body);
+			add(body);
+		}
+
+		@Override
+		public void remove(RigidBody body) {
+			final int lId = body.uid & 0xFFFF;
+			for (int xx = mMinX[lId]; xx <= mMaxX[lId]; xx++) {
+				for (int yy = mMinY[lId]; yy <= mMaxY[lId]; yy++) {
+					mCells.get(yy * mTilesWide + xx).remove(body);
+				}
+			}
+		}
+
+		@Override
+		public void query(List<RigidBody> toFill, float x, float y, float radius) {
+			mQueryId++;
+			final int lMinX = getColumnAtX(x - radius);
+			final int lMinY = getRowAtY(y - radius);
+			final int lMaxX = getColumnAtX(x + radius);
+			final int lMaxY = getRowAtY(y + radius);
+			for (int xx = lMinX; xx <= lMaxX; xx++) {
+				for (int yy = lMinY; yy <= lMaxY; yy++) {
+					final var lCell = mCells.get(yy * mTilesWide + xx);
+					final int lNumEntitiesInCell = lCell.size();
+					for (int j = 0; j < lNumEntitiesInCell; j++) {
+						final var lEntity = lCell.get(j);
+						if (lEntity.queryId != mQueryId) {
+							toFill.add(lEntity);
+							lEntity.queryId = mQueryId;
+						}
+					}
+				}
+			}
+		}
+
+		private int getColumnAtX(float x) {
+			final float divisor = mBoundaryWidthInUnits / mTilesWide;
+			return MathHelper.clampi((int) ((x + mBoundaryWidthInUnits / 2.f) / divisor), 0, mTilesWide - 1);
+		}
+
+		private int getRowAtY(float y) {
+			final float divisor = mBoundaryHeightInUnits / mTilesHigh;
+			return MathHelper.clampi((int) ((y + mBoundaryHeightInUnits / 2.f) / divisor), 0, mTilesHigh - 1);
+		}
+	}
+}